@@ -0,0 +1,95 @@
+package com.example.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+
+/** HTTP-клиент одного виртуального пользователя: свой JWT, общий HttpClient. */
+final class ApiClient {
+
+    static final ObjectMapper JSON = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private static final HttpClient HTTP = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    @FunctionalInterface
+    interface Call {
+        void run() throws Exception;
+    }
+
+    /** Ответ с кодом вне 2xx — ошибка сценария. */
+    static final class HttpStatusException extends IOException {
+        final int status;
+        final String body;
+
+        HttpStatusException(String request, int status, String body) {
+            super(request + " -> " + status + ": " + (body.length() > 200 ? body.substring(0, 200) : body));
+            this.status = status;
+            this.body = body;
+        }
+    }
+
+    private final String baseUrl;
+    private String token;
+
+    ApiClient(String baseUrl) {
+        this.baseUrl = baseUrl;
+    }
+
+    void signIn(String username, String password) throws IOException, InterruptedException {
+        JsonNode response = post("/api/auth/signin", Map.of("username", username, "password", password));
+        token = response.path("token").asText(null);
+        if (token == null) {
+            throw new IOException("Sign-in response has no token");
+        }
+    }
+
+    JsonNode get(String path) throws IOException, InterruptedException {
+        return send(request(path).GET().build());
+    }
+
+    JsonNode post(String path, Object body) throws IOException, InterruptedException {
+        return send(request(path)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(JSON.writeValueAsBytes(body)))
+                .build());
+    }
+
+    /** Время выполнения вызова в наносекундах; исключение означает ошибку сценария. */
+    long timed(Call call) throws Exception {
+        long start = System.nanoTime();
+        call.run();
+        return System.nanoTime() - start;
+    }
+
+    private HttpRequest.Builder request(String path) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30));
+        if (token != null) {
+            builder.header("Authorization", "Bearer " + token);
+        }
+        return builder;
+    }
+
+    private JsonNode send(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<String> response = HTTP.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() / 100 != 2) {
+            throw new HttpStatusException(request.method() + " " + request.uri().getPath(),
+                    response.statusCode(), response.body());
+        }
+        String body = response.body();
+        return body == null || body.isEmpty() ? JSON.nullNode() : JSON.readTree(body);
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.loadtest;
+
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Тестируемое приложение: отдельный процесс java -jar поверх embedded Postgres,
+ * либо уже запущенный сервер (--baseUrl), который стенд не трогает.
+ */
+final class AppUnderTest implements AutoCloseable {
+
+    private static final Duration STARTUP_TIMEOUT = Duration.ofMinutes(3);
+
+    private final String baseUrl;
+    private final EmbeddedPostgres postgres;
+    private final Process process;
+
+    private AppUnderTest(String baseUrl, EmbeddedPostgres postgres, Process process) {
+        this.baseUrl = baseUrl;
+        this.postgres = postgres;
+        this.process = process;
+    }
+
+    static AppUnderTest external(String baseUrl) {
+        return new AppUnderTest(baseUrl, null, null);
+    }
+
+    static AppUnderTest start(Path jar, Path log) throws IOException, InterruptedException {
+        EmbeddedPostgres postgres = EmbeddedPostgres.builder().start();
+        int port = freePort();
+        String baseUrl = "http://localhost:" + port;
+        List<String> command = List.of(
+                ProcessHandle.current().info().command().orElse("java"),
+                "--enable-preview",
+                "-jar", jar.toString(),
+                "--server.port=" + port,
+                "--spring.datasource.url=jdbc:postgresql://localhost:" + postgres.getPort() + "/postgres",
+                "--spring.datasource.username=postgres",
+                "--spring.datasource.password=postgres",
+                // Стенд ходит с одного адреса: лимиты частоты исказили бы результат
+                "--app.rateLimit.enabled=false",
+                "--app.health.fastApiEnabled=false",
+                "--app.health.probeIntervalMs=1000");
+        Process process = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(log.toFile())
+                .start();
+        AppUnderTest app = new AppUnderTest(baseUrl, postgres, process);
+        try {
+            app.awaitReady();
+        } catch (IOException | RuntimeException e) {
+            app.close();
+            throw e;
+        }
+        return app;
+    }
+
+    String baseUrl() {
+        return baseUrl;
+    }
+
+    private void awaitReady() throws IOException, InterruptedException {
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest ready = HttpRequest.newBuilder(URI.create(baseUrl + "/api/health/ready"))
+                .timeout(Duration.ofSeconds(2)).build();
+        long deadline = System.nanoTime() + STARTUP_TIMEOUT.toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException("Application exited with code " + process.exitValue() + ", see app.log");
+            }
+            try {
+                if (client.send(ready, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                    return;
+                }
+            } catch (IOException ignored) {
+                // ещё не слушает порт
+            }
+            Thread.sleep(500);
+        }
+        throw new IllegalStateException("Application did not become ready in " + STARTUP_TIMEOUT);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (process != null) {
+            process.destroy();
+            try {
+                process.waitFor();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                process.destroyForcibly();
+            }
+        }
+        if (postgres != null) {
+            postgres.close();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Данные для сценариев: группы loadtest-group-N с учениками, учитель математики и расписание.
+ * Создаются через API администратором; повторный запуск на той же БД переиспользует существующее.
+ */
+record Fixture(String username, String password, String teacherId, String subject,
+               List<String> groupIds, Map<String, List<String>> studentsByGroup) {
+
+    static final String TEACHER_ID = "loadtest-teacher";
+    static final String TEACHER_GROUP_ID = "loadtest-teachers";
+    static final String TEACHER_PASSWORD = "loadtest123";
+    static final String SUBJECT = "Математика";
+
+    static Fixture prepare(ApiClient admin, int groups, int studentsPerGroup) throws Exception {
+        // users.group_id ссылается на grup: группа учителя создаётся раньше него
+        createIgnoringConflicts(admin, "/api/groups", Map.of("groupId", TEACHER_GROUP_ID, "groupName", "Load test teachers"));
+        createIgnoringConflicts(admin, "/api/users",
+                user(TEACHER_ID, "Load Test Teacher", "TEACHER_MATH", TEACHER_GROUP_ID));
+
+        List<String> groupIds = new ArrayList<>();
+        Map<String, List<String>> students = new HashMap<>();
+        for (int g = 0; g < groups; g++) {
+            String groupId = "loadtest-group-" + g;
+            groupIds.add(groupId);
+            createIgnoringConflicts(admin, "/api/groups", Map.of("groupId", groupId, "groupName", "Load test " + g));
+
+            List<String> existing = new ArrayList<>();
+            for (JsonNode u : admin.get("/api/users/group/" + groupId)) {
+                existing.add(u.path("userId").asText());
+            }
+            for (int s = existing.size(); s < studentsPerGroup; s++) {
+                String studentId = groupId + "-student-" + s;
+                createIgnoringConflicts(admin, "/api/users", user(studentId, "Student " + g + "." + s, "STUDENT", groupId));
+                existing.add(studentId);
+            }
+            students.put(groupId, existing);
+        }
+        admin.post("/api/admin/schedule/seed", Map.of());
+        System.out.printf("Fixture: %d groups x %d students, teacher %s%n", groups, studentsPerGroup, TEACHER_ID);
+        return new Fixture(TEACHER_ID, TEACHER_PASSWORD, TEACHER_ID, SUBJECT, groupIds, students);
+    }
+
+    private static Map<String, Object> user(String userId, String fullName, String role, String groupId) {
+        Map<String, Object> user = new HashMap<>();
+        user.put("userId", userId);
+        user.put("fullName", fullName);
+        user.put("email", userId + "@loadtest.local");
+        user.put("password", userId.equals(TEACHER_ID) ? TEACHER_PASSWORD : "student123");
+        user.put("role", role);
+        user.put("groupId", groupId);
+        return user;
+    }
+
+    /** Пропускает только «уже существует» от прошлого запуска; любая другая ошибка останавливает прогон. */
+    private static void createIgnoringConflicts(ApiClient admin, String path, Map<String, Object> body) throws Exception {
+        try {
+            admin.post(path, body);
+        } catch (ApiClient.HttpStatusException e) {
+            boolean exists = e.status == 409 || (e.status == 400 && e.body.contains("already exists"));
+            if (!exists) {
+                throw e;
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Результаты прогона: HDR-гистограмма задержек и счётчик ошибок на сценарий.
+ * Пишется в JSON (report-&lt;commit&gt;.json), чтобы сравнивать прогоны разных коммитов.
+ */
+final class LoadReport {
+
+    private static final long MAX_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private final String commit;
+    private final int users;
+    private final Map<Scenario, Histogram> latency = new EnumMap<>(Scenario.class);
+    private final Map<Scenario, LongAdder> errors = new EnumMap<>(Scenario.class);
+    private long elapsedNanos;
+
+    LoadReport(String commit, int users) {
+        this.commit = commit;
+        this.users = users;
+        for (Scenario s : Scenario.values()) {
+            latency.put(s, new ConcurrentHistogram(MAX_TRACKABLE_NANOS, 3));
+            errors.put(s, new LongAdder());
+        }
+    }
+
+    void record(Scenario scenario, long nanos) {
+        latency.get(scenario).recordValue(Math.min(nanos, MAX_TRACKABLE_NANOS));
+    }
+
+    void recordError(Scenario scenario) {
+        errors.get(scenario).increment();
+    }
+
+    void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    Map<String, Object> toMap() {
+        double seconds = elapsedNanos / 1e9;
+        Map<String, Object> scenarios = new LinkedHashMap<>();
+        long total = 0;
+        long totalErrors = 0;
+        for (Scenario s : Scenario.values()) {
+            Histogram h = latency.get(s);
+            long err = errors.get(s).sum();
+            total += h.getTotalCount();
+            totalErrors += err;
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("count", h.getTotalCount());
+            m.put("errors", err);
+            m.put("throughputPerSec", h.getTotalCount() / seconds);
+            m.put("p50Ms", ms(h.getValueAtPercentile(50)));
+            m.put("p90Ms", ms(h.getValueAtPercentile(90)));
+            m.put("p99Ms", ms(h.getValueAtPercentile(99)));
+            m.put("maxMs", ms(h.getMaxValue()));
+            scenarios.put(s.name(), m);
+        }
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("commit", commit);
+        report.put("timestamp", Instant.now().toString());
+        report.put("users", users);
+        report.put("durationSec", seconds);
+        report.put("requests", total);
+        report.put("errors", totalErrors);
+        report.put("throughputPerSec", total / seconds);
+        report.put("scenarios", scenarios);
+        return report;
+    }
+
+    void write(Path file) throws IOException {
+        ApiClient.JSON.writerWithDefaultPrettyPrinter().writeValue(file.toFile(), toMap());
+    }
+
+    static JsonNode read(Path file) throws IOException {
+        return ApiClient.JSON.readTree(file.toFile());
+    }
+
+    String summary() {
+        StringBuilder sb = new StringBuilder();
+        Map<String, Object> report = toMap();
+        sb.append(String.format("commit %s, %d users, %.0f s: %d requests, %d errors, %.1f req/s%n",
+                commit, users, (double) report.get("durationSec"), (long) report.get("requests"),
+                (long) report.get("errors"), (double) report.get("throughputPerSec")));
+        sb.append(String.format("%-18s %8s %7s %9s %9s %9s %9s%n", "scenario", "count", "errors", "p50 ms", "p90 ms", "p99 ms", "max ms"));
+        for (Scenario s : Scenario.values()) {
+            Histogram h = latency.get(s);
+            sb.append(String.format("%-18s %8d %7d %9.1f %9.1f %9.1f %9.1f%n", s.name(), h.getTotalCount(),
+                    errors.get(s).sum(), ms(h.getValueAtPercentile(50)), ms(h.getValueAtPercentile(90)),
+                    ms(h.getValueAtPercentile(99)), ms(h.getMaxValue())));
+        }
+        return sb.toString();
+    }
+
+    /** Таблица изменений p50/p99 и пропускной способности относительно отчёта другого коммита. */
+    String compareWith(JsonNode baseline) {
+        Map<String, Object> current = toMap();
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("vs %s: throughput %s%n", baseline.path("commit").asText(),
+                delta(baseline.path("throughputPerSec").asDouble(), (double) current.get("throughputPerSec"))));
+        @SuppressWarnings("unchecked")
+        Map<String, Map<String, Object>> scenarios = (Map<String, Map<String, Object>>) current.get("scenarios");
+        for (Map.Entry<String, Map<String, Object>> e : scenarios.entrySet()) {
+            JsonNode base = baseline.path("scenarios").path(e.getKey());
+            if (base.isMissingNode()) {
+                continue;
+            }
+            sb.append(String.format("%-18s p50 %s  p99 %s  rps %s%n", e.getKey(),
+                    delta(base.path("p50Ms").asDouble(), (double) e.getValue().get("p50Ms")),
+                    delta(base.path("p99Ms").asDouble(), (double) e.getValue().get("p99Ms")),
+                    delta(base.path("throughputPerSec").asDouble(), (double) e.getValue().get("throughputPerSec"))));
+        }
+        return sb.toString();
+    }
+
+    private static String delta(double before, double after) {
+        if (before == 0) {
+            return String.format("%.1f", after);
+        }
+        return String.format("%.1f -> %.1f (%+.1f%%)", before, after, (after - before) / before * 100);
+    }
+
+    private static double ms(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.loadtest;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Точка входа нагрузочного стенда.
+ * <ol>
+ *   <li>Если не задан --baseUrl — поднимает embedded Postgres и приложение из bootJar (AppUnderTest).</li>
+ *   <li>Готовит данные: группы, учеников и расписание (Fixture).</li>
+ *   <li>Гоняет виртуальных пользователей по взвешенным сценариям (Scenario), сначала прогрев.</li>
+ *   <li>Пишет отчёт report-&lt;commit&gt;.json и печатает сравнение с --baseline, если он указан.</li>
+ * </ol>
+ */
+public final class LoadTestMain {
+
+    private LoadTestMain() {
+    }
+
+    public static void main(String[] argv) throws Exception {
+        Map<String, String> args = parseArgs(argv);
+        int users = Integer.parseInt(args.getOrDefault("users", "50"));
+        Duration warmup = Duration.ofSeconds(Long.parseLong(args.getOrDefault("warmup", "15")));
+        Duration duration = Duration.ofSeconds(Long.parseLong(args.getOrDefault("duration", "60")));
+        String commit = args.getOrDefault("commit", "unknown");
+        Path out = Path.of(args.getOrDefault("out", "build/loadtest"));
+        Files.createDirectories(out);
+
+        try (AppUnderTest app = args.containsKey("baseUrl")
+                ? AppUnderTest.external(args.get("baseUrl"))
+                : AppUnderTest.start(Path.of(args.get("jar")), out.resolve("app.log"))) {
+            ApiClient admin = new ApiClient(app.baseUrl());
+            admin.signIn(args.getOrDefault("username", "admin"), args.getOrDefault("password", "admin123"));
+            Fixture fixture = Fixture.prepare(admin,
+                    Integer.parseInt(args.getOrDefault("groups", "4")),
+                    Integer.parseInt(args.getOrDefault("studentsPerGroup", "25")));
+
+            System.out.printf("Warm-up %d s with %d users...%n", warmup.toSeconds(), users);
+            run(app.baseUrl(), fixture, users, warmup, new LoadReport(commit, users));
+
+            System.out.printf("Measuring %d s with %d users...%n", duration.toSeconds(), users);
+            LoadReport report = new LoadReport(commit, users);
+            run(app.baseUrl(), fixture, users, duration, report);
+
+            Path file = out.resolve("report-" + commit + ".json");
+            report.write(file);
+            System.out.println(report.summary());
+            System.out.println("Report: " + file.toAbsolutePath());
+            if (args.containsKey("baseline")) {
+                System.out.println(report.compareWith(LoadReport.read(Path.of(args.get("baseline")))));
+            }
+        }
+    }
+
+    private static void run(String baseUrl, Fixture fixture, int users, Duration duration, LoadReport report)
+            throws InterruptedException {
+        AtomicBoolean running = new AtomicBoolean(true);
+        long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < users; i++) {
+                executor.submit(() -> virtualUser(baseUrl, fixture, running, report));
+            }
+            Thread.sleep(duration.toMillis());
+            running.set(false);
+        }
+        report.setElapsedNanos(System.nanoTime() - start);
+    }
+
+    /** Один виртуальный пользователь: входит в систему и выбирает сценарии по весам, пока идёт прогон. */
+    private static void virtualUser(String baseUrl, Fixture fixture, AtomicBoolean running, LoadReport report) {
+        ApiClient client = new ApiClient(baseUrl);
+        try {
+            report.record(Scenario.SIGN_IN, client.timed(() -> client.signIn(fixture.username(), fixture.password())));
+        } catch (Exception e) {
+            report.recordError(Scenario.SIGN_IN);
+            return;
+        }
+        List<Scenario> weighted = Scenario.weighted();
+        while (running.get()) {
+            Scenario scenario = weighted.get(ThreadLocalRandom.current().nextInt(weighted.size()));
+            try {
+                report.record(scenario, scenario.execute(client, fixture));
+            } catch (Exception e) {
+                report.recordError(scenario);
+            }
+        }
+    }
+
+    private static Map<String, String> parseArgs(String[] argv) {
+        Map<String, String> args = new HashMap<>();
+        for (String arg : argv) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                int eq = arg.indexOf('=');
+                args.put(arg.substring(2, eq), arg.substring(eq + 1));
+            }
+        }
+        return args;
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.loadtest;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Потоки из Postman-коллекции (Auth, Schedules, Grades) и журнала учителя с весами,
+ * примерно отражающими долю запросов в течение учебного дня.
+ */
+enum Scenario {
+
+    SIGN_IN(5) {
+        @Override
+        long execute(ApiClient client, Fixture f) throws Exception {
+            return client.timed(() -> client.signIn(f.username(), f.password()));
+        }
+    },
+    SCHEDULE(35) {
+        @Override
+        long execute(ApiClient client, Fixture f) throws Exception {
+            String groupId = randomGroup(f);
+            return client.timed(() -> client.get("/api/schedules/group/" + groupId));
+        }
+    },
+    TEACHER_JOURNAL(25) {
+        @Override
+        long execute(ApiClient client, Fixture f) throws Exception {
+            String path = "/api/diary/teacher/" + f.teacherId() + "/journal?groupId=" + randomGroup(f)
+                    + "&date=" + randomSchoolDay();
+            return client.timed(() -> client.get(path));
+        }
+    },
+    ATTENDANCE_BATCH(15) {
+        @Override
+        long execute(ApiClient client, Fixture f) throws Exception {
+            String groupId = randomGroup(f);
+            LocalDate date = randomSchoolDay();
+            List<Map<String, Object>> batch = new ArrayList<>();
+            for (String studentId : f.studentsByGroup().getOrDefault(groupId, Collections.emptyList())) {
+                Map<String, Object> a = new HashMap<>();
+                a.put("studentId", studentId);
+                a.put("subject", f.subject());
+                a.put("attendanceDate", date);
+                a.put("status", ThreadLocalRandom.current().nextInt(10) == 0 ? "absent" : "present");
+                a.put("groupId", groupId);
+                a.put("teacherId", f.teacherId());
+                batch.add(a);
+            }
+            return client.timed(() -> client.post("/api/diary/attendance/batch", batch));
+        }
+    },
+    POST_GRADE(20) {
+        @Override
+        long execute(ApiClient client, Fixture f) throws Exception {
+            String groupId = randomGroup(f);
+            List<String> students = f.studentsByGroup().getOrDefault(groupId, Collections.emptyList());
+            Map<String, Object> grade = new HashMap<>();
+            grade.put("studentId", students.get(ThreadLocalRandom.current().nextInt(students.size())));
+            grade.put("subject", f.subject());
+            grade.put("gradeValue", 2 + ThreadLocalRandom.current().nextInt(4));
+            grade.put("gradeType", "test");
+            grade.put("lessonDate", LocalDateTime.of(randomSchoolDay(), java.time.LocalTime.of(9, 0)));
+            grade.put("groupId", groupId);
+            grade.put("teacherId", f.teacherId());
+            return client.timed(() -> client.post("/api/diary/grades", grade));
+        }
+    };
+
+    private final int weight;
+
+    Scenario(int weight) {
+        this.weight = weight;
+    }
+
+    /** Время выполнения в наносекундах; исключение — ошибка. */
+    abstract long execute(ApiClient client, Fixture fixture) throws Exception;
+
+    /** Список, в котором каждый сценарий повторён weight раз: случайный элемент выбирается по весам. */
+    static List<Scenario> weighted() {
+        List<Scenario> list = new ArrayList<>();
+        for (Scenario s : values()) {
+            for (int i = 0; i < s.weight; i++) {
+                list.add(s);
+            }
+        }
+        return list;
+    }
+
+    private static String randomGroup(Fixture f) {
+        return f.groupIds().get(ThreadLocalRandom.current().nextInt(f.groupIds().size()));
+    }
+
+    private static LocalDate randomSchoolDay() {
+        LocalDate day = LocalDate.now().minusDays(ThreadLocalRandom.current().nextInt(60));
+        while (day.getDayOfWeek() == DayOfWeek.SATURDAY || day.getDayOfWeek() == DayOfWeek.SUNDAY) {
+            day = day.minusDays(1);
+        }
+        return day;
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.demo.aspect;
+
+import org.openjdk.jmh.annotations.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость аудита на потоке запроса.
+ * logLines — прежний вариант: две строки через SLF4J (debug + info) на каждый вызов.
+ * publish — запись AuditEvent в кольцевой буфер; буфер параллельно опустошается потребителем.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Threads(4)
+public class AuditPublishBenchmark {
+
+    private static final Logger log = LoggerFactory.getLogger("app.audit");
+
+    private AuditRingBuffer buffer;
+    private Thread consumer;
+    private volatile boolean running;
+
+    @Setup
+    public void setUp() {
+        buffer = new AuditRingBuffer(8192);
+        running = true;
+        consumer = new Thread(() -> {
+            while (running) {
+                if (buffer.poll() == null) {
+                    Thread.onSpinWait();
+                }
+            }
+        });
+        consumer.setDaemon(true);
+        consumer.start();
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        running = false;
+        consumer.join();
+    }
+
+    @Benchmark
+    public void logLines() {
+        String user = "user@example.com";
+        String path = "/api/schedules";
+        String handler = AuditPublishBenchmark.class.getSimpleName() + "#" + "list";
+        log.debug("[REQUEST] user={} | {} {} | handler={} | start", user, "GET", path, handler);
+        log.info("[REQUEST] user={} | {} {} | handler={} | 200 | {} ms", user, "GET", path, handler, 3L);
+    }
+
+    @Benchmark
+    public boolean publish() {
+        return buffer.offer(new AuditEvent(System.currentTimeMillis(), 3_000_000L, "user@example.com", "GET",
+                "/api/schedules", null, AuditPublishBenchmark.class, "list", 200, null, 0, 0L));
+    }
+}
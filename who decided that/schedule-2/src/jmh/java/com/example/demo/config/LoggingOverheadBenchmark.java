@@ -0,0 +1,90 @@
+package com.example.demo.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.FileAppender;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Накладные расходы логирования на один «запрос» журнала: немного работы и строки лога,
+ * как в сервисах посещаемости и оценок (debug на вход, info на результат, debug по записям).
+ * mode: off — уровень WARN, строки не пишутся; sync — FileAppender в потоке запроса;
+ * async — тот же FileAppender за DebugDiscardingAsyncAppender.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(4)
+public class LoggingOverheadBenchmark {
+
+    @Param({"off", "sync", "async"})
+    public String mode;
+
+    @Param({"INFO", "DEBUG"})
+    public String level;
+
+    private LoggerContext context;
+    private Logger logger;
+    private File file;
+
+    @Setup
+    public void setUp() throws Exception {
+        file = Files.createTempFile("logging-benchmark", ".log").toFile();
+        context = new LoggerContext();
+
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%d{yyyy-MM-dd HH:mm:ss.SSS} [%level] [%thread] %logger{50} - %msg%n");
+        encoder.start();
+
+        FileAppender<ILoggingEvent> fileAppender = new FileAppender<>();
+        fileAppender.setContext(context);
+        fileAppender.setFile(file.getAbsolutePath());
+        fileAppender.setEncoder(encoder);
+        fileAppender.start();
+
+        Appender<ILoggingEvent> appender = fileAppender;
+        if ("async".equals(mode)) {
+            DebugDiscardingAsyncAppender async = new DebugDiscardingAsyncAppender();
+            async.setContext(context);
+            async.setQueueSize(8192);
+            async.setDiscardingThreshold(1024);
+            async.addAppender(fileAppender);
+            async.start();
+            appender = async;
+        }
+
+        logger = context.getLogger("com.example.demo.service.AttendanceService");
+        logger.addAppender(appender);
+        logger.setAdditive(false);
+        logger.setLevel("off".equals(mode) ? Level.WARN : Level.toLevel(level));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.stop();
+        file.delete();
+    }
+
+    @Benchmark
+    public void journalRequest(Blackhole bh) {
+        String groupId = "group-1";
+        logger.debug("upsertAttendance(groupId={}, items={})", groupId, 25);
+        long sum = 0;
+        for (int i = 0; i < 25; i++) {
+            sum += ("student-" + i).hashCode();
+            logger.debug("attendance item studentId=student-{} status={}", i, "PRESENT");
+        }
+        logger.info("upsertAttendance() - saved {} records for group {}", 25, groupId);
+        bh.consume(sum);
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.demo.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сериализация списков ScheduleDTO и GradeDTO в JSON.
+ * indented — настройки WebConfig (JavaTimeModule + INDENT_OUTPUT), compact — то же без отступов.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class DtoSerializationBenchmark {
+
+    @Param({"25", "500"})
+    public int size;
+
+    private ObjectMapper indented;
+    private ObjectMapper compact;
+    private List<ScheduleDTO> schedules;
+    private List<GradeDTO> grades;
+
+    @Setup
+    public void setUp() {
+        indented = new ObjectMapper().registerModule(new JavaTimeModule()).enable(SerializationFeature.INDENT_OUTPUT);
+        compact = new ObjectMapper().registerModule(new JavaTimeModule());
+        schedules = new ArrayList<>();
+        grades = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            ScheduleDTO s = new ScheduleDTO();
+            s.setScheduleId("schedule-" + i);
+            s.setScheduleName("group-1_MONDAY_" + i);
+            s.setGroupId("group-1");
+            s.setDayOfWeek("MONDAY");
+            s.setSubject("Математика");
+            s.setStartTime(LocalTime.of(9, 0));
+            s.setEndTime(LocalTime.of(9, 45));
+            s.setRoom("101");
+            schedules.add(s);
+
+            GradeDTO g = new GradeDTO();
+            g.setId((long) i);
+            g.setStudentId("student-" + i);
+            g.setSubject("Математика");
+            g.setGradeValue(5);
+            g.setGradeType("test");
+            g.setTeacherId("teacher-1");
+            g.setGroupId("group-1");
+            g.setLessonDate(LocalDateTime.of(2025, 9, 1, 9, 0));
+            g.setCreatedAt(LocalDateTime.of(2025, 9, 1, 9, 50));
+            grades.add(g);
+        }
+    }
+
+    @Benchmark
+    public byte[] schedulesIndented() throws Exception {
+        return indented.writeValueAsBytes(schedules);
+    }
+
+    @Benchmark
+    public byte[] schedulesCompact() throws Exception {
+        return compact.writeValueAsBytes(schedules);
+    }
+
+    @Benchmark
+    public byte[] gradesIndented() throws Exception {
+        return indented.writeValueAsBytes(grades);
+    }
+
+    @Benchmark
+    public byte[] gradesCompact() throws Exception {
+        return compact.writeValueAsBytes(grades);
+    }
+}
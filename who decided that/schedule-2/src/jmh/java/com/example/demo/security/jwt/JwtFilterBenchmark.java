@@ -0,0 +1,77 @@
+package com.example.demo.security.jwt;
+
+import com.example.demo.entity.User;
+import com.example.demo.security.services.TokenRevocationService;
+import com.example.demo.security.services.UserDetailsImpl;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость аутентификации одного запроса по JWT.
+ * legacy* — прежняя схема: на каждый запрос новый Key и parser, токен разбирается дважды.
+ * cached* — JwtUtils с заранее собранным parser и кэшем проверенных токенов.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class JwtFilterBenchmark {
+
+    private static final String SECRET = "your-secret-key-change-this-in-production";
+
+    private JwtUtils jwtUtils;
+    private AuthTokenFilter filter;
+    private String token;
+
+    @Setup
+    public void setUp() throws Exception {
+        jwtUtils = new JwtUtils();
+        setField(jwtUtils, "jwtSecret", SECRET);
+        setField(jwtUtils, "jwtExpirationMs", 3_600_000);
+        setField(jwtUtils, "statelessAuth", true);
+        jwtUtils.init();
+
+        filter = new AuthTokenFilter();
+        setField(filter, "jwtUtils", jwtUtils);
+        setField(filter, "tokenRevocationService", new TokenRevocationService());
+
+        User user = new User("teacher-1", "Teacher User", "encoded", "teacher@example.com", "group-1", "TEACHER_MATH");
+        token = jwtUtils.generateJwtToken(UserDetailsImpl.build(user));
+    }
+
+    @Benchmark
+    public void legacyParseTwice(Blackhole bh) {
+        bh.consume(Jwts.parserBuilder().setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes())).build().parse(token));
+        bh.consume(Jwts.parserBuilder().setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes())).build()
+                .parseClaimsJws(token).getBody().getSubject());
+    }
+
+    @Benchmark
+    public void cachedVerify(Blackhole bh) {
+        bh.consume(jwtUtils.verifyJwtToken(token).principal());
+    }
+
+    @Benchmark
+    public void cachedFilter(Blackhole bh) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/schedules");
+        request.addHeader("Authorization", "Bearer " + token);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        bh.consume(SecurityContextHolder.getContext().getAuthentication());
+        SecurityContextHolder.clearContext();
+    }
+
+    private static void setField(Object target, String name, Object value) throws Exception {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.demo.security.services;
+
+import com.example.demo.entity.User;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Проверки роли на пути журнала учителя: обработчик вызывает isAdminOrTeacher()
+ * и несколько раз currentRole() за запрос.
+ * streams — прежняя реализация (два стрима по authorities на каждый вызов),
+ * mask — CurrentUser поверх roleMask.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RoleCheckBenchmark {
+
+    private static final int CHECKS_PER_REQUEST = 4;
+
+    @Setup
+    public void setUp() {
+        UserDetailsImpl teacher = UserDetailsImpl.build(
+                new User("teacher-1", "Teacher User", "encoded", "teacher@example.com", "group-1", "TEACHER_MATH"));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(teacher, null, teacher.getAuthorities()));
+    }
+
+    @TearDown
+    public void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public void streams(Blackhole bh) {
+        bh.consume(legacyIsAdminOrTeacher());
+        for (int i = 0; i < CHECKS_PER_REQUEST; i++) {
+            bh.consume(legacyCurrentRole());
+        }
+    }
+
+    @Benchmark
+    public void mask(Blackhole bh) {
+        bh.consume(CurrentUser.isAdminOrTeacher());
+        for (int i = 0; i < CHECKS_PER_REQUEST; i++) {
+            bh.consume(CurrentUser.role());
+        }
+    }
+
+    private static String legacyCurrentRole() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null) return "USER";
+        boolean isAdmin = auth.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority).anyMatch("ROLE_ADMIN"::equals);
+        if (isAdmin) return "ADMIN";
+        boolean isTeacher = auth.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority).anyMatch("ROLE_TEACHER"::equals);
+        if (isTeacher) return "TEACHER";
+        return "USER";
+    }
+
+    private static boolean legacyIsAdminOrTeacher() {
+        String role = legacyCurrentRole();
+        return "ADMIN".equals(role) || "TEACHER".equals(role);
+    }
+}
@@ -0,0 +1,63 @@
+package com.example.demo.security.services;
+
+import com.example.demo.exception.HashingCapacityException;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Массовый вход: 32 потока одновременно проверяют пароль.
+ * direct — BCrypt прямо на вызывающем потоке (прежняя схема, все потоки Tomcat заняты хешированием).
+ * bounded — BoundedPasswordEncoder: хеширование ограничено пулом, лишние запросы сразу получают отказ.
+ * Счётчики accepted/rejected показывают, сколько входов было обслужено и сколько отклонено с 503.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(32)
+public class SigninLoadBenchmark {
+
+    @Param({"10"})
+    public int strength;
+
+    private BCryptPasswordEncoder direct;
+    private BoundedPasswordEncoder bounded;
+    private String hash;
+
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    @State(Scope.Thread)
+    public static class Outcome {
+        public long accepted;
+        public long rejected;
+    }
+
+    @Setup
+    public void setUp() {
+        direct = new BCryptPasswordEncoder(strength);
+        bounded = new BoundedPasswordEncoder(strength, Runtime.getRuntime().availableProcessors(), 64, 5_000);
+        hash = direct.encode("password123");
+    }
+
+    @TearDown
+    public void tearDown() {
+        bounded.shutdown();
+    }
+
+    @Benchmark
+    public void direct(Blackhole bh, Outcome outcome) {
+        bh.consume(direct.matches("password123", hash));
+        outcome.accepted++;
+    }
+
+    @Benchmark
+    public void bounded(Blackhole bh, Outcome outcome) {
+        try {
+            bh.consume(bounded.matches("password123", hash));
+            outcome.accepted++;
+        } catch (HashingCapacityException e) {
+            outcome.rejected++;
+        }
+    }
+}
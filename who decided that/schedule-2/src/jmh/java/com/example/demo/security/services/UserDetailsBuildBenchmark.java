@@ -0,0 +1,28 @@
+package com.example.demo.security.services;
+
+import com.example.demo.entity.User;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/** UserDetailsImpl.build: роли, маска ролей и предмет учителя — на каждый промах кэша принципалов. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class UserDetailsBuildBenchmark {
+
+    @Param({"ADMIN", "TEACHER_MATH", "STUDENT"})
+    public String role;
+
+    private User user;
+
+    @Setup
+    public void setUp() {
+        user = new User("user-1", "Test User", "encoded", "user@example.com", "group-1", role);
+    }
+
+    @Benchmark
+    public UserDetailsImpl build() {
+        return UserDetailsImpl.build(user);
+    }
+}
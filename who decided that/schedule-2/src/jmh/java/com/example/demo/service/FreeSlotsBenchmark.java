@@ -0,0 +1,59 @@
+package com.example.demo.service;
+
+import com.example.demo.repository.ScheduleRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Поиск свободных окон по битовым маскам OccupancyIndex для большой школы:
+ * groups групп × 30 уроков в неделю, 60 учителей и 80 кабинетов. Цель — меньше миллисекунды на запрос.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FreeSlotsBenchmark {
+
+    @Param({"200", "2000"})
+    public int groups;
+
+    private OccupancyIndex index;
+
+    private record Row(String getScheduleId, String getGroupId, String getDayOfWeek, LocalTime getStartTime,
+                       LocalTime getEndTime, String getTeacher, String getRoom) implements ScheduleRepository.BookingRow {}
+
+    @Setup
+    public void setUp() {
+        String[] days = {"MONDAY", "TUESDAY", "WEDNESDAY", "THURSDAY", "FRIDAY"};
+        List<ScheduleRepository.BookingRow> rows = new ArrayList<>();
+        for (int g = 0; g < groups; g++) {
+            for (int d = 0; d < days.length; d++) {
+                for (int s = 0; s < 6; s++) {
+                    LocalTime start = LocalTime.of(8 + s, 0);
+                    rows.add(new Row("g" + g + "-" + d + s, "group-" + g, days[d], start, start.plusMinutes(45),
+                            "teacher-" + ((g + s) % 60), "room-" + ((g + d) % 80)));
+                }
+            }
+        }
+        ScheduleRepository repository = (ScheduleRepository) Proxy.newProxyInstance(
+                ScheduleRepository.class.getClassLoader(), new Class<?>[]{ScheduleRepository.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("findBookings")) {
+                        return rows;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        index = new OccupancyIndex(repository);
+        index.doubleBookings();
+    }
+
+    @Benchmark
+    public Map<String, List<String>> groupTeacherRoom() {
+        return index.freeSlots("group-7", "teacher-13", "room-21", 45, 5);
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.AttendanceDTO;
+import com.example.demo.dto.GradeDTO;
+import com.example.demo.dto.ScheduleDTO;
+import com.example.demo.dto.UserDTO;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сборка журнала учителя за день (getJournalByDate).
+ * nestedScan — прежний код обработчика: для каждой пары урок × ученик поиск по всем оценкам и посещаемости;
+ * indexed — JournalRoster с индексом по (ученик, предмет).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class JournalRosterBenchmark {
+
+    @Param({"25", "40"})
+    public int students;
+
+    @Param({"6"})
+    public int lessons;
+
+    private List<ScheduleDTO> schedule;
+    private List<UserDTO> roster;
+    private List<GradeDTO> grades;
+    private List<AttendanceDTO> attendance;
+
+    @Setup
+    public void setUp() {
+        String[] subjects = {"Математика", "Русский язык", "Физика", "История", "Информатика", "Химия"};
+        schedule = new ArrayList<>();
+        for (int i = 0; i < lessons; i++) {
+            ScheduleDTO s = new ScheduleDTO();
+            s.setScheduleId("s-" + i);
+            s.setSubject(subjects[i % subjects.length]);
+            s.setStartTime(LocalTime.of(9 + i, 0));
+            s.setEndTime(LocalTime.of(9 + i, 45));
+            schedule.add(s);
+        }
+        roster = new ArrayList<>();
+        grades = new ArrayList<>();
+        attendance = new ArrayList<>();
+        long id = 0;
+        for (int i = 0; i < students; i++) {
+            UserDTO u = new UserDTO();
+            u.setUserId("student-" + i);
+            u.setFullName("Student " + i);
+            roster.add(u);
+            for (ScheduleDTO lesson : schedule) {
+                AttendanceDTO a = new AttendanceDTO();
+                a.setId(++id);
+                a.setStudentId(u.getUserId());
+                a.setSubject(lesson.getSubject());
+                a.setStatus("present");
+                attendance.add(a);
+                if (i % 3 == 0) {
+                    GradeDTO g = new GradeDTO();
+                    g.setId(++id);
+                    g.setStudentId(u.getUserId());
+                    g.setSubject(lesson.getSubject());
+                    g.setGradeValue(5);
+                    g.setGradeType("test");
+                    grades.add(g);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> indexed() {
+        return JournalRoster.buildLessons(schedule, roster, grades, attendance);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> nestedScan() {
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (ScheduleDTO lesson : schedule) {
+            Map<String, Object> lessonEntry = new HashMap<>();
+            lessonEntry.put("scheduleId", lesson.getScheduleId());
+            lessonEntry.put("subject", lesson.getSubject());
+            lessonEntry.put("startTime", lesson.getStartTime() != null ? lesson.getStartTime().toString() : null);
+            lessonEntry.put("endTime", lesson.getEndTime() != null ? lesson.getEndTime().toString() : null);
+            lessonEntry.put("teacher", lesson.getTeacher());
+            List<Map<String, Object>> rows = new ArrayList<>();
+            for (UserDTO student : roster) {
+                String sid = student.getUserId();
+                Map<String, Object> row = new HashMap<>();
+                row.put("studentId", sid);
+                row.put("studentName", student.getFullName());
+                String lessonSubject = lesson.getSubject();
+                GradeDTO g = grades.stream()
+                        .filter(x -> sid.equals(x.getStudentId()) && lessonSubject != null && lessonSubject.equals(x.getSubject()))
+                        .findFirst().orElse(null);
+                row.put("gradeId", g != null ? g.getId() : null);
+                row.put("gradeValue", g != null ? g.getGradeValue() : null);
+                row.put("gradeType", g != null ? g.getGradeType() : null);
+                row.put("comment", g != null ? g.getComment() : null);
+                AttendanceDTO a = attendance.stream()
+                        .filter(x -> sid.equals(x.getStudentId()) && lessonSubject != null && lessonSubject.equals(x.getSubject()))
+                        .findFirst().orElse(null);
+                row.put("attendanceStatus", a != null ? a.getStatus() : null);
+                row.put("attendanceId", a != null ? a.getId() : null);
+                rows.add(row);
+            }
+            lessonEntry.put("roster", rows);
+            result.add(lessonEntry);
+        }
+        return result;
+    }
+}
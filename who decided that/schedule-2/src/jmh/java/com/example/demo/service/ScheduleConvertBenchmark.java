@@ -0,0 +1,49 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.ScheduleDTO;
+import com.example.demo.entity.Schedule;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** ScheduleService.convertToDTO (ModelMapper) для недельного расписания группы — 25 уроков на ответ. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ScheduleConvertBenchmark {
+
+    private ScheduleService scheduleService;
+    private List<Schedule> week;
+
+    @Setup
+    public void setUp() {
+        scheduleService = new ScheduleService(null, null, null, null, null);
+        week = new ArrayList<>();
+        String[] days = {"MONDAY", "TUESDAY", "WEDNESDAY", "THURSDAY", "FRIDAY"};
+        for (String day : days) {
+            for (int i = 0; i < 5; i++) {
+                Schedule s = new Schedule();
+                s.setScheduleId(day + "-" + i);
+                s.setScheduleName("group-1_" + day + "_" + i);
+                s.setGroupId("group-1");
+                s.setDayOfWeek(day);
+                s.setSubject("Математика");
+                s.setStartTime(LocalTime.of(9 + i, 0));
+                s.setEndTime(LocalTime.of(9 + i, 45));
+                week.add(s);
+            }
+        }
+    }
+
+    @Benchmark
+    public void convertWeek(Blackhole bh) {
+        for (Schedule s : week) {
+            ScheduleDTO dto = scheduleService.convertToDTO(s);
+            bh.consume(dto);
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.example.demo;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
@@ -10,8 +11,11 @@ import org.springframework.transaction.annotation.EnableTransactionManagement;
 @EnableTransactionManagement
 public class DemoscheduleApplication {
     public static void main(String[] args) {
-        SpringApplication.run(DemoscheduleApplication.class, args);
+        SpringApplication application = new SpringApplication(DemoscheduleApplication.class);
+        // Шаги старта для StartupTimer: самые долгие бины видны в /api/admin/startup
+        application.setApplicationStartup(new BufferingApplicationStartup(4096));
+        application.run(args);
     }
 }
 
-// .\gradlew bootRun 05 11 2025 03 02 все успешно забилжено ./gradlew clean bootRun
\ No newline at end of file
+// .\gradlew bootRun 05 11 2025 03 02 все успешно забилжено ./gradlew clean bootRun
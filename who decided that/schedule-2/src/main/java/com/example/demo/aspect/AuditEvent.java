@@ -0,0 +1,23 @@
+package com.example.demo.aspect;
+
+/**
+ * Событие аудита одного вызова контроллера. На потоке запроса только заполняются поля —
+ * форматирование строки выполняет фоновый AuditLogWriter.
+ *
+ * @param status HTTP-статус из ResponseEntity, 200 для прочих результатов, -1 при исключении
+ * @param sqlStatements число SQL-операторов, выполненных за время вызова (см. SqlRequestStats)
+ */
+public record AuditEvent(
+        long timestampMillis,
+        long durationNanos,
+        String user,
+        String method,
+        String uri,
+        String query,
+        Class<?> handlerType,
+        String handlerMethod,
+        int status,
+        String error,
+        int sqlStatements,
+        long sqlNanos
+) {}
@@ -0,0 +1,254 @@
+package com.example.demo.aspect;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Фоновая запись аудита: события из AuditRingBuffer пачками форматируются и дописываются
+ * в файл (по умолчанию logs/audit.log) с ротацией по размеру: audit.log → audit.log.1 → … → audit.log.N.
+ * Поток запроса только кладёт событие в буфер.
+ */
+@Component
+@Lazy(false)
+public class AuditLogWriter {
+    private static final Logger log = LoggerFactory.getLogger(AuditLogWriter.class);
+    private static final DateTimeFormatter TIMESTAMP =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+
+    @Value("${app.audit.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${app.audit.bufferSize:8192}")
+    private int bufferSize = 8192;
+
+    @Value("${app.audit.overflow:DROP}")
+    private AuditRingBuffer.OverflowPolicy overflowPolicy = AuditRingBuffer.OverflowPolicy.DROP;
+
+    @Value("${app.audit.file:logs/audit.log}")
+    private String file = "logs/audit.log";
+
+    @Value("${app.audit.maxFileSizeMb:20}")
+    private long maxFileSizeMb = 20;
+
+    @Value("${app.audit.maxFiles:5}")
+    private int maxFiles = 5;
+
+    @Value("${app.audit.batchSize:256}")
+    private int batchSize = 256;
+
+    @Value("${app.audit.flushIntervalMs:200}")
+    private long flushIntervalMs = 200;
+
+    private AuditRingBuffer buffer;
+    private Thread writerThread;
+    private volatile boolean running;
+
+    private Path path;
+    private BufferedWriter out;
+    private long currentSize;
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder writeErrors = new LongAdder();
+
+    @PostConstruct
+    public void start() {
+        buffer = new AuditRingBuffer(bufferSize);
+        if (!enabled) {
+            return;
+        }
+        path = Paths.get(file);
+        running = true;
+        writerThread = new Thread(this::drainLoop, "audit-writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+        log.info("Audit pipeline started: file={}, buffer={}, overflow={}", path, buffer.capacity(), overflowPolicy);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        // Писатель больше не освобождает место: производители в режиме BLOCK не должны ждать вечно
+        buffer.close();
+        if (writerThread != null) {
+            LockSupport.unpark(writerThread);
+            try {
+                writerThread.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /** Вызывается на потоке запроса: только постановка в буфер. */
+    public void publish(AuditEvent event) {
+        if (!enabled) {
+            return;
+        }
+        if (!running) {
+            dropped.increment();
+            return;
+        }
+        boolean accepted = overflowPolicy == AuditRingBuffer.OverflowPolicy.BLOCK
+                ? buffer.put(event)
+                : buffer.offer(event);
+        if (accepted) {
+            published.increment();
+        } else {
+            dropped.increment();
+        }
+    }
+
+    private void drainLoop() {
+        StringBuilder batch = new StringBuilder(batchSize * 160);
+        while (running || buffer.size() > 0) {
+            int count = 0;
+            AuditEvent event;
+            while (count < batchSize && (event = buffer.poll()) != null) {
+                format(event, batch);
+                count++;
+            }
+            if (count > 0) {
+                write(batch, count);
+                batch.setLength(0);
+            }
+            if (count < batchSize && running) {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(flushIntervalMs));
+            }
+        }
+        closeQuietly();
+    }
+
+    static void format(AuditEvent e, StringBuilder sb) {
+        TIMESTAMP.formatTo(Instant.ofEpochMilli(e.timestampMillis()), sb);
+        sb.append(" [REQUEST] user=").append(e.user())
+                .append(" | ").append(e.method()).append(' ').append(e.uri());
+        if (e.query() != null) {
+            sb.append('?').append(e.query());
+        }
+        sb.append(" | handler=").append(e.handlerType().getSimpleName()).append('#').append(e.handlerMethod())
+                .append(" | ");
+        if (e.error() != null || e.status() < 0) {
+            sb.append("error: ").append(e.error());
+        } else {
+            sb.append(e.status());
+        }
+        sb.append(" | ").append(e.durationNanos() / 1_000_000).append('.')
+                .append((e.durationNanos() / 1_000) % 1_000 / 100).append(" ms");
+        if (e.sqlStatements() > 0) {
+            sb.append(" | sql=").append(e.sqlStatements()).append(" (")
+                    .append(e.sqlNanos() / 1_000_000).append('.').append((e.sqlNanos() / 1_000) % 1_000 / 100)
+                    .append(" ms)");
+        }
+        sb.append('\n');
+    }
+
+    private void write(StringBuilder batch, int count) {
+        try {
+            if (out == null) {
+                open();
+            }
+            out.append(batch);
+            out.flush();
+            currentSize += utf8Length(batch);
+            written.add(count);
+            batches.increment();
+            if (currentSize >= maxFileSizeMb * 1024 * 1024) {
+                rotate();
+            }
+        } catch (IOException e) {
+            writeErrors.increment();
+            log.warn("Audit write failed ({} events lost): {}", count, e.getMessage());
+            closeQuietly();
+        }
+    }
+
+    /** Размер в байтах UTF-8 без кодирования: лимит файла в байтах, а кириллица — два байта на символ. */
+    static long utf8Length(CharSequence text) {
+        long bytes = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                bytes++;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length()
+                    && Character.isLowSurrogate(text.charAt(i + 1))) {
+                bytes += 4;
+                i++;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+
+    private void open() throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        out = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        currentSize = Files.size(path);
+    }
+
+    private void rotate() throws IOException {
+        closeQuietly();
+        for (int i = maxFiles - 1; i >= 1; i--) {
+            Path from = Paths.get(file + "." + i);
+            if (Files.exists(from)) {
+                Files.move(from, Paths.get(file + "." + (i + 1)), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Files.move(path, Paths.get(file + ".1"), StandardCopyOption.REPLACE_EXISTING);
+        open();
+    }
+
+    private void closeQuietly() {
+        if (out != null) {
+            try {
+                out.close();
+            } catch (IOException ignored) {
+            }
+            out = null;
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("overflowPolicy", overflowPolicy.name());
+        stats.put("capacity", buffer.capacity());
+        stats.put("pending", buffer.size());
+        stats.put("published", published.sum());
+        stats.put("dropped", dropped.sum());
+        stats.put("written", written.sum());
+        stats.put("batches", batches.sum());
+        stats.put("writeErrors", writeErrors.sum());
+        return stats;
+    }
+}
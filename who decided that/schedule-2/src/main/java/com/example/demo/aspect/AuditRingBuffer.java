@@ -0,0 +1,97 @@
+package com.example.demo.aspect;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Ограниченная lock-free очередь «много производителей — один потребитель»
+ * (схема с номером последовательности в каждой ячейке).
+ * Производитель занимает ячейку одним CAS по tail; потребитель читает без CAS.
+ */
+public class AuditRingBuffer {
+
+    /** Поведение при заполненном буфере. */
+    public enum OverflowPolicy {
+        /** Событие отбрасывается и учитывается в dropped — поток запроса не ждёт. */
+        DROP,
+        /** Поток запроса ждёт освобождения места (события не теряются). */
+        BLOCK
+    }
+
+    private final int mask;
+    private final AtomicReferenceArray<AuditEvent> events;
+    private final AtomicLongArray sequences;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+    private volatile boolean closed;
+
+    public AuditRingBuffer(int requestedCapacity) {
+        int capacity = Integer.highestOneBit(Math.max(2, requestedCapacity - 1)) << 1;
+        this.mask = capacity - 1;
+        this.events = new AtomicReferenceArray<>(capacity);
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /** @return false, если буфер заполнен */
+    public boolean offer(AuditEvent event) {
+        while (true) {
+            long pos = tail.get();
+            int index = (int) (pos & mask);
+            long diff = sequences.get(index) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    events.lazySet(index, event);
+                    sequences.set(index, pos + 1);
+                    return true;
+                }
+            } else if (diff < 0) {
+                return false;
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+    }
+
+    /** Ждёт места в буфере с короткими паузами; false, если поток прерван или буфер закрыт. */
+    public boolean put(AuditEvent event) {
+        while (!offer(event)) {
+            if (closed || Thread.currentThread().isInterrupted()) {
+                return false;
+            }
+            LockSupport.parkNanos(10_000);
+        }
+        return true;
+    }
+
+    /** Потребитель остановлен: ждущие в put больше не дождутся места и возвращают false. */
+    public void close() {
+        closed = true;
+    }
+
+    /** Только для единственного потока-потребителя. @return событие или null, если буфер пуст */
+    public AuditEvent poll() {
+        int index = (int) (head & mask);
+        if (sequences.get(index) != head + 1) {
+            return null;
+        }
+        AuditEvent event = events.get(index);
+        events.lazySet(index, null);
+        sequences.set(index, head + mask + 1);
+        head++;
+        return event;
+    }
+
+    /** Приблизительное число событий в буфере. */
+    public int size() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+}
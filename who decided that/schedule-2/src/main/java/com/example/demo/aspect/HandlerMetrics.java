@@ -0,0 +1,134 @@
+package com.example.demo.aspect;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Задержки и ошибки по обработчикам Controller#method. RequestLoggingAspect записывает
+ * каждый вызов; /api/admin/metrics отдаёт перцентили за всё время и за последний интервал.
+ * Интервал закрывается при чтении, если с начала текущего прошло не меньше app.metrics.intervalMs,
+ * поэтому частые опросы видят один и тот же завершённый интервал.
+ */
+@Component
+public class HandlerMetrics {
+
+    @Value("${app.metrics.intervalMs:60000}")
+    private long intervalMs = 60_000;
+
+    private final ConcurrentHashMap<Method, Handler> handlers = new ConcurrentHashMap<>();
+
+    private final Object intervalLock = new Object();
+    private long intervalStartNanos = System.nanoTime();
+    private Map<String, Interval> lastInterval = Map.of();
+    private double lastIntervalSeconds;
+
+    private static final class Handler {
+        final String name;
+        final LatencyHistogram histogram = new LatencyHistogram();
+        final LongAdder errors = new LongAdder();
+        final LongAdder clientErrors = new LongAdder();
+        final LongAdder sqlStatements = new LongAdder();
+        final LongAccumulator maxSqlStatements = new LongAccumulator(Math::max, 0);
+        LatencyHistogram.Snapshot mark = LatencyHistogram.Snapshot.EMPTY;
+        long errorsMark;
+
+        Handler(String name) {
+            this.name = name;
+        }
+    }
+
+    private record Interval(LatencyHistogram.Snapshot latency, long errors) {}
+
+    /**
+     * @param status HTTP-статус ответа или -1, если обработчик бросил исключение
+     * @param sqlStatements число SQL-операторов за вызов
+     */
+    public void record(Method method, long durationNanos, int status, int sqlStatements) {
+        Handler handler = handlers.get(method);
+        if (handler == null) {
+            handler = handlers.computeIfAbsent(method,
+                    m -> new Handler(m.getDeclaringClass().getSimpleName() + "#" + m.getName()));
+        }
+        handler.histogram.recordNanos(durationNanos);
+        handler.sqlStatements.add(sqlStatements);
+        handler.maxSqlStatements.accumulate(sqlStatements);
+        if (status < 0 || status >= 500) {
+            handler.errors.increment();
+        } else if (status >= 400) {
+            handler.clientErrors.increment();
+        }
+    }
+
+    public Map<String, Object> snapshot() {
+        Map<String, Interval> interval;
+        double intervalSeconds;
+        synchronized (intervalLock) {
+            long now = System.nanoTime();
+            if (now - intervalStartNanos >= intervalMs * 1_000_000L || lastIntervalSeconds == 0) {
+                lastInterval = rollInterval();
+                lastIntervalSeconds = Math.max(1e-3, (now - intervalStartNanos) / 1e9);
+                intervalStartNanos = now;
+            }
+            interval = lastInterval;
+            intervalSeconds = lastIntervalSeconds;
+        }
+
+        Map<String, Object> byHandler = new TreeMap<>();
+        for (Handler handler : handlers.values()) {
+            Map<String, Object> entry = new LinkedHashMap<>();
+            LatencyHistogram.Snapshot total = handler.histogram.snapshot();
+            Map<String, Object> cumulative = latency(total);
+            cumulative.put("maxMs", handler.histogram.maxMicros() / 1000.0);
+            cumulative.put("errors", handler.errors.sum());
+            cumulative.put("clientErrors", handler.clientErrors.sum());
+            cumulative.put("sqlPerRequest", total.count() == 0 ? 0.0 : (double) handler.sqlStatements.sum() / total.count());
+            cumulative.put("maxSqlPerRequest", handler.maxSqlStatements.get());
+            entry.put("total", cumulative);
+
+            Interval last = interval.get(handler.name);
+            if (last != null) {
+                Map<String, Object> recent = latency(last.latency());
+                recent.put("errors", last.errors());
+                recent.put("throughputPerSec", last.latency().count() / intervalSeconds);
+                entry.put("interval", recent);
+            }
+            byHandler.put(handler.name, entry);
+        }
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("intervalSeconds", intervalSeconds);
+        body.put("handlers", byHandler);
+        return body;
+    }
+
+    private Map<String, Interval> rollInterval() {
+        Map<String, Interval> result = new ConcurrentHashMap<>();
+        for (Handler handler : handlers.values()) {
+            LatencyHistogram.Snapshot current = handler.histogram.snapshot();
+            long errors = handler.errors.sum();
+            result.put(handler.name, new Interval(current.minus(handler.mark), errors - handler.errorsMark));
+            handler.mark = current;
+            handler.errorsMark = errors;
+        }
+        return result;
+    }
+
+    private static Map<String, Object> latency(LatencyHistogram.Snapshot snapshot) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("count", snapshot.count());
+        m.put("meanMs", snapshot.meanMicros() / 1000.0);
+        m.put("p50Ms", snapshot.percentile(50) / 1000.0);
+        m.put("p90Ms", snapshot.percentile(90) / 1000.0);
+        m.put("p99Ms", snapshot.percentile(99) / 1000.0);
+        m.put("maxMs", snapshot.maxMicros() / 1000.0);
+        return m;
+    }
+}
@@ -0,0 +1,118 @@
+package com.example.demo.aspect;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Гистограмма задержек в духе HdrHistogram: лог-линейные корзины в микросекундах,
+ * 32 корзины на каждую степень двойки (относительная погрешность перцентиля ≤ ~3%).
+ * Запись — один incrementAndGet без блокировок; снимки читаются параллельно с записью.
+ */
+public final class LatencyHistogram {
+
+    static final int SUB_BUCKET_BITS = 5;
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    /** Верхняя граница — 2^40 мкс (~12 суток); всё, что больше, попадает в последнюю корзину. */
+    static final int MAX_MAGNITUDE = 40;
+    static final int BUCKETS = (MAX_MAGNITUDE - SUB_BUCKET_BITS) * SUB_BUCKETS + 2 * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder total = new LongAdder();
+    private final LongAdder sumMicros = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public void recordNanos(long nanos) {
+        long micros = Math.max(0, nanos / 1_000);
+        counts.incrementAndGet(indexOf(micros));
+        total.increment();
+        sumMicros.add(micros);
+        max.accumulate(micros);
+    }
+
+    public long count() {
+        return total.sum();
+    }
+
+    public long maxMicros() {
+        return max.get();
+    }
+
+    /** Копия счётчиков корзин; отдельные корзины читаются без общей блокировки. */
+    public Snapshot snapshot() {
+        long[] copy = new long[BUCKETS];
+        long count = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            copy[i] = counts.get(i);
+            count += copy[i];
+        }
+        return new Snapshot(copy, count, sumMicros.sum());
+    }
+
+    static int indexOf(long micros) {
+        if (micros < 2 * SUB_BUCKETS) {
+            return (int) micros;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(micros);
+        if (magnitude > MAX_MAGNITUDE) {
+            return BUCKETS - 1;
+        }
+        int shift = magnitude - SUB_BUCKET_BITS;
+        return shift * SUB_BUCKETS + (int) (micros >>> shift);
+    }
+
+    /** Верхняя граница значений корзины — ей отвечает перцентиль. */
+    static long upperBoundOf(int index) {
+        if (index < 2 * SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long mantissa = index % SUB_BUCKETS + SUB_BUCKETS;
+        return ((mantissa + 1) << shift) - 1;
+    }
+
+    /** Неизменяемый снимок корзин; разность двух снимков даёт гистограмму за интервал. */
+    public record Snapshot(long[] counts, long count, long sumMicros) {
+
+        static final Snapshot EMPTY = new Snapshot(new long[BUCKETS], 0, 0);
+
+        public Snapshot minus(Snapshot earlier) {
+            long[] delta = new long[BUCKETS];
+            long count = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                delta[i] = Math.max(0, counts[i] - earlier.counts[i]);
+                count += delta[i];
+            }
+            return new Snapshot(delta, count, Math.max(0, sumMicros - earlier.sumMicros));
+        }
+
+        /** Перцентиль в микросекундах (0 для пустого снимка). */
+        public long percentile(double percentile) {
+            if (count == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += counts[i];
+                if (seen >= rank) {
+                    return upperBoundOf(i);
+                }
+            }
+            return upperBoundOf(BUCKETS - 1);
+        }
+
+        public long maxMicros() {
+            for (int i = BUCKETS - 1; i >= 0; i--) {
+                if (counts[i] > 0) {
+                    return upperBoundOf(i);
+                }
+            }
+            return 0;
+        }
+
+        public double meanMicros() {
+            return count == 0 ? 0.0 : (double) sumMicros / count;
+        }
+    }
+}
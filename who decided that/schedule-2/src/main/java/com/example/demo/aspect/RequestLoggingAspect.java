@@ -1,20 +1,27 @@
 package com.example.demo.aspect;
 
+import com.example.demo.sql.SqlRequestStats;
 import jakarta.servlet.http.HttpServletRequest;
 import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
 
 /**
- * AOP-аспект для логирования всех запросов к REST API:
+ * AOP-аспект для аудита всех запросов к REST API:
  * пользователь, метод, путь, длительность, результат.
+ * На потоке запроса собирается только AuditEvent; форматирование и запись в файл
+ * выполняет AuditLogWriter в фоне. Длительность также попадает в гистограмму HandlerMetrics.
  */
 @Aspect
 @Component
@@ -22,53 +29,65 @@ public class RequestLoggingAspect {
 
     private static final Logger log = LoggerFactory.getLogger("app.audit");
 
-    @Around("execution(* com.example.demo.controller..*(..))")
-    public Object logRequest(ProceedingJoinPoint joinPoint) throws Throwable {
-        long start = System.currentTimeMillis();
-        String user = getCurrentUser();
-        String method = "";
-        String path = "";
+    private final AuditLogWriter auditLogWriter;
+    private final HandlerMetrics handlerMetrics;
 
-        try {
-            ServletRequestAttributes attrs = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
-            if (attrs != null) {
-                HttpServletRequest request = attrs.getRequest();
-                if (request != null) {
-                    method = request.getMethod();
-                    path = request.getRequestURI();
-                    if (request.getQueryString() != null) {
-                        path = path + "?" + request.getQueryString();
-                    }
-                }
-            }
-        } catch (Exception e) {
-            // ignore if not in request context
-        }
-
-        String targetMethod = joinPoint.getSignature().getDeclaringType().getSimpleName() + "#" + joinPoint.getSignature().getName();
-        log.debug("[REQUEST] user={} | {} {} | handler={} | start", user, method, path, targetMethod);
+    public RequestLoggingAspect(AuditLogWriter auditLogWriter, HandlerMetrics handlerMetrics) {
+        this.auditLogWriter = auditLogWriter;
+        this.handlerMetrics = handlerMetrics;
+    }
 
-        Object result;
+    @Around("execution(* com.example.demo.controller..*(..))")
+    public Object logRequest(ProceedingJoinPoint joinPoint) throws Throwable {
+        long startMillis = System.currentTimeMillis();
+        long start = System.nanoTime();
+        SqlRequestStats sql = SqlRequestStats.current();
+        int sqlBefore = sql != null ? sql.getStatements() : 0;
+        long sqlNanosBefore = sql != null ? sql.getJdbcNanos() : 0;
+        Object result = null;
+        Throwable failure = null;
         try {
             result = joinPoint.proceed();
-            long duration = System.currentTimeMillis() - start;
-            log.info("[REQUEST] user={} | {} {} | handler={} | 200 | {} ms", user, method, path, targetMethod, duration);
             return result;
         } catch (Throwable t) {
-            long duration = System.currentTimeMillis() - start;
-            log.error("[REQUEST] user={} | {} {} | handler={} | error: {} | {} ms", user, method, path, targetMethod, t.getMessage(), duration, t);
+            failure = t;
             throw t;
+        } finally {
+            long duration = System.nanoTime() - start;
+            String method = "";
+            String uri = "";
+            String query = null;
+            RequestAttributes attrs = RequestContextHolder.getRequestAttributes();
+            if (attrs instanceof ServletRequestAttributes servletAttrs) {
+                HttpServletRequest request = servletAttrs.getRequest();
+                method = request.getMethod();
+                uri = request.getRequestURI();
+                query = request.getQueryString();
+            }
+            Signature signature = joinPoint.getSignature();
+            int status = failure != null ? -1
+                    : result instanceof ResponseEntity<?> response ? response.getStatusCode().value() : 200;
+            int sqlStatements = sql != null ? sql.getStatements() - sqlBefore : 0;
+            long sqlNanos = sql != null ? sql.getJdbcNanos() - sqlNanosBefore : 0;
+            if (signature instanceof MethodSignature methodSignature) {
+                handlerMetrics.record(methodSignature.getMethod(), duration, status, sqlStatements);
+            }
+            auditLogWriter.publish(new AuditEvent(startMillis, duration, getCurrentUser(), method, uri, query,
+                    signature.getDeclaringType(), signature.getName(), status,
+                    failure != null ? String.valueOf(failure.getMessage()) : null, sqlStatements, sqlNanos));
+            if (failure != null) {
+                // Ошибки редки — их по-прежнему видно в основном логе со стектрейсом
+                log.error("[REQUEST] {} {} | handler={}#{} | error: {}", method, uri,
+                        signature.getDeclaringType().getSimpleName(), signature.getName(), failure.getMessage(), failure);
+            }
         }
     }
 
     private static String getCurrentUser() {
-        try {
-            Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-            if (auth != null && auth.isAuthenticated() && auth.getPrincipal() != null
-                    && !"anonymousUser".equals(auth.getPrincipal().toString())) {
-                return auth.getName();
-            }
-        } catch (Exception ignored) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.isAuthenticated() && auth.getPrincipal() != null
+                && !"anonymousUser".equals(auth.getPrincipal())) {
+            return auth.getName();
         }
         return "anonymous";
     }
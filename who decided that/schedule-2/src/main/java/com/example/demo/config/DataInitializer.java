@@ -2,19 +2,22 @@ package com.example.demo.config;
 
 import com.example.demo.entity.Group;
 import com.example.demo.entity.Schedule;
+import com.example.demo.entity.SeedMarker;
 import com.example.demo.entity.User;
 import com.example.demo.repository.GroupRepository;
 import com.example.demo.repository.ScheduleRepository;
+import com.example.demo.repository.SeedMarkerRepository;
 import com.example.demo.repository.UserRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
 
 @Slf4j
@@ -33,9 +36,55 @@ public class DataInitializer implements CommandLineRunner {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    /** Версия начальных данных: увеличить, если меняется то, что создаёт seed(). */
+    static final int SEED_VERSION = 1;
+    private static final String SEED_NAME = "default-data";
+
+    @Autowired
+    private SeedMarkerRepository seedMarkerRepository;
+
+    @Autowired
+    private StartupTimer startupTimer;
+
+    @Value("${app.seed.force:false}")
+    private boolean forceSeed;
+
+    /**
+     * Заполнение выполняется один раз на версию: если в seed_markers уже записана SEED_VERSION,
+     * старт обходится одним SELECT по первичному ключу (и UPDATE ключей входа, который выполняется всегда).
+     */
     @Override
     @Transactional
     public void run(String... args) {
+        long start = System.nanoTime();
+        try {
+            // Вне проверки версии: пользователи, добавленные SQL или восстановлением дампа, без ключей не войдут.
+            // Один UPDATE ... WHERE key IS NULL, на актуальной базе ничего не меняет
+            int backfilled = userRepository.backfillLookupKeys();
+            if (backfilled > 0) {
+                log.info("Backfilled login lookup keys for {} users", backfilled);
+            }
+
+            SeedMarker marker = seedMarkerRepository.findById(SEED_NAME).orElse(null);
+            if (!forceSeed && marker != null && marker.getVersion() >= SEED_VERSION) {
+                log.info("Seed data is current (version {}), skipping initialization", marker.getVersion());
+                return;
+            }
+            seed();
+            if (marker == null) {
+                marker = new SeedMarker();
+                marker.setName(SEED_NAME);
+            }
+            marker.setVersion(SEED_VERSION);
+            marker.setAppliedAt(LocalDateTime.now());
+            seedMarkerRepository.save(marker);
+            log.info("Seed data applied (version {})", SEED_VERSION);
+        } finally {
+            startupTimer.recordPhase("dataInitializer", (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    private void seed() {
         // Create default schedule first
         String defaultScheduleId = createDefaultSchedule();
         
@@ -50,90 +99,38 @@ public class DataInitializer implements CommandLineRunner {
         String adminRole = "ADMIN";
         String defaultGroupId = "admin-group";
         
-        // Ensure admin user exists with correct credentials
+        // Ensure admin user exists; the password is hashed only when it has to be set
         try {
-            // Try to find existing admin by email or user ID
             User admin = userRepository.findByEmail(adminEmail)
                 .orElseGet(() -> userRepository.findByUserId(adminId).orElse(null));
             
             if (admin == null) {
-                // Create new admin user
                 admin = new User();
                 admin.setUserId(adminId);
                 admin.setEmail(adminEmail);
                 admin.setFullName(adminFullName);
+                admin.setPassword(passwordEncoder.encode(adminPassword));
+                log.info("Creating new admin user...");
+            } else if (admin.getPassword() == null || admin.getPassword().isEmpty()) {
+                admin.setPassword(passwordEncoder.encode(adminPassword));
+            }
+            if (admin.getRole() == null || admin.getRole().isEmpty()) {
                 admin.setRole(adminRole);
+            }
+            if (admin.getGroupId() == null || admin.getGroupId().isEmpty()) {
                 admin.setGroupId(defaultGroupId);
-                log.info("Creating new admin user...");
-            } else {
-                log.info("Updating existing admin user...");
             }
-            
-            // Always update password and other fields to ensure they're correct
-            admin.setPassword(passwordEncoder.encode(adminPassword));
-            admin.setEmail(adminEmail);
-            admin.setRole(adminRole);
-            admin.setGroupId(defaultGroupId);
+            if (!adminEmail.equals(admin.getEmail())) {
+                admin.setEmail(adminEmail);
+            }
             
             userRepository.save(admin);
-            log.info("Admin user is ready - Email: {}, Password: {}", adminEmail, adminPassword);
-            
+            log.info("Admin user is ready - Email: {}", adminEmail);
         } catch (Exception e) {
             log.error("Error creating/updating admin user: {}", e.getMessage(), e);
-            
-            // Try to create admin user using standard JPA methods
-            try {
-                log.warn("Trying to create admin user with standard JPA...");
-                User newAdmin = new User();
-                newAdmin.setUserId(adminId);
-                newAdmin.setEmail(adminEmail);
-                newAdmin.setFullName(adminFullName);
-                newAdmin.setPassword(passwordEncoder.encode(adminPassword));
-                newAdmin.setRole(adminRole);
-                newAdmin.setGroupId(defaultGroupId);
-                userRepository.save(newAdmin);
-                log.info("Admin user created successfully via standard JPA");
-            } catch (Exception ex) {
-                log.error("Failed to create admin user: {}", ex.getMessage());
-            }
-        }
-        
-        // Check and update admin user if needed
-        User adminCheck = userRepository.findByEmail(adminEmail)
-            .orElseGet(() -> userRepository.findByUserId(adminId).orElse(null));
-            
-        if (adminCheck != null) {
-            boolean needsUpdate = false;
-            
-            String currentPassword = adminCheck.getPassword();
-            if (currentPassword == null || currentPassword.isEmpty()) {
-                adminCheck.setPassword(passwordEncoder.encode(adminPassword));
-                needsUpdate = true;
-            }
-            
-            String currentRole = adminCheck.getRole();
-            if (currentRole == null || currentRole.isEmpty()) {
-                adminCheck.setRole(adminRole);
-                needsUpdate = true;
-            }
-            
-            String currentGroupId = adminCheck.getGroupId();
-            if (currentGroupId == null || currentGroupId.isEmpty()) {
-                adminCheck.setGroupId(defaultGroupId);
-                needsUpdate = true;
-            }
-            
-            if (needsUpdate) {
-                try {
-                    userRepository.save(adminCheck);
-                    log.info("Updated admin user with missing fields");
-                } catch (Exception e) {
-                    log.error("Error updating admin user: {}", e.getMessage(), e);
-                }
-            }
         }
 
-        // Ensure demo teacher exists (password: admin123, subject: Математика)
+        // Ensure demo teacher exists (subject: Математика)
         String teacherId = "teacher";
         String teacherEmail = "teacher@example.com";
         String teacherPassword = "admin123";
@@ -148,28 +145,14 @@ public class DataInitializer implements CommandLineRunner {
             teacher.setGroupId("user-group");
             teacher.setSubject("Математика");
             userRepository.save(teacher);
-            log.info("Demo teacher created - Email: {}, Password: {}, Subject: Математика", teacherEmail, teacherPassword);
+            log.info("Demo teacher created - Email: {}, Subject: Математика", teacherEmail);
         } else if (existingTeacher.getSubject() == null || existingTeacher.getSubject().isBlank()) {
             existingTeacher.setSubject("Математика");
             userRepository.save(existingTeacher);
             log.info("Updated demo teacher with subject: Математика");
         }
-        
-        // Log all users for debugging
-        List<User> allUsers = userRepository.findAll();
-        if (allUsers.isEmpty()) {
-            log.warn("No users found in the database!");
-        } else {
-            log.info("Current users in database ({}):", allUsers.size());
-            allUsers.forEach(user -> 
-                log.info("- {} (ID: {}, Email: {}, Role: {}, Group: {})", 
-                    user.getFullName(), 
-                    user.getUserId(), 
-                    user.getEmail(), 
-                    user.getRole(), 
-                    user.getGroupId())
-            );
-        }
+
+        log.info("Users in database: {}", userRepository.count());
     }
     
     private String createDefaultSchedule() {
@@ -0,0 +1,31 @@
+package com.example.demo.config;
+
+import com.example.demo.sql.InstrumentedDataSource;
+import com.example.demo.sql.SlowQueryLog;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class DataSourceConfig {
+
+    /**
+     * Оборачивает пул соединений в InstrumentedDataSource: медленные запросы и время удержания соединений.
+     * Статический — BeanPostProcessor должен создаваться раньше остальных бинов.
+     */
+    @Bean
+    public static BeanPostProcessor slowQueryDataSourcePostProcessor(ObjectProvider<SlowQueryLog> slowQueryLog) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof InstrumentedDataSource)) {
+                    return new InstrumentedDataSource(dataSource, slowQueryLog);
+                }
+                return bean;
+            }
+        };
+    }
+}
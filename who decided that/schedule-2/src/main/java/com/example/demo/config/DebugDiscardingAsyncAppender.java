@@ -0,0 +1,18 @@
+package com.example.demo.config;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+
+/**
+ * AsyncAppender, который при заполнении очереди (остаток меньше discardingThreshold)
+ * отбрасывает только DEBUG и TRACE. Стандартный AsyncAppender отбрасывает и INFO,
+ * а INFO у нас — строки бизнес-операций, которые терять нельзя.
+ */
+public class DebugDiscardingAsyncAppender extends AsyncAppender {
+
+    @Override
+    protected boolean isDiscardable(ILoggingEvent event) {
+        return event.getLevel().toInt() <= Level.DEBUG_INT;
+    }
+}
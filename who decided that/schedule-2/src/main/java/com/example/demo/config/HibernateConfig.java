@@ -1,12 +1,25 @@
 package com.example.demo.config;
 
-import com.vladmihalcea.hibernate.type.json.JsonType;
-import org.hibernate.boot.model.TypeContributions;
-import org.hibernate.service.ServiceRegistry;
+import com.example.demo.sql.SqlStatsInspector;
+import com.example.demo.sql.SqlStatsInterceptor;
+import com.example.demo.sql.SqlStatsSessionListener;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
 public class HibernateConfig {
     // Hibernate 6.x automatically registers basic types, so we don't need to implement TypeContributor
     // The @JdbcTypeCode(SqlTypes.JSON) annotation in the entity is sufficient
+
+    /** Хуки подсчёта SQL на запрос (см. SqlRequestStats): операторы, время JDBC, загруженные сущности. */
+    @Bean
+    public HibernatePropertiesCustomizer sqlStatsHibernateCustomizer() {
+        return properties -> {
+            properties.put(AvailableSettings.STATEMENT_INSPECTOR, new SqlStatsInspector());
+            properties.put(AvailableSettings.INTERCEPTOR, new SqlStatsInterceptor());
+            properties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, SqlStatsSessionListener.class.getName());
+        };
+    }
 }
@@ -0,0 +1,69 @@
+package com.example.demo.config;
+
+import com.example.demo.dto.SchoolGenerationRequest;
+import com.example.demo.service.SchoolDataGenerator;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Генерация синтетической школы при запуске из командной строки:
+ * ./gradlew bootRun --args='--app.generator.run=true --app.generator.groups=200 --app.generator.exitAfter=true'
+ * Параметры app.generator.* совпадают с полями SchoolGenerationRequest.
+ */
+@Slf4j
+@Component
+public class SchoolDataGeneratorRunner implements ApplicationRunner {
+
+    @Autowired
+    private SchoolDataGenerator schoolDataGenerator;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Value("${app.generator.run:false}")
+    private boolean enabled;
+
+    @Value("${app.generator.exitAfter:false}")
+    private boolean exitAfter;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            return;
+        }
+        SchoolGenerationRequest request = Binder.get(environment)
+                .bind("app.generator", SchoolGenerationRequest.class)
+                .orElseGet(SchoolGenerationRequest::new);
+        Set<ConstraintViolation<SchoolGenerationRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException("Invalid app.generator settings: " + violations.stream()
+                    .map(v -> v.getPropertyPath() + " " + v.getMessage())
+                    .collect(Collectors.joining(", ")));
+        }
+        Map<String, Object> result = schoolDataGenerator.generate(request);
+        log.info("School generator finished: {}", result);
+        if (exitAfter) {
+            System.exit(SpringApplication.exit(applicationContext, () -> 0));
+        }
+    }
+}
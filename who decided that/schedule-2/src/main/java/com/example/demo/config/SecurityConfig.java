@@ -1,8 +1,12 @@
 package com.example.demo.config;
 
 import com.example.demo.security.jwt.AuthTokenFilter;
+import com.example.demo.security.ratelimit.RateLimitFilter;
+import com.example.demo.security.services.BoundedPasswordEncoder;
 import com.example.demo.security.services.UserDetailsServiceImpl;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -12,8 +16,6 @@ import org.springframework.security.config.annotation.method.configuration.Enabl
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
@@ -29,10 +31,36 @@ public class SecurityConfig {
     @Autowired
     UserDetailsServiceImpl userDetailsService;
 
+    @Value("${app.security.bcryptStrength:10}")
+    private int bcryptStrength;
+
+    /** 0 — по числу процессоров */
+    @Value("${app.security.hashing.poolSize:0}")
+    private int hashingPoolSize;
+
+    @Value("${app.security.hashing.queueCapacity:64}")
+    private int hashingQueueCapacity;
+
+    @Value("${app.security.hashing.timeoutMs:5000}")
+    private long hashingTimeoutMs;
+
     @Bean
     public AuthTokenFilter authenticationJwtTokenFilter() {
         return new AuthTokenFilter();
     }
+
+    @Bean
+    public RateLimitFilter rateLimitFilter() {
+        return new RateLimitFilter();
+    }
+
+    /** Фильтр работает только внутри цепочки безопасности (после AuthTokenFilter), не как отдельный servlet-фильтр. */
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilterRegistration(RateLimitFilter rateLimitFilter) {
+        FilterRegistrationBean<RateLimitFilter> registration = new FilterRegistrationBean<>(rateLimitFilter);
+        registration.setEnabled(false);
+        return registration;
+    }
     
     @Bean
     public DaoAuthenticationProvider authenticationProvider() {
@@ -49,9 +77,15 @@ public class SecurityConfig {
         return authConfig.getAuthenticationManager();
     }
 
+    /**
+     * BCrypt выполняется на отдельном ограниченном пуле, а не на потоках Tomcat.
+     * Стоимость хеша задаётся app.security.bcryptStrength; проверка старых хешей
+     * идёт с той стоимостью, с которой они были созданы.
+     */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public BoundedPasswordEncoder passwordEncoder() {
+        int poolSize = hashingPoolSize > 0 ? hashingPoolSize : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(bcryptStrength, poolSize, hashingQueueCapacity, hashingTimeoutMs);
     }
     
     @Bean
@@ -63,7 +97,7 @@ public class SecurityConfig {
             .authorizeHttpRequests(authz -> authz
                 .requestMatchers(
                     "/api/auth/**",
-                    "/api/health",
+                    "/api/health/**",
                     "/v3/api-docs/**",
                     "/swagger-ui/**",
                     "/swagger-ui.html"
@@ -72,7 +106,8 @@ public class SecurityConfig {
                 .anyRequest().authenticated()
             )
             .authenticationProvider(authenticationProvider())
-            .addFilterBefore(authenticationJwtTokenFilter(), UsernamePasswordAuthenticationFilter.class);
+            .addFilterBefore(authenticationJwtTokenFilter(), UsernamePasswordAuthenticationFilter.class)
+            .addFilterAfter(rateLimitFilter(), AuthTokenFilter.class);
         
         // Enable CORS
         http.cors().configurationSource(corsConfigurationSource());
@@ -0,0 +1,101 @@
+package com.example.demo.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.RuntimeMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Время старта: от запуска JVM и от SpringApplication.run до готовности, отдельные фазы
+ * (например, DataInitializer) и самые долгие шаги создания бинов из BufferingApplicationStartup.
+ * С app.startup.exitOnReady=true приложение завершается сразу после готовности —
+ * так снимается CDS-архив (./gradlew cdsArchive) и меряется холодный старт.
+ */
+@Slf4j
+@Component
+public class StartupTimer {
+
+    @Value("${app.startup.exitOnReady:false}")
+    private boolean exitOnReady;
+
+    @Value("${app.startup.slowestSteps:10}")
+    private int slowestSteps = 10;
+
+    private final Map<String, Long> phasesMillis = new ConcurrentHashMap<>();
+    private volatile Map<String, Object> report = Map.of("ready", false);
+
+    public void recordPhase(String name, long millis) {
+        phasesMillis.merge(name, millis, Long::sum);
+    }
+
+    public Map<String, Object> report() {
+        return report;
+    }
+
+    @EventListener
+    public void onReady(ApplicationReadyEvent event) {
+        RuntimeMXBean runtime = ManagementFactory.getRuntimeMXBean();
+        long jvmToReadyMs = System.currentTimeMillis() - runtime.getStartTime();
+        long runToReadyMs = event.getTimeTaken() != null ? event.getTimeTaken().toMillis() : -1;
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("ready", true);
+        result.put("jvmToReadyMs", jvmToReadyMs);
+        result.put("runToReadyMs", runToReadyMs);
+        result.put("profiles", Arrays.asList(event.getApplicationContext().getEnvironment().getActiveProfiles()));
+        result.put("lazyInitialization", event.getApplicationContext().getEnvironment()
+                .getProperty("spring.main.lazy-initialization", Boolean.class, false));
+        result.put("cdsArchive", runtime.getInputArguments().stream()
+                .filter(arg -> arg.startsWith("-XX:SharedArchiveFile="))
+                .map(arg -> arg.substring("-XX:SharedArchiveFile=".length()))
+                .findFirst().orElse(null));
+        result.put("phasesMs", new LinkedHashMap<>(phasesMillis));
+        result.put("slowestSteps", slowestSteps(event.getSpringApplication().getApplicationStartup()));
+        report = result;
+        log.info("Ready in {} ms from JVM start ({} ms in SpringApplication.run), phases {}",
+                jvmToReadyMs, runToReadyMs, phasesMillis);
+
+        if (exitOnReady) {
+            log.info("app.startup.exitOnReady is set, shutting down");
+            Thread exit = new Thread(() -> System.exit(SpringApplication.exit(event.getApplicationContext(), () -> 0)),
+                    "startup-exit");
+            exit.start();
+        }
+    }
+
+    private List<Map<String, Object>> slowestSteps(ApplicationStartup startup) {
+        if (!(startup instanceof BufferingApplicationStartup buffering)) {
+            return List.of();
+        }
+        List<Map<String, Object>> steps = new ArrayList<>();
+        buffering.getBufferedTimeline().getEvents().stream()
+                .sorted(Comparator.comparing(StartupTimeline.TimelineEvent::getDuration).reversed())
+                .limit(slowestSteps)
+                .forEach(e -> {
+                    Map<String, Object> step = new LinkedHashMap<>();
+                    step.put("name", e.getStartupStep().getName());
+                    for (StartupStep.Tag tag : e.getStartupStep().getTags()) {
+                        step.put(tag.getKey(), tag.getValue());
+                    }
+                    step.put("ms", e.getDuration().toMillis());
+                    steps.add(step);
+                });
+        return steps;
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.demo.config;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Действия, привязанные к исходу текущей транзакции: кэши и индексы в памяти меняются
+ * только после коммита, чтобы откаченные изменения в них не попадали.
+ */
+public final class TransactionHooks {
+
+    private TransactionHooks() {
+    }
+
+    /** Выполняет действие после коммита текущей транзакции, а вне транзакции — сразу. */
+    public static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
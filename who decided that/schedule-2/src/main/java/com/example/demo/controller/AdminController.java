@@ -1,12 +1,34 @@
 package com.example.demo.controller;
 
+import com.example.demo.aspect.AuditLogWriter;
+import com.example.demo.aspect.HandlerMetrics;
+import com.example.demo.config.StartupTimer;
+import com.example.demo.dto.LogLevelRequest;
+import com.example.demo.dto.SchoolGenerationRequest;
+import com.example.demo.dto.schedule.TimetableRequest;
+import com.example.demo.security.ratelimit.RateLimitFilter;
+import com.example.demo.security.services.BoundedPasswordEncoder;
+import com.example.demo.security.services.PrincipalCache;
+import com.example.demo.service.OccupancyIndex;
+import com.example.demo.service.LogLevelService;
+import com.example.demo.service.ScheduleImporter;
 import com.example.demo.service.ScheduleService;
+import com.example.demo.service.SchoolDataGenerator;
+import com.example.demo.service.TimetableGenerator;
+import com.example.demo.sql.SlowQueryLog;
+import com.example.demo.sql.SqlStatsFilter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -17,6 +39,45 @@ public class AdminController {
     @Autowired
     private ScheduleService scheduleService;
 
+    @Autowired
+    private OccupancyIndex occupancyIndex;
+
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private BoundedPasswordEncoder passwordEncoder;
+
+    @Autowired
+    private RateLimitFilter rateLimitFilter;
+
+    @Autowired
+    private AuditLogWriter auditLogWriter;
+
+    @Autowired
+    private HandlerMetrics handlerMetrics;
+
+    @Autowired
+    private SqlStatsFilter sqlStatsFilter;
+
+    @Autowired
+    private SlowQueryLog slowQueryLog;
+
+    @Autowired
+    private LogLevelService logLevelService;
+
+    @Autowired
+    private SchoolDataGenerator schoolDataGenerator;
+
+    @Autowired
+    private StartupTimer startupTimer;
+
+    @Autowired
+    private TimetableGenerator timetableGenerator;
+
+    @Autowired
+    private ScheduleImporter scheduleImporter;
+
     /**
      * Автозаполнение расписания для всех групп (ПН–ПТ, по 5 уроков в день).
      * Доступно только пользователям с ролью ADMIN.
@@ -31,4 +92,167 @@ public class AdminController {
         body.put("message", "Создано записей расписания: " + created);
         return ResponseEntity.ok(body);
     }
+
+    /**
+     * Составляет недельное расписание групп по часам предметов, учителям и кабинетам.
+     * Полный результат заменяет прежние уроки этих групп; с persist=false только возвращается.
+     */
+    @PostMapping("/schedule/generate")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> generateTimetable(@Valid @RequestBody TimetableRequest request) {
+        try {
+            return ResponseEntity.ok(timetableGenerator.generate(request));
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            Map<String, Object> body = new HashMap<>();
+            body.put("success", false);
+            body.put("message", e.getMessage());
+            HttpStatus status = e instanceof IllegalStateException ? HttpStatus.CONFLICT : HttpStatus.BAD_REQUEST;
+            return ResponseEntity.status(status).body(body);
+        }
+    }
+
+    /**
+     * Массовая загрузка уроков: CSV с заголовком (text/csv) или JSON-массив (application/json).
+     * Тело читается потоком; в ответе — число записанных строк и ошибки по номерам строк.
+     * С dryRun=true строки только проверяются.
+     */
+    @PostMapping(value = "/schedule/import", consumes = {"text/csv", "application/csv", MediaType.APPLICATION_JSON_VALUE})
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> importSchedule(HttpServletRequest request,
+                                                              @RequestParam(defaultValue = "false") boolean dryRun)
+            throws IOException {
+        ScheduleImporter.Format format = request.getContentType().toLowerCase().contains("csv")
+                ? ScheduleImporter.Format.CSV : ScheduleImporter.Format.JSON;
+        try {
+            return ResponseEntity.ok(scheduleImporter.importSchedule(request.getInputStream(), format, dryRun));
+        } catch (IllegalStateException e) {
+            Map<String, Object> body = new HashMap<>();
+            body.put("success", false);
+            body.put("message", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(body);
+        }
+    }
+
+    /** Все случаи, когда учитель или кабинет стоят в расписании двух уроков одновременно. */
+    @GetMapping("/schedule/double-bookings")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> doubleBookings() {
+        return ResponseEntity.ok(occupancyIndex.doubleBookings());
+    }
+
+    /** Счётчики кэша принципалов: попадания, промахи, негативные попадания, размер. */
+    @GetMapping("/cache/principals")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> principalCacheStats() {
+        return ResponseEntity.ok(principalCache.stats());
+    }
+
+    /** Состояние пула хеширования паролей и время encode/matches. */
+    @GetMapping("/hashing")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> hashingStats() {
+        return ResponseEntity.ok(passwordEncoder.stats());
+    }
+
+    /** Разрешённые и отклонённые (429) запросы по политикам ограничения частоты. */
+    @GetMapping("/rate-limit")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> rateLimitStats() {
+        return ResponseEntity.ok(rateLimitFilter.stats());
+    }
+
+    /** Конвейер аудита: принято, отброшено при переполнении, записано в файл. */
+    @GetMapping("/audit")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> auditStats() {
+        return ResponseEntity.ok(auditLogWriter.stats());
+    }
+
+    /**
+     * Задержки по обработчикам: p50/p90/p99/max и ошибки за всё время,
+     * а также за последний завершённый интервал вместе с пропускной способностью.
+     */
+    @GetMapping("/metrics")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> handlerMetrics() {
+        return ResponseEntity.ok(handlerMetrics.snapshot());
+    }
+
+    /** SQL на HTTP-запрос: среднее число операторов и последние запросы сверх порога (подозрение на N+1). */
+    @GetMapping("/sql/requests")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> sqlRequestStats() {
+        return ResponseEntity.ok(sqlStatsFilter.stats());
+    }
+
+    /** Медленные SQL-операторы: последние записи (с планами EXPLAIN, где сняты) и формы с наибольшим суммарным временем. */
+    @GetMapping("/sql/slow")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> slowQueries(@RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(slowQueryLog.stats(Math.max(1, Math.min(limit, 500))));
+    }
+
+    /** Время старта до готовности, фазы инициализации и самые долгие шаги создания бинов. */
+    @GetMapping("/startup")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> startup() {
+        return ResponseEntity.ok(startupTimer.report());
+    }
+
+    /** Временные изменения уровней логирования и момент их автоматического отката. */
+    @GetMapping("/log-levels")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<Map<String, Object>>> logLevels() {
+        return ResponseEntity.ok(logLevelService.list());
+    }
+
+    /** Меняет уровень логгера (пакета) на durationSeconds; по истечении срока уровень возвращается сам. */
+    @PostMapping("/log-levels")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> setLogLevel(@Valid @RequestBody LogLevelRequest request) {
+        return ResponseEntity.ok(logLevelService.setLevel(request.getLogger(), request.getLevel(),
+                request.getDurationSeconds()));
+    }
+
+    @DeleteMapping("/log-levels/{logger}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> revertLogLevel(@PathVariable String logger) {
+        return logLevelService.revert(logger) ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Запускает генерацию синтетической школы в фоне. Ход и итог — GET /api/admin/generate.
+     * Пароль всех сгенерированных пользователей задаётся app.generator.password.
+     */
+    @PostMapping("/generate")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> generateSchool(@Valid @RequestBody SchoolGenerationRequest request) {
+        if (!schoolDataGenerator.start(request)) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(generationBusy());
+        }
+        return ResponseEntity.accepted().body(schoolDataGenerator.status());
+    }
+
+    @GetMapping("/generate")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> generationStatus() {
+        return ResponseEntity.ok(schoolDataGenerator.status());
+    }
+
+    /** Удаляет сгенерированные данные с указанным префиксом; префикс, не созданный генератором, — 400. */
+    @DeleteMapping("/generate/{prefix}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> purgeGenerated(@PathVariable String prefix) {
+        if (schoolDataGenerator.isRunning()) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(generationBusy());
+        }
+        return ResponseEntity.ok(schoolDataGenerator.purge(prefix));
+    }
+
+    private static Map<String, Object> generationBusy() {
+        Map<String, Object> body = new HashMap<>();
+        body.put("success", false);
+        body.put("message", "Генерация данных уже выполняется");
+        return body;
+    }
 }
@@ -2,23 +2,28 @@ package com.example.demo.controller;
 
 import com.example.demo.dto.GroupDTO;
 import com.example.demo.dto.auth.JwtResponse;
+import com.example.demo.dto.auth.RefreshTokenRequest;
 import com.example.demo.dto.auth.SignInRequest;
 import com.example.demo.dto.auth.SignUpRequest;
 import com.example.demo.entity.User;
+import com.example.demo.exception.HashingCapacityException;
+import com.example.demo.exception.InvalidRefreshTokenException;
 import com.example.demo.repository.GroupRepository;
 import com.example.demo.repository.UserRepository;
 import com.example.demo.service.GroupService;
+import com.example.demo.service.RefreshTokenService;
 import com.example.demo.security.jwt.JwtUtils;
+import com.example.demo.security.services.CurrentUser;
+import com.example.demo.security.services.PrincipalCache;
+import com.example.demo.security.services.TokenRevocationService;
 import com.example.demo.security.services.UserDetailsImpl;
-import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
-import io.jsonwebtoken.security.Keys;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -26,7 +31,6 @@ import org.springframework.web.bind.annotation.*;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.List;
-import java.util.Date;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -52,6 +56,15 @@ public class AuthController {
     @Autowired
     GroupService groupService;
 
+    @Autowired
+    PrincipalCache principalCache;
+
+    @Autowired
+    RefreshTokenService refreshTokenService;
+
+    @Autowired
+    TokenRevocationService tokenRevocationService;
+
     /**
      * Список групп для выбора при регистрации (доступен без авторизации).
      */
@@ -84,15 +97,8 @@ public class AuthController {
                 .map(GrantedAuthority::getAuthority)
                 .collect(Collectors.joining(","));
 
-            // Create JWT token manually to ensure roles are included
-            String jwt = Jwts.builder()
-                .setSubject(userDetails.getUsername())
-                .claim("roles", roles)
-                .setIssuedAt(new Date())
-                .setExpiration(new Date(System.currentTimeMillis() + 86400000)) // 24 hours
-                .signWith(Keys.hmacShaKeyFor("your-secret-key-change-this-in-production".getBytes()), 
-                         SignatureAlgorithm.HS256)
-                .compact();
+            // Token carries userId, groupId, subject and roles so later requests skip the DB lookup
+            String jwt = jwtUtils.generateJwtToken(userDetails);
 
             String fullName = userDetails.getFullName();
             String groupId = userDetails.getGroupId();
@@ -112,7 +118,7 @@ public class AuthController {
                 }
             } catch (Exception ignored) {}
 
-            return ResponseEntity.ok(new JwtResponse(
+            JwtResponse response = new JwtResponse(
                     jwt,
                     userDetails.getId(),
                     fullName,
@@ -122,13 +128,78 @@ public class AuthController {
                     groupId,
                     createdAt,
                     subject
-            ));
-        } catch (Exception e) {
+            );
+            response.setRefreshToken(refreshTokenService.issue(userDetails));
+            response.setExpiresIn(jwtUtils.getJwtExpirationMs() / 1000L);
+            return ResponseEntity.ok(response);
+        } catch (HashingCapacityException e) {
+            log.warn("[AUTH] signin rejected, hashing pool saturated: usernameOrEmail={}", loginRequest.getUsername());
+            return ResponseEntity.status(503).header("Retry-After", "1").body(e.getMessage());
+        } catch (AuthenticationException e) {
+            // Остальные ошибки (например, БД при сохранении refresh-сессии) уходят в GlobalExceptionHandler как 500
             log.warn("[AUTH] signin failed: usernameOrEmail={}, error={}", loginRequest.getUsername(), e.getMessage());
             return ResponseEntity.status(401).body("Authentication failed: " + e.getMessage());
         }
     }
 
+    /**
+     * Обмен refresh-токена на новую пару токенов без проверки пароля.
+     * Старый refresh-токен после обмена недействителен; его повторное предъявление отзывает весь вход.
+     */
+    @PostMapping("/refresh")
+    public ResponseEntity<?> refreshToken(@Valid @RequestBody RefreshTokenRequest request) {
+        try {
+            RefreshTokenService.Rotation rotation = refreshTokenService.rotate(request.getRefreshToken());
+            UserDetailsImpl userDetails = rotation.principal();
+            String roles = userDetails.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.joining(","));
+
+            return ResponseEntity.ok(JwtResponse.builder()
+                    .token(jwtUtils.generateJwtToken(userDetails))
+                    .refreshToken(rotation.refreshToken())
+                    .expiresIn(jwtUtils.getJwtExpirationMs() / 1000L)
+                    .id(userDetails.getId())
+                    .username(userDetails.getFullName())
+                    .email(userDetails.getEmail())
+                    .role(roles)
+                    .fullName(userDetails.getFullName())
+                    .groupId(userDetails.getGroupId())
+                    .subject(userDetails.getSubject())
+                    .build());
+        } catch (InvalidRefreshTokenException e) {
+            log.warn("[AUTH] refresh rejected: {}", e.getMessage());
+            return ResponseEntity.status(401).body("Refresh failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Выход на этом устройстве: отзывает семейство переданного refresh-токена.
+     * Текущий access-токен действует до истечения своего короткого срока.
+     */
+    @PostMapping("/signout")
+    public ResponseEntity<?> signOut(@Valid @RequestBody RefreshTokenRequest request) {
+        UserDetailsImpl current = CurrentUser.principal();
+        boolean revoked = refreshTokenService.revoke(request.getRefreshToken(), current != null ? current.getId() : null);
+        if (!revoked) {
+            return ResponseEntity.badRequest().body("Error: Invalid refresh token");
+        }
+        log.info("[AUTH] signout: user={}", current != null ? current.getUsername() : "anonymous");
+        return ResponseEntity.ok("Signed out");
+    }
+
+    /** Выход на всех устройствах: все ранее выданные access- и refresh-токены пользователя недействительны сразу. */
+    @PostMapping("/signout-all")
+    public ResponseEntity<?> signOutEverywhere() {
+        UserDetailsImpl current = CurrentUser.principal();
+        if (current == null) {
+            return ResponseEntity.status(401).body("Error: Unauthorized");
+        }
+        tokenRevocationService.revokeAll(current.getId());
+        log.info("[AUTH] signout from all devices: user={}", current.getUsername());
+        return ResponseEntity.ok("Signed out from all devices");
+    }
+
     @PostMapping("/signup")
     public ResponseEntity<?> registerUser(@Valid @RequestBody SignUpRequest signUpRequest) {
         String email = signUpRequest.getEmail();
@@ -168,6 +239,8 @@ public class AuthController {
 
         try {
             userRepository.save(user);
+            // Email мог попасть в негативный кэш при неудачных попытках входа до регистрации
+            principalCache.evictMissing(user.getEmail(), user.getUserId(), user.getFullName());
             log.info("[AUTH] signup success: email={}, groupId={}", signUpRequest.getEmail(), groupId);
             return ResponseEntity.ok("User registered successfully!");
         } catch (Exception e) {
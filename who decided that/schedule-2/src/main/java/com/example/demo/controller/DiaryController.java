@@ -7,13 +7,14 @@ import com.example.demo.dto.HomeworkDTO;
 import com.example.demo.dto.ScheduleDTO;
 import com.example.demo.dto.StudentGradeStatsDTO;
 import com.example.demo.dto.UserDTO;
-import com.example.demo.entity.User;
-import com.example.demo.repository.UserRepository;
+import com.example.demo.security.services.CurrentUser;
 import com.example.demo.security.services.UserDetailsImpl;
+import com.example.demo.security.services.UserDetailsServiceImpl;
 import com.example.demo.service.AttendanceService;
 import com.example.demo.service.GradeService;
 import com.example.demo.service.GroupService;
 import com.example.demo.service.HomeworkService;
+import com.example.demo.service.JournalRoster;
 import com.example.demo.service.ScheduleService;
 import com.example.demo.service.UserService;
 import jakarta.validation.Valid;
@@ -24,8 +25,8 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDate;
@@ -62,23 +63,15 @@ public class DiaryController {
     private ScheduleService scheduleService;
 
     @Autowired
-    private UserRepository userRepository;
+    private UserDetailsServiceImpl userDetailsService;
 
-    private String currentRole() {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        if (auth == null) return "USER";
-        boolean isAdmin = auth.getAuthorities().stream()
-                .map(GrantedAuthority::getAuthority).anyMatch("ROLE_ADMIN"::equals);
-        if (isAdmin) return "ADMIN";
-        boolean isTeacher = auth.getAuthorities().stream()
-                .map(GrantedAuthority::getAuthority).anyMatch("ROLE_TEACHER"::equals);
-        if (isTeacher) return "TEACHER";
-        return "USER";
-    }
-
-    private boolean isAdminOrTeacher() {
-        String role = currentRole();
-        return "ADMIN".equals(role) || "TEACHER".equals(role);
+    /** Принципал по имени из токена старого формата — через кэширующий UserDetailsServiceImpl. */
+    private UserDetailsImpl lookupPrincipal(String username) {
+        try {
+            return (UserDetailsImpl) userDetailsService.loadUserByUsername(username);
+        } catch (UsernameNotFoundException e) {
+            return null;
+        }
     }
 
     private String currentUserId() {
@@ -87,8 +80,8 @@ public class DiaryController {
         if (auth.getPrincipal() instanceof UserDetailsImpl ud) {
             return ud.getId();
         }
-        String email = auth.getName();
-        return userRepository.findByEmail(email).map(User::getUserId).orElse(null);
+        UserDetailsImpl principal = lookupPrincipal(auth.getName());
+        return principal != null ? principal.getId() : null;
     }
 
     private String currentUserGroupId() {
@@ -97,8 +90,8 @@ public class DiaryController {
         if (auth.getPrincipal() instanceof UserDetailsImpl ud) {
             return ud.getGroupId();
         }
-        String email = auth.getName();
-        return userRepository.findByEmail(email).map(User::getGroupId).orElse(null);
+        UserDetailsImpl principal = lookupPrincipal(auth.getName());
+        return principal != null ? principal.getGroupId() : null;
     }
 
     private String currentUserSubject() {
@@ -107,8 +100,8 @@ public class DiaryController {
         if (auth.getPrincipal() instanceof UserDetailsImpl ud) {
             return ud.getSubject();
         }
-        String email = auth.getName();
-        return userRepository.findByEmail(email).map(User::getSubject).orElse(null);
+        UserDetailsImpl principal = lookupPrincipal(auth.getName());
+        return principal != null ? principal.getSubject() : null;
     }
     
     // Student Diary Endpoints
@@ -180,7 +173,7 @@ public class DiaryController {
         List<UserDTO> students = userService.getUsersByGroupId(classId);
         classJournal.put("students", students);
         List<GradeDTO> grades = gradeService.getGradesByGroupId(classId);
-        if ("TEACHER".equals(currentRole())) {
+        if (CurrentUser.isTeacherOnly()) {
             String teacherSubject = currentUserSubject();
             if (teacherSubject != null && !teacherSubject.isBlank()) {
                 grades = grades.stream().filter(g -> teacherSubject.equalsIgnoreCase(g.getSubject())).collect(Collectors.toList());
@@ -222,7 +215,7 @@ public class DiaryController {
 
         List<ScheduleDTO> scheduleForDay = scheduleService.getScheduleByGroupIdAndDayOfWeek(groupId, date.getDayOfWeek().name());
 
-        if ("TEACHER".equals(currentRole())) {
+        if (CurrentUser.isTeacherOnly()) {
             String teacherSubject = currentUserSubject();
             if (teacherSubject != null && !teacherSubject.isBlank()) {
                 scheduleForDay = scheduleForDay.stream()
@@ -234,46 +227,7 @@ public class DiaryController {
         List<GradeDTO> gradesForDate = gradeService.getGradesByGroupIdAndDate(groupId, date);
         List<AttendanceDTO> attendanceForDate = attendanceService.getAttendanceByGroupIdAndDate(groupId, date);
 
-        List<Map<String, Object>> lessons = new ArrayList<>();
-        for (ScheduleDTO lesson : scheduleForDay) {
-            Map<String, Object> lessonEntry = new HashMap<>();
-            lessonEntry.put("scheduleId", lesson.getScheduleId());
-            lessonEntry.put("subject", lesson.getSubject());
-            lessonEntry.put("startTime", lesson.getStartTime() != null ? lesson.getStartTime().toString() : null);
-            lessonEntry.put("endTime", lesson.getEndTime() != null ? lesson.getEndTime().toString() : null);
-            lessonEntry.put("teacher", lesson.getTeacher());
-            List<Map<String, Object>> roster = new ArrayList<>();
-            for (UserDTO student : students) {
-                String sid = student.getUserId();
-                Map<String, Object> row = new HashMap<>();
-                row.put("studentId", sid);
-                row.put("studentName", student.getFullName());
-                String lessonSubject = lesson.getSubject();
-                GradeDTO gradeForStudent = gradesForDate.stream()
-                        .filter(g -> sid.equals(g.getStudentId()) && (lessonSubject != null && lessonSubject.equals(g.getSubject())))
-                        .findFirst()
-                        .orElse(null);
-                if (gradeForStudent != null) {
-                    row.put("gradeId", gradeForStudent.getId());
-                    row.put("gradeValue", gradeForStudent.getGradeValue());
-                    row.put("gradeType", gradeForStudent.getGradeType());
-                    row.put("comment", gradeForStudent.getComment());
-                } else {
-                    row.put("gradeId", null);
-                    row.put("gradeValue", null);
-                    row.put("gradeType", null);
-                    row.put("comment", null);
-                }
-                AttendanceDTO att = attendanceForDate.stream()
-                        .filter(a -> sid.equals(a.getStudentId()) && (lessonSubject != null && lessonSubject.equals(a.getSubject())))
-                        .findFirst().orElse(null);
-                row.put("attendanceStatus", att != null ? att.getStatus() : null);
-                row.put("attendanceId", att != null ? att.getId() : null);
-                roster.add(row);
-            }
-            lessonEntry.put("roster", roster);
-            lessons.add(lessonEntry);
-        }
+        List<Map<String, Object>> lessons = JournalRoster.buildLessons(scheduleForDay, students, gradesForDate, attendanceForDate);
         journal.put("lessons", lessons);
         log.info("getJournalByDate - groupId={}, date={}, lessons={}", groupId, date, lessons.size());
         return ResponseEntity.ok(journal);
@@ -289,7 +243,7 @@ public class DiaryController {
             @RequestParam(required = false) String groupId,
             @RequestParam(required = false) String subject) {
         List<GradeDTO> grades;
-        String role = currentRole();
+        String role = CurrentUser.role();
         if ("ADMIN".equals(role)) {
             grades = gradeService.getAllGrades();
             if (groupId != null && !groupId.isBlank()) {
@@ -321,7 +275,7 @@ public class DiaryController {
     public ResponseEntity<GradeDTO> getGradeById(@PathVariable Long id) {
         Optional<GradeDTO> grade = gradeService.getGradeById(id);
         if (grade.isEmpty()) return ResponseEntity.notFound().build();
-        if (!isAdminOrTeacher()) {
+        if (!CurrentUser.isAdminOrTeacher()) {
             String uid = currentUserId();
             if (uid == null || !uid.equals(grade.get().getStudentId())) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
@@ -335,7 +289,7 @@ public class DiaryController {
      */
     @GetMapping("/grades/student/{studentId}")
     public ResponseEntity<?> getGradesByStudent(@PathVariable String studentId) {
-        if (!isAdminOrTeacher()) {
+        if (!CurrentUser.isAdminOrTeacher()) {
             String uid = currentUserId();
             if (uid == null || !uid.equals(studentId)) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Доступ только к своим оценкам");
@@ -352,7 +306,7 @@ public class DiaryController {
             @PathVariable String groupId,
             @RequestParam(required = false) String subject) {
         List<GradeDTO> grades = gradeService.getGradesByGroupId(groupId);
-        if ("TEACHER".equals(currentRole())) {
+        if (CurrentUser.isTeacherOnly()) {
             String teacherSubject = currentUserSubject();
             if (teacherSubject != null && !teacherSubject.isBlank()) {
                 grades = grades.stream().filter(g -> teacherSubject.equalsIgnoreCase(g.getSubject())).collect(Collectors.toList());
@@ -368,7 +322,7 @@ public class DiaryController {
     public ResponseEntity<?> getGradesByStudentAndSubject(
             @PathVariable String studentId, 
             @PathVariable String subject) {
-        if (!isAdminOrTeacher()) {
+        if (!CurrentUser.isAdminOrTeacher()) {
             String uid = currentUserId();
             if (uid == null || !uid.equals(studentId)) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Доступ только к своим оценкам");
@@ -389,7 +343,7 @@ public class DiaryController {
     public ResponseEntity<?> getGradesByStudentAndSchedule(
             @PathVariable String studentId,
             @PathVariable String scheduleId) {
-        if (!isAdminOrTeacher()) {
+        if (!CurrentUser.isAdminOrTeacher()) {
             String uid = currentUserId();
             if (uid == null || !uid.equals(studentId)) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Доступ только к своим оценкам");
@@ -401,7 +355,7 @@ public class DiaryController {
     
     @GetMapping("/grades/student/{studentId}/stats")
     public ResponseEntity<?> getStudentGradeStats(@PathVariable String studentId) {
-        if (!isAdminOrTeacher()) {
+        if (!CurrentUser.isAdminOrTeacher()) {
             String uid = currentUserId();
             if (uid == null || !uid.equals(studentId)) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Доступ только к своей статистике");
@@ -413,7 +367,7 @@ public class DiaryController {
     
     @GetMapping("/grades/student/{studentId}/average")
     public ResponseEntity<?> getStudentAverageGrade(@PathVariable String studentId) {
-        if (!isAdminOrTeacher()) {
+        if (!CurrentUser.isAdminOrTeacher()) {
             String uid = currentUserId();
             if (uid == null || !uid.equals(studentId)) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Доступ только к своей статистике");
@@ -430,7 +384,7 @@ public class DiaryController {
     public ResponseEntity<?> getStudentAverageGradeBySubject(
             @PathVariable String studentId,
             @PathVariable String subject) {
-        if (!isAdminOrTeacher()) {
+        if (!CurrentUser.isAdminOrTeacher()) {
             String uid = currentUserId();
             if (uid == null || !uid.equals(studentId)) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Доступ только к своей статистике");
@@ -449,7 +403,7 @@ public class DiaryController {
     @PreAuthorize("hasAnyRole('ADMIN','TEACHER')")
     public ResponseEntity<?> createGrade(@Valid @RequestBody GradeDTO gradeDTO) {
         log.debug("createGrade(studentId={}, subject={}, value={})", gradeDTO.getStudentId(), gradeDTO.getSubject(), gradeDTO.getGradeValue());
-        if ("TEACHER".equals(currentRole())) {
+        if (CurrentUser.isTeacherOnly()) {
             String teacherSubject = currentUserSubject();
             if (teacherSubject != null && !teacherSubject.isBlank()
                     && !teacherSubject.equalsIgnoreCase(gradeDTO.getSubject())) {
@@ -473,7 +427,7 @@ public class DiaryController {
     @PreAuthorize("hasAnyRole('ADMIN','TEACHER')")
     public ResponseEntity<?> updateGrade(@PathVariable Long id, 
                                                  @Valid @RequestBody GradeDTO gradeDTO) {
-        if ("TEACHER".equals(currentRole())) {
+        if (CurrentUser.isTeacherOnly()) {
             String teacherSubject = currentUserSubject();
             if (teacherSubject != null && !teacherSubject.isBlank()
                     && !teacherSubject.equalsIgnoreCase(gradeDTO.getSubject())) {
@@ -509,7 +463,7 @@ public class DiaryController {
     @GetMapping("/homework")
     public ResponseEntity<List<HomeworkDTO>> getAllHomework() {
         List<HomeworkDTO> homework = homeworkService.getAllHomework();
-        if (!isAdminOrTeacher()) {
+        if (!CurrentUser.isAdminOrTeacher()) {
             String groupId = currentUserGroupId();
             if (groupId != null) {
                 homework = homework.stream()
@@ -530,7 +484,7 @@ public class DiaryController {
     /** Домашка по группе. Ученик — только своя группа. */
     @GetMapping("/homework/group/{groupId}")
     public ResponseEntity<?> getHomeworkByGroup(@PathVariable String groupId) {
-        if (!isAdminOrTeacher()) {
+        if (!CurrentUser.isAdminOrTeacher()) {
             String userGroup = currentUserGroupId();
             if (userGroup == null || !userGroup.equals(groupId)) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Доступ только к своей группе");
@@ -542,7 +496,7 @@ public class DiaryController {
     
     @GetMapping("/homework/student/{studentId}")
     public ResponseEntity<?> getHomeworkByStudent(@PathVariable String studentId) {
-        if (!isAdminOrTeacher()) {
+        if (!CurrentUser.isAdminOrTeacher()) {
             String uid = currentUserId();
             if (uid == null || !uid.equals(studentId)) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Доступ только к своим данным");
@@ -554,7 +508,7 @@ public class DiaryController {
     
     @GetMapping("/homework/group/{groupId}/upcoming")
     public ResponseEntity<?> getUpcomingHomework(@PathVariable String groupId) {
-        if (!isAdminOrTeacher()) {
+        if (!CurrentUser.isAdminOrTeacher()) {
             String userGroup = currentUserGroupId();
             if (userGroup == null || !userGroup.equals(groupId)) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Доступ только к своей группе");
@@ -600,7 +554,7 @@ public class DiaryController {
     @GetMapping("/attendance")
     public ResponseEntity<List<AttendanceDTO>> getAllAttendance() {
         List<AttendanceDTO> attendance = attendanceService.getAllAttendance();
-        if (!isAdminOrTeacher()) {
+        if (!CurrentUser.isAdminOrTeacher()) {
             String uid = currentUserId();
             if (uid != null) {
                 attendance = attendance.stream()
@@ -620,7 +574,7 @@ public class DiaryController {
     
     @GetMapping("/attendance/student/{studentId}")
     public ResponseEntity<?> getAttendanceByStudent(@PathVariable String studentId) {
-        if (!isAdminOrTeacher()) {
+        if (!CurrentUser.isAdminOrTeacher()) {
             String uid = currentUserId();
             if (uid == null || !uid.equals(studentId)) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Доступ только к своим данным");
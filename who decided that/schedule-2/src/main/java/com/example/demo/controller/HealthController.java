@@ -1,5 +1,8 @@
 package com.example.demo.controller;
 
+import com.example.demo.service.HealthProbeService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -11,17 +14,51 @@ import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
 
+/**
+ * Проверки здоровья. Все ответы берутся из кэша HealthProbeService и не обращаются к БД.
+ * /live — для перезапуска процесса, /ready — для вывода экземпляра из балансировки.
+ */
 @RestController
 @RequestMapping("/api/health")
 @CrossOrigin(origins = "*")
 public class HealthController {
+
+    @Autowired
+    private HealthProbeService healthProbeService;
     
     @GetMapping
     public ResponseEntity<Map<String, Object>> healthCheck() {
+        HealthProbeService.Snapshot snapshot = healthProbeService.getSnapshot();
         Map<String, Object> health = new HashMap<>();
-        health.put("status", "UP");
+        health.put("status", snapshot.status().name());
         health.put("timestamp", LocalDateTime.now());
+        health.put("checkedAt", snapshot.checkedAt().toString());
         health.put("service", "Schedule Backend API");
-        return ResponseEntity.ok(health);
+        health.put("database", snapshot.database());
+        health.put("pool", snapshot.pool());
+        health.put("fastApi", snapshot.fastApi());
+        HttpStatus code = snapshot.status() == HealthProbeService.Status.DOWN
+                ? HttpStatus.SERVICE_UNAVAILABLE : HttpStatus.OK;
+        return ResponseEntity.status(code).body(health);
+    }
+
+    @GetMapping("/live")
+    public ResponseEntity<Map<String, Object>> liveness() {
+        boolean live = healthProbeService.isLive();
+        Map<String, Object> body = new HashMap<>();
+        body.put("status", live ? "UP" : "DOWN");
+        return ResponseEntity.status(live ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE).body(body);
+    }
+
+    @GetMapping("/ready")
+    public ResponseEntity<Map<String, Object>> readiness() {
+        HealthProbeService.Snapshot snapshot = healthProbeService.getSnapshot();
+        boolean ready = healthProbeService.isReady();
+        Map<String, Object> body = new HashMap<>();
+        body.put("status", snapshot.status().name());
+        body.put("checkedAt", snapshot.checkedAt().toString());
+        body.put("database", snapshot.database());
+        body.put("pool", snapshot.pool());
+        return ResponseEntity.status(ready ? HttpStatus.OK : HttpStatus.SERVICE_UNAVAILABLE).body(body);
     }
 }
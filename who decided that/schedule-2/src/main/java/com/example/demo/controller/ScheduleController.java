@@ -1,9 +1,9 @@
 package com.example.demo.controller;
 
 import com.example.demo.dto.ScheduleDTO;
-import com.example.demo.entity.User;
-import com.example.demo.repository.UserRepository;
+import com.example.demo.security.services.CurrentUser;
 import com.example.demo.security.services.UserDetailsImpl;
+import com.example.demo.security.services.UserDetailsServiceImpl;
 import com.example.demo.service.ScheduleService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -11,8 +11,8 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -26,23 +26,15 @@ import java.util.stream.Collectors;
 public class ScheduleController {
     
     private final ScheduleService scheduleService;
-    private final UserRepository userRepository;
+    private final UserDetailsServiceImpl userDetailsService;
 
-    private String currentRole() {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        if (auth == null) return "USER";
-        boolean isAdmin = auth.getAuthorities().stream()
-                .map(GrantedAuthority::getAuthority).anyMatch("ROLE_ADMIN"::equals);
-        if (isAdmin) return "ADMIN";
-        boolean isTeacher = auth.getAuthorities().stream()
-                .map(GrantedAuthority::getAuthority).anyMatch("ROLE_TEACHER"::equals);
-        if (isTeacher) return "TEACHER";
-        return "USER";
-    }
-
-    private boolean isAdminOrTeacher() {
-        String role = currentRole();
-        return "ADMIN".equals(role) || "TEACHER".equals(role);
+    /** Принципал по имени из токена старого формата — через кэширующий UserDetailsServiceImpl. */
+    private UserDetailsImpl lookupPrincipal(String username) {
+        try {
+            return (UserDetailsImpl) userDetailsService.loadUserByUsername(username);
+        } catch (UsernameNotFoundException e) {
+            return null;
+        }
     }
 
     private String currentUserGroupId() {
@@ -51,8 +43,8 @@ public class ScheduleController {
         if (auth.getPrincipal() instanceof UserDetailsImpl ud) {
             return ud.getGroupId();
         }
-        String email = auth.getName();
-        return userRepository.findByEmail(email).map(User::getGroupId).orElse(null);
+        UserDetailsImpl principal = lookupPrincipal(auth.getName());
+        return principal != null ? principal.getGroupId() : null;
     }
 
     private String currentUserSubject() {
@@ -61,8 +53,8 @@ public class ScheduleController {
         if (auth.getPrincipal() instanceof UserDetailsImpl ud) {
             return ud.getSubject();
         }
-        String email = auth.getName();
-        return userRepository.findByEmail(email).map(User::getSubject).orElse(null);
+        UserDetailsImpl principal = lookupPrincipal(auth.getName());
+        return principal != null ? principal.getSubject() : null;
     }
 
     private List<ScheduleDTO> filterForTeacher(List<ScheduleDTO> schedules) {
@@ -83,7 +75,7 @@ public class ScheduleController {
             @RequestParam(required = false) String groupId) {
         try {
             List<ScheduleDTO> schedules = scheduleService.getAllSchedules();
-            String role = currentRole();
+            String role = CurrentUser.role();
             switch (role) {
                 case "ADMIN":
                     if (groupId != null && !groupId.isBlank()) {
@@ -119,7 +111,7 @@ public class ScheduleController {
     public ResponseEntity<List<ScheduleDTO>> getTodaySchedule() {
         try {
             List<ScheduleDTO> todaySchedule = scheduleService.getTodaySchedule();
-            String role = currentRole();
+            String role = CurrentUser.role();
             if ("TEACHER".equals(role)) {
                 todaySchedule = filterForTeacher(todaySchedule);
             } else if ("USER".equals(role)) {
@@ -140,7 +132,7 @@ public class ScheduleController {
     public ResponseEntity<List<ScheduleDTO>> getScheduleByDay(@PathVariable String dayOfWeek) {
         try {
             List<ScheduleDTO> schedule = scheduleService.getScheduleByDay(dayOfWeek);
-            String role = currentRole();
+            String role = CurrentUser.role();
             if ("TEACHER".equals(role)) {
                 schedule = filterForTeacher(schedule);
             } else if ("USER".equals(role)) {
@@ -163,7 +155,7 @@ public class ScheduleController {
     @GetMapping("/group/{groupId}")
     public ResponseEntity<List<ScheduleDTO>> getScheduleByGroup(@PathVariable String groupId) {
         try {
-            if (!isAdminOrTeacher()) {
+            if (!CurrentUser.isAdminOrTeacher()) {
                 String userGroup = currentUserGroupId();
                 if (userGroup == null || !userGroup.equals(groupId)) {
                     return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
@@ -172,7 +164,7 @@ public class ScheduleController {
             List<ScheduleDTO> schedules = scheduleService.getAllSchedules().stream()
                     .filter(s -> groupId.equals(s.getGroupId()))
                     .collect(Collectors.toList());
-            if ("TEACHER".equals(currentRole())) {
+            if (CurrentUser.isTeacherOnly()) {
                 schedules = filterForTeacher(schedules);
             }
             return ResponseEntity.ok(schedules);
@@ -181,6 +173,24 @@ public class ScheduleController {
         }
     }
     
+    /**
+     * Свободные окна для урока длительностью duration минут: по каждому дню ПН–ПТ — возможные начала,
+     * когда свободны группа, учитель и кабинет. Считается по битовым маскам в памяти, без запросов к БД.
+     */
+    @GetMapping("/free-slots")
+    @PreAuthorize("hasAnyRole('ADMIN','TEACHER')")
+    public ResponseEntity<?> getFreeSlots(@RequestParam(required = false) String groupId,
+                                          @RequestParam(required = false) String teacher,
+                                          @RequestParam(required = false) String room,
+                                          @RequestParam(defaultValue = "45") int duration,
+                                          @RequestParam(defaultValue = "5") int step) {
+        try {
+            return ResponseEntity.ok(scheduleService.findFreeSlots(groupId, teacher, room, duration, step));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+    
     @GetMapping("/{id}")
     public ResponseEntity<ScheduleDTO> getScheduleById(@PathVariable String id) {
         try {
@@ -0,0 +1,16 @@
+package com.example.demo.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+@Data
+public class LogLevelRequest {
+    @NotBlank(message = "Logger name is required")
+    private String logger;
+
+    @NotBlank(message = "Level is required")
+    private String level;
+
+    /** Через сколько секунд вернуть прежний уровень. */
+    private long durationSeconds = 600;
+}
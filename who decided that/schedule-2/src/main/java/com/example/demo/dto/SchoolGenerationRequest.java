@@ -0,0 +1,52 @@
+package com.example.demo.dto;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Pattern;
+import lombok.Data;
+
+/** Параметры синтетической школы для нагрузочных проверок. Те же поля задаются через app.generator.* при запуске из CLI. */
+@Data
+public class SchoolGenerationRequest {
+    /** Префикс идентификаторов: по нему сгенерированные данные потом удаляются. */
+    @Pattern(regexp = "[a-z0-9]{1,8}", message = "Prefix must be 1-8 lowercase letters or digits")
+    private String prefix = "gen";
+
+    @Min(1) @Max(10000)
+    private int groups = 20;
+
+    @Min(1) @Max(200)
+    private int studentsPerGroup = 25;
+
+    /** Минимум: учителей добавляется столько, чтобы каждый вёл не больше одного урока в слот (groups / subjects). */
+    @Min(1) @Max(50)
+    private int teachersPerSubject = 2;
+
+    @Min(1) @Max(10)
+    private int subjects = 8;
+
+    @Min(1) @Max(8)
+    private int lessonsPerDay = 6;
+
+    /** Глубина истории оценок и посещаемости в календарных днях (учитываются только ПН–ПТ). */
+    @Min(0) @Max(730)
+    private int days = 180;
+
+    /** Вероятность оценки у ученика за урок. */
+    @DecimalMin("0.0") @DecimalMax("1.0")
+    private double gradeProbability = 0.3;
+
+    /** Домашних заданий в неделю на группу и предмет. */
+    @Min(0) @Max(5)
+    private int homeworkPerWeek = 1;
+
+    @Min(0) @Max(100000)
+    private int news = 200;
+
+    private long seed = 42;
+
+    @Min(100) @Max(50000)
+    private int batchSize = 5000;
+}
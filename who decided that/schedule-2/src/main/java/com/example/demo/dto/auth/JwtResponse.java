@@ -34,4 +34,7 @@ public class JwtResponse {
     private String groupId;
     private String createdAt;
     private String subject;
+    private String refreshToken;
+    /** Время жизни access-токена в секундах */
+    private Long expiresIn;
 }
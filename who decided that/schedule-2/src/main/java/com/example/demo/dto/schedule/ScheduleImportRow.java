@@ -0,0 +1,35 @@
+package com.example.demo.dto.schedule;
+
+import com.fasterxml.jackson.annotation.JsonAlias;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+
+/**
+ * Строка импорта расписания (колонка CSV или поле объекта JSON).
+ * Все поля строковые: ошибка формата времени или дня попадает в отчёт по строке, а не обрывает чтение файла.
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ScheduleImportRow {
+    @JsonAlias({"group_id", "group"})
+    private String groupId;
+
+    @JsonAlias({"day_of_week", "day"})
+    private String dayOfWeek;
+
+    @JsonAlias({"start_time", "start"})
+    private String startTime;
+
+    @JsonAlias({"end_time", "end"})
+    private String endTime;
+
+    private String subject;
+
+    /** Название урока; если пусто — берётся subject. */
+    @JsonAlias({"scheduleName", "schedule_name"})
+    private String title;
+
+    private String teacher;
+
+    private String room;
+}
@@ -0,0 +1,71 @@
+package com.example.demo.dto.schedule;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/** Параметры автоматического составления недельного расписания (POST /api/admin/schedule/generate). */
+@Data
+public class TimetableRequest {
+    /** Группы для составления; пусто — все группы, в которых есть ученики. */
+    private List<String> groupIds = new ArrayList<>();
+
+    /** Уроков в неделю по предметам — для всех групп. */
+    @NotEmpty(message = "Subject hours are required")
+    private Map<String, Integer> subjectHours = new LinkedHashMap<>();
+
+    /** Часы отдельных групп вместо subjectHours. */
+    private Map<String, Map<String, Integer>> groupSubjectHours = new LinkedHashMap<>();
+
+    /** Кабинеты с вместимостью; пусто — кабинеты не назначаются. */
+    @Valid
+    private List<Room> rooms = new ArrayList<>();
+
+    @Min(1) @Max(6)
+    private int days = 5;
+
+    @Min(1) @Max(10)
+    private int lessonsPerDay = 6;
+
+    @NotNull
+    @JsonFormat(pattern = "HH:mm")
+    private LocalTime dayStart = LocalTime.of(8, 30);
+
+    @Min(20) @Max(120)
+    private int lessonMinutes = 45;
+
+    @Min(0) @Max(60)
+    private int breakMinutes = 10;
+
+    /** Сколько уроков одного предмета может быть у группы в один день. */
+    @Min(1) @Max(4)
+    private int maxSameSubjectPerDay = 2;
+
+    @Min(100) @Max(60000)
+    private long timeBudgetMs = 5000;
+
+    private long seed = 1;
+
+    /** false — только расчёт без записи в БД. */
+    private boolean persist = true;
+
+    @Data
+    public static class Room {
+        @NotBlank(message = "Room name is required")
+        private String name;
+
+        @Min(1)
+        private int capacity = 30;
+    }
+}
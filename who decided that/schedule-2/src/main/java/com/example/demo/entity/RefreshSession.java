@@ -0,0 +1,35 @@
+package com.example.demo.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import java.time.LocalDateTime;
+
+/**
+ * Семейство refresh-токенов одного входа. Хранится только jti последнего выданного токена:
+ * предъявление любого более старого токена того же семейства означает повторное использование.
+ */
+@Entity
+@Table(name = "refresh_sessions", indexes = {
+        @Index(name = "idx_refresh_sessions_user_id", columnList = "user_id")
+})
+@Data
+public class RefreshSession {
+    @Id
+    @Column(name = "family_id", length = 36)
+    private String familyId;
+
+    @Column(name = "user_id", nullable = false, columnDefinition = "text")
+    private String userId;
+
+    @Column(name = "current_jti", nullable = false, length = 36)
+    private String currentJti;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @Column(nullable = false)
+    private Boolean revoked = false;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
@@ -1,5 +1,6 @@
 package com.example.demo.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 // import com.fasterxml.jackson.databind.JsonNode;
 import jakarta.persistence.*;
@@ -7,6 +8,7 @@ import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
 import org.hibernate.annotations.UpdateTimestamp;
+import org.springframework.data.domain.Persistable;
 
 import java.time.LocalDateTime;
 import java.time.LocalTime;
@@ -17,7 +19,7 @@ import java.util.Map;
 @Entity
 @Table(name = "schedule")
 @JsonInclude(JsonInclude.Include.NON_NULL)
-public class Schedule {
+public class Schedule implements Persistable<String> {
 
     @Id
     @Column(name = "schedule_id", length = 50, nullable = false)
@@ -63,6 +65,10 @@ public class Schedule {
     @OneToMany(mappedBy = "schedule", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.LAZY)
     private List<Group> groups = new ArrayList<>();
 
+    // Идентификатор назначается в коде, поэтому save() без этого флага делал бы merge с SELECT перед INSERT
+    @Transient
+    private boolean isNew = true;
+
     // No-args constructor
     public Schedule() {
         this.groups = new ArrayList<>();
@@ -77,6 +83,25 @@ public class Schedule {
     }
 
     // --- Getters and Setters ---
+    @Override
+    @JsonIgnore
+    public String getId() {
+        return scheduleId;
+    }
+
+    /** true до первого сохранения: save() вызывает persist, загруженные из БД уроки идут через merge. */
+    @Override
+    @JsonIgnore
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+
     public String getScheduleId() {
         return scheduleId;
     }
@@ -0,0 +1,25 @@
+package com.example.demo.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Версия начальных данных, уже применённых к базе. DataInitializer пропускает заполнение,
+ * если записанная версия не меньше текущей. Одна строка на набор данных.
+ */
+@Entity
+@Table(name = "seed_markers")
+@Data
+public class SeedMarker {
+    @Id
+    @Column(name = "name", length = 50)
+    private String name;
+
+    @Column(name = "version", nullable = false)
+    private Integer version;
+
+    @Column(name = "applied_at", nullable = false)
+    private LocalDateTime appliedAt;
+}
@@ -0,0 +1,21 @@
+package com.example.demo.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+/**
+ * Отметка отзыва токенов пользователя: все JWT (access и refresh), выпущенные
+ * раньше revokedBefore, недействительны. Одна строка на пользователя.
+ */
+@Entity
+@Table(name = "token_revocations")
+@Data
+public class TokenRevocation {
+    @Id
+    @Column(name = "user_id", columnDefinition = "text")
+    private String userId;
+
+    /** Граница в секундах Unix-времени — той же точности, что и iat в JWT. */
+    @Column(name = "revoked_before_epoch", nullable = false)
+    private Long revokedBeforeEpoch;
+}
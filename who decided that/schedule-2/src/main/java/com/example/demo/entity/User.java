@@ -5,9 +5,14 @@ import org.hibernate.annotations.CreationTimestamp;
 // import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
+import java.util.Locale;
 
 @Entity
-@Table(name = "users")
+@Table(name = "users", indexes = {
+        @Index(name = "idx_users_email_key", columnList = "email_key"),
+        @Index(name = "idx_users_user_id_key", columnList = "user_id_key"),
+        @Index(name = "idx_users_full_name_key", columnList = "full_name_key")
+})
 public class User {
     
     @Id
@@ -45,6 +50,29 @@ public class User {
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "group_id", insertable = false, updatable = false)
     private Group group;
+
+    // Нормализованные (trim + lower case) ключи для входа одним индексным запросом
+    @Column(name = "email_key", length = 255)
+    private String emailKey;
+
+    @Column(name = "user_id_key", columnDefinition = "text")
+    private String userIdKey;
+
+    @Column(name = "full_name_key", columnDefinition = "text")
+    private String fullNameKey;
+
+    /** Нормализация идентификатора входа: та же, что у email_key/user_id_key/full_name_key. */
+    public static String lookupKey(String identifier) {
+        return identifier == null ? null : identifier.trim().toLowerCase(Locale.ROOT);
+    }
+
+    @PrePersist
+    @PreUpdate
+    protected void updateLookupKeys() {
+        this.emailKey = lookupKey(email);
+        this.userIdKey = lookupKey(userId);
+        this.fullNameKey = lookupKey(fullName);
+    }
     
     // Constructors
     public User() {}
@@ -146,4 +174,16 @@ public class User {
     public void setGroup(Group group) {
         this.group = group;
     }
+
+    public String getEmailKey() {
+        return emailKey;
+    }
+
+    public String getUserIdKey() {
+        return userIdKey;
+    }
+
+    public String getFullNameKey() {
+        return fullNameKey;
+    }
 }
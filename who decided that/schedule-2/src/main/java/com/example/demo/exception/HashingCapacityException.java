@@ -0,0 +1,20 @@
+package com.example.demo.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Пул хеширования паролей переполнен — запрос отклоняется сразу (503),
+ * а не ждёт в неограниченной очереди.
+ */
+@ResponseStatus(value = HttpStatus.SERVICE_UNAVAILABLE)
+public class HashingCapacityException extends RuntimeException {
+
+    public HashingCapacityException(String message) {
+        super(message);
+    }
+
+    public HashingCapacityException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -3,22 +3,33 @@ package com.example.demo.repository;
 import com.example.demo.entity.News;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Optional;
+
 @Repository
 public interface NewsRepository extends JpaRepository<News, Long> {
-    
+
+    // Автор нужен в каждом NewsDTO — загружаем его тем же запросом, а не отдельным на каждую новость
+    @EntityGraph(attributePaths = "author")
     Page<News> findByIsPublishedTrueOrderByPublicationDateDesc(Pageable pageable);
     
+    @EntityGraph(attributePaths = "author")
     Page<News> findAllByOrderByPublicationDateDesc(Pageable pageable);
+
+    @EntityGraph(attributePaths = "author")
+    @Query("SELECT n FROM News n WHERE n.id = :id")
+    Optional<News> findWithAuthorById(@Param("id") Long id);
     
     // Using author.userId since the User entity uses userId as the ID field
     @Query("SELECT n FROM News n WHERE n.author.userId = :authorId ORDER BY n.publicationDate DESC")
     Page<News> findByAuthorIdOrderByPublicationDateDesc(@Param("authorId") String authorId, Pageable pageable);
     
+    @EntityGraph(attributePaths = "author")
     @Query("SELECT n FROM News n WHERE LOWER(n.title) LIKE LOWER(concat('%', :query, '%')) OR " +
            "LOWER(n.content) LIKE LOWER(concat('%', :query, '%'))")
     Page<News> findByTitleContainingIgnoreCaseOrContentContainingIgnoreCase(
@@ -0,0 +1,43 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.RefreshSession;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface RefreshSessionRepository extends JpaRepository<RefreshSession, String> {
+
+    /**
+     * Атомарная ротация: один UPDATE по первичному ключу. 0 строк — токен уже был
+     * использован, семейство отозвано или истекло.
+     */
+    @Modifying
+    @Query("UPDATE RefreshSession s SET s.currentJti = :nextJti, s.expiresAt = :expiresAt " +
+           "WHERE s.familyId = :familyId AND s.currentJti = :currentJti AND s.revoked = false AND s.expiresAt > :now")
+    int rotate(@Param("familyId") String familyId,
+               @Param("currentJti") String currentJti,
+               @Param("nextJti") String nextJti,
+               @Param("expiresAt") LocalDateTime expiresAt,
+               @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE RefreshSession s SET s.revoked = true WHERE s.familyId = :familyId")
+    int revokeFamily(@Param("familyId") String familyId);
+
+    @Query("SELECT s.familyId FROM RefreshSession s WHERE s.userId = :userId AND s.revoked = false")
+    List<String> findActiveFamilyIdsByUserId(@Param("userId") String userId);
+
+    @Modifying
+    @Query("UPDATE RefreshSession s SET s.revoked = true WHERE s.userId = :userId")
+    int revokeAllByUserId(@Param("userId") String userId);
+
+    @Modifying
+    @Query("DELETE FROM RefreshSession s WHERE s.userId = :userId AND s.expiresAt < :now")
+    int deleteExpiredByUserId(@Param("userId") String userId, @Param("now") LocalDateTime now);
+}
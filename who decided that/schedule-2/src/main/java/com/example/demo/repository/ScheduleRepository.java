@@ -77,4 +77,26 @@ public interface ScheduleRepository extends JpaRepository<Schedule, String> {
     List<Schedule> searchSchedules(@Param("query") String query);
     
     Page<Schedule> findBySubjectContainingIgnoreCase(String subject, Pageable pageable);
+
+    /** Группы, у которых уже есть хотя бы один урок, — одним запросом вместо findByGroupId на каждую группу. */
+    @Query("SELECT s.groupId FROM Schedule s WHERE s.groupId IS NOT NULL GROUP BY s.groupId")
+    List<String> findScheduledGroupIds();
+
+    /** Поля урока, нужные индексу занятости групп, учителей и кабинетов (без jsonb и связей). */
+    interface BookingRow {
+        String getScheduleId();
+        String getGroupId();
+        String getDayOfWeek();
+        LocalTime getStartTime();
+        LocalTime getEndTime();
+        String getTeacher();
+        String getRoom();
+    }
+
+    @Query("""
+        SELECT s.scheduleId AS scheduleId, s.groupId AS groupId, s.dayOfWeek AS dayOfWeek,
+               s.startTime AS startTime, s.endTime AS endTime, s.teacher AS teacher, s.room AS room
+        FROM Schedule s
+    """)
+    List<BookingRow> findBookings();
 }
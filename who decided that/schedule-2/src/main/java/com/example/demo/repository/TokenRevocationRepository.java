@@ -0,0 +1,20 @@
+package com.example.demo.repository;
+
+import com.example.demo.entity.TokenRevocation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface TokenRevocationRepository extends JpaRepository<TokenRevocation, String> {
+
+    List<TokenRevocation> findByRevokedBeforeEpochGreaterThan(Long epochSeconds);
+
+    @Modifying
+    @Query("DELETE FROM TokenRevocation t WHERE t.revokedBeforeEpoch <= :epochSeconds")
+    int deleteOlderThan(@Param("epochSeconds") Long epochSeconds);
+}
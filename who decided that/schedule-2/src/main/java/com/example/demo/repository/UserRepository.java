@@ -2,9 +2,11 @@ package com.example.demo.repository;
 
 import com.example.demo.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
@@ -24,6 +26,22 @@ public interface UserRepository extends JpaRepository<User, String> {
     List<User> findByRole(String role);
     
     Optional<User> findByFullName(String fullName);
+
+    /**
+     * Вход по email, userId или ФИО одним запросом по индексам нормализованных ключей.
+     * Ключ должен быть получен через User.lookupKey.
+     */
+    @Query("SELECT u FROM User u WHERE u.emailKey = :key OR u.userIdKey = :key OR u.fullNameKey = :key")
+    List<User> findByLookupKey(@Param("key") String key);
+
+    /** Заполняет ключи у строк, созданных до их появления. */
+    @Modifying
+    @Transactional
+    @Query(value = "UPDATE users SET email_key = LOWER(TRIM(email)), user_id_key = LOWER(TRIM(user_id)), " +
+                   "full_name_key = LOWER(TRIM(full_name)) " +
+                   "WHERE (email_key IS NULL AND email IS NOT NULL) OR user_id_key IS NULL " +
+                   "OR (full_name_key IS NULL AND full_name IS NOT NULL)", nativeQuery = true)
+    int backfillLookupKeys();
     
     List<User> findByFullNameContainingIgnoreCase(String fullName);
     
@@ -48,4 +66,15 @@ public interface UserRepository extends JpaRepository<User, String> {
     
     @Query("SELECT u FROM User u WHERE u.role = :role")
     List<User> findUsersByRole(@Param("role") String role);
+
+    @Query("SELECT u FROM User u WHERE u.role LIKE '%TEACHER%'")
+    List<User> findTeachers();
+
+    /** Пары (groupId, число учеников) — для подбора кабинетов по вместимости. */
+    @Query("""
+        SELECT u.groupId, COUNT(u) FROM User u
+        WHERE u.groupId IS NOT NULL AND u.role NOT LIKE '%TEACHER%' AND u.role <> 'ADMIN'
+        GROUP BY u.groupId
+    """)
+    List<Object[]> countStudentsByGroup();
 }
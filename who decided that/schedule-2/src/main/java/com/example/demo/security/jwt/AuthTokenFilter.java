@@ -14,6 +14,8 @@ import org.springframework.security.web.authentication.WebAuthenticationDetailsS
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import com.example.demo.security.services.TokenRevocationService;
+import com.example.demo.security.services.UserDetailsImpl;
 import com.example.demo.security.services.UserDetailsServiceImpl;
 
 import java.io.IOException;
@@ -25,6 +27,9 @@ public class AuthTokenFilter extends OncePerRequestFilter {
     @Autowired
     private UserDetailsServiceImpl userDetailsService;
 
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
     private static final Logger logger = LoggerFactory.getLogger(AuthTokenFilter.class);
 
     @Override
@@ -33,11 +38,25 @@ public class AuthTokenFilter extends OncePerRequestFilter {
         try {
             String jwt = parseJwt(request);
             if (jwt != null) {
-                if (jwtUtils.validateJwtToken(jwt)) {
-                    String username = jwtUtils.getUserNameFromJwtToken(jwt);
-                    logger.debug("JWT validated for user: {}", username);
+                // Одна проверка на запрос; повторные запросы с тем же токеном берут результат из кэша JwtUtils
+                JwtUtils.VerifiedToken verified = jwtUtils.verifyJwtToken(jwt);
+                if (verified != null) {
+                    // Stateless-режим: принципал целиком берётся из подписанных claims, без запросов к БД.
+                    // Токены старого формата (без uid) по-прежнему проходят через UserDetailsService.
+                    UserDetails userDetails = jwtUtils.isStatelessAuth() ? verified.principal() : null;
+                    if (userDetails == null) {
+                        String username = verified.claims().getSubject();
+                        logger.debug("JWT validated for user: {}", username);
+                        userDetails = userDetailsService.loadUserByUsername(username);
+                    }
 
-                    UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+                    // Отзыв после смены роли/группы/пароля или выхода со всех устройств — проверка в памяти
+                    if (userDetails instanceof UserDetailsImpl ud
+                            && tokenRevocationService.isRevoked(ud.getId(), verified.claims().getIssuedAt())) {
+                        logger.warn("Revoked JWT presented for user: {}", ud.getUsername());
+                        response.sendError(HttpServletResponse.SC_UNAUTHORIZED, "Error: Unauthorized - token revoked");
+                        return;
+                    }
 
                     UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
                             userDetails, null, userDetails.getAuthorities());
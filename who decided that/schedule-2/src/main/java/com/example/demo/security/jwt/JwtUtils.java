@@ -1,18 +1,30 @@
 package com.example.demo.security.jwt;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Date;
-// import java.util.List;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.stream.Collectors;
 
+import jakarta.annotation.PostConstruct;
+
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import com.example.demo.security.services.UserDetailsImpl;
+
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
 
@@ -20,45 +32,245 @@ import io.jsonwebtoken.security.Keys;
 public class JwtUtils {
     private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
 
+    /** Имена claims, из которых AuthTokenFilter собирает UserDetailsImpl без обращения к БД. */
+    public static final String CLAIM_ROLES = "roles";
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_GROUP_ID = "gid";
+    public static final String CLAIM_SUBJECT = "subj";
+
+    /** Refresh-токен помечен typ=refresh и несёт id семейства; как access-токен он не принимается. */
+    public static final String CLAIM_TYPE = "typ";
+    public static final String CLAIM_FAMILY = "fam";
+    public static final String TYPE_REFRESH = "refresh";
+
     @Value("${app.jwtSecret}")
     private String jwtSecret;
 
     @Value("${app.jwtExpirationMs}")
     private int jwtExpirationMs;
 
+    @Value("${app.jwtRefreshExpirationMs:2592000000}")
+    private long jwtRefreshExpirationMs;
+
+    @Value("${app.jwtStatelessAuth:true}")
+    private boolean statelessAuth;
+
+    @Value("${app.jwtVerifiedCacheSize:10000}")
+    private int verifiedCacheSize = 10000;
+
+    private Key signingKey;
+    private JwtParser jwtParser;
+
+    /**
+     * Кэш уже проверенных токенов: ключ — SHA-256 от токена, запись живёт до exp токена.
+     * Подпись каждого токена проверяется один раз за время его жизни, а не на каждый запрос.
+     */
+    private final ConcurrentHashMap<String, VerifiedToken> verifiedTokens = new ConcurrentHashMap<>();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    });
+
+    /** Результат проверки токена: claims, принципал из claims (null для старых токенов) и момент истечения. */
+    public record VerifiedToken(Claims claims, UserDetailsImpl principal, long expiresAtMillis) {}
+
+    @PostConstruct
+    public void init() {
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        jwtParser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+    }
+
     public String generateJwtToken(Authentication authentication) {
+        if (authentication.getPrincipal() instanceof UserDetailsImpl userDetails) {
+            return generateJwtToken(userDetails);
+        }
         UserDetails userPrincipal = (UserDetails) authentication.getPrincipal();
-        
+
         // Get user roles as a comma-separated string
-        String roles = userPrincipal.getAuthorities().stream()
-                .map(GrantedAuthority::getAuthority)
-                .collect(Collectors.joining(","));
+        String roles = joinRoles(userPrincipal);
 
         logger.debug("Generating JWT token for user: {} with roles: {}", userPrincipal.getUsername(), roles);
 
         return Jwts.builder()
                 .setSubject((userPrincipal.getUsername()))
-                .claim("roles", roles)  // Add roles to the token
+                .claim(CLAIM_ROLES, roles)  // Add roles to the token
                 .setIssuedAt(new Date())
-                .setExpiration(new Date((new Date()).getTime() + 86400000)) // 24 hours
-                .signWith(Keys.hmacShaKeyFor("your-secret-key-change-this-in-production".getBytes()), 
-                         SignatureAlgorithm.HS256)
+                .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
+                .signWith(key(), SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    /**
+     * Токен с полным набором данных принципала (userId, groupId, subject, роли),
+     * чтобы запросы с ним аутентифицировались без загрузки пользователя из БД.
+     */
+    public String generateJwtToken(UserDetailsImpl userDetails) {
+        String roles = joinRoles(userDetails);
+
+        logger.debug("Generating JWT token for user: {} with roles: {}", userDetails.getUsername(), roles);
+
+        JwtBuilder builder = Jwts.builder()
+                .setSubject(userDetails.getUsername())
+                .claim(CLAIM_ROLES, roles)
+                .claim(CLAIM_USER_ID, userDetails.getId());
+        if (userDetails.getGroupId() != null) {
+            builder.claim(CLAIM_GROUP_ID, userDetails.getGroupId());
+        }
+        if (userDetails.getSubject() != null) {
+            builder.claim(CLAIM_SUBJECT, userDetails.getSubject());
+        }
+        return builder
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + jwtExpirationMs))
+                .signWith(key(), SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    /** Refresh-токен: только subject, uid, семейство и jti — остальное берётся из актуального пользователя. */
+    public String generateRefreshToken(UserDetailsImpl userDetails, String familyId, String jti) {
+        return Jwts.builder()
+                .setSubject(userDetails.getUsername())
+                .claim(CLAIM_TYPE, TYPE_REFRESH)
+                .claim(CLAIM_USER_ID, userDetails.getId())
+                .claim(CLAIM_FAMILY, familyId)
+                .setId(jti)
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + jwtRefreshExpirationMs))
+                .signWith(key(), SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    /**
+     * Проверка подписи и срока refresh-токена (только HMAC, без обращения к БД).
+     *
+     * @return claims или null, если токен невалиден или это не refresh-токен
+     */
+    public Claims parseRefreshToken(String refreshToken) {
+        if (refreshToken == null || refreshToken.isEmpty()) {
+            return null;
+        }
+        Claims claims;
+        try {
+            claims = parseClaims(refreshToken);
+        } catch (JwtException e) {
+            logger.error("Invalid refresh token: {}", e.getMessage());
+            return null;
+        }
+        if (claims == null || !TYPE_REFRESH.equals(claims.get(CLAIM_TYPE, String.class))
+                || claims.getId() == null || claims.get(CLAIM_FAMILY, String.class) == null) {
+            return null;
+        }
+        return claims;
+    }
+
+    public int getJwtExpirationMs() {
+        return jwtExpirationMs;
+    }
+
+    public long getJwtRefreshExpirationMs() {
+        return jwtRefreshExpirationMs;
+    }
+
     public Key key() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        return signingKey;
+    }
+
+    public boolean isStatelessAuth() {
+        return statelessAuth;
     }
 
     public String getUserNameFromJwtToken(String token) {
-        return Jwts.parserBuilder().setSigningKey(key()).build()
-                .parseClaimsJws(token).getBody().getSubject();
+        VerifiedToken verified = verifyJwtToken(token);
+        return verified != null ? verified.claims().getSubject() : null;
+    }
+
+    /**
+     * Собирает принципала из claims проверенного токена.
+     * Возвращает null для токенов старого формата (без uid) — тогда нужен поиск по БД.
+     */
+    public UserDetailsImpl getUserDetailsFromJwtToken(String token) {
+        VerifiedToken verified = verifyJwtToken(token);
+        return verified != null ? verified.principal() : null;
+    }
+
+    static UserDetailsImpl buildUserDetails(Claims claims) {
+        String userId = claims.get(CLAIM_USER_ID, String.class);
+        if (userId == null) {
+            return null;
+        }
+        List<SimpleGrantedAuthority> authorities = new ArrayList<>();
+        String roles = claims.get(CLAIM_ROLES, String.class);
+        if (roles != null) {
+            for (String role : roles.split(",")) {
+                if (!role.isBlank()) {
+                    authorities.add(new SimpleGrantedAuthority(role.trim()));
+                }
+            }
+        }
+        return new UserDetailsImpl(
+                userId,
+                null,
+                claims.getSubject(),
+                null,
+                claims.get(CLAIM_GROUP_ID, String.class),
+                claims.get(CLAIM_SUBJECT, String.class),
+                authorities
+        );
     }
 
     public boolean validateJwtToken(String authToken) {
+        return verifyJwtToken(authToken) != null;
+    }
+
+    /**
+     * Проверяет токен с использованием кэша. Повторные запросы с тем же токеном
+     * обходятся одним SHA-256 и поиском в ConcurrentHashMap.
+     *
+     * @return проверенный токен или null, если токен невалиден или истёк
+     */
+    public VerifiedToken verifyJwtToken(String authToken) {
+        if (authToken == null || authToken.isEmpty()) {
+            logger.error("JWT claims string is empty");
+            return null;
+        }
+        String digest = digest(authToken);
+        VerifiedToken cached = verifiedTokens.get(digest);
+        if (cached != null) {
+            if (cached.expiresAtMillis() > System.currentTimeMillis()) {
+                cacheHits.increment();
+                return cached;
+            }
+            verifiedTokens.remove(digest, cached);
+        }
+        cacheMisses.increment();
+
+        Claims claims = parseClaims(authToken);
+        if (claims == null) {
+            return null;
+        }
+        if (TYPE_REFRESH.equals(claims.get(CLAIM_TYPE, String.class))) {
+            logger.warn("Refresh token presented as access token");
+            return null;
+        }
+        long expiresAt = claims.getExpiration() != null ? claims.getExpiration().getTime() : Long.MAX_VALUE;
+        VerifiedToken verified = new VerifiedToken(claims, buildUserDetails(claims), expiresAt);
+        if (claims.getExpiration() != null) {
+            // Токены без exp не кэшируем — их нельзя вытеснить по сроку
+            makeRoomInCache();
+            verifiedTokens.put(digest, verified);
+        }
+        return verified;
+    }
+
+    private Claims parseClaims(String authToken) {
         try {
-            Jwts.parserBuilder().setSigningKey(key()).build().parse(authToken);
-            return true;
+            return jwtParser.parseClaimsJws(authToken).getBody();
         } catch (MalformedJwtException e) {
             logger.error("Invalid JWT token: {}", e.getMessage());
         } catch (ExpiredJwtException e) {
@@ -69,6 +281,41 @@ public class JwtUtils {
             logger.error("JWT claims string is empty: {}", e.getMessage());
         }
 
-        return false;
+        return null;
+    }
+
+    private void makeRoomInCache() {
+        if (verifiedTokens.size() < verifiedCacheSize) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        verifiedTokens.values().removeIf(t -> t.expiresAtMillis() <= now);
+        if (verifiedTokens.size() >= verifiedCacheSize) {
+            logger.debug("Verified JWT cache is full ({} entries), clearing", verifiedTokens.size());
+            verifiedTokens.clear();
+        }
+    }
+
+    private static String digest(String token) {
+        byte[] hash = SHA256.get().digest(token.getBytes(StandardCharsets.US_ASCII));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(hash);
+    }
+
+    public long getVerifiedCacheHits() {
+        return cacheHits.sum();
+    }
+
+    public long getVerifiedCacheMisses() {
+        return cacheMisses.sum();
+    }
+
+    public int getVerifiedCacheSize() {
+        return verifiedTokens.size();
+    }
+
+    private static String joinRoles(UserDetails userDetails) {
+        return userDetails.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .collect(Collectors.joining(","));
     }
 }
@@ -0,0 +1,209 @@
+package com.example.demo.security.ratelimit;
+
+import com.example.demo.security.services.UserDetailsImpl;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Ограничение частоты запросов к дорогим эндпоинтам: вход и регистрация (BCrypt)
+ * и генерация аналитики (FastAPI). Политика задаётся на маршрут в формате
+ * "ёмкость/в минуту"; ключ — IP для анонимных маршрутов и пользователь для аналитики.
+ * Стоит после AuthTokenFilter, чтобы пользователь был уже известен.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    @Value("${app.rateLimit.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${app.rateLimit.idleTimeoutMs:600000}")
+    private long idleTimeoutMs = 600_000;
+
+    @Value("${app.rateLimit.maxBuckets:100000}")
+    private int maxBuckets = 100_000;
+
+    @Value("${app.rateLimit.trustForwardedFor:false}")
+    private boolean trustForwardedFor;
+
+    /** Адреса своих прокси через запятую: при разборе X-Forwarded-For справа они пропускаются. */
+    @Value("${app.rateLimit.trustedProxies:}")
+    private String trustedProxies = "";
+
+    private Set<String> trustedProxySet = Set.of();
+
+    @Value("${app.rateLimit.signin:10/10}")
+    private String signinLimit = "10/10";
+
+    @Value("${app.rateLimit.signup:5/5}")
+    private String signupLimit = "5/5";
+
+    @Value("${app.rateLimit.refresh:30/30}")
+    private String refreshLimit = "30/30";
+
+    @Value("${app.rateLimit.analytics:3/6}")
+    private String analyticsLimit = "3/6";
+
+    private List<Policy> policies = List.of();
+
+    /** Политика одного маршрута со своими корзинами и счётчиками. */
+    static final class Policy {
+        final String name;
+        final String method;
+        final String path;
+        final boolean perUser;
+        final StripedTokenBuckets buckets;
+        final LongAdder allowed = new LongAdder();
+        final LongAdder rejected = new LongAdder();
+
+        Policy(String name, String method, String path, boolean perUser, StripedTokenBuckets buckets) {
+            this.name = name;
+            this.method = method;
+            this.path = path;
+            this.perUser = perUser;
+            this.buckets = buckets;
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        trustedProxySet = Arrays.stream(trustedProxies.split(","))
+                .map(String::trim)
+                .filter(proxy -> !proxy.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+        policies = List.of(
+                policy("signin", "POST", "/api/auth/signin", false, signinLimit),
+                policy("signup", "POST", "/api/auth/signup", false, signupLimit),
+                policy("refresh", "POST", "/api/auth/refresh", false, refreshLimit),
+                policy("analytics", "POST", "/api/analytics/generate", true, analyticsLimit)
+        );
+    }
+
+    private Policy policy(String name, String method, String path, boolean perUser, String spec) {
+        String[] parts = spec == null ? new String[0] : spec.split("/");
+        int capacity;
+        int perMinute;
+        try {
+            if (parts.length != 2) {
+                throw new NumberFormatException();
+            }
+            capacity = Integer.parseInt(parts[0].trim());
+            perMinute = Integer.parseInt(parts[1].trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalStateException("app.rateLimit." + name + "='" + spec
+                    + "' must be capacity/perMinute, e.g. 10/10");
+        }
+        // Нулевое пополнение дало бы бесконечное Retry-After, нулевая ёмкость — запрет маршрута навсегда
+        if (capacity <= 0 || perMinute <= 0) {
+            throw new IllegalStateException("app.rateLimit." + name + "='" + spec
+                    + "': capacity and perMinute must be positive");
+        }
+        logger.info("Rate limit {} {}: capacity={}, refill={}/min, key={}", method, path, capacity, perMinute,
+                perUser ? "user" : "ip");
+        return new Policy(name, method, path, perUser,
+                new StripedTokenBuckets(capacity, perMinute, idleTimeoutMs, maxBuckets));
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || match(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Policy policy = match(request);
+        if (policy != null) {
+            String key = policy.perUser ? userKey(request) : "ip:" + clientIp(request);
+            long retryAfterMs = policy.buckets.tryAcquire(key, System.nanoTime());
+            if (retryAfterMs > 0) {
+                policy.rejected.increment();
+                logger.warn("Rate limit exceeded: policy={}, key={}", policy.name, key);
+                reject(response, retryAfterMs);
+                return;
+            }
+            policy.allowed.increment();
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    private Policy match(HttpServletRequest request) {
+        String uri = request.getRequestURI();
+        String method = request.getMethod();
+        for (Policy policy : policies) {
+            if (policy.path.equals(uri) && policy.method.equals(method)) {
+                return policy;
+            }
+        }
+        return null;
+    }
+
+    private String userKey(HttpServletRequest request) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.getPrincipal() instanceof UserDetailsImpl ud) {
+            return "user:" + ud.getId();
+        }
+        return "ip:" + clientIp(request);
+    }
+
+    /**
+     * IP клиента. Левые записи X-Forwarded-For присылает сам клиент, поэтому адрес берётся справа:
+     * первая запись, добавленная не нашим прокси (не из app.rateLimit.trustedProxies).
+     */
+    String clientIp(HttpServletRequest request) {
+        if (trustForwardedFor) {
+            String forwarded = request.getHeader("X-Forwarded-For");
+            if (forwarded != null && !forwarded.isBlank()) {
+                String[] hops = forwarded.split(",");
+                for (int i = hops.length - 1; i >= 0; i--) {
+                    String hop = hops[i].trim();
+                    if (!hop.isEmpty() && (i == 0 || !trustedProxySet.contains(hop))) {
+                        return hop;
+                    }
+                }
+            }
+        }
+        return request.getRemoteAddr();
+    }
+
+    private static void reject(HttpServletResponse response, long retryAfterMs) throws IOException {
+        response.setStatus(429);
+        response.setHeader("Retry-After", String.valueOf(Math.max(1, (retryAfterMs + 999) / 1000)));
+        response.setContentType("application/json");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.getWriter().write("{\"error\":\"Слишком много запросов, повторите попытку позже\"}");
+    }
+
+    /** Счётчики по политикам: разрешено, отклонено и число корзин в памяти. */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        for (Policy policy : policies) {
+            Map<String, Object> p = new LinkedHashMap<>();
+            p.put("route", policy.method + " " + policy.path);
+            p.put("allowed", policy.allowed.sum());
+            p.put("rejected", policy.rejected.sum());
+            p.put("buckets", policy.buckets.size());
+            stats.put(policy.name, p);
+        }
+        return stats;
+    }
+}
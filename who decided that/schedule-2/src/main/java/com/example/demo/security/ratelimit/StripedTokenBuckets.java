@@ -0,0 +1,109 @@
+package com.example.demo.security.ratelimit;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Token bucket на ключ (IP или пользователь) с блокировкой по полосам:
+ * ключи распределены по STRIPES независимым HashMap, каждая под своим монитором,
+ * так что параллельные запросы с разных адресов почти не конкурируют.
+ * Память ограничена: в полосе не больше maxBucketsPerStripe корзин, при переполнении
+ * сначала удаляются простаивающие, затем самая давно использованная.
+ */
+public class StripedTokenBuckets {
+    private static final int STRIPES = 64;
+
+    private final int capacity;
+    private final double refillPerNano;
+    private final long idleTimeoutNanos;
+    private final int maxBucketsPerStripe;
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    private static final class Stripe {
+        final Map<String, Bucket> buckets = new HashMap<>();
+    }
+
+    private static final class Bucket {
+        double tokens;
+        long lastRefillNanos;
+    }
+
+    /**
+     * @param capacity        размер всплеска (сколько запросов можно сделать подряд)
+     * @param refillPerMinute скорость восстановления, запросов в минуту
+     * @param idleTimeoutMs   через сколько простоя корзину можно удалить
+     * @param maxBuckets      общий предел числа корзин
+     */
+    public StripedTokenBuckets(int capacity, int refillPerMinute, long idleTimeoutMs, int maxBuckets) {
+        this.capacity = capacity;
+        this.refillPerNano = refillPerMinute / 60_000_000_000.0;
+        this.idleTimeoutNanos = idleTimeoutMs * 1_000_000L;
+        this.maxBucketsPerStripe = Math.max(1, maxBuckets / STRIPES);
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Забирает один токен.
+     *
+     * @return 0, если запрос разрешён, иначе сколько миллисекунд ждать следующего токена
+     */
+    public long tryAcquire(String key, long nowNanos) {
+        Stripe stripe = stripes[(key.hashCode() & 0x7fffffff) % STRIPES];
+        synchronized (stripe) {
+            Bucket bucket = stripe.buckets.get(key);
+            if (bucket == null) {
+                if (stripe.buckets.size() >= maxBucketsPerStripe) {
+                    evict(stripe, nowNanos);
+                }
+                bucket = new Bucket();
+                bucket.tokens = capacity;
+                bucket.lastRefillNanos = nowNanos;
+                stripe.buckets.put(key, bucket);
+            } else {
+                long elapsed = nowNanos - bucket.lastRefillNanos;
+                if (elapsed > 0) {
+                    bucket.tokens = Math.min(capacity, bucket.tokens + elapsed * refillPerNano);
+                    bucket.lastRefillNanos = nowNanos;
+                }
+            }
+            if (bucket.tokens >= 1.0) {
+                bucket.tokens -= 1.0;
+                return 0;
+            }
+            return Math.max(1L, (long) Math.ceil((1.0 - bucket.tokens) / refillPerNano / 1_000_000.0));
+        }
+    }
+
+    /** Число корзин во всех полосах (для мониторинга). */
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.buckets.size();
+            }
+        }
+        return size;
+    }
+
+    private void evict(Stripe stripe, long nowNanos) {
+        String oldestKey = null;
+        long oldest = Long.MAX_VALUE;
+        Iterator<Map.Entry<String, Bucket>> it = stripe.buckets.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Bucket> entry = it.next();
+            long lastUsed = entry.getValue().lastRefillNanos;
+            if (nowNanos - lastUsed >= idleTimeoutNanos) {
+                it.remove();
+            } else if (lastUsed < oldest) {
+                oldest = lastUsed;
+                oldestKey = entry.getKey();
+            }
+        }
+        if (stripe.buckets.size() >= maxBucketsPerStripe && oldestKey != null) {
+            stripe.buckets.remove(oldestKey);
+        }
+    }
+}
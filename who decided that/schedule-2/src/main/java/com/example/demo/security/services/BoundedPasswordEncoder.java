@@ -0,0 +1,159 @@
+package com.example.demo.security.services;
+
+import com.example.demo.exception.HashingCapacityException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * BCrypt на отдельном пуле фиксированного размера с ограниченной очередью.
+ * При массовом входе одновременно хешируется не больше poolSize паролей,
+ * лишние запросы получают HashingCapacityException (503) вместо того,
+ * чтобы занимать потоки Tomcat и задерживать обычные GET-запросы.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+    private static final Logger logger = LoggerFactory.getLogger(BoundedPasswordEncoder.class);
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMs;
+    private final int strength;
+
+    private final OperationStats encodeStats = new OperationStats();
+    private final OperationStats matchesStats = new OperationStats();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+
+    public BoundedPasswordEncoder(int strength, int poolSize, int queueCapacity, long timeoutMs) {
+        this(new BCryptPasswordEncoder(strength), strength, poolSize, queueCapacity, timeoutMs);
+    }
+
+    BoundedPasswordEncoder(PasswordEncoder delegate, int strength, int poolSize, int queueCapacity, long timeoutMs) {
+        this.strength = strength;
+        this.delegate = delegate;
+        this.timeoutMs = timeoutMs;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "pwd-hash-" + threadNumber.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        logger.info("Password hashing pool: strength={}, threads={}, queue={}, timeoutMs={}",
+                strength, poolSize, queueCapacity, timeoutMs);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(() -> delegate.encode(rawPassword), encodeStats, "encode");
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(() -> delegate.matches(rawPassword, encodedPassword), matchesStats, "matches");
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T submit(Callable<T> task, OperationStats stats, String operation) {
+        long submittedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long startedAt = System.nanoTime();
+                try {
+                    return task.call();
+                } finally {
+                    stats.record(startedAt - submittedAt, System.nanoTime() - startedAt);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            logger.warn("Password hashing pool saturated, rejecting {} (active={}, queued={})",
+                    operation, executor.getActiveCount(), executor.getQueue().size());
+            throw new HashingCapacityException("Сервер перегружен, повторите попытку позже");
+        }
+
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            timedOut.increment();
+            throw new HashingCapacityException("Превышено время ожидания проверки пароля", e);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new HashingCapacityException("Проверка пароля прервана", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("strength", strength);
+        stats.put("poolSize", executor.getMaximumPoolSize());
+        stats.put("active", executor.getActiveCount());
+        stats.put("queued", executor.getQueue().size());
+        stats.put("queueCapacity", executor.getQueue().size() + executor.getQueue().remainingCapacity());
+        stats.put("rejected", rejected.sum());
+        stats.put("timedOut", timedOut.sum());
+        stats.put("encode", encodeStats.toMap());
+        stats.put("matches", matchesStats.toMap());
+        return stats;
+    }
+
+    /** Вызывается Spring при остановке контекста (метод shutdown определяется автоматически). */
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /** Счётчики одной операции: количество, ожидание в очереди и время хеширования. */
+    private static final class OperationStats {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder queueNanos = new LongAdder();
+        private final LongAdder hashNanos = new LongAdder();
+        private final LongAccumulator maxHashNanos = new LongAccumulator(Math::max, 0);
+
+        void record(long waitedNanos, long tookNanos) {
+            count.increment();
+            queueNanos.add(waitedNanos);
+            hashNanos.add(tookNanos);
+            maxHashNanos.accumulate(tookNanos);
+        }
+
+        Map<String, Object> toMap() {
+            long n = count.sum();
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("count", n);
+            map.put("avgQueueMs", n == 0 ? 0.0 : queueNanos.sum() / 1_000_000.0 / n);
+            map.put("avgHashMs", n == 0 ? 0.0 : hashNanos.sum() / 1_000_000.0 / n);
+            map.put("maxHashMs", maxHashNanos.get() / 1_000_000.0);
+            return map;
+        }
+    }
+}
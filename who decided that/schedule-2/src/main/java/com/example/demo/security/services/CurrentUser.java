@@ -0,0 +1,61 @@
+package com.example.demo.security.services;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * Проверки роли текущего пользователя для контроллеров.
+ * Для UserDetailsImpl роль берётся из заранее вычисленной roleMask — без стримов и аллокаций;
+ * для прочих принципалов маска считается по authorities.
+ */
+public final class CurrentUser {
+
+    public static final String ADMIN = "ADMIN";
+    public static final String TEACHER = "TEACHER";
+    public static final String USER = "USER";
+
+    private CurrentUser() {
+    }
+
+    /** Принципал текущего запроса или null (нет аутентификации или принципал другого типа). */
+    public static UserDetailsImpl principal() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        return auth != null && auth.getPrincipal() instanceof UserDetailsImpl ud ? ud : null;
+    }
+
+    public static int roleMask() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth == null) {
+            return 0;
+        }
+        if (auth.getPrincipal() instanceof UserDetailsImpl ud) {
+            return ud.getRoleMask();
+        }
+        return UserDetailsImpl.roleMaskOf(auth.getAuthorities());
+    }
+
+    /** ADMIN, TEACHER или USER; администратор с ролью TEACHER считается ADMIN. */
+    public static String role() {
+        return roleOf(roleMask());
+    }
+
+    public static String roleOf(int mask) {
+        if ((mask & UserDetailsImpl.ROLE_ADMIN) != 0) return ADMIN;
+        if ((mask & UserDetailsImpl.ROLE_TEACHER) != 0) return TEACHER;
+        return USER;
+    }
+
+    public static boolean isAdmin() {
+        return (roleMask() & UserDetailsImpl.ROLE_ADMIN) != 0;
+    }
+
+    /** Учитель, но не администратор — для ограничения выборок предметом учителя. */
+    public static boolean isTeacherOnly() {
+        int mask = roleMask();
+        return (mask & UserDetailsImpl.ROLE_ADMIN) == 0 && (mask & UserDetailsImpl.ROLE_TEACHER) != 0;
+    }
+
+    public static boolean isAdminOrTeacher() {
+        return (roleMask() & (UserDetailsImpl.ROLE_ADMIN | UserDetailsImpl.ROLE_TEACHER)) != 0;
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.demo.security.services;
+
+import com.example.demo.entity.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Кэш принципалов для UserDetailsServiceImpl: запись по идентификатору входа
+ * (email, userId или ФИО), ограниченный размер и TTL.
+ * Отдельно хранится короткий негативный кэш неизвестных имён, чтобы перебор
+ * логинов не превращался в запросы к БД.
+ * UserService сбрасывает записи при изменении или удалении пользователя.
+ * Ключи нормализуются через User.lookupKey, как и колонки *_key в таблице users.
+ */
+@Component
+public class PrincipalCache {
+    private static final Logger logger = LoggerFactory.getLogger(PrincipalCache.class);
+
+    @Value("${app.principalCache.ttlMs:300000}")
+    private long ttlMs = 300_000;
+
+    @Value("${app.principalCache.negativeTtlMs:30000}")
+    private long negativeTtlMs = 30_000;
+
+    @Value("${app.principalCache.maxSize:10000}")
+    private int maxSize = 10_000;
+
+    private record Entry(UserDetailsImpl principal, long expiresAtMillis) {}
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Long> missing = new ConcurrentHashMap<>();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder negativeHits = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /** Принципал из кэша или null, если записи нет или она устарела. */
+    public UserDetailsImpl get(String username) {
+        if (username == null) {
+            return null;
+        }
+        username = User.lookupKey(username);
+        Entry entry = entries.get(username);
+        if (entry != null) {
+            if (entry.expiresAtMillis() > System.currentTimeMillis()) {
+                hits.increment();
+                return entry.principal();
+            }
+            entries.remove(username, entry);
+        }
+        misses.increment();
+        return null;
+    }
+
+    public void put(String username, UserDetailsImpl principal) {
+        if (username == null || principal == null) {
+            return;
+        }
+        username = User.lookupKey(username);
+        makeRoom(entries);
+        entries.put(username, new Entry(principal, System.currentTimeMillis() + ttlMs));
+        missing.remove(username);
+    }
+
+    /** true, если имя недавно не нашлось в БД и повторный поиск не нужен. */
+    public boolean isKnownMissing(String username) {
+        if (username == null) {
+            return false;
+        }
+        username = User.lookupKey(username);
+        Long expiresAt = missing.get(username);
+        if (expiresAt == null) {
+            return false;
+        }
+        if (expiresAt > System.currentTimeMillis()) {
+            negativeHits.increment();
+            return true;
+        }
+        missing.remove(username, expiresAt);
+        return false;
+    }
+
+    public void putMissing(String username) {
+        if (username == null) {
+            return;
+        }
+        makeRoom(missing);
+        missing.put(User.lookupKey(username), System.currentTimeMillis() + negativeTtlMs);
+    }
+
+    /**
+     * Сбрасывает все записи пользователя, под каким бы идентификатором они ни были закэшированы.
+     * Вызывается при изменении роли, группы, пароля и при удалении.
+     */
+    public void evictUser(String userId, String email) {
+        String userIdKey = User.lookupKey(userId);
+        String emailKey = User.lookupKey(email);
+        int before = entries.size();
+        entries.entrySet().removeIf(e -> Objects.equals(e.getKey(), userIdKey)
+                || Objects.equals(e.getKey(), emailKey)
+                || Objects.equals(e.getValue().principal().getId(), userId)
+                || (email != null && email.equals(e.getValue().principal().getEmail())));
+        evictions.add(Math.max(0, before - entries.size()));
+        logger.debug("Principal cache evicted userId={}, email={}", userId, email);
+    }
+
+    /** Убирает имена из негативного кэша — например, после регистрации нового пользователя. */
+    public void evictMissing(String... usernames) {
+        for (String username : usernames) {
+            if (username != null) {
+                missing.remove(User.lookupKey(username));
+            }
+        }
+    }
+
+    public void clear() {
+        entries.clear();
+        missing.clear();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long h = hits.sum();
+        long m = misses.sum();
+        stats.put("hits", h);
+        stats.put("misses", m);
+        stats.put("hitRatio", h + m == 0 ? 0.0 : (double) h / (h + m));
+        stats.put("negativeHits", negativeHits.sum());
+        stats.put("evictions", evictions.sum());
+        stats.put("size", entries.size());
+        stats.put("negativeSize", missing.size());
+        return stats;
+    }
+
+    private <V> void makeRoom(ConcurrentHashMap<String, V> map) {
+        if (map.size() < maxSize) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        map.values().removeIf(v -> v instanceof Entry e ? e.expiresAtMillis() <= now : v instanceof Long t && t <= now);
+        if (map.size() >= maxSize) {
+            map.clear();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.demo.security.services;
+
+import com.example.demo.config.TransactionHooks;
+import com.example.demo.entity.TokenRevocation;
+import com.example.demo.repository.TokenRevocationRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Отзыв токенов без обращения к БД на запросе: в памяти хранится
+ * userId → «токены, выпущенные раньше этой секунды, недействительны».
+ * Таблица token_revocations загружается при старте и дописывается при каждом отзыве.
+ * Записи старше срока жизни refresh-токена больше ничего не отзывают и удаляются.
+ *
+ * Точность — секунда (как у iat): токен, выпущенный в ту же секунду до отзыва, остаётся действительным.
+ */
+@Component
+public class TokenRevocationService {
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationService.class);
+
+    @Autowired
+    private TokenRevocationRepository tokenRevocationRepository;
+
+    @Value("${app.jwtRefreshExpirationMs:2592000000}")
+    private long maxTokenLifetimeMs;
+
+    private final ConcurrentHashMap<String, Long> revokedBefore = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void load() {
+        long horizon = horizonEpochSeconds();
+        for (TokenRevocation revocation : tokenRevocationRepository.findByRevokedBeforeEpochGreaterThan(horizon)) {
+            revokedBefore.put(revocation.getUserId(), revocation.getRevokedBeforeEpoch());
+        }
+        logger.info("Loaded {} token revocations", revokedBefore.size());
+    }
+
+    /** Отзывает все токены пользователя, выпущенные до текущего момента. */
+    @Transactional
+    public void revokeAll(String userId) {
+        if (userId == null) {
+            return;
+        }
+        long cutoff = Math.max(System.currentTimeMillis() / 1000, revokedBefore.getOrDefault(userId, 0L));
+
+        TokenRevocation revocation = new TokenRevocation();
+        revocation.setUserId(userId);
+        revocation.setRevokedBeforeEpoch(cutoff);
+        tokenRevocationRepository.save(revocation);
+        logger.info("Tokens revoked for userId={} (issued before {})", userId, cutoff);
+
+        // Устаревшие строки удаляются в той же транзакции, что и запись отзыва
+        long horizon = horizonEpochSeconds();
+        if (revokedBefore.values().stream().anyMatch(before -> before <= horizon)) {
+            tokenRevocationRepository.deleteOlderThan(horizon);
+        }
+
+        // Память меняется только после коммита: при откате токены, не отозванные в БД, остаются действительными
+        TransactionHooks.afterCommit(() -> {
+            revokedBefore.merge(userId, cutoff, Math::max);
+            revokedBefore.values().removeIf(before -> before <= horizon);
+        });
+    }
+
+    /**
+     * true, если токен пользователя выпущен до отметки отзыва.
+     * Токен без iat при наличии отметки считается отозванным.
+     */
+    public boolean isRevoked(String userId, Date issuedAt) {
+        if (userId == null) {
+            return false;
+        }
+        Long cutoff = revokedBefore.get(userId);
+        if (cutoff == null) {
+            return false;
+        }
+        return issuedAt == null || issuedAt.getTime() / 1000 < cutoff;
+    }
+
+    public int size() {
+        return revokedBefore.size();
+    }
+
+    private long horizonEpochSeconds() {
+        return (System.currentTimeMillis() - maxTokenLifetimeMs) / 1000;
+    }
+}
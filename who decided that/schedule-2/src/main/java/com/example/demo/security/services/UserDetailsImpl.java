@@ -16,6 +16,11 @@ import java.util.Objects;
 public class UserDetailsImpl implements UserDetails {
     private static final long serialVersionUID = 1L;
 
+    /** Биты roleMask; проверка роли — одна побитовая операция вместо прохода по authorities. */
+    public static final int ROLE_ADMIN = 1;
+    public static final int ROLE_TEACHER = 1 << 1;
+    public static final int ROLE_USER = 1 << 2;
+
     private String id;
     private String fullName;
     private String email;
@@ -24,6 +29,8 @@ public class UserDetailsImpl implements UserDetails {
     private String groupId;
     private String subject;
     private Collection<? extends GrantedAuthority> authorities;
+    @JsonIgnore
+    private final int roleMask;
 
     public UserDetailsImpl(String id, String fullName, String email, String password, 
                           String groupId, String subject, Collection<? extends GrantedAuthority> authorities) {
@@ -33,7 +40,24 @@ public class UserDetailsImpl implements UserDetails {
         this.password = password;
         this.groupId = groupId;
         this.subject = subject;
-        this.authorities = authorities;
+        this.authorities = authorities != null ? List.copyOf(authorities) : List.of();
+        this.roleMask = roleMaskOf(this.authorities);
+    }
+
+    /** Маска ролей по списку authorities (ROLE_ADMIN, ROLE_TEACHER, ROLE_USER). */
+    public static int roleMaskOf(Collection<? extends GrantedAuthority> authorities) {
+        int mask = 0;
+        for (GrantedAuthority authority : authorities) {
+            String name = authority.getAuthority();
+            if ("ROLE_ADMIN".equals(name)) {
+                mask |= ROLE_ADMIN;
+            } else if ("ROLE_TEACHER".equals(name)) {
+                mask |= ROLE_TEACHER;
+            } else if ("ROLE_USER".equals(name)) {
+                mask |= ROLE_USER;
+            }
+        }
+        return mask;
     }
 
     public static UserDetailsImpl build(User user) {
@@ -118,6 +142,14 @@ public class UserDetailsImpl implements UserDetails {
         return fullName;
     }
 
+    public int getRoleMask() {
+        return roleMask;
+    }
+
+    public boolean hasRole(int roleBit) {
+        return (roleMask & roleBit) != 0;
+    }
+
     @Override
     public String getPassword() {
         return password;
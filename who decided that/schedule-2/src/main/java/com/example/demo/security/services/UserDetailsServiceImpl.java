@@ -11,6 +11,8 @@ import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
+
 @Service
 public class UserDetailsServiceImpl implements UserDetailsService {
     private static final Logger logger = LoggerFactory.getLogger(UserDetailsServiceImpl.class);
@@ -18,24 +20,67 @@ public class UserDetailsServiceImpl implements UserDetailsService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private PrincipalCache principalCache;
+
     @Override
     @Transactional
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        UserDetailsImpl cached = principalCache.get(username);
+        if (cached != null) {
+            logger.debug("User loaded from principal cache: {}", username);
+            return cached;
+        }
+        if (principalCache.isKnownMissing(username)) {
+            logger.debug("User not found (negative cache): {}", username);
+            throw new UsernameNotFoundException("User not found: " + username);
+        }
+
         logger.info("Loading user by username/email: {}", username);
         
-        User user = userRepository.findByEmail(username)
-            .orElseGet(() -> userRepository.findByUserId(username)
-            .orElseGet(() -> userRepository.findByFullName(username)
-            .orElse(null)));
+        // Один запрос по индексам email_key/user_id_key/full_name_key вместо трёх последовательных
+        String key = User.lookupKey(username);
+        User user = pickUser(userRepository.findByLookupKey(key), key);
         
         if (user == null) {
             logger.error("User not found: {}", username);
+            principalCache.putMissing(username);
             throw new UsernameNotFoundException("User not found: " + username);
         }
         
         logger.info("User found: {} (ID: {}, Email: {}, Role: {})", 
             user.getFullName(), user.getUserId(), user.getEmail(), user.getRole());
         
-        return UserDetailsImpl.build(user);
+        UserDetailsImpl principal = UserDetailsImpl.build(user);
+        principalCache.put(username, principal);
+        return principal;
+    }
+
+    /**
+     * Выбор среди совпадений с прежним приоритетом: email, затем userId, затем ФИО.
+     * Неоднозначное ФИО (несколько пользователей) не даёт входа.
+     */
+    static User pickUser(List<User> candidates, String key) {
+        User byFullName = null;
+        int fullNameMatches = 0;
+        for (User candidate : candidates) {
+            if (key.equals(candidate.getEmailKey())) {
+                return candidate;
+            }
+        }
+        for (User candidate : candidates) {
+            if (key.equals(candidate.getUserIdKey())) {
+                return candidate;
+            }
+            if (key.equals(candidate.getFullNameKey())) {
+                byFullName = candidate;
+                fullNameMatches++;
+            }
+        }
+        if (fullNameMatches > 1) {
+            logger.warn("Ambiguous login by full name: {} users match", fullNameMatches);
+            return null;
+        }
+        return byFullName;
     }
 }
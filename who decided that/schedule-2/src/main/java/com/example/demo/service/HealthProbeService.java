@@ -0,0 +1,216 @@
+package com.example.demo.service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Проверки зависимостей для /api/health: пинг БД, заполненность пула соединений, доступность FastAPI.
+ * Пробы выполняются в фоне раз в app.health.probeIntervalMs, HealthController отдаёт последний
+ * результат из памяти — сами проверки здоровья не создают нагрузки на БД.
+ */
+@Slf4j
+@Service
+@Lazy(false) // /ready должен отвечать по результатам проб с момента старта, а не после первого обращения
+public class HealthProbeService {
+
+    public enum Status { UP, DEGRADED, DOWN, STARTING }
+
+    /** Результат одного прогона проб. */
+    public record Snapshot(Status status, Instant checkedAt, Map<String, Object> database,
+                           Map<String, Object> pool, Map<String, Object> fastApi) {}
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private WebClient fastApiWebClient;
+
+    @Value("${app.health.probeIntervalMs:10000}")
+    private long probeIntervalMs = 10_000;
+
+    @Value("${app.health.dbTimeoutSec:2}")
+    private int dbTimeoutSec = 2;
+
+    @Value("${app.health.fastApiEnabled:true}")
+    private boolean fastApiEnabled = true;
+
+    @Value("${app.health.fastApiPath:/}")
+    private String fastApiPath = "/";
+
+    @Value("${app.health.fastApiTimeoutMs:2000}")
+    private long fastApiTimeoutMs = 2_000;
+
+    /** Без FastAPI сервис работает, кроме аналитики, поэтому по умолчанию её недоступность — DEGRADED, а не DOWN. */
+    @Value("${app.health.fastApiRequired:false}")
+    private boolean fastApiRequired;
+
+    /** Доля занятых соединений, начиная с которой пул считается насыщенным. */
+    @Value("${app.health.poolSaturationRatio:0.9}")
+    private double poolSaturationRatio = 0.9;
+
+    private volatile Snapshot snapshot = new Snapshot(Status.STARTING, Instant.now(), Map.of(), Map.of(), Map.of());
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "health-probe");
+        t.setDaemon(true);
+        return t;
+    });
+
+    @PostConstruct
+    public void start() {
+        scheduler.scheduleWithFixedDelay(this::probeSafely, 0, probeIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+    }
+
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /** Жив ли процесс: фоновые пробы выполняются (последняя не старше трёх интервалов). */
+    public boolean isLive() {
+        return Duration.between(snapshot.checkedAt(), Instant.now()).toMillis() <= 3 * probeIntervalMs + 5_000;
+    }
+
+    /** Готов ли экземпляр принимать трафик: БД отвечает и пул не исчерпан. */
+    public boolean isReady() {
+        Status status = snapshot.status();
+        return status == Status.UP || status == Status.DEGRADED;
+    }
+
+    private void probeSafely() {
+        try {
+            snapshot = probe();
+        } catch (RuntimeException e) {
+            log.warn("Health probe failed: {}", e.getMessage());
+        }
+    }
+
+    Snapshot probe() {
+        Map<String, Object> pool = probePool();
+        Map<String, Object> database = canBorrow(pool) ? probeDatabase() : skippedDatabase();
+        Map<String, Object> fastApi = fastApiEnabled ? probeFastApi() : Map.of("status", "DISABLED");
+
+        Status status = Status.UP;
+        if (!"UP".equals(database.get("status"))) {
+            status = Status.DOWN;
+        } else if (Boolean.TRUE.equals(pool.get("saturated"))) {
+            status = Status.DOWN;
+        } else if ("DOWN".equals(fastApi.get("status"))) {
+            status = fastApiRequired ? Status.DOWN : Status.DEGRADED;
+        }
+        Status previous = snapshot.status();
+        if (status != previous && !(previous == Status.STARTING && status == Status.UP)) {
+            log.warn("Health status changed: {} -> {} (db={}, pool={}, fastApi={})",
+                    previous, status, database, pool, fastApi);
+        }
+        return new Snapshot(status, Instant.now(), database, pool, fastApi);
+    }
+
+    /**
+     * Пинг берёт соединение из того же пула, а getConnection ждёт до connectionTimeout Hikari (30 с),
+     * не dbTimeoutSec. Поэтому соединение берётся, только если в пуле есть свободное или место для нового:
+     * иначе проба отняла бы его у запросов и снимок устаревал бы на время ожидания.
+     */
+    private static boolean canBorrow(Map<String, Object> pool) {
+        if (!(pool.get("idle") instanceof Integer idle)) {
+            return true;
+        }
+        return idle > 0 || (int) pool.get("total") < (int) pool.get("max");
+    }
+
+    /** Пул занят целиком: статус БД — из прошлой пробы, с пометкой, что пинг пропущен. */
+    private Map<String, Object> skippedDatabase() {
+        Map<String, Object> result = new LinkedHashMap<>(snapshot.database());
+        result.putIfAbsent("status", "UNKNOWN");
+        result.put("skipped", "no free connection in pool");
+        return result;
+    }
+
+    private Map<String, Object> probeDatabase() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        long start = System.nanoTime();
+        try (Connection connection = dataSource.getConnection()) {
+            boolean valid = connection.isValid(dbTimeoutSec);
+            result.put("status", valid ? "UP" : "DOWN");
+        } catch (SQLException e) {
+            result.put("status", "DOWN");
+            result.put("error", e.getMessage());
+        }
+        result.put("pingMs", (System.nanoTime() - start) / 1_000_000.0);
+        return result;
+    }
+
+    private Map<String, Object> probePool() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        try {
+            if (!dataSource.isWrapperFor(HikariDataSource.class)) {
+                result.put("status", "UNKNOWN");
+                return result;
+            }
+            HikariDataSource hikari = dataSource.unwrap(HikariDataSource.class);
+            HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+            if (pool == null) {
+                result.put("status", "STARTING");
+                return result;
+            }
+            int max = hikari.getMaximumPoolSize();
+            int active = pool.getActiveConnections();
+            int waiting = pool.getThreadsAwaitingConnection();
+            result.put("active", active);
+            result.put("idle", pool.getIdleConnections());
+            result.put("total", pool.getTotalConnections());
+            result.put("max", max);
+            result.put("waiting", waiting);
+            result.put("utilization", max == 0 ? 0.0 : (double) active / max);
+            result.put("saturated", waiting > 0 && active >= max * poolSaturationRatio);
+        } catch (SQLException e) {
+            result.put("status", "UNKNOWN");
+            result.put("error", e.getMessage());
+        }
+        return result;
+    }
+
+    /** FastAPI считается доступным при любом HTTP-ответе: проверяется связность, а не конкретный маршрут. */
+    private Map<String, Object> probeFastApi() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        long start = System.nanoTime();
+        try {
+            Integer code = fastApiWebClient.get()
+                    .uri(fastApiPath)
+                    .exchangeToMono(response -> Mono.just(response.statusCode().value()))
+                    .timeout(Duration.ofMillis(fastApiTimeoutMs))
+                    .block();
+            result.put("status", code != null && code < 500 ? "UP" : "DOWN");
+            result.put("httpStatus", code);
+        } catch (RuntimeException e) {
+            result.put("status", "DOWN");
+            result.put("error", e.getMessage());
+        }
+        result.put("latencyMs", (System.nanoTime() - start) / 1_000_000.0);
+        return result;
+    }
+}
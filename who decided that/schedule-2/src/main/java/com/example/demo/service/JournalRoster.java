@@ -0,0 +1,73 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.AttendanceDTO;
+import com.example.demo.dto.GradeDTO;
+import com.example.demo.dto.ScheduleDTO;
+import com.example.demo.dto.UserDTO;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Сборка журнала учителя за день: для каждого урока — строка на ученика с оценкой и посещаемостью.
+ * Оценки и посещаемость индексируются по (ученик, предмет) один раз, а не перебираются
+ * для каждой пары урок × ученик. При нескольких записях на пару берётся первая, как и раньше.
+ */
+public final class JournalRoster {
+
+    private JournalRoster() {
+    }
+
+    public static List<Map<String, Object>> buildLessons(List<ScheduleDTO> scheduleForDay, List<UserDTO> students,
+                                                         List<GradeDTO> grades, List<AttendanceDTO> attendance) {
+        Map<String, GradeDTO> gradeIndex = new HashMap<>(grades.size() * 2);
+        for (GradeDTO g : grades) {
+            if (g.getStudentId() != null && g.getSubject() != null) {
+                gradeIndex.putIfAbsent(key(g.getStudentId(), g.getSubject()), g);
+            }
+        }
+        Map<String, AttendanceDTO> attendanceIndex = new HashMap<>(attendance.size() * 2);
+        for (AttendanceDTO a : attendance) {
+            if (a.getStudentId() != null && a.getSubject() != null) {
+                attendanceIndex.putIfAbsent(key(a.getStudentId(), a.getSubject()), a);
+            }
+        }
+
+        List<Map<String, Object>> lessons = new ArrayList<>(scheduleForDay.size());
+        for (ScheduleDTO lesson : scheduleForDay) {
+            Map<String, Object> lessonEntry = new HashMap<>();
+            lessonEntry.put("scheduleId", lesson.getScheduleId());
+            lessonEntry.put("subject", lesson.getSubject());
+            lessonEntry.put("startTime", lesson.getStartTime() != null ? lesson.getStartTime().toString() : null);
+            lessonEntry.put("endTime", lesson.getEndTime() != null ? lesson.getEndTime().toString() : null);
+            lessonEntry.put("teacher", lesson.getTeacher());
+            String lessonSubject = lesson.getSubject();
+            List<Map<String, Object>> roster = new ArrayList<>(students.size());
+            for (UserDTO student : students) {
+                String sid = student.getUserId();
+                Map<String, Object> row = new HashMap<>();
+                row.put("studentId", sid);
+                row.put("studentName", student.getFullName());
+                String k = lessonSubject != null && sid != null ? key(sid, lessonSubject) : null;
+                GradeDTO gradeForStudent = k != null ? gradeIndex.get(k) : null;
+                row.put("gradeId", gradeForStudent != null ? gradeForStudent.getId() : null);
+                row.put("gradeValue", gradeForStudent != null ? gradeForStudent.getGradeValue() : null);
+                row.put("gradeType", gradeForStudent != null ? gradeForStudent.getGradeType() : null);
+                row.put("comment", gradeForStudent != null ? gradeForStudent.getComment() : null);
+                AttendanceDTO att = k != null ? attendanceIndex.get(k) : null;
+                row.put("attendanceStatus", att != null ? att.getStatus() : null);
+                row.put("attendanceId", att != null ? att.getId() : null);
+                roster.add(row);
+            }
+            lessonEntry.put("roster", roster);
+            lessons.add(lessonEntry);
+        }
+        return lessons;
+    }
+
+    private static String key(String studentId, String subject) {
+        return studentId + '\u0000' + subject;
+    }
+}
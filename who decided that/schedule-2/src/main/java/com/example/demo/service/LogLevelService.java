@@ -0,0 +1,137 @@
+package com.example.demo.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.logging.LogLevel;
+import org.springframework.boot.logging.LoggerConfiguration;
+import org.springframework.boot.logging.LoggingSystem;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Временное изменение уровня логирования пакета без перезапуска.
+ * Каждое изменение откатывается к прежнему уровню по истечении срока (не больше app.logging.maxOverrideMinutes),
+ * чтобы забытый DEBUG не остался включённым на проде.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LogLevelService {
+
+    private final LoggingSystem loggingSystem;
+
+    @Value("${app.logging.maxOverrideMinutes:60}")
+    private long maxOverrideMinutes = 60;
+
+    /** id отличает изменение от следующего для того же логгера: задача отката снимает только своё. */
+    private record LevelOverride(long id, String logger, LogLevel previous, LogLevel level, long revertAtMillis,
+                            ScheduledFuture<?> revertTask) {}
+
+    private final ConcurrentHashMap<String, LevelOverride> overrides = new ConcurrentHashMap<>();
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "log-level-revert");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /**
+     * Устанавливает уровень логгера на durationSeconds секунд.
+     *
+     * @throws IllegalArgumentException если имя логгера пустое или уровень неизвестен
+     */
+    public synchronized Map<String, Object> setLevel(String logger, String level, long durationSeconds) {
+        if (logger == null || logger.isBlank()) {
+            throw new IllegalArgumentException("Logger name is required");
+        }
+        LogLevel newLevel;
+        try {
+            newLevel = LogLevel.valueOf(String.valueOf(level).trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown log level: " + level);
+        }
+        long seconds = Math.max(1, Math.min(durationSeconds, TimeUnit.MINUTES.toSeconds(maxOverrideMinutes)));
+
+        LevelOverride existing = overrides.remove(logger);
+        LogLevel previous;
+        if (existing != null) {
+            existing.revertTask().cancel(false);
+            previous = existing.previous();
+        } else {
+            LoggerConfiguration configuration = loggingSystem.getLoggerConfiguration(logger);
+            previous = configuration != null ? configuration.getConfiguredLevel() : null;
+        }
+
+        loggingSystem.setLogLevel(logger, newLevel);
+        long id = sequence.incrementAndGet();
+        ScheduledFuture<?> task = scheduler.schedule(() -> expire(logger, id), seconds, TimeUnit.SECONDS);
+        LevelOverride override = new LevelOverride(id, logger, previous, newLevel,
+                System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(seconds), task);
+        overrides.put(logger, override);
+        log.info("Log level of '{}' set to {} for {} s (was {})", logger, newLevel, seconds, previous);
+        return toMap(override);
+    }
+
+    /** Возвращает прежний уровень. false, если временного изменения для логгера нет. */
+    public synchronized boolean revert(String logger) {
+        LevelOverride override = overrides.remove(logger);
+        if (override == null) {
+            return false;
+        }
+        override.revertTask().cancel(false);
+        restore(override);
+        return true;
+    }
+
+    /**
+     * Откат по сроку. Уже запущенная задача могла ждать монитор, пока setLevel заменял изменение новым, —
+     * тогда новое изменение не трогается.
+     */
+    private synchronized void expire(String logger, long id) {
+        LevelOverride override = overrides.get(logger);
+        if (override != null && override.id() == id && overrides.remove(logger, override)) {
+            restore(override);
+        }
+    }
+
+    private void restore(LevelOverride override) {
+        loggingSystem.setLogLevel(override.logger(), override.previous());
+        log.info("Log level of '{}' reverted to {}", override.logger(), override.previous());
+    }
+
+    public List<Map<String, Object>> list() {
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (LevelOverride override : overrides.values()) {
+            result.add(toMap(override));
+        }
+        return result;
+    }
+
+    private static Map<String, Object> toMap(LevelOverride override) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("logger", override.logger());
+        m.put("level", override.level().name());
+        m.put("previous", override.previous() != null ? override.previous().name() : null);
+        m.put("revertAt", override.revertAtMillis());
+        return m;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
@@ -29,11 +29,13 @@ public class NewsService {
     private final UserRepository userRepository;
     private final ModelMapper modelMapper;
 
+    @Transactional(readOnly = true)
     public Page<NewsDTO> getAllNews(Pageable pageable) {
         return newsRepository.findAllByOrderByPublicationDateDesc(pageable)
                 .map(this::convertToDTO);
     }
 
+    @Transactional(readOnly = true)
     public List<NewsDTO> getAllNewsList() {
         return newsRepository.findAllByOrderByPublicationDateDesc(Pageable.unpaged())
                 .map(this::convertToDTO)
@@ -41,13 +43,15 @@ public class NewsService {
                 .collect(Collectors.toList());
     }
 
+    @Transactional(readOnly = true)
     public Page<NewsDTO> getPublishedNews(Pageable pageable) {
         return newsRepository.findByIsPublishedTrueOrderByPublicationDateDesc(pageable)
                 .map(this::convertToDTO);
     }
 
+    @Transactional(readOnly = true)
     public NewsDTO getNewsById(Long id) {
-        News news = newsRepository.findById(id)
+        News news = newsRepository.findWithAuthorById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("News not found with id: " + id));
         return convertToDTO(news);
     }
@@ -149,11 +153,13 @@ public class NewsService {
         return dto;
     }
 
+    @Transactional(readOnly = true)
     public Page<NewsDTO> searchNews(String query, Pageable pageable) {
         return newsRepository.findByTitleContainingIgnoreCaseOrContentContainingIgnoreCase(
                 query, pageable).map(this::convertToDTO);
     }
 
+    @Transactional(readOnly = true)
     public List<NewsDTO> searchNewsList(String query) {
         return newsRepository.findByTitleContainingIgnoreCaseOrContentContainingIgnoreCase(
                 query, Pageable.unpaged())
@@ -0,0 +1,534 @@
+package com.example.demo.service;
+
+import com.example.demo.config.TransactionHooks;
+import com.example.demo.entity.Schedule;
+import com.example.demo.repository.ScheduleRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Занятость групп, учителей и кабинетов по всей школе: на каждый ресурс — битовая
+ * маска недели, один бит на 5-минутный слот (7 × 288 слотов = 32 long).
+ * Проверка двойного бронирования — AND масок; только при пересечении просматриваются уроки ресурса
+ * и сравниваются точные интервалы, чтобы исключить редактируемый урок и назвать конфликтующий. Свободные окна — OR масок
+ * группы, учителя и кабинета и поиск серий нулевых битов.
+ * Индекс строится одним запросом findBookings в фоновом потоке и публикуется неизменяемым снимком
+ * через volatile-ссылку: запросы читают его без блокировок и ждут построения только в первый раз
+ * и после invalidateAll. Изменения после коммитов (ScheduleService, импорт) применяются к копии,
+ * которая подменяет снимок целиком, поэтому перенос урока никогда не виден наполовину.
+ * Раз в app.schedule.occupancyRebuildMs снимок перестраивается в фоне.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OccupancyIndex {
+
+    static final int SLOT_MINUTES = 5;
+    static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+    static final int WORDS = (7 * SLOTS_PER_DAY + 63) / 64;
+
+    private final ScheduleRepository scheduleRepository;
+
+    @Value("${app.schedule.occupancyRebuildMs:300000}")
+    private long rebuildMs = 300_000;
+
+    /** Границы учебного дня для поиска свободных окон. */
+    @Value("${app.schedule.dayStart:08:00}")
+    private String dayStart = "08:00";
+
+    @Value("${app.schedule.dayEnd:18:00}")
+    private String dayEnd = "18:00";
+
+    /** dayStart и dayEnd в слотах, разобранные один раз при старте. */
+    private int firstSlot = 8 * 60 / SLOT_MINUTES;
+    private int lastSlot = 18 * 60 / SLOT_MINUTES;
+
+    public enum ResourceType { GROUP, TEACHER, ROOM }
+
+    record Resource(ResourceType type, String key) {}
+
+    /** Урок, занимающий ресурс. */
+    public record Booking(String scheduleId, String groupId, DayOfWeek day, LocalTime start, LocalTime end) {
+        /**
+         * Точное пересечение [start, end): маски округлены до 5-минутных слотов и служат только фильтром,
+         * иначе уроки 9:00–9:47 и 9:48–10:30 считались бы накладкой.
+         */
+        boolean overlaps(DayOfWeek day, LocalTime start, LocalTime end) {
+            return this.day == day && this.start.isBefore(end) && start.isBefore(this.end);
+        }
+    }
+
+    private record Saved(String id, String groupId, DayOfWeek day, LocalTime start, LocalTime end,
+                         String teacher, String room) {}
+
+    /** Ресурс уже занят другим уроком в это время. */
+    public record Conflict(ResourceType type, String resource, Booking booking) {
+        public String describe() {
+            return (type == ResourceType.TEACHER ? "Teacher " : "Room ") + resource + " is already booked on "
+                    + booking.day() + " " + booking.start() + "-" + booking.end()
+                    + " (group " + booking.groupId() + ", schedule " + booking.scheduleId() + ")";
+        }
+    }
+
+    /**
+     * Занятость одного ресурса. После публикации в State не меняется: обновление заменяет её копией,
+     * поэтому запросы читают её без блокировки.
+     */
+    private static final class Occupancy {
+        final String name;
+        final long[] bits;
+        final Map<String, Booking> bookings;
+
+        Occupancy(String name) {
+            this(name, new long[WORDS], new HashMap<>());
+        }
+
+        private Occupancy(String name, long[] bits, Map<String, Booking> bookings) {
+            this.name = name;
+            this.bits = bits;
+            this.bookings = bookings;
+        }
+
+        /** Добавление на месте — только пока State строится и ещё не опубликован. */
+        void add(Booking booking) {
+            bookings.put(booking.scheduleId(), booking);
+            or(bits, mask(booking.day(), booking.start(), booking.end()));
+        }
+
+        Occupancy with(Booking booking) {
+            Occupancy copy = new Occupancy(name, bits.clone(), new HashMap<>(bookings));
+            copy.add(booking);
+            return copy;
+        }
+
+        /** Копия без урока; null, если у ресурса больше нет уроков. */
+        Occupancy without(String scheduleId) {
+            Occupancy copy = new Occupancy(name);
+            for (Booking b : bookings.values()) {
+                if (!b.scheduleId().equals(scheduleId)) {
+                    copy.add(b);
+                }
+            }
+            return copy.bookings.isEmpty() ? null : copy;
+        }
+    }
+
+    /**
+     * Снимок индекса. Меняется только до публикации: при построении и в копии из copy();
+     * опубликованный снимок читается без блокировок и больше не трогается.
+     */
+    private static final class State {
+        final Map<Resource, Occupancy> resources;
+        final Map<String, List<Resource>> bookedBy;
+        final List<Map<String, Object>> conflicts;
+
+        State() {
+            this(new HashMap<>(), new HashMap<>(), new ArrayList<>());
+        }
+
+        private State(Map<Resource, Occupancy> resources, Map<String, List<Resource>> bookedBy,
+                      List<Map<String, Object>> conflicts) {
+            this.resources = resources;
+            this.bookedBy = bookedBy;
+            this.conflicts = conflicts;
+        }
+
+        /** Копия для изменения: Occupancy общие (book и unbook их заменяют, а не меняют), карты свои. */
+        State copy() {
+            return new State(new HashMap<>(resources), new HashMap<>(bookedBy), conflicts);
+        }
+
+        /** Урок при первичном построении: занятость меняется на месте. */
+        void load(Booking booking, String teacher, String room) {
+            List<Resource> booked = resourcesOf(booking.groupId(), teacher, room);
+            for (Resource resource : booked) {
+                resources.computeIfAbsent(resource, r -> new Occupancy(nameOf(resource, booking.groupId(), teacher, room)))
+                        .add(booking);
+            }
+            if (!booked.isEmpty()) {
+                bookedBy.put(booking.scheduleId(), booked);
+            }
+        }
+
+        void book(String id, String groupId, DayOfWeek day, LocalTime start, LocalTime end,
+                  String teacher, String room) {
+            if (day == null || start == null || end == null) {
+                return;
+            }
+            Booking booking = new Booking(id, groupId, day, start, end);
+            List<Resource> booked = resourcesOf(groupId, teacher, room);
+            for (Resource resource : booked) {
+                Occupancy occupancy = resources.get(resource);
+                resources.put(resource, occupancy != null ? occupancy.with(booking)
+                        : new Occupancy(nameOf(resource, groupId, teacher, room)).with(booking));
+            }
+            if (!booked.isEmpty()) {
+                bookedBy.put(id, booked);
+            }
+        }
+
+        void unbook(String id) {
+            List<Resource> booked = bookedBy.remove(id);
+            if (booked == null) {
+                return;
+            }
+            for (Resource resource : booked) {
+                Occupancy occupancy = resources.get(resource);
+                if (occupancy != null && occupancy.bookings.containsKey(id)) {
+                    Occupancy rest = occupancy.without(id);
+                    if (rest == null) {
+                        resources.remove(resource);
+                    } else {
+                        resources.put(resource, rest);
+                    }
+                }
+            }
+        }
+    }
+
+    /** Текущий снимок; null — ещё не построен или сброшен invalidateAll. */
+    private volatile State state;
+
+    /** Точечные изменения, пришедшие во время фоновой перестройки: применяются к новому снимку перед подменой. */
+    private List<Consumer<State>> pending;
+    private long generation;
+    private CompletableFuture<State> inFlight;
+
+    private final ScheduledExecutorService rebuilder = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "occupancy-rebuild");
+        t.setDaemon(true);
+        return t;
+    });
+
+    @PostConstruct
+    void init() {
+        firstSlot = LocalTime.parse(dayStart).toSecondOfDay() / (SLOT_MINUTES * 60);
+        lastSlot = LocalTime.parse(dayEnd).toSecondOfDay() / (SLOT_MINUTES * 60);
+        rebuilder.scheduleWithFixedDelay(() -> {
+            if (state != null) {
+                requestRebuild();
+            }
+        }, rebuildMs, rebuildMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuilder.shutdownNow();
+    }
+
+    /**
+     * Уроки, с которыми пересекается бронирование teacher/room на [start, end) в этот день.
+     * Пустые teacher и room не проверяются.
+     *
+     * @param excludeId редактируемый урок (null при создании)
+     */
+    public List<Conflict> findConflicts(String teacher, String room, String dayOfWeek,
+                                        LocalTime start, LocalTime end, String excludeId) {
+        DayOfWeek day = parseDay(dayOfWeek);
+        if (day == null || start == null || end == null) {
+            return List.of();
+        }
+        State current = current();
+        long[] requested = mask(day, start, end);
+        List<Conflict> conflicts = new ArrayList<>();
+        for (Resource resource : resourcesOf(null, teacher, room)) {
+            Occupancy occupancy = current.resources.get(resource);
+            if (occupancy == null || !intersects(occupancy.bits, requested)) {
+                continue;
+            }
+            for (Booking b : occupancy.bookings.values()) {
+                if (!b.scheduleId().equals(excludeId) && b.overlaps(day, start, end)) {
+                    conflicts.add(new Conflict(resource.type(), occupancy.name, b));
+                }
+            }
+        }
+        return conflicts;
+    }
+
+    public void onSaved(Schedule schedule) {
+        onSavedAll(List.of(schedule));
+    }
+
+    /** Пачка созданных или изменённых уроков (импорт): после коммита — одна новая копия снимка на всю пачку. */
+    public void onSavedAll(Collection<Schedule> schedules) {
+        // Значения снимаются сейчас: сущность может измениться до коммита или до повтора в перестройке
+        List<Saved> saved = schedules.stream()
+                .map(schedule -> new Saved(schedule.getScheduleId(), schedule.getGroupId(),
+                        parseDay(schedule.getDayOfWeek()), schedule.getStartTime(), schedule.getEndTime(),
+                        schedule.getTeacher(), schedule.getRoom()))
+                .toList();
+        TransactionHooks.afterCommit(() -> update(s -> {
+            for (Saved lesson : saved) {
+                s.unbook(lesson.id());
+                s.book(lesson.id(), lesson.groupId(), lesson.day(), lesson.start(), lesson.end(),
+                        lesson.teacher(), lesson.room());
+            }
+        }));
+    }
+
+    public void onDeleted(String scheduleId) {
+        TransactionHooks.afterCommit(() -> update(s -> s.unbook(scheduleId)));
+    }
+
+    /**
+     * Сбрасывает снимок после массовых изменений и сразу запускает перестройку в фоне.
+     * Запросы до её окончания ждут новый снимок, а не проверяют по старому.
+     */
+    public void invalidateAll() {
+        TransactionHooks.afterCommit(() -> {
+            synchronized (this) {
+                generation++;
+                state = null;
+            }
+            requestRebuild();
+        });
+    }
+
+    /**
+     * Начала свободных окон длительностью durationMinutes по дням ПН–ПТ, с шагом stepMinutes,
+     * в которые свободны одновременно группа, учитель и кабинет (пустые параметры не учитываются).
+     * Один проход по слотам дня с подсчётом длины текущей серии свободных слотов.
+     */
+    public Map<String, List<String>> freeSlots(String groupId, String teacher, String room,
+                                               int durationMinutes, int stepMinutes) {
+        State current = current();
+        long[] busy = new long[WORDS];
+        for (Resource resource : resourcesOf(groupId, teacher, room)) {
+            Occupancy occupancy = current.resources.get(resource);
+            if (occupancy != null) {
+                or(busy, occupancy.bits);
+            }
+        }
+        int durationSlots = (durationMinutes + SLOT_MINUTES - 1) / SLOT_MINUTES;
+        int stepSlots = Math.max(1, (stepMinutes + SLOT_MINUTES - 1) / SLOT_MINUTES);
+
+        Map<String, List<String>> result = new LinkedHashMap<>();
+        for (DayOfWeek day = DayOfWeek.MONDAY; day.getValue() <= DayOfWeek.FRIDAY.getValue(); day = day.plus(1)) {
+            int base = (day.getValue() - 1) * SLOTS_PER_DAY;
+            List<String> starts = new ArrayList<>();
+            int run = 0;
+            for (int slot = firstSlot; slot < lastSlot; slot++) {
+                int bit = base + slot;
+                run = (busy[bit >>> 6] & (1L << (bit & 63))) != 0 ? 0 : run + 1;
+                int start = slot - durationSlots + 1;
+                if (run >= durationSlots && (start - firstSlot) % stepSlots == 0) {
+                    starts.add(LocalTime.ofSecondOfDay((long) start * SLOT_MINUTES * 60).toString());
+                }
+            }
+            result.put(day.name(), starts);
+        }
+        return result;
+    }
+
+    /**
+     * Все двойные бронирования учителей и кабинетов по школе. Индекс перестраивается заново
+     * за один проход по урокам: каждый урок сравнивается (AND) с уже занятыми слотами своего учителя и кабинета.
+     */
+    public Map<String, Object> doubleBookings() {
+        State built;
+        do {
+            built = await(requestRebuild());
+        } while (built == null);
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("lessons", built.bookedBy.size());
+        report.put("teachers", built.resources.keySet().stream().filter(r -> r.type() == ResourceType.TEACHER).count());
+        report.put("rooms", built.resources.keySet().stream().filter(r -> r.type() == ResourceType.ROOM).count());
+        report.put("groups", built.resources.keySet().stream().filter(r -> r.type() == ResourceType.GROUP).count());
+        report.put("conflictCount", built.conflicts.size());
+        report.put("conflicts", built.conflicts);
+        return report;
+    }
+
+    /** Опубликованный снимок; до первого построения (или после сброса) ждёт фоновую перестройку. */
+    private State current() {
+        State current = state;
+        while (current == null) {
+            await(requestRebuild());
+            current = state;
+        }
+        return current;
+    }
+
+    /**
+     * Публикует копию текущего снимка с изменением и запоминает изменение для снимка,
+     * который сейчас строится.
+     */
+    private synchronized void update(Consumer<State> change) {
+        State current = state;
+        if (current != null) {
+            State next = current.copy();
+            change.accept(next);
+            state = next;
+        }
+        if (pending != null) {
+            pending.add(change);
+        }
+    }
+
+    /**
+     * Запускает перестройку в фоновом потоке, если она ещё не идёт. Future завершается снимком
+     * или null, если за время построения индекс сбросили и результат уже устарел.
+     */
+    private synchronized CompletableFuture<State> requestRebuild() {
+        if (inFlight == null) {
+            CompletableFuture<State> future = CompletableFuture.supplyAsync(this::rebuild, rebuilder);
+            inFlight = future;
+            future.whenComplete((built, error) -> {
+                synchronized (this) {
+                    if (inFlight == future) {
+                        inFlight = null;
+                    }
+                }
+                if (error != null) {
+                    log.warn("Occupancy index rebuild failed: {}", error.getMessage());
+                }
+            });
+        }
+        return inFlight;
+    }
+
+    private static State await(CompletableFuture<State> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+    }
+
+    private State rebuild() {
+        long started;
+        synchronized (this) {
+            started = generation;
+            pending = new ArrayList<>();
+        }
+        try {
+            long start = System.nanoTime();
+            State built = new State();
+            List<ScheduleRepository.BookingRow> rows = new ArrayList<>(scheduleRepository.findBookings());
+            rows.sort(Comparator.comparing(ScheduleRepository.BookingRow::getScheduleId));
+            for (ScheduleRepository.BookingRow row : rows) {
+                DayOfWeek day = parseDay(row.getDayOfWeek());
+                if (day == null || row.getStartTime() == null || row.getEndTime() == null) {
+                    continue;
+                }
+                Booking booking = new Booking(row.getScheduleId(), row.getGroupId(), day, row.getStartTime(), row.getEndTime());
+                long[] requested = mask(day, row.getStartTime(), row.getEndTime());
+                for (Resource resource : resourcesOf(null, row.getTeacher(), row.getRoom())) {
+                    Occupancy occupancy = built.resources.get(resource);
+                    if (occupancy == null || !intersects(occupancy.bits, requested)) {
+                        continue;
+                    }
+                    for (Booking other : occupancy.bookings.values()) {
+                        if (other.overlaps(day, booking.start(), booking.end())) {
+                            Map<String, Object> conflict = new LinkedHashMap<>();
+                            conflict.put("type", resource.type().name());
+                            conflict.put("resource", occupancy.name);
+                            conflict.put("first", other);
+                            conflict.put("second", booking);
+                            built.conflicts.add(conflict);
+                        }
+                    }
+                }
+                built.load(booking, row.getTeacher(), row.getRoom());
+            }
+            synchronized (this) {
+                if (generation != started) {
+                    log.debug("Occupancy index was invalidated during rebuild, discarding it");
+                    return null;
+                }
+                pending.forEach(change -> change.accept(built));
+                state = built;
+            }
+            log.info("Occupancy index built: {} lessons, {} groups, teachers and rooms, {} double bookings in {} ms",
+                    built.bookedBy.size(), built.resources.size(), built.conflicts.size(),
+                    (System.nanoTime() - start) / 1_000_000);
+            return built;
+        } finally {
+            synchronized (this) {
+                pending = null;
+            }
+        }
+    }
+
+    private static List<Resource> resourcesOf(String groupId, String teacher, String room) {
+        List<Resource> result = new ArrayList<>(3);
+        if (teacher != null && !teacher.isBlank()) {
+            result.add(new Resource(ResourceType.TEACHER, teacher.trim().toLowerCase(Locale.ROOT)));
+        }
+        if (room != null && !room.isBlank()) {
+            result.add(new Resource(ResourceType.ROOM, room.trim().toLowerCase(Locale.ROOT)));
+        }
+        if (groupId != null && !groupId.isBlank()) {
+            result.add(new Resource(ResourceType.GROUP, groupId.trim()));
+        }
+        return result;
+    }
+
+    private static String nameOf(Resource resource, String groupId, String teacher, String room) {
+        return switch (resource.type()) {
+            case GROUP -> groupId.trim();
+            case TEACHER -> teacher.trim();
+            case ROOM -> room.trim();
+        };
+    }
+
+    private static DayOfWeek parseDay(String dayOfWeek) {
+        if (dayOfWeek == null) {
+            return null;
+        }
+        try {
+            return DayOfWeek.valueOf(dayOfWeek.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /** Маска слотов [start, end) дня; конец округляется вверх до слота. */
+    static long[] mask(DayOfWeek day, LocalTime start, LocalTime end) {
+        long[] mask = new long[WORDS];
+        int base = (day.getValue() - 1) * SLOTS_PER_DAY;
+        int slotSeconds = SLOT_MINUTES * 60;
+        int from = base + start.toSecondOfDay() / slotSeconds;
+        int to = base + (end.toSecondOfDay() + slotSeconds - 1) / slotSeconds;
+        for (int slot = from; slot < to; slot++) {
+            mask[slot >>> 6] |= 1L << (slot & 63);
+        }
+        return mask;
+    }
+
+    private static boolean intersects(long[] a, long[] b) {
+        for (int i = 0; i < WORDS; i++) {
+            if ((a[i] & b[i]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void or(long[] target, long[] source) {
+        for (int i = 0; i < WORDS; i++) {
+            target[i] |= source[i];
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.demo.service;
+
+import com.example.demo.config.TransactionHooks;
+import com.example.demo.entity.RefreshSession;
+import com.example.demo.exception.InvalidRefreshTokenException;
+import com.example.demo.repository.RefreshSessionRepository;
+import com.example.demo.security.jwt.JwtUtils;
+import com.example.demo.security.services.TokenRevocationService;
+import com.example.demo.security.services.UserDetailsImpl;
+import com.example.demo.security.services.UserDetailsServiceImpl;
+import io.jsonwebtoken.Claims;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Выдача и ротация refresh-токенов.
+ * Ротация — проверка HMAC и один UPDATE по первичному ключу семейства, без BCrypt.
+ * Повторное предъявление уже использованного токена отзывает всё семейство.
+ * Отозванные семейства дополнительно держатся в памяти, чтобы повторные попытки
+ * отклонялись без обращения к БД.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class RefreshTokenService {
+    private static final int REVOKED_STORE_MAX_SIZE = 100_000;
+
+    private final RefreshSessionRepository refreshSessionRepository;
+    private final JwtUtils jwtUtils;
+    private final UserDetailsServiceImpl userDetailsService;
+    private final TokenRevocationService tokenRevocationService;
+
+    /** familyId → момент, после которого запись можно забыть (токены семейства к этому времени истекли). */
+    private final ConcurrentHashMap<String, Long> revokedFamilies = new ConcurrentHashMap<>();
+
+    /** Результат ротации: актуальный принципал для нового access-токена и следующий refresh-токен. */
+    public record Rotation(UserDetailsImpl principal, String refreshToken) {}
+
+    /** Новое семейство при входе по паролю. */
+    public String issue(UserDetailsImpl principal) {
+        LocalDateTime now = LocalDateTime.now();
+        refreshSessionRepository.deleteExpiredByUserId(principal.getId(), now);
+
+        RefreshSession session = new RefreshSession();
+        session.setFamilyId(UUID.randomUUID().toString());
+        session.setUserId(principal.getId());
+        session.setCurrentJti(UUID.randomUUID().toString());
+        session.setExpiresAt(now.plusNanos(jwtUtils.getJwtRefreshExpirationMs() * 1_000_000));
+        refreshSessionRepository.save(session);
+
+        return jwtUtils.generateRefreshToken(principal, session.getFamilyId(), session.getCurrentJti());
+    }
+
+    @Transactional(noRollbackFor = InvalidRefreshTokenException.class)
+    public Rotation rotate(String refreshToken) {
+        Claims claims = jwtUtils.parseRefreshToken(refreshToken);
+        if (claims == null) {
+            throw new InvalidRefreshTokenException("Invalid refresh token");
+        }
+        String familyId = claims.get(JwtUtils.CLAIM_FAMILY, String.class);
+        if (isRevoked(familyId)
+                || tokenRevocationService.isRevoked(claims.get(JwtUtils.CLAIM_USER_ID, String.class), claims.getIssuedAt())) {
+            throw new InvalidRefreshTokenException("Refresh token revoked");
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        String nextJti = UUID.randomUUID().toString();
+        int updated = refreshSessionRepository.rotate(familyId, claims.getId(), nextJti,
+                now.plusNanos(jwtUtils.getJwtRefreshExpirationMs() * 1_000_000), now);
+        if (updated == 0) {
+            // Токен уже был обменян (или семейство отозвано) — считаем его украденным
+            log.warn("[AUTH] refresh token reuse detected: family={}, user={}", familyId, claims.getSubject());
+            revokeFamily(familyId);
+            throw new InvalidRefreshTokenException("Refresh token revoked");
+        }
+
+        UserDetailsImpl principal;
+        try {
+            principal = (UserDetailsImpl) userDetailsService.loadUserByUsername(claims.getSubject());
+        } catch (UsernameNotFoundException e) {
+            revokeFamily(familyId);
+            throw new InvalidRefreshTokenException("User not found");
+        }
+        if (!principal.getId().equals(claims.get(JwtUtils.CLAIM_USER_ID, String.class))) {
+            revokeFamily(familyId);
+            throw new InvalidRefreshTokenException("Invalid refresh token");
+        }
+        return new Rotation(principal, jwtUtils.generateRefreshToken(principal, familyId, nextJti));
+    }
+
+    /**
+     * Выход: отзывает семейство предъявленного refresh-токена.
+     *
+     * @param userId владелец, которому разрешено отзывать; null — без проверки владельца
+     * @return false, если токен невалиден или принадлежит другому пользователю
+     */
+    public boolean revoke(String refreshToken, String userId) {
+        Claims claims = jwtUtils.parseRefreshToken(refreshToken);
+        if (claims == null || (userId != null && !userId.equals(claims.get(JwtUtils.CLAIM_USER_ID, String.class)))) {
+            return false;
+        }
+        revokeFamily(claims.get(JwtUtils.CLAIM_FAMILY, String.class));
+        return true;
+    }
+
+    public void revokeFamily(String familyId) {
+        refreshSessionRepository.revokeFamily(familyId);
+        markRevoked(familyId);
+    }
+
+    /**
+     * Отзыв всех входов пользователя — UserService вызывает при смене пароля, роли или удалении.
+     * Семейства помечаются в памяти после коммита, чтобы откат не оставил их отозванными только здесь.
+     */
+    public void revokeAllForUser(String userId) {
+        List<String> families = refreshSessionRepository.findActiveFamilyIdsByUserId(userId);
+        refreshSessionRepository.revokeAllByUserId(userId);
+        TransactionHooks.afterCommit(() -> families.forEach(this::markRevoked));
+    }
+
+    public int getRevokedStoreSize() {
+        return revokedFamilies.size();
+    }
+
+    private boolean isRevoked(String familyId) {
+        Long forgetAt = revokedFamilies.get(familyId);
+        if (forgetAt == null) {
+            return false;
+        }
+        if (forgetAt > System.currentTimeMillis()) {
+            return true;
+        }
+        revokedFamilies.remove(familyId, forgetAt);
+        return false;
+    }
+
+    private void markRevoked(String familyId) {
+        long now = System.currentTimeMillis();
+        if (revokedFamilies.size() >= REVOKED_STORE_MAX_SIZE) {
+            revokedFamilies.values().removeIf(forgetAt -> forgetAt <= now);
+        }
+        // Если память переполнена, запись не добавляется: отзыв всё равно записан в БД
+        if (revokedFamilies.size() < REVOKED_STORE_MAX_SIZE) {
+            revokedFamilies.put(familyId, now + jwtUtils.getJwtRefreshExpirationMs());
+        }
+    }
+}
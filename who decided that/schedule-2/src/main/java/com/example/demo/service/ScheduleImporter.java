@@ -0,0 +1,343 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.schedule.ScheduleImportRow;
+import com.example.demo.entity.Schedule;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Потоковый импорт уроков из CSV с заголовком или JSON-массива (POST /api/admin/schedule/import).
+ * Тело читается по одной строке через MappingIterator поверх потокового парсера Jackson;
+ * в памяти — текущий чанк и компактные интервалы уже принятых строк, а не весь файл.
+ * Каждая строка проверяется как при создании урока: группа существует, день и время корректны,
+ * нет пересечения с уроками группы (ScheduleIntervalIndex и строки этого же файла),
+ * учитель и кабинет не заняты (OccupancyIndex и строки файла).
+ * Принятые строки пишутся батчами INSERT, каждый чанк — в своей транзакции; отклонённые попадают в отчёт.
+ * После коммита чанка его строки добавляются в оба индекса точечно, без их полной перестройки.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ScheduleImporter {
+
+    public enum Format { CSV, JSON }
+
+    private static final ObjectReader JSON_READER = new ObjectMapper().readerFor(ScheduleImportRow.class);
+    private static final ObjectReader CSV_READER = CsvMapper.builder()
+            .enable(CsvParser.Feature.TRIM_SPACES)
+            .enable(CsvParser.Feature.SKIP_EMPTY_LINES)
+            .build()
+            .readerFor(ScheduleImportRow.class)
+            .with(CsvSchema.emptySchema().withHeader());
+
+    /** 9:00, 09:00 и 09:00:00 — время из таблиц часто без ведущего нуля. */
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("H:mm[:ss]");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final ScheduleIntervalIndex scheduleIntervalIndex;
+    private final OccupancyIndex occupancyIndex;
+
+    @Value("${app.import.chunkSize:1000}")
+    private int chunkSize = 1000;
+
+    /** Сколько ошибок попадает в отчёт; остальные только считаются. */
+    @Value("${app.import.maxErrors:1000}")
+    private int maxErrors = 1000;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    /** Строка отклонена: сообщение уходит в отчёт. */
+    private static final class RowException extends Exception {
+        RowException(String message) {
+            super(message, null, false, false);
+        }
+    }
+
+    /**
+     * Импортирует уроки из тела запроса.
+     *
+     * @param dryRun только проверка, без записи
+     */
+    public Map<String, Object> importSchedule(InputStream body, Format format, boolean dryRun) throws IOException {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Schedule import is already running");
+        }
+        try {
+            return run(body, format, dryRun);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private Map<String, Object> run(InputStream body, Format format, boolean dryRun) throws IOException {
+        long start = System.nanoTime();
+        Set<String> groups = new HashSet<>(jdbcTemplate.queryForList("SELECT group_id FROM grup", String.class));
+        Batch batch = new Batch(groups, dryRun);
+        ObjectReader reader = format == Format.CSV ? CSV_READER : JSON_READER;
+        try (MappingIterator<ScheduleImportRow> rows = reader.readValues(body)) {
+            while (!batch.aborted) {
+                ScheduleImportRow row;
+                try {
+                    if (!rows.hasNextValue()) {
+                        break;
+                    }
+                    row = rows.nextValue();
+                } catch (JsonProcessingException e) {
+                    batch.abort(batch.rows + 1, rows.getCurrentLocation().getLineNr(),
+                            "Malformed " + format + ": " + e.getOriginalMessage());
+                    break;
+                }
+                batch.rows++;
+                try {
+                    batch.accept(validate(row, batch));
+                } catch (RowException e) {
+                    batch.reject(batch.rows, rows.getCurrentLocation().getLineNr(), e.getMessage());
+                }
+            }
+        }
+        batch.flush();
+
+        long elapsedMs = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("format", format);
+        report.put("dryRun", dryRun);
+        report.put("rows", batch.rows);
+        report.put(dryRun ? "valid" : "imported", dryRun ? batch.accepted : batch.imported);
+        report.put("rejected", batch.rejected);
+        report.put("chunks", batch.chunks);
+        report.put("aborted", batch.aborted);
+        report.put("elapsedMs", elapsedMs);
+        report.put("rowsPerSecond", batch.rows * 1000L / elapsedMs);
+        report.put("errors", batch.errors);
+        report.put("errorsTruncated", batch.rejected > batch.errors.size());
+        log.info("Schedule import ({}{}): {} rows, {} accepted, {} rejected in {} ms", format, dryRun ? ", dry run" : "",
+                batch.rows, batch.accepted, batch.rejected, elapsedMs);
+        return report;
+    }
+
+    /** Проверяет строку и возвращает параметры INSERT_SCHEDULE. */
+    private Object[] validate(ScheduleImportRow row, Batch batch) throws RowException {
+        String groupId = required(row.getGroupId(), "groupId");
+        if (!batch.groups.contains(groupId)) {
+            throw new RowException("Group not found: " + groupId);
+        }
+        DayOfWeek day;
+        try {
+            day = DayOfWeek.valueOf(required(row.getDayOfWeek(), "dayOfWeek").toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new RowException("Invalid dayOfWeek '" + row.getDayOfWeek() + "'");
+        }
+        LocalTime startTime = time(row.getStartTime(), "startTime");
+        LocalTime endTime = time(row.getEndTime(), "endTime");
+        if (!endTime.isAfter(startTime)) {
+            throw new RowException("End time must be after start time");
+        }
+        String subject = blank(row.getSubject()) ? required(row.getTitle(), "subject") : row.getSubject().trim();
+        String title = blank(row.getTitle()) ? subject : row.getTitle().trim();
+        String teacher = blank(row.getTeacher()) ? null : row.getTeacher().trim();
+        String room = blank(row.getRoom()) ? null : row.getRoom().trim();
+        maxLength(subject, 255, "subject");
+        maxLength(title, 255, "title");
+        maxLength(teacher, 255, "teacher");
+        maxLength(room, 50, "room");
+
+        // Строки этого же файла: точные интервалы [from, to) по группе, учителю и кабинету за день
+        int from = startTime.toSecondOfDay();
+        int to = endTime.toSecondOfDay();
+        String groupDay = groupId + "|" + day;
+        String teacherDay = teacher == null ? null : teacher.toLowerCase(Locale.ROOT) + "|" + day;
+        String roomDay = room == null ? null : room.toLowerCase(Locale.ROOT) + "|" + day;
+        int clash = overlapping(batch.groupIntervals, groupDay, from, to);
+        if (clash > 0) {
+            throw new RowException("Overlaps row " + clash + " of group " + groupId + " on " + day);
+        }
+        if (overlapping(batch.teacherIntervals, teacherDay, from, to) > 0) {
+            throw new RowException("Teacher " + teacher + " is booked twice in this file on " + day + " " + startTime);
+        }
+        if (overlapping(batch.roomIntervals, roomDay, from, to) > 0) {
+            throw new RowException("Room " + room + " is booked twice in this file on " + day + " " + startTime);
+        }
+        if (scheduleIntervalIndex.hasConflict(groupId, day.name(), startTime, endTime, null)) {
+            throw new RowException("Overlaps an existing lesson of group " + groupId + " on " + day);
+        }
+        List<OccupancyIndex.Conflict> conflicts = occupancyIndex.findConflicts(teacher, room, day.name(),
+                startTime, endTime, null);
+        if (!conflicts.isEmpty()) {
+            throw new RowException(conflicts.get(0).describe());
+        }
+
+        int[] interval = {from, to, batch.rows};
+        batch.groupIntervals.computeIfAbsent(groupDay, k -> new ArrayList<>(4)).add(interval);
+        if (teacherDay != null) {
+            batch.teacherIntervals.computeIfAbsent(teacherDay, k -> new ArrayList<>(4)).add(interval);
+        }
+        if (roomDay != null) {
+            batch.roomIntervals.computeIfAbsent(roomDay, k -> new ArrayList<>(4)).add(interval);
+        }
+        LocalDateTime now = LocalDateTime.now();
+        return new Object[]{UUID.randomUUID().toString(), title, groupId, day.name(), startTime, endTime, subject,
+                teacher, room, now, now};
+    }
+
+    /** Состояние одного импорта: счётчики, отчёт и текущий чанк. */
+    private final class Batch {
+        final Set<String> groups;
+        final boolean dryRun;
+        final Map<String, List<int[]>> groupIntervals = new HashMap<>();
+        final Map<String, List<int[]>> teacherIntervals = new HashMap<>();
+        final Map<String, List<int[]>> roomIntervals = new HashMap<>();
+        final List<Map<String, Object>> errors = new ArrayList<>();
+        List<Object[]> chunk = new ArrayList<>();
+        int rows;
+        int accepted;
+        int imported;
+        int rejected;
+        int chunks;
+        /** Чтение остановлено: битый файл или ошибка записи. */
+        boolean aborted;
+        /** Чанк не записался — следующие уже не пишутся. */
+        boolean writeFailed;
+
+        Batch(Set<String> groups, boolean dryRun) {
+            this.groups = groups;
+            this.dryRun = dryRun;
+        }
+
+        void accept(Object[] params) {
+            accepted++;
+            chunk.add(params);
+            if (chunk.size() >= chunkSize) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (chunk.isEmpty() || writeFailed) {
+                return;
+            }
+            List<Object[]> rowsToWrite = chunk;
+            chunk = new ArrayList<>();
+            if (dryRun) {
+                return;
+            }
+            try {
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                    jdbcTemplate.batchUpdate(SchoolDataGenerator.INSERT_SCHEDULE, rowsToWrite);
+                    // После коммита чанка индексы дополняются только его строками, без полной перестройки:
+                    // параллельные POST /api/schedules сразу видят записанные уроки
+                    List<Schedule> written = rowsToWrite.stream().map(ScheduleImporter::toSchedule).toList();
+                    scheduleIntervalIndex.onSavedAll(written);
+                    occupancyIndex.onSavedAll(written);
+                });
+                imported += rowsToWrite.size();
+                chunks++;
+            } catch (DataAccessException e) {
+                // Чанк откатился целиком; уже записанные чанки остаются
+                writeFailed = true;
+                abort(rows, -1, "Chunk of " + rowsToWrite.size() + " rows ending at row " + rows
+                        + " was not written: " + e.getMostSpecificCause().getMessage());
+            }
+        }
+
+        void reject(int row, long line, String message) {
+            rejected++;
+            if (errors.size() < maxErrors) {
+                Map<String, Object> error = new LinkedHashMap<>();
+                error.put("row", row);
+                if (line > 0) {
+                    error.put("line", line);
+                }
+                error.put("message", message);
+                errors.add(error);
+            }
+        }
+
+        void abort(int row, long line, String message) {
+            reject(row, line, message);
+            aborted = true;
+        }
+    }
+
+    private static String required(String value, String field) throws RowException {
+        if (blank(value)) {
+            throw new RowException(field + " is required");
+        }
+        return value.trim();
+    }
+
+    private static LocalTime time(String value, String field) throws RowException {
+        try {
+            return LocalTime.parse(required(value, field), TIME);
+        } catch (DateTimeParseException e) {
+            throw new RowException("Invalid " + field + " '" + value + "', expected HH:mm");
+        }
+    }
+
+    private static void maxLength(String value, int max, String field) throws RowException {
+        if (value != null && value.length() > max) {
+            throw new RowException(field + " is longer than " + max + " characters");
+        }
+    }
+
+    private static boolean blank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    /** Строка INSERT_SCHEDULE в виде урока — только поля, нужные индексам. */
+    private static Schedule toSchedule(Object[] params) {
+        Schedule schedule = new Schedule();
+        schedule.setScheduleId((String) params[0]);
+        schedule.setGroupId((String) params[2]);
+        schedule.setDayOfWeek((String) params[3]);
+        schedule.setStartTime((LocalTime) params[4]);
+        schedule.setEndTime((LocalTime) params[5]);
+        schedule.setTeacher((String) params[7]);
+        schedule.setRoom((String) params[8]);
+        return schedule;
+    }
+
+    /** Номер строки файла, чей интервал по ключу пересекается с [from, to); 0 — пересечений нет. */
+    private static int overlapping(Map<String, List<int[]>> intervals, String key, int from, int to) {
+        List<int[]> taken = key == null ? null : intervals.get(key);
+        if (taken != null) {
+            for (int[] interval : taken) {
+                if (interval[0] < to && from < interval[1]) {
+                    return interval[2];
+                }
+            }
+        }
+        return 0;
+    }
+}
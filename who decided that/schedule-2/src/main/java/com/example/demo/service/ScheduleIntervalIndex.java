@@ -0,0 +1,225 @@
+package com.example.demo.service;
+
+import com.example.demo.config.TransactionHooks;
+import com.example.demo.entity.Schedule;
+import com.example.demo.repository.ScheduleRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Индекс уроков по (группа, день недели) для проверки пересечений по времени.
+ * Внутри дня уроки отсортированы по началу; пересекающий [start, end) урок может начинаться
+ * только в окне (start − самая длинная длительность, end), поэтому запрос — это поиск в TreeSet
+ * и просмотр нескольких соседей, а не перебор всех уроков дня.
+ * День загружается из БД одним запросом при первом обращении, отвечает на него же и живёт
+ * app.schedule.conflictIndexTtlMs, чтобы изменения с других экземпляров со временем подхватывались.
+ * Изменения применяются после коммита транзакции, чтобы откаченные уроки не попадали в индекс.
+ * Изменения и публикация загруженного дня идут под одним замком: если за время загрузки день
+ * затронуло изменение, загрузка отвечает на текущий запрос, но в индекс не попадает.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ScheduleIntervalIndex {
+
+    private final ScheduleRepository scheduleRepository;
+
+    @Value("${app.schedule.conflictIndexTtlMs:60000}")
+    private long ttlMs = 60_000;
+
+    record Key(String groupId, String day) {}
+
+    /** Урок в секундах от начала суток. */
+    record Slot(String scheduleId, int start, int end) {}
+
+    private record Location(Key key, Slot slot) {}
+
+    private static final Comparator<Slot> BY_START = Comparator.comparingInt(Slot::start)
+            .thenComparing(Slot::scheduleId);
+
+    private static final class DayIndex {
+        final TreeSet<Slot> slots = new TreeSet<>(BY_START);
+        final long loadedAtMillis;
+        // Только растёт: после удаления длинного урока окно поиска остаётся шире, но ответ верный
+        int maxDuration;
+
+        DayIndex(long loadedAtMillis) {
+            this.loadedAtMillis = loadedAtMillis;
+        }
+
+        void add(Slot slot) {
+            slots.add(slot);
+            maxDuration = Math.max(maxDuration, slot.end() - slot.start());
+        }
+
+        boolean overlaps(int start, int end, String excludeId) {
+            if (end <= start) {
+                return false;
+            }
+            NavigableSet<Slot> window = slots.subSet(
+                    new Slot("", start - maxDuration, 0), true,
+                    new Slot("", end, 0), false);
+            for (Slot slot : window) {
+                if (slot.end() > start && !slot.scheduleId().equals(excludeId)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private final ConcurrentHashMap<Key, DayIndex> days = new ConcurrentHashMap<>();
+    /** Где сейчас лежит урок — чтобы перенос и удаление не требовали старых значений. */
+    private final ConcurrentHashMap<String, Location> locations = new ConcurrentHashMap<>();
+
+    /** Замок изменений: place, remove, invalidateAll и публикация загруженного дня. */
+    private final Object writeLock = new Object();
+    /** Дни, которые сейчас загружаются; true — за время загрузки их затронуло изменение. Под writeLock. */
+    private final Map<Key, Boolean> loading = new HashMap<>();
+
+    /**
+     * Есть ли у группы в этот день урок, пересекающийся с [start, end).
+     *
+     * @param excludeId урок, который сейчас редактируется (null при создании)
+     */
+    public boolean hasConflict(String groupId, String dayOfWeek, LocalTime start, LocalTime end, String excludeId) {
+        Key key = key(groupId, dayOfWeek);
+        DayIndex index = days.get(key);
+        if (index != null && System.currentTimeMillis() - index.loadedAtMillis < ttlMs) {
+            synchronized (index) {
+                return index.overlaps(seconds(start), seconds(end), excludeId);
+            }
+        }
+        DayIndex loaded = load(key);
+        synchronized (loaded) {
+            return loaded.overlaps(seconds(start), seconds(end), excludeId);
+        }
+    }
+
+    /** Урок создан или изменён: после коммита переносится в нужный день индекса. */
+    public void onSaved(Schedule schedule) {
+        onSavedAll(List.of(schedule));
+    }
+
+    /** Пачка созданных или изменённых уроков (импорт): одно действие после коммита на всю пачку. */
+    public void onSavedAll(Collection<Schedule> schedules) {
+        List<Location> moved = new ArrayList<>(schedules.size());
+        for (Schedule schedule : schedules) {
+            String id = schedule.getScheduleId();
+            Key key = schedule.getGroupId() != null && schedule.getDayOfWeek() != null
+                    ? key(schedule.getGroupId(), schedule.getDayOfWeek()) : null;
+            boolean timed = key != null && schedule.getStartTime() != null && schedule.getEndTime() != null;
+            // Без дня или времени урок только убирается из индекса: key == null
+            moved.add(timed
+                    ? new Location(key, new Slot(id, seconds(schedule.getStartTime()), seconds(schedule.getEndTime())))
+                    : new Location(null, new Slot(id, 0, 0)));
+        }
+        TransactionHooks.afterCommit(() -> moved.forEach(this::place));
+    }
+
+    private void place(Location location) {
+        synchronized (writeLock) {
+            String id = location.slot().scheduleId();
+            remove(id);
+            if (location.key() == null) {
+                return;
+            }
+            loading.replace(location.key(), Boolean.TRUE);
+            DayIndex index = days.get(location.key());
+            if (index != null) {
+                synchronized (index) {
+                    index.add(location.slot());
+                }
+                locations.put(id, location);
+            }
+        }
+    }
+
+    public void onDeleted(String scheduleId) {
+        TransactionHooks.afterCommit(() -> {
+            synchronized (writeLock) {
+                remove(scheduleId);
+            }
+        });
+    }
+
+    /** Сбрасывает индекс после массовых изменений (автозаполнение расписания). */
+    public void invalidateAll() {
+        TransactionHooks.afterCommit(() -> {
+            synchronized (writeLock) {
+                days.clear();
+                locations.clear();
+                loading.replaceAll((key, dirty) -> Boolean.TRUE);
+            }
+        });
+    }
+
+    /**
+     * Читает день из БД. В индекс он попадает, только если за время запроса этот день не меняли:
+     * иначе изменение, применённое до публикации, потерялось бы до истечения TTL.
+     */
+    private DayIndex load(Key key) {
+        synchronized (writeLock) {
+            loading.putIfAbsent(key, Boolean.FALSE);
+        }
+        DayIndex index = new DayIndex(System.currentTimeMillis());
+        for (Schedule s : scheduleRepository.findByGroupIdAndDayOfWeek(key.groupId(), key.day())) {
+            if (s.getStartTime() != null && s.getEndTime() != null) {
+                index.add(new Slot(s.getScheduleId(), seconds(s.getStartTime()), seconds(s.getEndTime())));
+            }
+        }
+        synchronized (writeLock) {
+            if (Boolean.FALSE.equals(loading.remove(key))) {
+                DayIndex stale = days.put(key, index);
+                if (stale != null) {
+                    stale.slots.forEach(slot -> locations.remove(slot.scheduleId(), new Location(key, slot)));
+                }
+                index.slots.forEach(slot -> locations.put(slot.scheduleId(), new Location(key, slot)));
+                log.debug("Loaded {} lessons into conflict index for {}", index.slots.size(), key);
+            } else {
+                log.debug("Conflict index day {} changed while loading, not caching it", key);
+            }
+        }
+        return index;
+    }
+
+    /** Под writeLock. */
+    private void remove(String scheduleId) {
+        Location previous = locations.remove(scheduleId);
+        if (previous == null) {
+            // День урока неизвестен: он мог быть в любом из загружаемых сейчас дней
+            loading.replaceAll((key, dirty) -> Boolean.TRUE);
+            return;
+        }
+        loading.replace(previous.key(), Boolean.TRUE);
+        DayIndex index = days.get(previous.key());
+        if (index != null) {
+            synchronized (index) {
+                index.slots.remove(previous.slot());
+            }
+        }
+    }
+
+    static Key key(String groupId, String dayOfWeek) {
+        return new Key(Objects.requireNonNull(groupId), dayOfWeek.trim().toUpperCase(Locale.ROOT));
+    }
+
+    private static int seconds(LocalTime time) {
+        return time.toSecondOfDay();
+    }
+}
@@ -8,13 +8,15 @@ import com.example.demo.entity.User;
 import com.example.demo.exception.ResourceNotFoundException;
 import com.example.demo.repository.GroupRepository;
 import com.example.demo.repository.ScheduleRepository;
-import com.example.demo.repository.UserRepository;
+import com.example.demo.security.services.UserDetailsImpl;
+import com.example.demo.security.services.UserDetailsServiceImpl;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.modelmapper.ModelMapper;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -23,11 +25,15 @@ import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.TextStyle;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 import org.springframework.security.core.Authentication;
@@ -37,26 +43,37 @@ import org.springframework.security.core.Authentication;
 @RequiredArgsConstructor
 public class ScheduleService {
     private final ScheduleRepository scheduleRepository;
-    private final UserRepository userRepository;
+    private final UserDetailsServiceImpl userDetailsService;
     private final GroupRepository groupRepository;
-    private final ModelMapper modelMapper = new ModelMapper();
+    private final ScheduleIntervalIndex scheduleIntervalIndex;
+    private final OccupancyIndex occupancyIndex;
+    private final ModelMapper modelMapper = scheduleMapper();
+
+    /** Группа текущего пользователя: из принципала запроса, иначе через кэширующий UserDetailsServiceImpl. */
+    private String currentUserGroupId() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth.getPrincipal() instanceof UserDetailsImpl principal) {
+            return principal.getGroupId();
+        }
+        try {
+            return ((UserDetailsImpl) userDetailsService.loadUserByUsername(auth.getName())).getGroupId();
+        } catch (UsernameNotFoundException e) {
+            throw new ResourceNotFoundException("User not found");
+        }
+    }
 
     public List<ScheduleDTO> getScheduleForCurrentUser() {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        String groupId = currentUserGroupId();
         
-        return scheduleRepository.findByGroupId(user.getGroupId()).stream()
+        return scheduleRepository.findByGroupId(groupId).stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
     }
 
     public List<ScheduleDTO> getScheduleByDay(String dayOfWeek) {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        String groupId = currentUserGroupId();
         
-        return scheduleRepository.findByGroupIdAndDayOfWeek(user.getGroupId(), dayOfWeek).stream()
+        return scheduleRepository.findByGroupIdAndDayOfWeek(groupId, dayOfWeek).stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
     }
@@ -68,6 +85,35 @@ public class ScheduleService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Свободные окна для нового урока: начала по дням ПН–ПТ, когда свободны группа, учитель и кабинет.
+     *
+     * @throws IllegalArgumentException если не задан ни один ресурс или длительность/шаг вне допустимых границ
+     */
+    public Map<String, Object> findFreeSlots(String groupId, String teacher, String room, int duration, int step) {
+        if (isBlank(groupId) && isBlank(teacher) && isBlank(room)) {
+            throw new IllegalArgumentException("At least one of groupId, teacher or room is required");
+        }
+        if (duration < 5 || duration > 480) {
+            throw new IllegalArgumentException("Duration must be between 5 and 480 minutes");
+        }
+        if (step < 5 || step > 120) {
+            throw new IllegalArgumentException("Step must be between 5 and 120 minutes");
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("groupId", groupId);
+        result.put("teacher", teacher);
+        result.put("room", room);
+        result.put("duration", duration);
+        result.put("step", step);
+        result.put("days", occupancyIndex.freeSlots(groupId, teacher, room, duration, step));
+        return result;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
     public List<ScheduleDTO> getAllSchedules() {
         return scheduleRepository.findAll().stream()
                 .map(this::convertToDTO)
@@ -140,24 +186,20 @@ public class ScheduleService {
             
             // Log time values
             log.info("Start time: {}, End time: {}", request.getStartTime(), request.getEndTime());
+            requireValidInterval(request);
             
             // Check for time conflicts
             log.info("Checking for time conflicts with startTime: {}, endTime: {}", request.getStartTime(), request.getEndTime());
             
-            List<Schedule> existingSchedules = scheduleRepository.findByGroupIdAndDayOfWeek(groupId, request.getDayOfWeek());
-            
-            // Check for time conflicts
-            boolean hasConflict = existingSchedules.stream()
-                .anyMatch(existing -> isTimeOverlap(
-                    existing.getStartTime(), existing.getEndTime(),
-                    request.getStartTime(), request.getEndTime()
-                ));
+            boolean hasConflict = scheduleIntervalIndex.hasConflict(groupId, request.getDayOfWeek(),
+                    request.getStartTime(), request.getEndTime(), null);
             
             if (hasConflict) {
                 String error = "Schedule conflicts with existing schedule";
                 log.error(error);
                 throw new IllegalStateException(error);
             }
+            requireNoDoubleBooking(request, null);
             
             // Create and save the new schedule
             log.info("Creating new schedule...");
@@ -184,6 +226,8 @@ public class ScheduleService {
             
             log.info("Saving new schedule: {}", schedule);
             Schedule savedSchedule = scheduleRepository.save(schedule);
+            scheduleIntervalIndex.onSaved(savedSchedule);
+            occupancyIndex.onSaved(savedSchedule);
             log.info("Successfully saved schedule with ID: {}", savedSchedule.getScheduleId());
             
             return convertToDTO(savedSchedule);
@@ -194,8 +238,22 @@ public class ScheduleService {
         }
     }
     
-    private boolean isTimeOverlap(LocalTime start1, LocalTime end1, LocalTime start2, LocalTime end2) {
-        return !(end1.isBefore(start2) || start1.isAfter(end2));
+    /** Урок занимает полуинтервал [start, end): уроки «встык» не пересекаются. */
+    private static void requireValidInterval(CreateScheduleRequest request) {
+        if (!request.getEndTime().isAfter(request.getStartTime())) {
+            throw new IllegalArgumentException("End time must be after start time");
+        }
+    }
+
+    /** Учитель и кабинет урока не должны быть заняты в это время в другой группе. */
+    private void requireNoDoubleBooking(CreateScheduleRequest request, String excludeId) {
+        List<OccupancyIndex.Conflict> conflicts = occupancyIndex.findConflicts(request.getTeacher(), request.getRoom(),
+                request.getDayOfWeek(), request.getStartTime(), request.getEndTime(), excludeId);
+        if (!conflicts.isEmpty()) {
+            String error = conflicts.get(0).describe();
+            log.error(error);
+            throw new IllegalStateException(error);
+        }
     }
 
     @Transactional
@@ -203,23 +261,20 @@ public class ScheduleService {
         Schedule schedule = scheduleRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Schedule not found with id: " + id));
         
-        // Check for time conflicts
+        requireValidInterval(request);
+
+        // Check for time conflicts; the lesson being edited does not conflict with itself
         log.info("Checking for time conflicts with startTime: {}, endTime: {}", request.getStartTime(), request.getEndTime());
         
-        List<Schedule> existingSchedules = scheduleRepository.findByGroupIdAndDayOfWeek(schedule.getGroupId(), request.getDayOfWeek());
-        
-        // Check for time conflicts
-        boolean hasConflict = existingSchedules.stream()
-            .anyMatch(existing -> isTimeOverlap(
-                existing.getStartTime(), existing.getEndTime(),
-                request.getStartTime(), request.getEndTime()
-            ));
+        boolean hasConflict = scheduleIntervalIndex.hasConflict(schedule.getGroupId(), request.getDayOfWeek(),
+                request.getStartTime(), request.getEndTime(), id);
         
         if (hasConflict) {
             String error = "Schedule conflicts with existing schedule";
             log.error(error);
             throw new IllegalStateException(error);
         }
+        requireNoDoubleBooking(request, id);
         
         // Update fields from request
         modelMapper.map(request, schedule);
@@ -227,7 +282,10 @@ public class ScheduleService {
         schedule.setStartTime(request.getStartTime());
         schedule.setEndTime(request.getEndTime());
         
-        return convertToDTO(scheduleRepository.save(schedule));
+        Schedule saved = scheduleRepository.save(schedule);
+        scheduleIntervalIndex.onSaved(saved);
+        occupancyIndex.onSaved(saved);
+        return convertToDTO(saved);
     }
     
     @Transactional
@@ -236,19 +294,19 @@ public class ScheduleService {
             throw new ResourceNotFoundException("Schedule not found with id: " + id);
         }
         scheduleRepository.deleteById(id);
+        scheduleIntervalIndex.onDeleted(id);
+        occupancyIndex.onDeleted(id);
         log.info("[DATA] Schedule deleted: id={}", id);
         return true;
     }
     
     public List<ScheduleDTO> getTodaySchedule() {
-        String email = SecurityContextHolder.getContext().getAuthentication().getName();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        String groupId = currentUserGroupId();
         
         String today = LocalDate.now().getDayOfWeek()
                 .getDisplayName(TextStyle.FULL, Locale.ENGLISH);
         
-        return scheduleRepository.findByGroupIdAndDayOfWeek(user.getGroupId(), today).stream()
+        return scheduleRepository.findByGroupIdAndDayOfWeek(groupId, today).stream()
                 .map(this::convertToDTO)
                 .collect(Collectors.toList());
     }
@@ -299,6 +357,8 @@ public class ScheduleService {
             schedule.setSubject(title != null ? title : "Default Subject");
             
             Schedule savedSchedule = scheduleRepository.save(schedule);
+            scheduleIntervalIndex.onSaved(savedSchedule);
+            occupancyIndex.onSaved(savedSchedule);
             return convertToDTO(savedSchedule);
         } catch (Exception e) {
             log.error("Error creating schedule from Postman format: {}", e.getMessage(), e);
@@ -343,13 +403,13 @@ public class ScheduleService {
         }
         String[] days = {"MONDAY", "TUESDAY", "WEDNESDAY", "THURSDAY", "FRIDAY"};
         String[] subjects = {"Математика", "Русский язык", "Физика", "История", "Информатика"};
-        int created = 0;
+        Set<String> scheduled = new HashSet<>(scheduleRepository.findScheduledGroupIds());
+        List<Schedule> lessons = new ArrayList<>();
         for (Group g : groups) {
             String groupId = g.getGroupId();
             if (groupId == null || groupId.trim().isEmpty()) continue;
-            List<Schedule> existing = scheduleRepository.findByGroupId(groupId);
-            if (!existing.isEmpty()) {
-                log.debug("[SEED] Group {} already has {} schedule entries, skip", groupId, existing.size());
+            if (scheduled.contains(groupId)) {
+                log.debug("[SEED] Group {} already has schedule entries, skip", groupId);
                 continue;
             }
             for (String day : days) {
@@ -363,17 +423,35 @@ public class ScheduleService {
                     s.setStartTime(LocalTime.of(9 + i, 0));
                     s.setEndTime(LocalTime.of(9 + i, 45));
                     s.setTeacher(null);
-                    scheduleRepository.save(s);
-                    created++;
+                    lessons.add(s);
                 }
             }
-            log.info("[SEED] Created {} schedule entries for group {}", subjects.length * days.length, groupId);
+            log.debug("[SEED] Prepared {} schedule entries for group {}", subjects.length * days.length, groupId);
         }
+        // Новые уроки (Schedule.isNew) идут через persist и уходят JDBC-батчами при flush
+        scheduleRepository.saveAll(lessons);
+        int created = lessons.size();
         log.info("[SEED] Total schedule entries created: {}", created);
+        if (created > 0) {
+            scheduleIntervalIndex.invalidateAll();
+            occupancyIndex.invalidateAll();
+        }
         return created;
     }
 
-    private ScheduleDTO convertToDTO(Schedule schedule) {
+    /**
+     * Schedule.getId() (Persistable) дублирует scheduleId, и неявное сопоставление с ScheduleDTO.scheduleId
+     * стало бы неоднозначным — поле задаётся явно, остальное ModelMapper сопоставляет сам.
+     */
+    private static ModelMapper scheduleMapper() {
+        ModelMapper mapper = new ModelMapper();
+        mapper.emptyTypeMap(Schedule.class, ScheduleDTO.class)
+                .addMappings(m -> m.map(Schedule::getScheduleId, ScheduleDTO::setScheduleId))
+                .implicitMappings();
+        return mapper;
+    }
+
+    ScheduleDTO convertToDTO(Schedule schedule) {
         if (schedule == null) {
             return null;
         }
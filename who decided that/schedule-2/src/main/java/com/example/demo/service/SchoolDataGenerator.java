@@ -0,0 +1,463 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.SchoolGenerationRequest;
+import com.example.demo.entity.User;
+import com.example.demo.security.services.PrincipalCache;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Генератор синтетической школы для проверок на реальных объёмах: группы, ученики, учителя по предметам,
+ * недельное расписание, история оценок и посещаемости, домашние задания и новости.
+ * Строки пишутся JDBC-батчами по batchSize в отдельных транзакциях, в обход Hibernate,
+ * поэтому память не растёт с объёмом, а миллионы строк загружаются за минуты.
+ * Все идентификаторы начинаются с префикса запроса — по нему данные удаляются через purge.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SchoolDataGenerator {
+
+    /** Код предмета (как в ролях TEACHER_*) и название. */
+    private static final String[][] SUBJECTS = {
+            {"MATH", "Математика"}, {"RUSSIAN", "Русский язык"}, {"PHYSICS", "Физика"}, {"HISTORY", "История"},
+            {"INFORM", "Информатика"}, {"ENGLISH", "Английский язык"}, {"BIO", "Биология"}, {"CHEM", "Химия"},
+            {"GEO", "География"}, {"LIT", "Литература"}
+    };
+    private static final String[] GRADE_TYPES = {"homework", "quiz", "test", "exam"};
+
+    static final String INSERT_SCHEDULE = "INSERT INTO schedule (schedule_id, schedule_name, group_id, day_of_week, "
+            + "start_time, end_time, subject, teacher, room, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    static final String INSERT_GROUP = "INSERT INTO grup (group_id, schedule_id, group_name, description, data, "
+            + "created_at, updated_at) VALUES (?, ?, ?, ?, '{}'::jsonb, ?, ?)";
+    static final String INSERT_USER = "INSERT INTO users (user_id, full_name, password, email, group_id, role, subject, "
+            + "created_at, email_key, user_id_key, full_name_key) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    static final String INSERT_GRADE = "INSERT INTO grades (student_id, subject, grade_value, grade_type, teacher_id, "
+            + "lesson_date, group_id, schedule_id, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    static final String INSERT_ATTENDANCE = "INSERT INTO attendance (student_id, subject, attendance_date, status, "
+            + "teacher_id, group_id, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    static final String INSERT_HOMEWORK = "INSERT INTO homework (title, description, subject, teacher_id, group_id, "
+            + "due_date, assigned_date, is_completed, created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    static final String INSERT_NEWS = "INSERT INTO news (title, content, publication_date, is_published, author_id, "
+            + "created_at, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    /** Описание группы учителей — метка того, что префикс создан генератором. */
+    private static final String STAFF_DESCRIPTION = "Generated teachers";
+
+    /** Таблицы в порядке удаления (сначала ссылающиеся). */
+    private static final String[][] PURGE = {
+            {"grades", "student_id"}, {"attendance", "student_id"}, {"homework", "group_id"}, {"news", "author_id"},
+            {"users", "user_id"}, {"grup", "group_id"}, {"schedule", "schedule_id"}
+    };
+
+    /** Приёмник готовых батчей: в работе — JDBC, в тестах — список в памяти. */
+    interface RowSink {
+        void write(String table, String sql, List<Object[]> rows);
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final PasswordEncoder passwordEncoder;
+    private final PrincipalCache principalCache;
+    private final ScheduleIntervalIndex scheduleIntervalIndex;
+    private final OccupancyIndex occupancyIndex;
+
+    /** Пароль всех сгенерированных пользователей; хэш считается один раз на прогон, в ответах не возвращается. */
+    @Value("${app.generator.password:gen12345}")
+    private String generatedPassword = "gen12345";
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final ConcurrentHashMap<String, AtomicLong> progress = new ConcurrentHashMap<>();
+    private volatile long startedAtMillis;
+    private volatile Map<String, Object> lastResult;
+    private volatile String lastError;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "school-generator");
+        t.setDaemon(true);
+        return t;
+    });
+
+    /**
+     * Запускает генерацию в фоне.
+     *
+     * @return false, если генерация уже выполняется
+     * @throws IllegalArgumentException если данные с этим префиксом уже есть
+     */
+    public boolean start(SchoolGenerationRequest request) {
+        if (!running.compareAndSet(false, true)) {
+            return false;
+        }
+        try {
+            checkPrefixFree(request.getPrefix());
+            executor.execute(() -> {
+                try {
+                    run(request);
+                } catch (RuntimeException e) {
+                    log.error("School generation '{}' failed: {}", request.getPrefix(), e.getMessage(), e);
+                } finally {
+                    running.set(false);
+                }
+            });
+            return true;
+        } catch (RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+    }
+
+    /** Синхронная генерация — для запуска из командной строки. */
+    public Map<String, Object> generate(SchoolGenerationRequest request) {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("School generation is already running");
+        }
+        try {
+            checkPrefixFree(request.getPrefix());
+            return run(request);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Удаляет всё, что было сгенерировано с префиксом.
+     *
+     * @throws IllegalArgumentException если генератор этот префикс не создавал
+     */
+    public Map<String, Object> purge(String prefix) {
+        if (prefix == null || !prefix.matches("[a-z0-9]{1,8}")) {
+            throw new IllegalArgumentException("Prefix must be 1-8 lowercase letters or digits");
+        }
+        if (running.get()) {
+            throw new IllegalStateException("School generation is running");
+        }
+        if (!isGenerated(prefix)) {
+            throw new IllegalArgumentException("Prefix '" + prefix + "' was not created by the generator");
+        }
+        String like = prefix + "-%";
+        Map<String, Object> deleted = new LinkedHashMap<>();
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            for (String[] table : PURGE) {
+                deleted.put(table[0], jdbcTemplate.update("DELETE FROM " + table[0] + " WHERE " + table[1] + " LIKE ?", like));
+            }
+            scheduleIntervalIndex.invalidateAll();
+            occupancyIndex.invalidateAll();
+        });
+        principalCache.clear();
+        log.info("Purged generated school '{}': {}", prefix, deleted);
+        return deleted;
+    }
+
+    public boolean isRunning() {
+        return running.get();
+    }
+
+    public Map<String, Object> status() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("running", running.get());
+        status.put("startedAtMillis", startedAtMillis);
+        Map<String, Long> rows = new LinkedHashMap<>();
+        progress.forEach((table, count) -> rows.put(table, count.get()));
+        status.put("rows", rows);
+        status.put("lastResult", lastResult);
+        status.put("lastError", lastError);
+        return status;
+    }
+
+    /**
+     * Метки генератора: группа prefix-staff с описанием «Generated teachers» или, если прогон оборвался
+     * до записи групп, первый урок первой группы — расписание пишется первым. Без метки префикс
+     * может совпасть с настоящими данными («admin», «user», «default»), и LIKE удалил бы их.
+     */
+    private boolean isGenerated(String prefix) {
+        Boolean marked = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM grup WHERE group_id = ? AND description = ?) "
+                        + "OR EXISTS (SELECT 1 FROM schedule WHERE schedule_id = ?)",
+                Boolean.class, staffGroupId(prefix), STAFF_DESCRIPTION, lessonId(groupId(prefix, 0), 0, 0));
+        return Boolean.TRUE.equals(marked);
+    }
+
+    private void checkPrefixFree(String prefix) {
+        Integer existing = jdbcTemplate.queryForObject("SELECT count(*) FROM grup WHERE group_id LIKE ?",
+                Integer.class, prefix + "-%");
+        if (existing != null && existing > 0) {
+            throw new IllegalArgumentException("Data with prefix '" + prefix + "' already exists, purge it first");
+        }
+    }
+
+    private Map<String, Object> run(SchoolGenerationRequest request) {
+        progress.clear();
+        lastError = null;
+        startedAtMillis = System.currentTimeMillis();
+        long start = System.nanoTime();
+        log.info("Generating school '{}': {} groups x {} students, {} days of history",
+                request.getPrefix(), request.getGroups(), request.getStudentsPerGroup(), request.getDays());
+        try {
+            Map<String, Long> rows = emit(request, this::writeBatch, passwordEncoder.encode(generatedPassword),
+                    LocalDate.now());
+            // Свежая статистика, чтобы планировщик сразу видел новые объёмы
+            jdbcTemplate.execute("ANALYZE schedule, grup, users, grades, attendance, homework, news");
+            principalCache.clear();
+
+            long elapsedMs = Math.max(1, (System.nanoTime() - start) / 1_000_000);
+            long total = rows.values().stream().mapToLong(Long::longValue).sum();
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("prefix", request.getPrefix());
+            result.put("rows", rows);
+            result.put("totalRows", total);
+            result.put("elapsedMs", elapsedMs);
+            result.put("rowsPerSecond", total * 1000 / elapsedMs);
+            lastResult = result;
+            log.info("Generated school '{}': {} rows in {} ms", request.getPrefix(), total, elapsedMs);
+            return result;
+        } catch (RuntimeException e) {
+            lastError = e.getMessage();
+            log.warn("School generation '{}' stopped; remove partial data with purge", request.getPrefix());
+            throw e;
+        } finally {
+            // Уроки писались в обход ScheduleService, в том числе при обрыве — индексы сбрасываются в любом случае
+            scheduleIntervalIndex.invalidateAll();
+            occupancyIndex.invalidateAll();
+        }
+    }
+
+    private void writeBatch(String table, String sql, List<Object[]> rows) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> jdbcTemplate.batchUpdate(sql, rows));
+        progress.computeIfAbsent(table, k -> new AtomicLong()).addAndGet(rows.size());
+    }
+
+    /**
+     * Формирует строки школы и отдаёт их приёмнику батчами. Родительские таблицы полностью пишутся
+     * раньше дочерних (schedule → grup → users → оценки, посещаемость, задания, новости),
+     * чтобы внешние ключи выполнялись на каждом батче. При одинаковом seed результат одинаковый.
+     *
+     * @return число строк по таблицам
+     */
+    static Map<String, Long> emit(SchoolGenerationRequest request, RowSink sink, String passwordHash, LocalDate today) {
+        String prefix = request.getPrefix();
+        int batchSize = request.getBatchSize();
+        int subjectCount = Math.min(request.getSubjects(), SUBJECTS.length);
+        int lessons = request.getLessonsPerDay();
+        // Группы с одинаковым предметом в одном слоте различаются по group / subjectCount, поэтому учитель
+        // выбирается по этому номеру, а учителей не меньше, чем таких групп: никто не ведёт два урока сразу
+        int teachersPerSubject = Math.max(request.getTeachersPerSubject(),
+                (request.getGroups() + subjectCount - 1) / subjectCount);
+        SplittableRandom random = new SplittableRandom(request.getSeed());
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, Long> written = new LinkedHashMap<>();
+
+        String[][] teacherIds = new String[subjectCount][teachersPerSubject];
+        String[][] teacherNames = new String[subjectCount][teachersPerSubject];
+        for (int k = 0; k < subjectCount; k++) {
+            for (int t = 0; t < teachersPerSubject; t++) {
+                teacherIds[k][t] = prefix + "-t-" + SUBJECTS[k][0].toLowerCase() + "-" + (t + 1);
+                teacherNames[k][t] = "Teacher " + SUBJECTS[k][0] + " " + (t + 1);
+            }
+        }
+
+        // Расписание: ПН–ПТ по lessons уроков, предметы сдвинуты по группам; у каждой группы свой кабинет
+        TableWriter schedule = new TableWriter("schedule", INSERT_SCHEDULE, sink, batchSize);
+        for (int g = 0; g < request.getGroups(); g++) {
+            String groupId = groupId(prefix, g);
+            for (int d = 0; d < 5; d++) {
+                String day = DayOfWeek.of(d + 1).name();
+                for (int s = 0; s < lessons; s++) {
+                    int k = subjectOf(g, d, s, lessons, subjectCount);
+                    schedule.add(lessonId(groupId, d, s), groupId + "_" + day + "_" + s, groupId, day,
+                            startOf(s), startOf(s).plusMinutes(45), SUBJECTS[k][1],
+                            teacherNames[k][teacherOf(g, subjectCount, teachersPerSubject)], roomOf(g), now, now);
+                }
+            }
+        }
+        written.put("schedule", schedule.finish());
+
+        TableWriter groups = new TableWriter("grup", INSERT_GROUP, sink, batchSize);
+        String staffGroup = staffGroupId(prefix);
+        groups.add(staffGroup, lessonId(groupId(prefix, 0), 0, 0), "Staff " + prefix, STAFF_DESCRIPTION, now, now);
+        for (int g = 0; g < request.getGroups(); g++) {
+            String groupId = groupId(prefix, g);
+            groups.add(groupId, lessonId(groupId, 0, 0), "Group " + (g + 1), "Generated group", now, now);
+        }
+        written.put("grup", groups.finish());
+
+        TableWriter users = new TableWriter("users", INSERT_USER, sink, batchSize);
+        for (int k = 0; k < subjectCount; k++) {
+            for (int t = 0; t < teachersPerSubject; t++) {
+                addUser(users, teacherIds[k][t], teacherNames[k][t], passwordHash, staffGroup,
+                        "TEACHER_" + SUBJECTS[k][0], SUBJECTS[k][1], now);
+            }
+        }
+        for (int g = 0; g < request.getGroups(); g++) {
+            for (int i = 0; i < request.getStudentsPerGroup(); i++) {
+                addUser(users, studentId(prefix, g, i), "Student " + (g + 1) + "-" + (i + 1), passwordHash,
+                        groupId(prefix, g), "STUDENT", null, now);
+            }
+        }
+        written.put("users", users.finish());
+
+        List<LocalDate> schoolDays = new ArrayList<>();
+        for (LocalDate date = today.minusDays(request.getDays()); date.isBefore(today); date = date.plusDays(1)) {
+            if (date.getDayOfWeek().getValue() <= 5) {
+                schoolDays.add(date);
+            }
+        }
+
+        TableWriter grades = new TableWriter("grades", INSERT_GRADE, sink, batchSize);
+        TableWriter attendance = new TableWriter("attendance", INSERT_ATTENDANCE, sink, batchSize);
+        TableWriter homework = new TableWriter("homework", INSERT_HOMEWORK, sink, batchSize);
+        for (int g = 0; g < request.getGroups(); g++) {
+            String groupId = groupId(prefix, g);
+            for (LocalDate date : schoolDays) {
+                int d = date.getDayOfWeek().getValue() - 1;
+                for (int s = 0; s < lessons; s++) {
+                    int k = subjectOf(g, d, s, lessons, subjectCount);
+                    String subject = SUBJECTS[k][1];
+                    String teacherId = teacherIds[k][teacherOf(g, subjectCount, teachersPerSubject)];
+                    LocalDateTime lessonStart = date.atTime(startOf(s));
+                    for (int i = 0; i < request.getStudentsPerGroup(); i++) {
+                        String studentId = studentId(prefix, g, i);
+                        double roll = random.nextDouble();
+                        String status = roll < 0.9 ? "present" : roll < 0.97 ? "absent" : "sick";
+                        attendance.add(studentId, subject, date, status, teacherId, groupId, lessonStart, lessonStart);
+                        if ("present".equals(status) && random.nextDouble() < request.getGradeProbability()) {
+                            grades.add(studentId, subject, 2 + random.nextInt(4),
+                                    GRADE_TYPES[random.nextInt(GRADE_TYPES.length)], teacherId, lessonStart,
+                                    groupId, lessonId(groupId, d, s), lessonStart, lessonStart);
+                        }
+                    }
+                }
+                if (d == 0) {
+                    for (int k = 0; k < subjectCount; k++) {
+                        for (int h = 0; h < request.getHomeworkPerWeek(); h++) {
+                            LocalDateTime assigned = date.plusDays(h).atTime(15, 0);
+                            LocalDateTime due = assigned.plusDays(7);
+                            homework.add(SUBJECTS[k][1] + ": задание " + (h + 1), "Generated homework",
+                                    SUBJECTS[k][1], teacherIds[k][teacherOf(g, subjectCount, teachersPerSubject)], groupId, due, assigned,
+                                    due.isBefore(now), assigned, assigned);
+                        }
+                    }
+                }
+            }
+        }
+        written.put("grades", grades.finish());
+        written.put("attendance", attendance.finish());
+        written.put("homework", homework.finish());
+
+        TableWriter news = new TableWriter("news", INSERT_NEWS, sink, batchSize);
+        int historyDays = Math.max(1, request.getDays());
+        for (int n = 0; n < request.getNews(); n++) {
+            int k = random.nextInt(subjectCount);
+            LocalDateTime published = today.minusDays(random.nextInt(historyDays)).atTime(8 + random.nextInt(10), 0);
+            news.add("News " + (n + 1), "Generated announcement about " + SUBJECTS[k][1], published,
+                    random.nextDouble() < 0.9, teacherIds[k][random.nextInt(teachersPerSubject)], published, published);
+        }
+        written.put("news", news.finish());
+        return written;
+    }
+
+    private static void addUser(TableWriter users, String userId, String fullName, String passwordHash,
+                                String groupId, String role, String subject, LocalDateTime now) {
+        String email = userId + "@school.test";
+        users.add(userId, fullName, passwordHash, email, groupId, role, subject, now,
+                User.lookupKey(email), User.lookupKey(userId), User.lookupKey(fullName));
+    }
+
+    private static int subjectOf(int group, int day, int slot, int lessons, int subjectCount) {
+        return (group + day * lessons + slot) % subjectCount;
+    }
+
+    private static int teacherOf(int group, int subjectCount, int teachersPerSubject) {
+        return group / subjectCount % teachersPerSubject;
+    }
+
+    private static String roomOf(int group) {
+        return String.valueOf(101 + group);
+    }
+
+    private static LocalTime startOf(int slot) {
+        return LocalTime.of(9 + slot, 0);
+    }
+
+    // grup.schedule_id и users.group_id — varchar(20), поэтому идентификаторы короткие
+    private static String staffGroupId(String prefix) {
+        return prefix + "-staff";
+    }
+
+    private static String groupId(String prefix, int group) {
+        return prefix + "-g" + String.format("%05d", group + 1);
+    }
+
+    private static String lessonId(String groupId, int day, int slot) {
+        return groupId + "-" + (day + 1) + (slot + 1);
+    }
+
+    private static String studentId(String prefix, int group, int index) {
+        return prefix + "-s" + String.format("%05d", group + 1) + "-" + String.format("%03d", index + 1);
+    }
+
+    /** Буфер строк одной таблицы: отдаёт приёмнику батч, как только набралось batchSize строк. */
+    private static final class TableWriter {
+        private final String table;
+        private final String sql;
+        private final RowSink sink;
+        private final int batchSize;
+        private List<Object[]> rows;
+        private long written;
+
+        TableWriter(String table, String sql, RowSink sink, int batchSize) {
+            this.table = table;
+            this.sql = sql;
+            this.sink = sink;
+            this.batchSize = batchSize;
+            this.rows = new ArrayList<>(batchSize);
+        }
+
+        void add(Object... row) {
+            rows.add(row);
+            if (rows.size() >= batchSize) {
+                flush();
+            }
+        }
+
+        long finish() {
+            flush();
+            return written;
+        }
+
+        private void flush() {
+            if (rows.isEmpty()) {
+                return;
+            }
+            sink.write(table, sql, rows);
+            written += rows.size();
+            rows = new ArrayList<>(batchSize);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,275 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.schedule.TimetableRequest;
+import com.example.demo.entity.Group;
+import com.example.demo.entity.User;
+import com.example.demo.repository.GroupRepository;
+import com.example.demo.repository.ScheduleRepository;
+import com.example.demo.repository.UserRepository;
+import com.example.demo.security.services.UserDetailsImpl;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Автоматическое составление недельного расписания: часы предметов по группам, учителя по полю
+ * User.subject (или по роли TEACHER_*), кабинеты по вместимости. Поиск — TimetableSolver.
+ * Уроки групп вне генерации (и групп без часов) не трогаются, но занятые ими учителя и кабинеты считаются недоступными.
+ * Полное расписание записывается одной транзакцией батчами: новые уроки, перенос ссылок
+ * grup.schedule_id и grades.schedule_id на новые уроки, удаление старых уроков групп.
+ * Оценки, чей предмет из расписания группы пропал, отвязываются от урока; их число возвращается в ответе.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TimetableGenerator {
+
+    private final GroupRepository groupRepository;
+    private final UserRepository userRepository;
+    private final ScheduleRepository scheduleRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+    private final ScheduleIntervalIndex scheduleIntervalIndex;
+    private final OccupancyIndex occupancyIndex;
+
+    /** Параллельных попыток; 0 — по числу ядер. */
+    @Value("${app.timetable.parallelism:0}")
+    private int parallelism = 0;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public Map<String, Object> generate(TimetableRequest request) {
+        int slotSeconds = (request.getLessonMinutes() + request.getBreakMinutes()) * 60;
+        int periods = request.getLessonsPerDay();
+        if (request.getDays() * periods > TimetableSolver.MAX_SLOTS) {
+            throw new IllegalArgumentException("Week must have at most " + TimetableSolver.MAX_SLOTS + " lessons");
+        }
+        if (request.getDayStart().toSecondOfDay() + (periods - 1) * slotSeconds
+                + request.getLessonMinutes() * 60 >= 24 * 3600) {
+            throw new IllegalArgumentException("The last lesson must end before midnight");
+        }
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Timetable generation is already running");
+        }
+        try {
+            return run(request);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private Map<String, Object> run(TimetableRequest request) {
+        Map<String, Long> students = new HashMap<>();
+        for (Object[] row : userRepository.countStudentsByGroup()) {
+            students.put((String) row[0], ((Number) row[1]).longValue());
+        }
+        Set<String> groupIds = new LinkedHashSet<>();
+        if (request.getGroupIds().isEmpty()) {
+            groupRepository.findAll().stream()
+                    .map(Group::getGroupId)
+                    .filter(students::containsKey)
+                    .sorted()
+                    .forEach(groupIds::add);
+        } else {
+            for (String groupId : request.getGroupIds()) {
+                if (groupRepository.findById(groupId).isEmpty()) {
+                    throw new IllegalArgumentException("Group not found: " + groupId);
+                }
+                groupIds.add(groupId);
+            }
+        }
+
+        List<TimetableSolver.GroupSpec> groups = new ArrayList<>();
+        // Группы, чьи уроки заменяются. Группа без часов (например, {} в groupSubjectHours) новых уроков
+        // не получит, её старые уроки остаются и, как уроки других групп, занимают учителей и кабинеты
+        Set<String> replacedGroups = new LinkedHashSet<>();
+        for (String groupId : groupIds) {
+            Map<String, Integer> hours = request.getGroupSubjectHours().getOrDefault(groupId, request.getSubjectHours());
+            groups.add(new TimetableSolver.GroupSpec(groupId, students.getOrDefault(groupId, 0L).intValue(), hours));
+            if (hours.values().stream().anyMatch(h -> h != null && h > 0)) {
+                replacedGroups.add(groupId);
+            }
+        }
+
+        // Учителя и кабинеты, уже занятые уроками, которые остаются; ключ — имя без регистра, как в OccupancyIndex
+        Map<String, Long> teacherBlocked = new HashMap<>();
+        Map<String, Long> roomBlocked = new HashMap<>();
+        for (ScheduleRepository.BookingRow row : scheduleRepository.findBookings()) {
+            if (replacedGroups.contains(row.getGroupId())) {
+                continue;
+            }
+            long bits = blockedSlots(row, request);
+            if (bits != 0 && row.getTeacher() != null && !row.getTeacher().isBlank()) {
+                teacherBlocked.merge(resourceKey(row.getTeacher()), bits, (a, b) -> a | b);
+            }
+            if (bits != 0 && row.getRoom() != null && !row.getRoom().isBlank()) {
+                roomBlocked.merge(resourceKey(row.getRoom()), bits, (a, b) -> a | b);
+            }
+        }
+        List<TimetableSolver.TeacherSpec> teachers = new ArrayList<>();
+        for (User teacher : userRepository.findTeachers()) {
+            String subject = teacher.getSubject() != null && !teacher.getSubject().isBlank()
+                    ? teacher.getSubject() : UserDetailsImpl.resolveSubjectFromRole(teacher.getRole());
+            if (subject != null && teacher.getFullName() != null) {
+                teachers.add(new TimetableSolver.TeacherSpec(teacher.getUserId(), teacher.getFullName(), subject,
+                        teacherBlocked.getOrDefault(resourceKey(teacher.getFullName()), 0L)));
+            }
+        }
+        List<TimetableSolver.RoomSpec> rooms = request.getRooms().stream()
+                .map(r -> new TimetableSolver.RoomSpec(r.getName().trim(), r.getCapacity(),
+                        roomBlocked.getOrDefault(resourceKey(r.getName()), 0L)))
+                .toList();
+
+        TimetableSolver solver = new TimetableSolver(groups, teachers, rooms, request.getDays(),
+                request.getLessonsPerDay(), request.getMaxSameSubjectPerDay());
+        int workers = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        TimetableSolver.Result result = solver.solve(request.getTimeBudgetMs(), request.getSeed(), workers);
+        log.info("Timetable for {} groups: {}/{} lessons placed in {} ms ({} attempts)", groups.size(),
+                result.placements().size(), solver.lessons(), result.elapsedMs(), result.attempts());
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("groups", groups.size());
+        body.put("teachers", teachers.size());
+        body.put("rooms", rooms.size());
+        body.put("lessons", solver.lessons());
+        body.put("placed", result.placements().size());
+        body.put("unplaced", result.unplaced());
+        body.put("complete", result.complete());
+        body.put("attempts", result.attempts());
+        body.put("solveMs", result.elapsedMs());
+        body.put("problems", result.problems());
+        boolean persist = request.isPersist() && result.complete() && !replacedGroups.isEmpty();
+        if (persist) {
+            long start = System.nanoTime();
+            Written written = write(result.placements(), replacedGroups, request);
+            body.put("replaced", written.replaced());
+            body.put("gradesUnlinked", written.gradesUnlinked());
+            body.put("writeMs", (System.nanoTime() - start) / 1_000_000);
+        } else if (!request.isPersist()) {
+            body.put("timetable", result.placements());
+        }
+        body.put("persisted", persist);
+        return body;
+    }
+
+    /**
+     * Итог записи: удалено старых уроков; оценок, отвязанных от урока (schedule_id = NULL),
+     * потому что предмета больше нет в расписании группы.
+     */
+    private record Written(int replaced, int gradesUnlinked) {}
+
+    /**
+     * Записывает расписание одной транзакцией. Идентификаторы новых уроков короче 20 символов,
+     * потому что на них ссылается grup.schedule_id (varchar(20)).
+     */
+    private Written write(List<TimetableSolver.Placement> placements, Set<String> groupIds, TimetableRequest request) {
+        String placeholders = String.join(",", Collections.nCopies(groupIds.size(), "?"));
+        String stamp = "tt" + Long.toString(System.currentTimeMillis(), 36) + "-";
+        LocalDateTime now = LocalDateTime.now();
+
+        List<Object[]> rows = new ArrayList<>(placements.size());
+        Map<String, String> firstLesson = new HashMap<>();
+        Map<String, String> lessonBySubject = new HashMap<>();
+        for (int i = 0; i < placements.size(); i++) {
+            TimetableSolver.Placement p = placements.get(i);
+            String id = stamp + Integer.toString(i, 36);
+            String day = DayOfWeek.of(p.day() + 1).name();
+            LocalTime start = lessonStart(request, p.period());
+            rows.add(new Object[]{id, p.groupId() + "_" + day + "_" + p.period(), p.groupId(), day, start,
+                    start.plusMinutes(request.getLessonMinutes()), p.subject(), p.teacherName(), p.room(), now, now});
+            firstLesson.putIfAbsent(p.groupId(), id);
+            lessonBySubject.putIfAbsent(p.groupId() + "|" + p.subject().toLowerCase(Locale.ROOT), id);
+        }
+
+        return new TransactionTemplate(transactionManager).execute(status -> {
+            List<Object[]> groupLinks = new ArrayList<>();
+            List<Object[]> gradeLinks = new ArrayList<>();
+            List<Object[]> gradeUnlinks = new ArrayList<>();
+            List<Object[]> deletes = new ArrayList<>();
+            jdbcTemplate.query("SELECT schedule_id, group_id, subject FROM schedule WHERE group_id IN (" + placeholders + ")",
+                    rs -> {
+                        String oldId = rs.getString(1);
+                        String groupId = rs.getString(2);
+                        String subject = rs.getString(3) == null ? "" : rs.getString(3).toLowerCase(Locale.ROOT);
+                        groupLinks.add(new Object[]{firstLesson.get(groupId), oldId});
+                        // Оценка остаётся привязанной к уроку того же предмета, если он есть в новом расписании
+                        String newId = lessonBySubject.get(groupId + "|" + subject);
+                        if (newId != null) {
+                            gradeLinks.add(new Object[]{newId, oldId});
+                        } else {
+                            gradeUnlinks.add(new Object[]{oldId});
+                        }
+                        deletes.add(new Object[]{oldId});
+                    }, groupIds.toArray());
+
+            jdbcTemplate.batchUpdate(SchoolDataGenerator.INSERT_SCHEDULE, rows);
+            jdbcTemplate.batchUpdate("UPDATE grup SET schedule_id = ? WHERE schedule_id = ?", groupLinks);
+            jdbcTemplate.batchUpdate("UPDATE grades SET schedule_id = ? WHERE schedule_id = ?", gradeLinks);
+            int unlinked = 0;
+            for (int count : jdbcTemplate.batchUpdate("UPDATE grades SET schedule_id = NULL WHERE schedule_id = ?",
+                    gradeUnlinks)) {
+                unlinked += Math.max(0, count);
+            }
+            jdbcTemplate.batchUpdate("DELETE FROM schedule WHERE schedule_id = ?", deletes);
+            scheduleIntervalIndex.invalidateAll();
+            occupancyIndex.invalidateAll();
+            log.info("Timetable written: {} lessons inserted, {} replaced, {} grades unlinked",
+                    rows.size(), deletes.size(), unlinked);
+            return new Written(deletes.size(), unlinked);
+        });
+    }
+
+    private static LocalTime lessonStart(TimetableRequest request, int period) {
+        return request.getDayStart().plusMinutes((long) period * (request.getLessonMinutes() + request.getBreakMinutes()));
+    }
+
+    /** Ключ учителя или кабинета — так же, как в OccupancyIndex: «Иванов» и « иванов » — один человек. */
+    private static String resourceKey(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /** Уроки сетки (день, номер урока), пересекающиеся с уроком из БД. */
+    static long blockedSlots(ScheduleRepository.BookingRow row, TimetableRequest request) {
+        if (row.getDayOfWeek() == null || row.getStartTime() == null || row.getEndTime() == null) {
+            return 0;
+        }
+        int day;
+        try {
+            day = DayOfWeek.valueOf(row.getDayOfWeek().trim().toUpperCase(Locale.ROOT)).ordinal();
+        } catch (IllegalArgumentException e) {
+            return 0;
+        }
+        if (day >= request.getDays()) {
+            return 0;
+        }
+        int busyStart = row.getStartTime().toSecondOfDay();
+        int busyEnd = row.getEndTime().toSecondOfDay();
+        long bits = 0;
+        for (int p = 0; p < request.getLessonsPerDay(); p++) {
+            int start = lessonStart(request, p).toSecondOfDay();
+            int end = start + request.getLessonMinutes() * 60;
+            if (start < busyEnd && busyStart < end) {
+                bits |= 1L << (day * request.getLessonsPerDay() + p);
+            }
+        }
+        return bits;
+    }
+}
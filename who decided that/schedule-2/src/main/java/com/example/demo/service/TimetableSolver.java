@@ -0,0 +1,547 @@
+package com.example.demo.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Решатель недельного расписания для TimetableGenerator.
+ * Неделя — не больше 64 уроков (день × номер урока), поэтому занятость группы, учителя и кабинета —
+ * одно long-слово, а поиск свободного урока — AND/ANDNOT нескольких слов.
+ * Одна попытка: каждой паре (группа, предмет) назначается наименее загруженный учитель предмета,
+ * затем уроки расставляются жадно (самые загруженные учителя — первыми); урок, которому нет места,
+ * вытесняет мешающие уроки, и они возвращаются в очередь.
+ * Попытки с разными seed параллельно идут в ForkJoinPool до первого полного расписания
+ * или до конца бюджета времени; побеждает попытка с наименьшим числом нерасставленных уроков.
+ */
+final class TimetableSolver {
+
+    static final int MAX_SLOTS = 64;
+
+    private static final int TABU_MOVES = 16;
+
+    record GroupSpec(String groupId, int students, Map<String, Integer> subjectHours) {}
+
+    /** blocked — уроки недели, в которые учитель уже занят в группах вне генерации. */
+    record TeacherSpec(String id, String name, String subject, long blocked) {}
+
+    record RoomSpec(String name, int capacity, long blocked) {}
+
+    record Placement(String groupId, String subject, String teacherId, String teacherName, String room,
+                     int day, int period) {}
+
+    record Result(List<Placement> placements, int unplaced, List<String> problems, int attempts, long elapsedMs) {
+        boolean complete() {
+            return unplaced == 0;
+        }
+    }
+
+    private final int days;
+    private final int periods;
+    private final int maxSamePerDay;
+    private final long allSlots;
+    private final long[] dayMasks;
+
+    private final GroupSpec[] groups;
+    private final String[] subjects;
+    private final TeacherSpec[] teachers;
+    private final RoomSpec[] rooms;
+    private final int[][] teachersBySubject;
+    /** Первый подходящий по вместимости кабинет группы (кабинеты отсортированы по вместимости). */
+    private final int[] firstRoom;
+
+    // Пара (группа, предмет) и её часы; каждый урок недели ссылается на свою пару
+    private final int[] pairGroup;
+    private final int[] pairSubject;
+    private final int[] pairHours;
+    private final int[] unitPair;
+    /** Уроки, которые не расставить ни в одной попытке: нет учителя или кабинета. */
+    private final int skipped;
+    private final List<String> problems = new ArrayList<>();
+
+    TimetableSolver(List<GroupSpec> groups, List<TeacherSpec> teachers, List<RoomSpec> rooms,
+                    int days, int periods, int maxSamePerDay) {
+        if (days < 1 || periods < 1 || days * periods > MAX_SLOTS) {
+            throw new IllegalArgumentException("Week must have between 1 and " + MAX_SLOTS + " lessons");
+        }
+        this.days = days;
+        this.periods = periods;
+        this.maxSamePerDay = maxSamePerDay;
+        this.allSlots = days * periods == MAX_SLOTS ? -1L : (1L << (days * periods)) - 1;
+        this.dayMasks = new long[days];
+        for (int d = 0; d < days; d++) {
+            dayMasks[d] = ((1L << periods) - 1) << (d * periods);
+        }
+        this.groups = groups.toArray(GroupSpec[]::new);
+        this.teachers = teachers.toArray(TeacherSpec[]::new);
+        this.rooms = rooms.stream().sorted(Comparator.comparingInt(RoomSpec::capacity)).toArray(RoomSpec[]::new);
+
+        Map<String, Integer> subjectIndex = new LinkedHashMap<>();
+        for (GroupSpec group : groups) {
+            group.subjectHours().forEach((subject, hours) -> {
+                if (hours != null && hours > 0) {
+                    subjectIndex.putIfAbsent(normalize(subject), subjectIndex.size());
+                }
+            });
+        }
+        this.subjects = new String[subjectIndex.size()];
+        Map<Integer, List<Integer>> bySubject = new HashMap<>();
+        for (int t = 0; t < this.teachers.length; t++) {
+            Integer s = subjectIndex.get(normalize(this.teachers[t].subject()));
+            if (s != null) {
+                bySubject.computeIfAbsent(s, k -> new ArrayList<>()).add(t);
+            }
+        }
+        this.teachersBySubject = new int[subjects.length][];
+        for (int s = 0; s < subjects.length; s++) {
+            teachersBySubject[s] = bySubject.getOrDefault(s, List.of()).stream().mapToInt(Integer::intValue).toArray();
+        }
+
+        List<int[]> pairs = new ArrayList<>();
+        int skippedUnits = 0;
+        int maxCapacity = this.rooms.length == 0 ? Integer.MAX_VALUE : this.rooms[this.rooms.length - 1].capacity();
+        this.firstRoom = new int[this.groups.length];
+        for (int g = 0; g < this.groups.length; g++) {
+            GroupSpec group = this.groups[g];
+            firstRoom[g] = firstRoomFor(group.students());
+            int total = 0;
+            for (Map.Entry<String, Integer> entry : group.subjectHours().entrySet()) {
+                int hours = entry.getValue() == null ? 0 : entry.getValue();
+                if (hours <= 0) {
+                    continue;
+                }
+                int s = subjectIndex.get(normalize(entry.getKey()));
+                subjects[s] = entry.getKey().trim();
+                if (teachersBySubject[s].length == 0) {
+                    problem("No teacher for subject '" + entry.getKey().trim() + "'");
+                    skippedUnits += hours;
+                } else if (group.students() > maxCapacity) {
+                    problem("No room fits group " + group.groupId() + " (" + group.students() + " students)");
+                    skippedUnits += hours;
+                } else {
+                    if (hours > maxSamePerDay * days) {
+                        problem("Group " + group.groupId() + " needs " + hours + " lessons of '" + entry.getKey().trim()
+                                + "', at most " + maxSamePerDay * days + " fit");
+                    }
+                    pairs.add(new int[]{g, s, hours});
+                    total += hours;
+                }
+            }
+            if (total > days * periods) {
+                problem("Group " + group.groupId() + " needs " + total + " lessons, the week has " + days * periods);
+            }
+        }
+        this.skipped = skippedUnits;
+        this.pairGroup = pairs.stream().mapToInt(p -> p[0]).toArray();
+        this.pairSubject = pairs.stream().mapToInt(p -> p[1]).toArray();
+        this.pairHours = pairs.stream().mapToInt(p -> p[2]).toArray();
+        this.unitPair = new int[pairs.stream().mapToInt(p -> p[2]).sum()];
+        for (int p = 0, u = 0; p < pairs.size(); p++) {
+            for (int h = 0; h < pairHours[p]; h++) {
+                unitPair[u++] = p;
+            }
+        }
+    }
+
+    int lessons() {
+        return unitPair.length + skipped;
+    }
+
+    /**
+     * Ищет расписание не дольше timeBudgetMs.
+     *
+     * @param parallelism число параллельных попыток (потоков ForkJoinPool)
+     */
+    Result solve(long timeBudgetMs, long seed, int parallelism) {
+        long started = System.nanoTime();
+        long deadline = started + timeBudgetMs * 1_000_000;
+        AtomicReference<Attempt> best = new AtomicReference<>();
+        AtomicInteger attempts = new AtomicInteger();
+        int workers = Math.max(1, parallelism);
+        ForkJoinPool pool = new ForkJoinPool(workers);
+        try {
+            pool.invoke(new Search(new SplittableRandom(seed), workers, deadline, best, attempts));
+        } finally {
+            pool.shutdownNow();
+        }
+        Attempt winner = best.get();
+        List<String> found = new ArrayList<>(problems);
+        found.addAll(winner.overloads());
+        return new Result(winner.placements(), winner.unplaced, List.copyOf(found), attempts.get(),
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /** Делит воркеры пополам, пока не останется один; лист гоняет попытки до успеха или дедлайна. */
+    private final class Search extends RecursiveAction {
+        private final SplittableRandom random;
+        private final int workers;
+        private final long deadline;
+        private final AtomicReference<Attempt> best;
+        private final AtomicInteger attempts;
+
+        Search(SplittableRandom random, int workers, long deadline, AtomicReference<Attempt> best,
+               AtomicInteger attempts) {
+            this.random = random;
+            this.workers = workers;
+            this.deadline = deadline;
+            this.best = best;
+            this.attempts = attempts;
+        }
+
+        @Override
+        protected void compute() {
+            if (workers > 1) {
+                int half = workers / 2;
+                invokeAll(new Search(random.split(), half, deadline, best, attempts),
+                        new Search(random.split(), workers - half, deadline, best, attempts));
+                return;
+            }
+            BooleanSupplier stop = () -> System.nanoTime() > deadline || solved(best.get());
+            do {
+                Attempt attempt = new Attempt(random.split());
+                attempt.run(stop);
+                attempts.incrementAndGet();
+                best.accumulateAndGet(attempt, (current, next) ->
+                        current == null || next.unplaced < current.unplaced ? next : current);
+            } while (!stop.getAsBoolean());
+        }
+    }
+
+    private static boolean solved(Attempt attempt) {
+        return attempt != null && attempt.unplaced == 0;
+    }
+
+    /** Одна попытка: своё состояние занятости, общий только исходный набор уроков. */
+    private final class Attempt {
+        private final SplittableRandom random;
+        private final int[] pairTeacher = new int[pairGroup.length];
+        private final int[] unitSlot = new int[unitPair.length];
+        private final int[] unitRoom = new int[unitPair.length];
+        private final long[] groupBusy = new long[groups.length];
+        private final long[] teacherBusy = new long[teachers.length];
+        private final long[] roomBusy = new long[rooms.length];
+        // Кто занимает урок недели: номер урока из unitPair или -1 (свободно либо занято вне генерации)
+        private final int[] groupAt = new int[groups.length * MAX_SLOTS];
+        private final int[] teacherAt = new int[teachers.length * MAX_SLOTS];
+        private final int[] roomAt = new int[rooms.length * MAX_SLOTS];
+        /** Уроков пары в каждый день: [pair * days + day]. */
+        private final int[] pairDay = new int[pairGroup.length * days];
+        /** Номер вытеснения, на котором урок последний раз поставлен с вытеснением. */
+        private final int[] movedAt = new int[unitPair.length];
+        private int moves;
+        private int unplaced;
+
+        Attempt(SplittableRandom random) {
+            this.random = random;
+            Arrays.fill(unitSlot, -1);
+            Arrays.fill(unitRoom, -1);
+            Arrays.fill(groupAt, -1);
+            Arrays.fill(teacherAt, -1);
+            Arrays.fill(roomAt, -1);
+            for (int t = 0; t < teachers.length; t++) {
+                teacherBusy[t] = teachers[t].blocked() & allSlots;
+            }
+            for (int r = 0; r < rooms.length; r++) {
+                roomBusy[r] = rooms[r].blocked() & allSlots;
+            }
+        }
+
+        void run(BooleanSupplier stop) {
+            assignTeachers();
+            ArrayDeque<Integer> queue = new ArrayDeque<>(unitPair.length);
+            for (int u : order()) {
+                queue.add(u);
+            }
+            int stuck = 0;
+            long steps = unitPair.length * 50L + 1_000;
+            while (!queue.isEmpty() && steps-- > 0) {
+                if ((steps & 255) == 0 && stop.getAsBoolean()) {
+                    break;
+                }
+                int u = queue.poll();
+                if (!place(u) && !displace(u, queue)) {
+                    stuck++;
+                }
+            }
+            unplaced = queue.size() + stuck + skipped;
+        }
+
+        /** Наименее загруженный учитель предмета, сначала пары с большим числом часов. */
+        private void assignTeachers() {
+            int[] load = new int[teachers.length];
+            int[] capacity = new int[teachers.length];
+            for (int t = 0; t < teachers.length; t++) {
+                capacity[t] = Long.bitCount(allSlots & ~teachers[t].blocked());
+            }
+            long[] keys = new long[pairGroup.length];
+            for (int p = 0; p < keys.length; p++) {
+                keys[p] = ((long) -pairHours[p] << 40) | ((long) random.nextInt(1 << 20) << 20) | p;
+            }
+            Arrays.sort(keys);
+            for (long key : keys) {
+                int p = (int) (key & 0xFFFFF);
+                int chosen = -1;
+                int chosenScore = Integer.MAX_VALUE;
+                for (int t : teachersBySubject[pairSubject[p]]) {
+                    int free = capacity[t] - load[t];
+                    // Учитель, которому часы уже не влезают, — только если других нет
+                    int score = (free >= pairHours[p] ? 0 : 1 << 20) + load[t] * 16 + random.nextInt(16);
+                    if (score < chosenScore) {
+                        chosen = t;
+                        chosenScore = score;
+                    }
+                }
+                pairTeacher[p] = chosen;
+                load[chosen] += pairHours[p];
+            }
+        }
+
+        /** Порядок расстановки: уроки самых загруженных учителей — первыми, при равенстве случайно. */
+        private int[] order() {
+            int[] load = new int[teachers.length];
+            for (int p = 0; p < pairGroup.length; p++) {
+                load[pairTeacher[p]] += pairHours[p];
+            }
+            long[] keys = new long[unitPair.length];
+            for (int u = 0; u < keys.length; u++) {
+                keys[u] = ((long) -load[pairTeacher[unitPair[u]]] << 40) | ((long) random.nextInt(1 << 20) << 20) | u;
+            }
+            Arrays.sort(keys);
+            int[] order = new int[keys.length];
+            for (int i = 0; i < keys.length; i++) {
+                order[i] = (int) (keys[i] & 0xFFFFF);
+            }
+            return order;
+        }
+
+        /** Ставит урок в свободный для группы, учителя и кабинета урок недели; ранние уроки — предпочтительнее. */
+        private boolean place(int u) {
+            int p = unitPair[u];
+            int g = pairGroup[p];
+            long free = allowedDays(p) & ~groupBusy[g] & ~teacherBusy[pairTeacher[p]];
+            int bestSlot = -1;
+            int bestRoom = -1;
+            int bestScore = Integer.MAX_VALUE;
+            for (long bits = free; bits != 0; bits &= bits - 1) {
+                int slot = Long.numberOfTrailingZeros(bits);
+                int room = freeRoom(g, slot);
+                if (rooms.length > 0 && room < 0) {
+                    continue;
+                }
+                int day = slot / periods;
+                int score = (slot % periods) * 4 + pairDay[p * days + day] * 16 + random.nextInt(8);
+                if (score < bestScore) {
+                    bestSlot = slot;
+                    bestRoom = room;
+                    bestScore = score;
+                }
+            }
+            if (bestSlot < 0) {
+                return false;
+            }
+            assign(u, bestSlot, bestRoom);
+            return true;
+        }
+
+        /**
+         * Урок, которому нет свободного места: выбирается урок недели, где вытесняется меньше уроков
+         * (и не те, что сами только что вытеснили других); вытесненные возвращаются в очередь.
+         *
+         * @return false, если урок не встать никуда даже с вытеснением (учитель или кабинеты заняты вне генерации)
+         */
+        private boolean displace(int u, ArrayDeque<Integer> queue) {
+            int p = unitPair[u];
+            int g = pairGroup[p];
+            int t = pairTeacher[p];
+            long candidates = allowedDays(p) & ~(teachers[t].blocked() & allSlots);
+            if (candidates == 0) {
+                return false;
+            }
+            int bestSlot = -1;
+            int bestRoom = -1;
+            int bestCost = Integer.MAX_VALUE;
+            for (long bits = candidates; bits != 0; bits &= bits - 1) {
+                int slot = Long.numberOfTrailingZeros(bits);
+                int room = rooms.length == 0 ? -1 : freeRoom(g, slot);
+                int cost = random.nextInt(8);
+                if (rooms.length > 0 && room < 0) {
+                    room = displaceableRoom(g, slot);
+                    if (room < 0) {
+                        continue;
+                    }
+                    cost += evictionCost(roomAt[room * MAX_SLOTS + slot]);
+                }
+                int groupOccupant = groupAt[g * MAX_SLOTS + slot];
+                int teacherOccupant = teacherAt[t * MAX_SLOTS + slot];
+                cost += evictionCost(groupOccupant);
+                if (teacherOccupant != groupOccupant) {
+                    cost += evictionCost(teacherOccupant);
+                }
+                if (cost < bestCost) {
+                    bestSlot = slot;
+                    bestRoom = room;
+                    bestCost = cost;
+                }
+            }
+            if (bestSlot < 0) {
+                return false;
+            }
+            int[] occupants = {
+                    groupAt[g * MAX_SLOTS + bestSlot],
+                    teacherAt[t * MAX_SLOTS + bestSlot],
+                    bestRoom < 0 ? -1 : roomAt[bestRoom * MAX_SLOTS + bestSlot]
+            };
+            for (int occupant : occupants) {
+                if (occupant >= 0 && unitSlot[occupant] >= 0) {
+                    unassign(occupant);
+                    queue.add(occupant);
+                }
+            }
+            assign(u, bestSlot, bestRoom);
+            movedAt[u] = ++moves;
+            return true;
+        }
+
+        /** Вытеснять урок, который сам только что вытеснил другой, дороже: иначе пара уроков гоняет друг друга. */
+        private int evictionCost(int occupant) {
+            if (occupant < 0) {
+                return 0;
+            }
+            return moves - movedAt[occupant] < TABU_MOVES ? 64 : 16;
+        }
+
+        /** Уроки дней, в которые у пары ещё не набран предел по предмету. */
+        private long allowedDays(int p) {
+            long allowed = 0;
+            for (int d = 0; d < days; d++) {
+                if (pairDay[p * days + d] < maxSamePerDay) {
+                    allowed |= dayMasks[d];
+                }
+            }
+            return allowed;
+        }
+
+        /** Самый маленький свободный кабинет, вмещающий группу, или -1. */
+        private int freeRoom(int g, int slot) {
+            for (int r = firstRoom[g]; r < rooms.length; r++) {
+                if ((roomBusy[r] >>> slot & 1) == 0) {
+                    return r;
+                }
+            }
+            return -1;
+        }
+
+        /** Подходящий кабинет, занятый уроком генерации (его можно вытеснить), или -1. */
+        private int displaceableRoom(int g, int slot) {
+            for (int r = firstRoom[g]; r < rooms.length; r++) {
+                if (roomAt[r * MAX_SLOTS + slot] >= 0) {
+                    return r;
+                }
+            }
+            return -1;
+        }
+
+        private void assign(int u, int slot, int room) {
+            int p = unitPair[u];
+            long bit = 1L << slot;
+            groupBusy[pairGroup[p]] |= bit;
+            groupAt[pairGroup[p] * MAX_SLOTS + slot] = u;
+            teacherBusy[pairTeacher[p]] |= bit;
+            teacherAt[pairTeacher[p] * MAX_SLOTS + slot] = u;
+            if (room >= 0) {
+                roomBusy[room] |= bit;
+                roomAt[room * MAX_SLOTS + slot] = u;
+            }
+            pairDay[p * days + slot / periods]++;
+            unitSlot[u] = slot;
+            unitRoom[u] = room;
+        }
+
+        private void unassign(int u) {
+            int p = unitPair[u];
+            int slot = unitSlot[u];
+            long bit = 1L << slot;
+            groupBusy[pairGroup[p]] &= ~bit;
+            groupAt[pairGroup[p] * MAX_SLOTS + slot] = -1;
+            teacherBusy[pairTeacher[p]] &= ~bit;
+            teacherAt[pairTeacher[p] * MAX_SLOTS + slot] = -1;
+            if (unitRoom[u] >= 0) {
+                roomBusy[unitRoom[u]] &= ~bit;
+                roomAt[unitRoom[u] * MAX_SLOTS + slot] = -1;
+            }
+            pairDay[p * days + slot / periods]--;
+            unitSlot[u] = -1;
+            unitRoom[u] = -1;
+        }
+
+        /** Предметы, где часы групп не делятся между учителями без перегрузки (часы пары ведёт один учитель). */
+        List<String> overloads() {
+            int[] load = new int[teachers.length];
+            for (int p = 0; p < pairGroup.length; p++) {
+                load[pairTeacher[p]] += pairHours[p];
+            }
+            int[] overflow = new int[subjects.length];
+            for (int s = 0; s < subjects.length; s++) {
+                for (int t : teachersBySubject[s]) {
+                    overflow[s] += Math.max(0, load[t] - Long.bitCount(allSlots & ~teachers[t].blocked()));
+                }
+            }
+            List<String> messages = new ArrayList<>();
+            for (int s = 0; s < subjects.length; s++) {
+                if (overflow[s] > 0) {
+                    messages.add("Teachers of '" + subjects[s] + "' are overbooked by " + overflow[s] + " lessons");
+                }
+            }
+            return messages;
+        }
+
+        List<Placement> placements() {
+            List<Placement> placements = new ArrayList<>(unitPair.length);
+            for (int u = 0; u < unitPair.length; u++) {
+                if (unitSlot[u] < 0) {
+                    continue;
+                }
+                int p = unitPair[u];
+                TeacherSpec teacher = teachers[pairTeacher[p]];
+                placements.add(new Placement(groups[pairGroup[p]].groupId(), subjects[pairSubject[p]],
+                        teacher.id(), teacher.name(), unitRoom[u] < 0 ? null : rooms[unitRoom[u]].name(),
+                        unitSlot[u] / periods, unitSlot[u] % periods));
+            }
+            placements.sort(Comparator.comparing(Placement::groupId)
+                    .thenComparingInt(Placement::day)
+                    .thenComparingInt(Placement::period));
+            return placements;
+        }
+    }
+
+    private int firstRoomFor(int students) {
+        for (int r = 0; r < rooms.length; r++) {
+            if (rooms[r].capacity() >= students) {
+                return r;
+            }
+        }
+        return rooms.length;
+    }
+
+    private void problem(String message) {
+        if (!problems.contains(message)) {
+            problems.add(message);
+        }
+    }
+
+    private static String normalize(String subject) {
+        return subject == null ? "" : subject.trim().toLowerCase(Locale.ROOT);
+    }
+}
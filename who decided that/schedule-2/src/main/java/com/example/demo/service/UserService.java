@@ -1,9 +1,12 @@
 package com.example.demo.service;
 
+import com.example.demo.config.TransactionHooks;
 import com.example.demo.dto.UserDTO;
 import com.example.demo.entity.User;
 import com.example.demo.repository.UserRepository;
 import com.example.demo.repository.GroupRepository;
+import com.example.demo.security.services.PrincipalCache;
+import com.example.demo.security.services.TokenRevocationService;
 import com.example.demo.security.services.UserDetailsImpl;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -12,6 +15,7 @@ import org.springframework.transaction.annotation.Transactional;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -23,14 +27,23 @@ public class UserService {
     private final UserRepository userRepository;
     private final GroupRepository groupRepository;
     private final PasswordEncoder passwordEncoder;
+    private final PrincipalCache principalCache;
+    private final TokenRevocationService tokenRevocationService;
+    private final RefreshTokenService refreshTokenService;
 
     @Autowired
     public UserService(UserRepository userRepository, 
                       GroupRepository groupRepository,
-                      PasswordEncoder passwordEncoder) {
+                      PasswordEncoder passwordEncoder,
+                      PrincipalCache principalCache,
+                      TokenRevocationService tokenRevocationService,
+                      RefreshTokenService refreshTokenService) {
         this.userRepository = userRepository;
         this.groupRepository = groupRepository;
         this.passwordEncoder = passwordEncoder;
+        this.principalCache = principalCache;
+        this.tokenRevocationService = tokenRevocationService;
+        this.refreshTokenService = refreshTokenService;
     }
     
     public List<UserDTO> getAllUsers() {
@@ -79,6 +92,8 @@ public class UserService {
         
         User user = convertToEntity(userDTO);
         User savedUser = userRepository.save(user);
+        TransactionHooks.afterCommit(() ->
+                principalCache.evictMissing(savedUser.getUserId(), savedUser.getEmail(), savedUser.getFullName()));
         log.info("[DATA] User created: userId={}, email={}", savedUser.getUserId(), savedUser.getEmail());
         return convertToDTO(savedUser);
     }
@@ -89,6 +104,9 @@ public class UserService {
         }
         
         return userRepository.findById(userId).map(existingUser -> {
+            evictPrincipalAfterCommit(existingUser.getUserId(), existingUser.getEmail());
+            TokenClaims claimsBefore = TokenClaims.of(existingUser);
+            String passwordBefore = existingUser.getPassword();
             // Check if email is being changed and if it already exists
             if (userDTO.getEmail() != null && !userDTO.getEmail().equals(existingUser.getEmail())) {
                 if (userRepository.existsByEmail(userDTO.getEmail())) {
@@ -135,6 +153,9 @@ public class UserService {
             }
             
             User updatedUser = userRepository.save(existingUser);
+            if (!claimsBefore.equals(TokenClaims.of(updatedUser)) || !Objects.equals(passwordBefore, updatedUser.getPassword())) {
+                revokeTokens(userId);
+            }
             log.info("[DATA] User updated: userId={}", userId);
             return convertToDTO(updatedUser);
         });
@@ -147,6 +168,8 @@ public class UserService {
     public Optional<UserDTO> updateUserPartial(String userId, String fullName, String email, String groupId, String role, String subject) {
         log.debug("updateUserPartial(userId={}, fullName={}, email={}, role={})", userId, fullName != null, email != null, role);
         return userRepository.findById(userId).map(existingUser -> {
+            evictPrincipalAfterCommit(existingUser.getUserId(), existingUser.getEmail());
+            TokenClaims claimsBefore = TokenClaims.of(existingUser);
             if (fullName != null && !fullName.isBlank()) {
                 existingUser.setFullName(fullName.trim());
             }
@@ -179,6 +202,9 @@ public class UserService {
                 if (derived != null) existingUser.setSubject(derived);
             }
             User updated = userRepository.save(existingUser);
+            if (!claimsBefore.equals(TokenClaims.of(updated))) {
+                revokeTokens(userId);
+            }
             log.info("[DATA] User updated (partial): userId={}, role={}, subject={}", userId, role, subject);
             return convertToDTO(updated);
         });
@@ -193,6 +219,8 @@ public class UserService {
             }
             user.setPassword(passwordEncoder.encode(newPassword));
             userRepository.save(user);
+            evictPrincipalAfterCommit(user.getUserId(), user.getEmail());
+            revokeTokens(userId);
             log.info("[DATA] Password changed: userId={}", userId);
             return true;
         }).orElseGet(() -> {
@@ -204,12 +232,35 @@ public class UserService {
     public boolean deleteUser(String userId) {
         if (userRepository.existsById(userId)) {
             userRepository.deleteById(userId);
+            evictPrincipalAfterCommit(userId, null);
+            revokeTokens(userId);
             log.info("[DATA] User deleted: userId={}", userId);
             return true;
         }
         return false;
     }
     
+    /** Отзывает выданные access-токены и все refresh-сессии пользователя. */
+    private void revokeTokens(String userId) {
+        tokenRevocationService.revokeAll(userId);
+        refreshTokenService.revokeAllForUser(userId);
+    }
+
+    /**
+     * Сбрасывает принципала после коммита: сброс до коммита позволил бы параллельному запросу
+     * снова закэшировать старые данные на весь TTL.
+     */
+    private void evictPrincipalAfterCommit(String userId, String email) {
+        TransactionHooks.afterCommit(() -> principalCache.evictUser(userId, email));
+    }
+
+    /** Поля, попадающие в claims JWT: при изменении любого из них выданные токены отзываются. */
+    private record TokenClaims(String email, String role, String groupId, String subject) {
+        static TokenClaims of(User user) {
+            return new TokenClaims(user.getEmail(), user.getRole(), user.getGroupId(), user.getSubject());
+        }
+    }
+
     public List<UserDTO> searchUsersByName(String name) {
         return userRepository.findByFullNameContainingIgnoreCase(name).stream()
                 .map(this::convertToDTO)
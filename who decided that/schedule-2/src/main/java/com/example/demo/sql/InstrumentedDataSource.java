@@ -0,0 +1,165 @@
+package com.example.demo.sql;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Arrays;
+
+/**
+ * Обёртка DataSource:
+ * <ul>
+ *   <li>замеряет выполнение каждого оператора и передаёт в SlowQueryLog те, что дольше порога;
+ *       для PreparedStatement запоминаются значения параметров (для EXPLAIN);</li>
+ *   <li>замеряет время удержания соединения (от получения из пула до close) и добавляет его
+ *       в SqlRequestStats текущего запроса.</li>
+ * </ul>
+ * Быстрые операторы стоят один System.nanoTime() до и после выполнения.
+ */
+public class InstrumentedDataSource extends DelegatingDataSource {
+
+    private final ObjectProvider<SlowQueryLog> slowQueryLogProvider;
+    private volatile SlowQueryLog slowQueryLog;
+
+    public InstrumentedDataSource(DataSource target, ObjectProvider<SlowQueryLog> slowQueryLogProvider) {
+        super(target);
+        this.slowQueryLogProvider = slowQueryLogProvider;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrap(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrap(super.getConnection(username, password));
+    }
+
+    private SlowQueryLog log() {
+        SlowQueryLog log = slowQueryLog;
+        if (log == null) {
+            log = slowQueryLogProvider.getIfAvailable();
+            slowQueryLog = log;
+        }
+        return log;
+    }
+
+    private Connection wrap(Connection connection) {
+        SlowQueryLog log = log();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                new ConnectionHandler(connection, log != null && log.isEnabled() ? log : null));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+
+    private final class ConnectionHandler implements InvocationHandler {
+        private final Connection target;
+        /** null, если журнал медленных запросов выключен — тогда операторы не оборачиваются. */
+        private final SlowQueryLog log;
+        private final long acquiredAtNanos = System.nanoTime();
+        private boolean closed;
+
+        ConnectionHandler(Connection target, SlowQueryLog log) {
+            this.target = target;
+            this.log = log;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if ("unwrap".equals(name) && args[0] == Connection.class) {
+                return target;
+            }
+            if ("close".equals(name) && !closed) {
+                closed = true;
+                SqlRequestStats stats = SqlRequestStats.current();
+                if (stats != null) {
+                    stats.onConnectionReleased(System.nanoTime() - acquiredAtNanos);
+                }
+            }
+            Object result = InstrumentedDataSource.invoke(target, method, args);
+            if (log == null) {
+                return result;
+            }
+            if ((name.equals("prepareStatement") || name.equals("prepareCall")) && result instanceof PreparedStatement ps) {
+                Class<?> type = name.equals("prepareCall") ? java.sql.CallableStatement.class : PreparedStatement.class;
+                return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                        new StatementHandler(ps, (String) args[0], log));
+            }
+            if (name.equals("createStatement") && result instanceof Statement st) {
+                return Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[]{Statement.class},
+                        new StatementHandler(st, null, log));
+            }
+            return result;
+        }
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        private final String preparedSql;
+        private final SlowQueryLog log;
+        /** Параметры по индексу JDBC (с 1); null для пакетов, где EXPLAIN не снимается. */
+        private Object[] binds = new Object[8];
+        private int bindCount;
+
+        StatementHandler(Statement target, String preparedSql, SlowQueryLog log) {
+            this.target = target;
+            this.preparedSql = preparedSql;
+            this.log = log;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("execute")) {
+                long start = System.nanoTime();
+                try {
+                    return InstrumentedDataSource.invoke(target, method, args);
+                } finally {
+                    long duration = System.nanoTime() - start;
+                    if (duration >= log.getThresholdNanos()) {
+                        String sql = preparedSql != null ? preparedSql
+                                : args != null && args.length > 0 && args[0] instanceof String s ? s : null;
+                        if (sql != null) {
+                            boolean batch = name.equals("executeBatch") || name.equals("executeLargeBatch");
+                            log.record(sql, batch ? null : binds, bindCount, duration, getTargetDataSource());
+                        }
+                    }
+                }
+            }
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index
+                    && preparedSql != null && method.getDeclaringClass() != Statement.class) {
+                remember(index, name.equals("setNull") ? null : args[1]);
+            } else if (name.equals("clearParameters")) {
+                Arrays.fill(binds, null);
+                bindCount = 0;
+            } else if (name.equals("unwrap") && ((Class<?>) args[0]).isInstance(target)) {
+                return target;
+            }
+            return InstrumentedDataSource.invoke(target, method, args);
+        }
+
+        private void remember(int index, Object value) {
+            if (index >= binds.length) {
+                binds = Arrays.copyOf(binds, Math.max(index + 1, binds.length * 2));
+            }
+            binds[index] = value;
+            bindCount = Math.max(bindCount, index);
+        }
+    }
+}
@@ -0,0 +1,275 @@
+package com.example.demo.sql;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Журнал медленных запросов на уровне DataSource (см. InstrumentedDataSource).
+ * Для каждого оператора дольше app.slowQuery.thresholdMs хранится форма SQL, число параметров,
+ * длительность и вызвавший метод репозитория — в кольце фиксированного размера.
+ * Для части медленных SELECT в фоне снимается EXPLAIN (ANALYZE, BUFFERS) с теми же параметрами;
+ * одна и та же форма объясняется не чаще раза в app.slowQuery.explainCooldownMs.
+ */
+@Component
+public class SlowQueryLog {
+    private static final Logger logger = LoggerFactory.getLogger(SlowQueryLog.class);
+    private static final int MAX_SHAPES = 1_000;
+
+    @Value("${app.slowQuery.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${app.slowQuery.thresholdMs:200}")
+    private long thresholdMs = 200;
+
+    @Value("${app.slowQuery.ringSize:200}")
+    private int ringSize = 200;
+
+    @Value("${app.slowQuery.explain:true}")
+    private boolean explainEnabled = true;
+
+    @Value("${app.slowQuery.explainSampleRate:0.2}")
+    private double explainSampleRate = 0.2;
+
+    @Value("${app.slowQuery.explainCooldownMs:600000}")
+    private long explainCooldownMs = 600_000;
+
+    @Value("${app.slowQuery.explainTimeoutSec:10}")
+    private int explainTimeoutSec = 10;
+
+    /** Медленный оператор; план дописывается фоновым потоком, когда EXPLAIN выполнен. */
+    public static final class SlowQuery {
+        final long timestampMillis;
+        final String shape;
+        final int bindCount;
+        final long durationNanos;
+        final String caller;
+        volatile String plan;
+
+        SlowQuery(long timestampMillis, String shape, int bindCount, long durationNanos, String caller) {
+            this.timestampMillis = timestampMillis;
+            this.shape = shape;
+            this.bindCount = bindCount;
+            this.durationNanos = durationNanos;
+            this.caller = caller;
+        }
+
+        Map<String, Object> toMap() {
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("timestamp", timestampMillis);
+            m.put("durationMs", durationNanos / 1_000_000.0);
+            m.put("caller", caller);
+            m.put("bindCount", bindCount);
+            m.put("sql", shape);
+            if (plan != null) {
+                m.put("plan", plan);
+            }
+            return m;
+        }
+    }
+
+    private static final class ShapeStats {
+        final LongAdder count = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        volatile long lastExplainMillis;
+    }
+
+    private SlowQuery[] ring;
+    private int next;
+    private final ConcurrentHashMap<String, ShapeStats> byShape = new ConcurrentHashMap<>();
+    private final LongAdder slow = new LongAdder();
+    private final LongAdder explained = new LongAdder();
+    private final LongAdder explainFailures = new LongAdder();
+
+    private final ExecutorService explainExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(16), r -> {
+                Thread t = new Thread(r, "slow-query-explain");
+                t.setDaemon(true);
+                return t;
+            }, new ThreadPoolExecutor.DiscardPolicy());
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public long getThresholdNanos() {
+        return thresholdMs * 1_000_000L;
+    }
+
+    /**
+     * Фиксирует медленный оператор. Вызывается InstrumentedDataSource уже после выполнения,
+     * только для операторов дольше порога.
+     *
+     * @param binds значения параметров по индексу JDBC (нужны только для EXPLAIN, в журнал не попадают)
+     * @param explainSource DataSource без обёртки, на котором выполняется EXPLAIN
+     */
+    public void record(String sql, Object[] binds, int bindCount, long durationNanos, DataSource explainSource) {
+        slow.increment();
+        String shape = SqlRequestStats.shapeOf(sql);
+        SlowQuery entry = new SlowQuery(System.currentTimeMillis(), shape, bindCount, durationNanos, callerOf());
+        synchronized (this) {
+            if (ring == null) {
+                ring = new SlowQuery[Math.max(1, ringSize)];
+            }
+            ring[next] = entry;
+            next = (next + 1) % ring.length;
+        }
+        if (byShape.size() >= MAX_SHAPES && !byShape.containsKey(shape)) {
+            byShape.clear();
+        }
+        ShapeStats stats = byShape.computeIfAbsent(shape, s -> new ShapeStats());
+        stats.count.increment();
+        stats.totalNanos.add(durationNanos);
+        stats.maxNanos.accumulate(durationNanos);
+        logger.info("Slow SQL {} ms ({}): {}", durationNanos / 1_000_000, entry.caller, shape);
+
+        if (shouldExplain(sql, stats, binds)) {
+            Object[] params = Arrays.copyOf(binds, Math.min(binds.length, bindCount + 1));
+            try {
+                explainExecutor.execute(() -> explain(sql, params, explainSource, entry));
+            } catch (RejectedExecutionException e) {
+                logger.debug("Explain queue is full, skipping");
+            }
+        }
+    }
+
+    private boolean shouldExplain(String sql, ShapeStats stats, Object[] binds) {
+        if (!explainEnabled || binds == null || !sql.stripLeading().regionMatches(true, 0, "select", 0, 6)) {
+            return false;
+        }
+        if (ThreadLocalRandom.current().nextDouble() >= explainSampleRate) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        synchronized (stats) {
+            if (now - stats.lastExplainMillis < explainCooldownMs) {
+                return false;
+            }
+            stats.lastExplainMillis = now;
+        }
+        return true;
+    }
+
+    /**
+     * EXPLAIN ANALYZE реально выполняет запрос, поэтому только для SELECT
+     * и в read-only транзакции с откатом.
+     */
+    private void explain(String sql, Object[] binds, DataSource dataSource, SlowQuery entry) {
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            connection.setReadOnly(true);
+            try (PreparedStatement ps = connection.prepareStatement("EXPLAIN (ANALYZE, BUFFERS) " + sql)) {
+                ps.setQueryTimeout(explainTimeoutSec);
+                for (int i = 1; i < binds.length; i++) {
+                    ps.setObject(i, binds[i]);
+                }
+                StringBuilder plan = new StringBuilder();
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        plan.append(rs.getString(1)).append('\n');
+                    }
+                }
+                entry.plan = plan.toString();
+                explained.increment();
+            } finally {
+                connection.rollback();
+                connection.setReadOnly(false);
+                connection.setAutoCommit(autoCommit);
+            }
+        } catch (SQLException e) {
+            explainFailures.increment();
+            logger.debug("EXPLAIN failed for {}: {}", entry.shape, e.getMessage());
+        }
+    }
+
+    /** Метод репозитория Spring Data (через его прокси) или первый метод приложения в стеке. */
+    static String callerOf() {
+        return StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE).walk(frames -> {
+            String fallback = null;
+            for (StackWalker.StackFrame frame : (Iterable<StackWalker.StackFrame>) frames::iterator) {
+                Class<?> type = frame.getDeclaringClass();
+                if (Proxy.isProxyClass(type)) {
+                    for (Class<?> iface : type.getInterfaces()) {
+                        if (iface.getName().startsWith("com.example.demo.repository.")) {
+                            return iface.getSimpleName() + "." + frame.getMethodName();
+                        }
+                    }
+                }
+                String name = type.getName();
+                if (fallback == null && name.startsWith("com.example.demo.") && !name.startsWith("com.example.demo.sql.")) {
+                    fallback = type.getSimpleName() + "." + frame.getMethodName();
+                }
+            }
+            return Optional.ofNullable(fallback).orElse("unknown");
+        });
+    }
+
+    public Map<String, Object> stats(int limit) {
+        List<Map<String, Object>> recent = new ArrayList<>();
+        synchronized (this) {
+            if (ring != null) {
+                for (int i = 1; i <= ring.length && recent.size() < limit; i++) {
+                    SlowQuery q = ring[(next - i + ring.length) % ring.length];
+                    if (q == null) {
+                        break;
+                    }
+                    recent.add(q.toMap());
+                }
+            }
+        }
+        List<Map<String, Object>> top = byShape.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, ShapeStats> e) -> e.getValue().totalNanos.sum()).reversed())
+                .limit(10)
+                .map(e -> {
+                    Map<String, Object> m = new LinkedHashMap<>();
+                    m.put("sql", e.getKey());
+                    m.put("count", e.getValue().count.sum());
+                    m.put("totalMs", e.getValue().totalNanos.sum() / 1_000_000.0);
+                    m.put("maxMs", e.getValue().maxNanos.get() / 1_000_000.0);
+                    return m;
+                })
+                .toList();
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("thresholdMs", thresholdMs);
+        stats.put("slow", slow.sum());
+        stats.put("explained", explained.sum());
+        stats.put("explainFailures", explainFailures.sum());
+        stats.put("topByTotalTime", top);
+        stats.put("recent", recent);
+        return stats;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        explainExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.demo.sql;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Счётчики SQL текущего HTTP-запроса: число выполненных операторов, время JDBC,
+ * загруженные сущности, повторы одной и той же формы SQL (признак N+1)
+ * и суммарное время удержания соединений из пула.
+ * Живёт в ThreadLocal между началом и концом запроса (SqlStatsFilter);
+ * вне запроса Hibernate-хуки ничего не считают.
+ */
+public final class SqlRequestStats {
+
+    private static final ThreadLocal<SqlRequestStats> CURRENT = new ThreadLocal<>();
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(\\s*,\\s*\\?)+\\s*\\)");
+    private static final int MAX_SHAPE_LENGTH = 300;
+
+    private int statements;
+    private long jdbcNanos;
+    private long executeStartNanos;
+    private int entitiesLoaded;
+    private int connections;
+    private long connectionHoldNanos;
+    private long maxConnectionHoldNanos;
+    private final Map<String, Integer> shapes = new HashMap<>();
+
+    public static SqlRequestStats begin() {
+        SqlRequestStats stats = new SqlRequestStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    /** Счётчики текущего запроса или null, если поток не обслуживает HTTP-запрос. */
+    public static SqlRequestStats current() {
+        return CURRENT.get();
+    }
+
+    void onStatement(String sql) {
+        statements++;
+        shapes.merge(shapeOf(sql), 1, Integer::sum);
+    }
+
+    void onExecuteStart() {
+        executeStartNanos = System.nanoTime();
+    }
+
+    void onExecuteEnd() {
+        if (executeStartNanos != 0) {
+            jdbcNanos += System.nanoTime() - executeStartNanos;
+            executeStartNanos = 0;
+        }
+    }
+
+    void onEntityLoaded() {
+        entitiesLoaded++;
+    }
+
+    void onConnectionReleased(long holdNanos) {
+        connections++;
+        connectionHoldNanos += holdNanos;
+        maxConnectionHoldNanos = Math.max(maxConnectionHoldNanos, holdNanos);
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    public long getJdbcNanos() {
+        return jdbcNanos;
+    }
+
+    public int getEntitiesLoaded() {
+        return entitiesLoaded;
+    }
+
+    public int getConnections() {
+        return connections;
+    }
+
+    public long getConnectionHoldNanos() {
+        return connectionHoldNanos;
+    }
+
+    public long getMaxConnectionHoldNanos() {
+        return maxConnectionHoldNanos;
+    }
+
+    /** Самая частая форма SQL в запросе и число её выполнений; null, если SQL не было. */
+    public Map.Entry<String, Integer> mostRepeated() {
+        Map.Entry<String, Integer> top = null;
+        for (Map.Entry<String, Integer> e : shapes.entrySet()) {
+            if (top == null || e.getValue() > top.getValue()) {
+                top = e;
+            }
+        }
+        return top;
+    }
+
+    /** Нормализованная форма SQL: пробелы схлопнуты, списки IN (?, ?, …) приведены к одному виду. */
+    static String shapeOf(String sql) {
+        String shape = WHITESPACE.matcher(sql.trim()).replaceAll(" ");
+        shape = IN_LIST.matcher(shape).replaceAll("(?…)");
+        return shape.length() > MAX_SHAPE_LENGTH ? shape.substring(0, MAX_SHAPE_LENGTH) + "…" : shape;
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.demo.sql;
+
+import com.example.demo.aspect.LatencyHistogram;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Открывает SqlRequestStats на время HTTP-запроса (включая фильтры безопасности и сериализацию ответа)
+ * и по завершении помечает запросы, превысившие порог операторов или повторов одной формы SQL.
+ * Помеченные запросы пишутся в лог с повторяющимся SQL и хранятся в коротком списке для /api/admin/sql/requests.
+ * Там же — распределение суммарного времени удержания соединений на запрос.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class SqlStatsFilter extends OncePerRequestFilter {
+    private static final Logger logger = LoggerFactory.getLogger(SqlStatsFilter.class);
+
+    @Value("${app.sqlStats.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${app.sqlStats.maxStatementsPerRequest:30}")
+    private int maxStatements = 30;
+
+    @Value("${app.sqlStats.maxRepeatsPerShape:10}")
+    private int maxRepeats = 10;
+
+    @Value("${app.sqlStats.recentFlagged:50}")
+    private int recentFlaggedSize = 50;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder statements = new LongAdder();
+    private final LongAdder flagged = new LongAdder();
+    private final LongAdder connections = new LongAdder();
+    private final LatencyHistogram connectionHoldPerRequest = new LatencyHistogram();
+    private final LatencyHistogram connectionHold = new LatencyHistogram();
+    private final Deque<Map<String, Object>> recentFlagged = new ArrayDeque<>();
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        if (!enabled) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        SqlRequestStats stats = SqlRequestStats.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            SqlRequestStats.end();
+            complete(request.getMethod() + " " + request.getRequestURI(), stats);
+        }
+    }
+
+    void complete(String request, SqlRequestStats stats) {
+        requests.increment();
+        statements.add(stats.getStatements());
+        if (stats.getConnections() > 0) {
+            connections.add(stats.getConnections());
+            connectionHoldPerRequest.recordNanos(stats.getConnectionHoldNanos());
+            connectionHold.recordNanos(stats.getMaxConnectionHoldNanos());
+        }
+        Map.Entry<String, Integer> top = stats.mostRepeated();
+        boolean tooMany = stats.getStatements() > maxStatements;
+        boolean repeated = top != null && top.getValue() > maxRepeats;
+        if (!tooMany && !repeated) {
+            return;
+        }
+        flagged.increment();
+        logger.warn("SQL budget exceeded: {} | statements={} | jdbc={} ms | connectionHold={} ms | entities={} | repeated {}x: {}",
+                request, stats.getStatements(), stats.getJdbcNanos() / 1_000_000,
+                stats.getConnectionHoldNanos() / 1_000_000, stats.getEntitiesLoaded(), top.getValue(), top.getKey());
+
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put("request", request);
+        entry.put("statements", stats.getStatements());
+        entry.put("jdbcMs", stats.getJdbcNanos() / 1_000_000.0);
+        entry.put("connectionHoldMs", stats.getConnectionHoldNanos() / 1_000_000.0);
+        entry.put("entitiesLoaded", stats.getEntitiesLoaded());
+        entry.put("repeatedShape", top.getKey());
+        entry.put("repeatedCount", top.getValue());
+        synchronized (recentFlagged) {
+            if (recentFlagged.size() >= recentFlaggedSize) {
+                recentFlagged.removeFirst();
+            }
+            recentFlagged.addLast(entry);
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        long r = requests.sum();
+        long s = statements.sum();
+        stats.put("enabled", enabled);
+        stats.put("maxStatementsPerRequest", maxStatements);
+        stats.put("maxRepeatsPerShape", maxRepeats);
+        stats.put("requests", r);
+        stats.put("statements", s);
+        stats.put("statementsPerRequest", r == 0 ? 0.0 : (double) s / r);
+        stats.put("connectionsPerRequest", r == 0 ? 0.0 : (double) connections.sum() / r);
+        stats.put("connectionHoldPerRequest", percentiles(connectionHoldPerRequest));
+        stats.put("longestConnectionHoldPerRequest", percentiles(connectionHold));
+        stats.put("flagged", flagged.sum());
+        List<Map<String, Object>> recent;
+        synchronized (recentFlagged) {
+            recent = new ArrayList<>(recentFlagged);
+        }
+        stats.put("recentFlagged", recent);
+        return stats;
+    }
+
+    private static Map<String, Object> percentiles(LatencyHistogram histogram) {
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("p50Ms", snapshot.percentile(50) / 1000.0);
+        m.put("p90Ms", snapshot.percentile(90) / 1000.0);
+        m.put("p99Ms", snapshot.percentile(99) / 1000.0);
+        m.put("maxMs", histogram.maxMicros() / 1000.0);
+        return m;
+    }
+}
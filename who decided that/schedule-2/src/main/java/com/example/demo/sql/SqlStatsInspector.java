@@ -0,0 +1,16 @@
+package com.example.demo.sql;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/** Считает каждый подготовленный Hibernate оператор в SqlRequestStats текущего запроса. SQL не меняет. */
+public class SqlStatsInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        SqlRequestStats stats = SqlRequestStats.current();
+        if (stats != null) {
+            stats.onStatement(sql);
+        }
+        return sql;
+    }
+}
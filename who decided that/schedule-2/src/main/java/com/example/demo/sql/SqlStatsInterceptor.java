@@ -0,0 +1,17 @@
+package com.example.demo.sql;
+
+import org.hibernate.Interceptor;
+import org.hibernate.type.Type;
+
+/** Считает сущности, материализованные из результатов запросов, — строки, которые Hibernate реально загрузил. */
+public class SqlStatsInterceptor implements Interceptor {
+
+    @Override
+    public boolean onLoad(Object entity, Object id, Object[] state, String[] propertyNames, Type[] types) {
+        SqlRequestStats stats = SqlRequestStats.current();
+        if (stats != null) {
+            stats.onEntityLoaded();
+        }
+        return false;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.demo.sql;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Время выполнения JDBC-операторов и пакетов для SqlRequestStats.
+ * Подключается к каждой сессии через hibernate.session.events.auto (нужен конструктор без аргументов).
+ */
+public class SqlStatsSessionListener implements SessionEventListener {
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        SqlRequestStats stats = SqlRequestStats.current();
+        if (stats != null) {
+            stats.onExecuteStart();
+        }
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        SqlRequestStats stats = SqlRequestStats.current();
+        if (stats != null) {
+            stats.onExecuteEnd();
+        }
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        jdbcExecuteStatementStart();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        jdbcExecuteStatementEnd();
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.demo.aspect;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("AuditRingBuffer Tests")
+class AuditRingBufferTest {
+
+    private static AuditEvent event(String uri) {
+        return new AuditEvent(0L, 1_500_000L, "user@example.com", "GET", uri, null,
+                AuditRingBufferTest.class, "handler", 200, null, 0, 0L);
+    }
+
+    @Test
+    @DisplayName("should reject offers when full and accept again after poll")
+    void shouldRejectWhenFull() {
+        AuditRingBuffer buffer = new AuditRingBuffer(4);
+
+        for (int i = 0; i < buffer.capacity(); i++) {
+            assertThat(buffer.offer(event("/" + i))).isTrue();
+        }
+        assertThat(buffer.offer(event("/overflow"))).isFalse();
+
+        assertThat(buffer.poll().uri()).isEqualTo("/0");
+        assertThat(buffer.offer(event("/again"))).isTrue();
+    }
+
+    @Test
+    @DisplayName("should deliver every event from concurrent producers exactly once")
+    void shouldDeliverFromConcurrentProducers() throws Exception {
+        AuditRingBuffer buffer = new AuditRingBuffer(1024);
+        int producers = 4;
+        int perProducer = 10_000;
+        ExecutorService pool = Executors.newFixedThreadPool(producers);
+        CountDownLatch done = new CountDownLatch(producers);
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            pool.submit(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    buffer.put(event(producer + ":" + i));
+                }
+                done.countDown();
+            });
+        }
+
+        Set<String> seen = new HashSet<>();
+        while (seen.size() < producers * perProducer) {
+            AuditEvent e = buffer.poll();
+            if (e != null) {
+                assertThat(seen.add(e.uri())).isTrue();
+            } else {
+                Thread.onSpinWait();
+            }
+        }
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(buffer.poll()).isNull();
+        pool.shutdown();
+    }
+
+    @Test
+    @DisplayName("should format event on writer side")
+    void shouldFormatEvent() {
+        StringBuilder sb = new StringBuilder();
+
+        AuditLogWriter.format(new AuditEvent(0L, 1_500_000L, "user@example.com", "GET", "/api/schedules", "day=MONDAY",
+                AuditRingBufferTest.class, "list", 200, null, 0, 0L), sb);
+
+        assertThat(sb.toString())
+                .contains("user=user@example.com | GET /api/schedules?day=MONDAY | handler=AuditRingBufferTest#list | 200 | 1.5 ms");
+    }
+
+    @Test
+    @DisplayName("should release a blocked producer when the buffer is closed")
+    void shouldStopBlockingAfterClose() throws Exception {
+        AuditRingBuffer buffer = new AuditRingBuffer(2);
+        while (buffer.offer(event("/fill"))) {
+            // заполняем до отказа
+        }
+        ExecutorService producer = Executors.newSingleThreadExecutor();
+        Future<Boolean> put = producer.submit(() -> buffer.put(event("/blocked")));
+
+        buffer.close();
+
+        assertThat(put.get(5, TimeUnit.SECONDS)).isFalse();
+        producer.shutdown();
+    }
+
+    @Test
+    @DisplayName("should count file size in UTF-8 bytes")
+    void shouldCountUtf8Bytes() {
+        assertThat(AuditLogWriter.utf8Length("GET /a")).isEqualTo(6);
+        assertThat(AuditLogWriter.utf8Length("Иванов")).isEqualTo(12);
+        assertThat(AuditLogWriter.utf8Length("€\uD83D\uDE00")).isEqualTo(7);
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.demo.aspect;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+@DisplayName("LatencyHistogram Tests")
+class LatencyHistogramTest {
+
+    @Nested
+    @DisplayName("buckets")
+    class BucketTests {
+
+        @Test
+        @DisplayName("should map values to buckets whose bounds contain them")
+        void shouldMapValuesToContainingBuckets() {
+            for (long micros : new long[]{0, 1, 63, 64, 65, 1_000, 12_345, 999_999, 1L << 39}) {
+                int index = LatencyHistogram.indexOf(micros);
+                assertThat(LatencyHistogram.upperBoundOf(index)).isGreaterThanOrEqualTo(micros);
+                if (index > 0) {
+                    assertThat(LatencyHistogram.upperBoundOf(index - 1)).isLessThan(micros);
+                }
+            }
+        }
+
+        @Test
+        @DisplayName("should clamp huge values into the last bucket")
+        void shouldClampHugeValues() {
+            assertThat(LatencyHistogram.indexOf(Long.MAX_VALUE)).isEqualTo(LatencyHistogram.BUCKETS - 1);
+        }
+    }
+
+    @Test
+    @DisplayName("should report percentiles within bucket precision")
+    void shouldReportPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int ms = 1; ms <= 100; ms++) {
+            histogram.recordNanos(ms * 1_000_000L);
+        }
+
+        LatencyHistogram.Snapshot snapshot = histogram.snapshot();
+
+        assertThat(snapshot.count()).isEqualTo(100);
+        assertThat((double) snapshot.percentile(50)).isCloseTo(50_000, within(50_000 * 0.04));
+        assertThat((double) snapshot.percentile(99)).isCloseTo(99_000, within(99_000 * 0.04));
+        assertThat(histogram.maxMicros()).isEqualTo(100_000);
+    }
+
+    @Test
+    @DisplayName("should compute interval histogram as difference of snapshots")
+    void shouldComputeIntervalDelta() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.recordNanos(1_000_000);
+        LatencyHistogram.Snapshot first = histogram.snapshot();
+        histogram.recordNanos(200_000_000);
+
+        LatencyHistogram.Snapshot interval = histogram.snapshot().minus(first);
+
+        assertThat(interval.count()).isEqualTo(1);
+        assertThat((double) interval.percentile(50)).isCloseTo(200_000, within(200_000 * 0.04));
+    }
+
+    @Test
+    @DisplayName("should group errors by handler in metrics snapshot")
+    @SuppressWarnings("unchecked")
+    void shouldGroupByHandler() throws Exception {
+        HandlerMetrics metrics = new HandlerMetrics();
+        var method = LatencyHistogramTest.class.getDeclaredMethod("shouldGroupByHandler");
+        metrics.record(method, 2_000_000, 200, 3);
+        metrics.record(method, 3_000_000, 500, 3);
+        metrics.record(method, 4_000_000, -1, 3);
+        metrics.record(method, 1_000_000, 404, 3);
+
+        Map<String, Object> handlers = (Map<String, Object>) metrics.snapshot().get("handlers");
+        Map<String, Object> entry = (Map<String, Object>) handlers.get("LatencyHistogramTest#shouldGroupByHandler");
+        Map<String, Object> total = (Map<String, Object>) entry.get("total");
+        Map<String, Object> interval = (Map<String, Object>) entry.get("interval");
+
+        assertThat(total).containsEntry("count", 4L).containsEntry("errors", 2L).containsEntry("clientErrors", 1L);
+        assertThat(interval).containsEntry("count", 4L).containsEntry("errors", 2L);
+    }
+}
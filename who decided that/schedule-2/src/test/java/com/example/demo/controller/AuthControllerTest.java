@@ -3,6 +3,8 @@ package com.example.demo.controller;
 import com.example.demotest.ControllerTestApplication;
 import com.example.demo.dto.auth.SignInRequest;
 import com.example.demo.dto.auth.SignUpRequest;
+import com.example.demo.security.services.PrincipalCache;
+import com.example.demo.security.services.TokenRevocationService;
 import com.example.demo.security.services.UserDetailsImpl;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.DisplayName;
@@ -12,6 +14,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.http.MediaType;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -25,11 +28,14 @@ import com.example.demo.dto.GroupDTO;
 import com.example.demo.entity.User;
 import com.example.demo.repository.GroupRepository;
 import com.example.demo.repository.UserRepository;
+import com.example.demo.exception.InvalidRefreshTokenException;
 import com.example.demo.service.GroupService;
+import com.example.demo.service.RefreshTokenService;
 
 import java.util.Collections;
 import java.util.List;
 
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -65,6 +71,15 @@ class AuthControllerTest {
     @MockBean
     private GroupService groupService;
 
+    @MockBean
+    private PrincipalCache principalCache;
+
+    @MockBean
+    private RefreshTokenService refreshTokenService;
+
+    @MockBean
+    private TokenRevocationService tokenRevocationService;
+
     @Nested
     @DisplayName("POST /api/auth/signin")
     class SignInTests {
@@ -88,12 +103,15 @@ class AuthControllerTest {
 
             Authentication auth = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
             when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class))).thenReturn(auth);
+            when(jwtUtils.generateJwtToken(any(UserDetailsImpl.class))).thenReturn("test-jwt-token");
+            when(refreshTokenService.issue(userDetails)).thenReturn("test-refresh-token");
 
             mockMvc.perform(post("/api/auth/signin")
                             .contentType(MediaType.APPLICATION_JSON)
                             .content(objectMapper.writeValueAsString(request)))
                     .andExpect(status().isOk())
-                    .andExpect(jsonPath("$.token").exists())
+                    .andExpect(jsonPath("$.token").value("test-jwt-token"))
+                    .andExpect(jsonPath("$.refreshToken").value("test-refresh-token"))
                     .andExpect(jsonPath("$.email").value("user@example.com"));
 
             verify(authenticationManager).authenticate(any(UsernamePasswordAuthenticationToken.class));
@@ -117,6 +135,79 @@ class AuthControllerTest {
 
             verify(authenticationManager).authenticate(any(UsernamePasswordAuthenticationToken.class));
         }
+
+        @Test
+        @DisplayName("should not report a failed refresh session save as bad credentials")
+        void shouldNotReturn401WhenRefreshSessionSaveFails() {
+            SignInRequest request = new SignInRequest();
+            request.setUsername("user@example.com");
+            request.setPassword("password123");
+
+            UserDetailsImpl userDetails = new UserDetailsImpl(
+                    "user-1",
+                    "Test User",
+                    "user@example.com",
+                    "encoded",
+                    "group-1",
+                    null,
+                    Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER"))
+            );
+
+            Authentication auth = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+            when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class))).thenReturn(auth);
+            when(refreshTokenService.issue(userDetails))
+                    .thenThrow(new DataAccessResourceFailureException("connection refused"));
+
+            assertThatThrownBy(() -> mockMvc.perform(post("/api/auth/signin")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(request))))
+                    .hasRootCauseInstanceOf(DataAccessResourceFailureException.class);
+        }
+    }
+
+    @Nested
+    @DisplayName("POST /api/auth/refresh")
+    class RefreshTests {
+
+        @Test
+        @DisplayName("should issue new token pair for valid refresh token")
+        void shouldIssueNewTokenPair() throws Exception {
+            UserDetailsImpl userDetails = new UserDetailsImpl(
+                    "user-1",
+                    "Test User",
+                    "user@example.com",
+                    null,
+                    "group-1",
+                    null,
+                    Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER"))
+            );
+            when(refreshTokenService.rotate("old-refresh"))
+                    .thenReturn(new RefreshTokenService.Rotation(userDetails, "new-refresh"));
+            when(jwtUtils.generateJwtToken(userDetails)).thenReturn("new-access");
+
+            mockMvc.perform(post("/api/auth/refresh")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"refreshToken\":\"old-refresh\"}"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.token").value("new-access"))
+                    .andExpect(jsonPath("$.refreshToken").value("new-refresh"))
+                    .andExpect(jsonPath("$.id").value("user-1"));
+
+            verify(authenticationManager, never()).authenticate(any());
+        }
+
+        @Test
+        @DisplayName("should return 401 for reused refresh token")
+        void shouldReturn401ForReusedToken() throws Exception {
+            when(refreshTokenService.rotate("used-refresh"))
+                    .thenThrow(new InvalidRefreshTokenException("Refresh token revoked"));
+
+            mockMvc.perform(post("/api/auth/refresh")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{\"refreshToken\":\"used-refresh\"}"))
+                    .andExpect(status().isUnauthorized())
+                    .andExpect(content().string(org.hamcrest.Matchers.containsString("Refresh failed")));
+        }
     }
 
     @Nested
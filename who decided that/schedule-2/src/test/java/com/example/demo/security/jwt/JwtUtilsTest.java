@@ -0,0 +1,141 @@
+package com.example.demo.security.jwt;
+
+import com.example.demo.entity.User;
+import com.example.demo.security.services.UserDetailsImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("JwtUtils Tests")
+class JwtUtilsTest {
+
+    private JwtUtils jwtUtils;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", "test-secret-key-that-is-long-enough-for-hs256");
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 60_000);
+        ReflectionTestUtils.setField(jwtUtils, "statelessAuth", true);
+        ReflectionTestUtils.setField(jwtUtils, "jwtRefreshExpirationMs", 600_000L);
+        jwtUtils.init();
+    }
+
+    private UserDetailsImpl teacher() {
+        User user = new User("teacher-1", "Teacher User", "encoded", "teacher@example.com", "group-1", "TEACHER_MATH");
+        return UserDetailsImpl.build(user);
+    }
+
+    @Nested
+    @DisplayName("stateless claims")
+    class StatelessClaimsTests {
+
+        @Test
+        @DisplayName("should rebuild principal from token claims")
+        void shouldRebuildPrincipalFromClaims() {
+            UserDetailsImpl original = teacher();
+            String token = jwtUtils.generateJwtToken(original);
+
+            assertThat(jwtUtils.validateJwtToken(token)).isTrue();
+            UserDetailsImpl restored = jwtUtils.getUserDetailsFromJwtToken(token);
+
+            assertThat(restored).isNotNull();
+            assertThat(restored.getId()).isEqualTo("teacher-1");
+            assertThat(restored.getEmail()).isEqualTo("teacher@example.com");
+            assertThat(restored.getGroupId()).isEqualTo("group-1");
+            assertThat(restored.getSubject()).isEqualTo("Математика");
+            assertThat(restored.getPassword()).isNull();
+            assertThat(restored.getAuthorities()).extracting(GrantedAuthority::getAuthority)
+                    .containsExactlyInAnyOrder("ROLE_TEACHER_MATH", "ROLE_TEACHER");
+        }
+
+        @Test
+        @DisplayName("should return null for legacy token without uid claim")
+        void shouldReturnNullForLegacyToken() {
+            String legacy = io.jsonwebtoken.Jwts.builder()
+                    .setSubject("user@example.com")
+                    .claim(JwtUtils.CLAIM_ROLES, "ROLE_USER")
+                    .signWith(jwtUtils.key(), io.jsonwebtoken.SignatureAlgorithm.HS256)
+                    .compact();
+
+            assertThat(jwtUtils.validateJwtToken(legacy)).isTrue();
+            assertThat(jwtUtils.getUserDetailsFromJwtToken(legacy)).isNull();
+            assertThat(jwtUtils.getUserNameFromJwtToken(legacy)).isEqualTo("user@example.com");
+        }
+    }
+
+    @Nested
+    @DisplayName("verified token cache")
+    class VerifiedCacheTests {
+
+        @Test
+        @DisplayName("should verify token once and serve repeats from cache")
+        void shouldServeRepeatsFromCache() {
+            String token = jwtUtils.generateJwtToken(teacher());
+
+            JwtUtils.VerifiedToken first = jwtUtils.verifyJwtToken(token);
+            JwtUtils.VerifiedToken second = jwtUtils.verifyJwtToken(token);
+
+            assertThat(second).isSameAs(first);
+            assertThat(jwtUtils.getVerifiedCacheMisses()).isEqualTo(1);
+            assertThat(jwtUtils.getVerifiedCacheHits()).isEqualTo(1);
+            assertThat(jwtUtils.getVerifiedCacheSize()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("should not cache tokens signed with another key")
+        void shouldNotCacheForeignTokens() {
+            String foreign = io.jsonwebtoken.Jwts.builder()
+                    .setSubject("user@example.com")
+                    .setExpiration(new java.util.Date(System.currentTimeMillis() + 60_000))
+                    .signWith(io.jsonwebtoken.security.Keys.hmacShaKeyFor(
+                            "another-secret-key-that-is-long-enough-too".getBytes()),
+                            io.jsonwebtoken.SignatureAlgorithm.HS256)
+                    .compact();
+
+            assertThatThrownBy(() -> jwtUtils.verifyJwtToken(foreign))
+                    .isInstanceOf(io.jsonwebtoken.JwtException.class);
+            assertThat(jwtUtils.getVerifiedCacheSize()).isZero();
+        }
+    }
+
+    @Nested
+    @DisplayName("refresh tokens")
+    class RefreshTokenTests {
+
+        @Test
+        @DisplayName("should parse refresh token with family and jti")
+        void shouldParseRefreshToken() {
+            String refresh = jwtUtils.generateRefreshToken(teacher(), "family-1", "jti-1");
+
+            io.jsonwebtoken.Claims claims = jwtUtils.parseRefreshToken(refresh);
+
+            assertThat(claims).isNotNull();
+            assertThat(claims.getId()).isEqualTo("jti-1");
+            assertThat(claims.get(JwtUtils.CLAIM_FAMILY, String.class)).isEqualTo("family-1");
+            assertThat(claims.get(JwtUtils.CLAIM_USER_ID, String.class)).isEqualTo("teacher-1");
+        }
+
+        @Test
+        @DisplayName("should not accept refresh token as access token and vice versa")
+        void shouldKeepTokenTypesApart() {
+            String refresh = jwtUtils.generateRefreshToken(teacher(), "family-1", "jti-1");
+            String access = jwtUtils.generateJwtToken(teacher());
+
+            assertThat(jwtUtils.validateJwtToken(refresh)).isFalse();
+            assertThat(jwtUtils.parseRefreshToken(access)).isNull();
+        }
+    }
+
+    @Test
+    @DisplayName("should reject malformed token")
+    void shouldRejectMalformedToken() {
+        assertThat(jwtUtils.validateJwtToken("not-a-jwt")).isFalse();
+    }
+}
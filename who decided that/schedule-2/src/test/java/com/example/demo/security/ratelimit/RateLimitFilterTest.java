@@ -0,0 +1,51 @@
+package com.example.demo.security.ratelimit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("RateLimitFilter Tests")
+class RateLimitFilterTest {
+
+    private RateLimitFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new RateLimitFilter();
+        ReflectionTestUtils.setField(filter, "trustForwardedFor", true);
+        ReflectionTestUtils.setField(filter, "trustedProxies", "10.0.0.2, 10.0.0.3");
+        filter.init();
+    }
+
+    private static MockHttpServletRequest request(String forwardedFor) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/auth/signin");
+        request.setRemoteAddr("10.0.0.3");
+        request.addHeader("X-Forwarded-For", forwardedFor);
+        return request;
+    }
+
+    @Test
+    @DisplayName("should take the rightmost hop not added by a trusted proxy")
+    void shouldIgnoreClientSuppliedHops() {
+        assertThat(filter.clientIp(request("1.1.1.1, 203.0.113.7, 10.0.0.2"))).isEqualTo("203.0.113.7");
+        assertThat(filter.clientIp(request("2.2.2.2, 203.0.113.7, 10.0.0.2"))).isEqualTo("203.0.113.7");
+        assertThat(filter.clientIp(request("10.0.0.2"))).isEqualTo("10.0.0.2");
+    }
+
+    @Test
+    @DisplayName("should reject malformed or non-positive limits at startup")
+    void shouldValidatePolicySpec() {
+        ReflectionTestUtils.setField(filter, "signinLimit", "10/0");
+        assertThatThrownBy(filter::init).isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("app.rateLimit.signin");
+
+        ReflectionTestUtils.setField(filter, "signinLimit", "ten");
+        assertThatThrownBy(filter::init).isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("capacity/perMinute");
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.demo.security.ratelimit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("StripedTokenBuckets Tests")
+class StripedTokenBucketsTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    @DisplayName("should allow burst up to capacity and then reject with retry delay")
+    void shouldRejectAfterBurst() {
+        StripedTokenBuckets buckets = new StripedTokenBuckets(3, 60, 60_000, 1_000);
+
+        assertThat(buckets.tryAcquire("ip:1", 0)).isZero();
+        assertThat(buckets.tryAcquire("ip:1", 0)).isZero();
+        assertThat(buckets.tryAcquire("ip:1", 0)).isZero();
+        assertThat(buckets.tryAcquire("ip:1", 0)).isBetween(1L, 1_000L);
+        // Другой ключ не затронут
+        assertThat(buckets.tryAcquire("ip:2", 0)).isZero();
+    }
+
+    @Test
+    @DisplayName("should refill tokens over time")
+    void shouldRefill() {
+        StripedTokenBuckets buckets = new StripedTokenBuckets(1, 60, 60_000, 1_000);
+
+        assertThat(buckets.tryAcquire("user:1", 0)).isZero();
+        assertThat(buckets.tryAcquire("user:1", SECOND / 2)).isPositive();
+        assertThat(buckets.tryAcquire("user:1", 2 * SECOND)).isZero();
+    }
+
+    @Test
+    @DisplayName("should keep number of buckets bounded")
+    void shouldBoundMemory() {
+        StripedTokenBuckets buckets = new StripedTokenBuckets(5, 5, 60_000, 64);
+
+        for (int i = 0; i < 10_000; i++) {
+            buckets.tryAcquire("ip:" + i, i);
+        }
+
+        assertThat(buckets.size()).isLessThanOrEqualTo(64);
+    }
+}
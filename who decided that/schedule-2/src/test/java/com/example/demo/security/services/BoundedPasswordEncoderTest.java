@@ -0,0 +1,82 @@
+package com.example.demo.security.services;
+
+import com.example.demo.exception.HashingCapacityException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("BoundedPasswordEncoder Tests")
+class BoundedPasswordEncoderTest {
+
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        if (encoder != null) {
+            encoder.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("should encode and match with configured bcrypt cost")
+    @SuppressWarnings("unchecked")
+    void shouldEncodeAndMatch() {
+        encoder = new BoundedPasswordEncoder(4, 2, 4, 5_000);
+
+        String hash = encoder.encode("password123");
+
+        assertThat(hash).startsWith("$2a$04$");
+        assertThat(encoder.matches("password123", hash)).isTrue();
+        assertThat(encoder.matches("wrong", hash)).isFalse();
+        Map<String, Object> matches = (Map<String, Object>) encoder.stats().get("matches");
+        assertThat(matches).containsEntry("count", 2L);
+    }
+
+    @Test
+    @DisplayName("should reject when pool and queue are full")
+    void shouldRejectWhenSaturated() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder blocking = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                started.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return rawPassword.toString();
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return rawPassword.toString().equals(encodedPassword);
+            }
+        };
+        encoder = new BoundedPasswordEncoder(blocking, 4, 1, 1, 5_000);
+
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("a"));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("b"));
+        while (((Number) encoder.stats().get("queued")).intValue() < 1) {
+            Thread.onSpinWait();
+        }
+
+        assertThatThrownBy(() -> encoder.encode("c")).isInstanceOf(HashingCapacityException.class);
+        assertThat(encoder.stats()).containsEntry("rejected", 1L);
+
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("a");
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("b");
+    }
+}
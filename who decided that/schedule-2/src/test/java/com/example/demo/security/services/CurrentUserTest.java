@@ -0,0 +1,69 @@
+package com.example.demo.security.services;
+
+import com.example.demo.entity.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("CurrentUser Tests")
+class CurrentUserTest {
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private void authenticate(String role) {
+        UserDetailsImpl principal = UserDetailsImpl.build(
+                new User("user-1", "John Doe", "encoded", "john@example.com", "group-1", role));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    @Test
+    @DisplayName("should treat admin as ADMIN even though it has ROLE_TEACHER")
+    void shouldResolveAdmin() {
+        authenticate("ADMIN");
+
+        assertThat(CurrentUser.role()).isEqualTo(CurrentUser.ADMIN);
+        assertThat(CurrentUser.isAdminOrTeacher()).isTrue();
+        assertThat(CurrentUser.isTeacherOnly()).isFalse();
+    }
+
+    @Test
+    @DisplayName("should resolve subject teacher as TEACHER")
+    void shouldResolveSubjectTeacher() {
+        authenticate("TEACHER_MATH");
+
+        assertThat(CurrentUser.role()).isEqualTo(CurrentUser.TEACHER);
+        assertThat(CurrentUser.isTeacherOnly()).isTrue();
+        assertThat(CurrentUser.principal().getSubject()).isEqualTo("Математика");
+    }
+
+    @Test
+    @DisplayName("should resolve plain user and anonymous as USER")
+    void shouldResolveUser() {
+        assertThat(CurrentUser.role()).isEqualTo(CurrentUser.USER);
+
+        authenticate("USER");
+        assertThat(CurrentUser.role()).isEqualTo(CurrentUser.USER);
+        assertThat(CurrentUser.isAdminOrTeacher()).isFalse();
+    }
+
+    @Test
+    @DisplayName("should compute mask from authorities for foreign principals")
+    void shouldComputeMaskForForeignPrincipal() {
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(
+                "someone", null, List.of(new SimpleGrantedAuthority("ROLE_TEACHER"))));
+
+        assertThat(CurrentUser.principal()).isNull();
+        assertThat(CurrentUser.role()).isEqualTo(CurrentUser.TEACHER);
+    }
+}
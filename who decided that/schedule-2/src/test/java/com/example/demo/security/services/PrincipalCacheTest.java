@@ -0,0 +1,87 @@
+package com.example.demo.security.services;
+
+import com.example.demo.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("PrincipalCache Tests")
+class PrincipalCacheTest {
+
+    private PrincipalCache cache;
+    private UserDetailsImpl principal;
+
+    @BeforeEach
+    void setUp() {
+        cache = new PrincipalCache();
+        principal = UserDetailsImpl.build(
+                new User("user-1", "John Doe", "encoded", "john@example.com", "group-1", "USER"));
+    }
+
+    @Nested
+    @DisplayName("positive entries")
+    class PositiveEntryTests {
+
+        @Test
+        @DisplayName("should count hits and misses")
+        void shouldCountHitsAndMisses() {
+            assertThat(cache.get("john@example.com")).isNull();
+            cache.put("john@example.com", principal);
+
+            assertThat(cache.get("john@example.com")).isSameAs(principal);
+            assertThat(cache.stats()).containsEntry("hits", 1L).containsEntry("misses", 1L);
+        }
+
+        @Test
+        @DisplayName("should evict every key of a user by id")
+        void shouldEvictAllKeysOfUser() {
+            cache.put("john@example.com", principal);
+            cache.put("user-1", principal);
+            cache.put("John Doe", principal);
+
+            cache.evictUser("user-1", null);
+
+            assertThat(cache.get("john@example.com")).isNull();
+            assertThat(cache.get("user-1")).isNull();
+            assertThat(cache.get("John Doe")).isNull();
+            assertThat(cache.stats()).containsEntry("evictions", 3L);
+        }
+
+        @Test
+        @DisplayName("should expire entries after ttl")
+        void shouldExpireEntries() {
+            ReflectionTestUtils.setField(cache, "ttlMs", -1L);
+            cache.put("john@example.com", principal);
+
+            assertThat(cache.get("john@example.com")).isNull();
+        }
+    }
+
+    @Nested
+    @DisplayName("negative entries")
+    class NegativeEntryTests {
+
+        @Test
+        @DisplayName("should remember unknown usernames until registration")
+        void shouldRememberUnknownUsernames() {
+            cache.putMissing("ghost@example.com");
+            assertThat(cache.isKnownMissing("ghost@example.com")).isTrue();
+
+            cache.evictMissing("ghost@example.com");
+            assertThat(cache.isKnownMissing("ghost@example.com")).isFalse();
+        }
+
+        @Test
+        @DisplayName("should drop negative entry when user is cached")
+        void shouldDropNegativeEntryOnPut() {
+            cache.putMissing("john@example.com");
+            cache.put("john@example.com", principal);
+
+            assertThat(cache.isKnownMissing("john@example.com")).isFalse();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.example.demo.security.services;
+
+import com.example.demo.entity.TokenRevocation;
+import com.example.demo.repository.TokenRevocationRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Date;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TokenRevocationService Tests")
+class TokenRevocationServiceTest {
+
+    @Mock
+    private TokenRevocationRepository tokenRevocationRepository;
+
+    @InjectMocks
+    private TokenRevocationService tokenRevocationService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(tokenRevocationService, "maxTokenLifetimeMs", 600_000L);
+    }
+
+    @Test
+    @DisplayName("should revoke tokens issued before revocation and persist it")
+    void shouldRevokeEarlierTokens() {
+        Date issuedEarlier = new Date(System.currentTimeMillis() - 5_000);
+
+        tokenRevocationService.revokeAll("user-1");
+
+        assertThat(tokenRevocationService.isRevoked("user-1", issuedEarlier)).isTrue();
+        assertThat(tokenRevocationService.isRevoked("user-1", new Date(System.currentTimeMillis() + 1_000))).isFalse();
+        assertThat(tokenRevocationService.isRevoked("user-2", issuedEarlier)).isFalse();
+        verify(tokenRevocationRepository).save(any(TokenRevocation.class));
+    }
+
+    @Test
+    @DisplayName("should apply the revocation in memory only after the transaction commits")
+    void shouldWaitForCommit() {
+        Date issuedEarlier = new Date(System.currentTimeMillis() - 5_000);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            tokenRevocationService.revokeAll("user-1");
+
+            assertThat(tokenRevocationService.isRevoked("user-1", issuedEarlier)).isFalse();
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(tokenRevocationService.isRevoked("user-1", issuedEarlier)).isTrue();
+    }
+
+    @Test
+    @DisplayName("should purge expired revocations inside the transaction, before commit")
+    void shouldPurgeBeforeCommit() {
+        TokenRevocation expired = new TokenRevocation();
+        expired.setUserId("old-user");
+        expired.setRevokedBeforeEpoch(System.currentTimeMillis() / 1000 - 3_600);
+        when(tokenRevocationRepository.findByRevokedBeforeEpochGreaterThan(anyLong())).thenReturn(List.of(expired));
+        tokenRevocationService.load();
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            tokenRevocationService.revokeAll("user-1");
+
+            verify(tokenRevocationRepository).deleteOlderThan(anyLong());
+            assertThat(tokenRevocationService.size()).isEqualTo(1);
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertThat(tokenRevocationService.size()).isEqualTo(1);
+        assertThat(tokenRevocationService.isRevoked("old-user", new Date(0))).isFalse();
+    }
+
+    @Test
+    @DisplayName("should load revocations from table at startup")
+    void shouldLoadFromTable() {
+        TokenRevocation revocation = new TokenRevocation();
+        revocation.setUserId("user-1");
+        revocation.setRevokedBeforeEpoch(System.currentTimeMillis() / 1000);
+        when(tokenRevocationRepository.findByRevokedBeforeEpochGreaterThan(anyLong())).thenReturn(List.of(revocation));
+
+        tokenRevocationService.load();
+
+        assertThat(tokenRevocationService.size()).isEqualTo(1);
+        assertThat(tokenRevocationService.isRevoked("user-1", new Date(System.currentTimeMillis() - 10_000))).isTrue();
+    }
+}
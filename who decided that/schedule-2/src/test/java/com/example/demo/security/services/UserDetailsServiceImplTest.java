@@ -0,0 +1,96 @@
+package com.example.demo.security.services;
+
+import com.example.demo.entity.User;
+import com.example.demo.repository.UserRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("UserDetailsServiceImpl Tests")
+class UserDetailsServiceImplTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @InjectMocks
+    private UserDetailsServiceImpl userDetailsService;
+
+    private static User user(String id, String fullName, String email) {
+        User user = new User(id, fullName, "encoded", email, "group-1", "USER");
+        ReflectionTestUtils.invokeMethod(user, "updateLookupKeys");
+        return user;
+    }
+
+    @Nested
+    @DisplayName("loadUserByUsername")
+    class LoadUserTests {
+
+        @Test
+        @DisplayName("should resolve user with one normalized query and cache it")
+        void shouldResolveWithOneQuery() {
+            ReflectionTestUtils.setField(userDetailsService, "principalCache", new PrincipalCache());
+            when(userRepository.findByLookupKey("john@example.com"))
+                    .thenReturn(List.of(user("user-1", "John Doe", "john@example.com")));
+
+            UserDetailsImpl first = (UserDetailsImpl) userDetailsService.loadUserByUsername(" John@Example.com ");
+            UserDetailsImpl second = (UserDetailsImpl) userDetailsService.loadUserByUsername("john@example.com");
+
+            assertThat(first.getId()).isEqualTo("user-1");
+            assertThat(second).isSameAs(first);
+            verify(userRepository, times(1)).findByLookupKey(anyString());
+        }
+
+        @Test
+        @DisplayName("should answer repeated unknown logins from negative cache")
+        void shouldUseNegativeCache() {
+            ReflectionTestUtils.setField(userDetailsService, "principalCache", new PrincipalCache());
+            when(userRepository.findByLookupKey("ghost@example.com")).thenReturn(List.of());
+
+            for (int i = 0; i < 3; i++) {
+                assertThatThrownBy(() -> userDetailsService.loadUserByUsername("ghost@example.com"))
+                        .isInstanceOf(UsernameNotFoundException.class);
+            }
+            verify(userRepository, times(1)).findByLookupKey(anyString());
+        }
+    }
+
+    @Nested
+    @DisplayName("pickUser")
+    class PickUserTests {
+
+        @Test
+        @DisplayName("should prefer email over user id over full name")
+        void shouldKeepPriority() {
+            User byName = user("u-2", "admin", "other@example.com");
+            User byId = user("admin", "Administrator", "admin@example.com");
+
+            assertThat(UserDetailsServiceImpl.pickUser(List.of(byName, byId), "admin")).isSameAs(byId);
+        }
+
+        @Test
+        @DisplayName("should reject ambiguous full name")
+        void shouldRejectAmbiguousFullName() {
+            List<User> namesakes = List.of(
+                    user("u-1", "Ivan Petrov", "ivan1@example.com"),
+                    user("u-2", "Ivan Petrov", "ivan2@example.com"));
+
+            assertThat(UserDetailsServiceImpl.pickUser(namesakes, "ivan petrov")).isNull();
+        }
+    }
+}
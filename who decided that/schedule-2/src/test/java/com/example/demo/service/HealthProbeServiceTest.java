@@ -0,0 +1,96 @@
+package com.example.demo.service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("HealthProbeService Tests")
+class HealthProbeServiceTest {
+
+    @Mock
+    private DataSource dataSource;
+
+    @Mock
+    private WebClient fastApiWebClient;
+
+    @Mock
+    private Connection connection;
+
+    @InjectMocks
+    private HealthProbeService healthProbeService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(healthProbeService, "fastApiEnabled", false);
+    }
+
+    @Test
+    @DisplayName("should not be ready before the first probe")
+    void shouldNotBeReadyBeforeFirstProbe() {
+        assertThat(healthProbeService.getSnapshot().status()).isEqualTo(HealthProbeService.Status.STARTING);
+        assertThat(healthProbeService.isReady()).isFalse();
+        assertThat(healthProbeService.isLive()).isTrue();
+    }
+
+    @Test
+    @DisplayName("should report UP when database answers")
+    void shouldReportUpWhenDatabaseAnswers() throws Exception {
+        when(dataSource.getConnection()).thenReturn(connection);
+        when(connection.isValid(2)).thenReturn(true);
+
+        HealthProbeService.Snapshot snapshot = healthProbeService.probe();
+
+        assertThat(snapshot.status()).isEqualTo(HealthProbeService.Status.UP);
+        assertThat(snapshot.database()).containsEntry("status", "UP").containsKey("pingMs");
+        assertThat(snapshot.pool()).containsEntry("status", "UNKNOWN");
+    }
+
+    @Test
+    @DisplayName("should report DOWN when connection cannot be obtained")
+    void shouldReportDownWhenDatabaseUnavailable() throws Exception {
+        when(dataSource.getConnection()).thenThrow(new SQLException("Connection refused"));
+
+        HealthProbeService.Snapshot snapshot = healthProbeService.probe();
+
+        assertThat(snapshot.status()).isEqualTo(HealthProbeService.Status.DOWN);
+        assertThat(snapshot.database()).containsEntry("error", "Connection refused");
+    }
+
+    @Test
+    @DisplayName("should not wait for a connection when the pool has none free")
+    void shouldSkipPingWhenPoolBusy() throws Exception {
+        HikariDataSource hikari = mock(HikariDataSource.class);
+        HikariPoolMXBean pool = mock(HikariPoolMXBean.class);
+        when(dataSource.isWrapperFor(HikariDataSource.class)).thenReturn(true);
+        when(dataSource.unwrap(HikariDataSource.class)).thenReturn(hikari);
+        when(hikari.getHikariPoolMXBean()).thenReturn(pool);
+        when(hikari.getMaximumPoolSize()).thenReturn(10);
+        when(pool.getActiveConnections()).thenReturn(10);
+        when(pool.getTotalConnections()).thenReturn(10);
+
+        HealthProbeService.Snapshot snapshot = healthProbeService.probe();
+
+        verify(dataSource, never()).getConnection();
+        assertThat(snapshot.database()).containsKey("skipped");
+        assertThat(snapshot.status()).isEqualTo(HealthProbeService.Status.DOWN);
+    }
+}
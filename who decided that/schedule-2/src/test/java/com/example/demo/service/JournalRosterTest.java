@@ -0,0 +1,84 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.AttendanceDTO;
+import com.example.demo.dto.GradeDTO;
+import com.example.demo.dto.ScheduleDTO;
+import com.example.demo.dto.UserDTO;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("JournalRoster Tests")
+class JournalRosterTest {
+
+    private static ScheduleDTO lesson(String id, String subject) {
+        ScheduleDTO s = new ScheduleDTO();
+        s.setScheduleId(id);
+        s.setSubject(subject);
+        s.setStartTime(LocalTime.of(9, 0));
+        s.setEndTime(LocalTime.of(9, 45));
+        return s;
+    }
+
+    private static UserDTO student(String id) {
+        UserDTO u = new UserDTO();
+        u.setUserId(id);
+        u.setFullName("Student " + id);
+        return u;
+    }
+
+    private static GradeDTO grade(long id, String studentId, String subject, int value) {
+        GradeDTO g = new GradeDTO();
+        g.setId(id);
+        g.setStudentId(studentId);
+        g.setSubject(subject);
+        g.setGradeValue(value);
+        return g;
+    }
+
+    @Test
+    @DisplayName("should match grades and attendance by student and subject")
+    @SuppressWarnings("unchecked")
+    void shouldMatchByStudentAndSubject() {
+        AttendanceDTO absent = new AttendanceDTO();
+        absent.setId(7L);
+        absent.setStudentId("s2");
+        absent.setSubject("Физика");
+        absent.setStatus("absent");
+
+        List<Map<String, Object>> lessons = JournalRoster.buildLessons(
+                List.of(lesson("l1", "Математика"), lesson("l2", "Физика")),
+                List.of(student("s1"), student("s2")),
+                List.of(grade(1, "s1", "Математика", 5), grade(2, "s2", "Физика", 3)),
+                List.of(absent));
+
+        assertThat(lessons).hasSize(2);
+        List<Map<String, Object>> math = (List<Map<String, Object>>) lessons.get(0).get("roster");
+        assertThat(math.get(0)).containsEntry("gradeValue", 5).containsEntry("attendanceStatus", null);
+        assertThat(math.get(1)).containsEntry("gradeValue", null);
+        List<Map<String, Object>> physics = (List<Map<String, Object>>) lessons.get(1).get("roster");
+        assertThat(physics.get(0)).containsEntry("gradeValue", null);
+        assertThat(physics.get(1)).containsEntry("gradeValue", 3)
+                .containsEntry("attendanceStatus", "absent")
+                .containsEntry("attendanceId", 7L);
+    }
+
+    @Test
+    @DisplayName("should keep the first grade when a student has several for the subject")
+    @SuppressWarnings("unchecked")
+    void shouldKeepFirstMatch() {
+        List<Map<String, Object>> lessons = JournalRoster.buildLessons(
+                List.of(lesson("l1", "Математика")),
+                List.of(student("s1")),
+                List.of(grade(1, "s1", "Математика", 4), grade(2, "s1", "Математика", 5)),
+                List.of());
+
+        List<Map<String, Object>> roster = (List<Map<String, Object>>) lessons.get(0).get("roster");
+        assertThat(roster.get(0)).containsEntry("gradeId", 1L).containsEntry("gradeValue", 4);
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.demo.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.logging.LogLevel;
+import org.springframework.boot.logging.LoggerConfiguration;
+import org.springframework.boot.logging.LoggingSystem;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("LogLevelService Tests")
+class LogLevelServiceTest {
+
+    private static final String LOGGER = "com.example.demo.service";
+
+    @Mock
+    private LoggingSystem loggingSystem;
+
+    private LogLevelService logLevelService;
+
+    @BeforeEach
+    void setUp() {
+        logLevelService = new LogLevelService(loggingSystem);
+    }
+
+    @AfterEach
+    void tearDown() {
+        logLevelService.shutdown();
+    }
+
+    @Test
+    @DisplayName("should set level and revert to previous configured level after duration")
+    void shouldRevertAfterDuration() {
+        when(loggingSystem.getLoggerConfiguration(LOGGER))
+                .thenReturn(new LoggerConfiguration(LOGGER, LogLevel.INFO, LogLevel.INFO));
+
+        Map<String, Object> result = logLevelService.setLevel(LOGGER, "debug", 1);
+
+        assertThat(result).containsEntry("level", "DEBUG").containsEntry("previous", "INFO");
+        verify(loggingSystem).setLogLevel(LOGGER, LogLevel.DEBUG);
+        verify(loggingSystem, timeout(3000)).setLogLevel(LOGGER, LogLevel.INFO);
+        assertThat(logLevelService.list()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("should keep original level when override is replaced")
+    void shouldKeepOriginalLevelOnReplace() {
+        when(loggingSystem.getLoggerConfiguration(LOGGER))
+                .thenReturn(new LoggerConfiguration(LOGGER, null, LogLevel.WARN));
+
+        logLevelService.setLevel(LOGGER, "DEBUG", 600);
+        logLevelService.setLevel(LOGGER, "TRACE", 600);
+
+        assertThat(logLevelService.list()).singleElement()
+                .satisfies(m -> assertThat(m).containsEntry("level", "TRACE").containsEntry("previous", null));
+        assertThat(logLevelService.revert(LOGGER)).isTrue();
+        verify(loggingSystem, times(1)).getLoggerConfiguration(LOGGER);
+        verify(loggingSystem).setLogLevel(LOGGER, null);
+        assertThat(logLevelService.revert(LOGGER)).isFalse();
+    }
+
+    @Test
+    @DisplayName("should not let an already running revert task drop the override that replaced it")
+    void shouldIgnoreStaleRevertTask() throws InterruptedException {
+        when(loggingSystem.getLoggerConfiguration(LOGGER))
+                .thenReturn(new LoggerConfiguration(LOGGER, LogLevel.INFO, LogLevel.INFO));
+
+        logLevelService.setLevel(LOGGER, "DEBUG", 1);
+        synchronized (logLevelService) {
+            // Задача отката первого изменения запускается и ждёт монитор
+            Thread.sleep(1500);
+            logLevelService.setLevel(LOGGER, "TRACE", 600);
+        }
+        Thread.sleep(300);
+
+        assertThat(logLevelService.list()).singleElement()
+                .satisfies(m -> assertThat(m).containsEntry("level", "TRACE"));
+        verify(loggingSystem, never()).setLogLevel(LOGGER, LogLevel.INFO);
+    }
+
+    @Test
+    @DisplayName("should reject unknown level")
+    void shouldRejectUnknownLevel() {
+        assertThatThrownBy(() -> logLevelService.setLevel(LOGGER, "VERBOSE", 60))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("VERBOSE");
+    }
+}
@@ -0,0 +1,207 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.Schedule;
+import com.example.demo.repository.ScheduleRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OccupancyIndex Tests")
+class OccupancyIndexTest {
+
+    @Mock
+    private ScheduleRepository scheduleRepository;
+
+    private OccupancyIndex index;
+
+    private record Row(String getScheduleId, String getGroupId, String getDayOfWeek, LocalTime getStartTime,
+                       LocalTime getEndTime, String getTeacher, String getRoom) implements ScheduleRepository.BookingRow {}
+
+    private static Row row(String id, String group, int hour, String teacher, String room) {
+        return new Row(id, group, "MONDAY", LocalTime.of(hour, 0), LocalTime.of(hour, 45), teacher, room);
+    }
+
+    @BeforeEach
+    void setUp() {
+        index = new OccupancyIndex(scheduleRepository);
+    }
+
+    @AfterEach
+    void tearDown() {
+        index.shutdown();
+    }
+
+    @Test
+    @DisplayName("should cover a lesson with one bit per 5-minute slot")
+    void shouldBuildSlotMask() {
+        long[] mask = OccupancyIndex.mask(DayOfWeek.MONDAY, LocalTime.of(9, 0), LocalTime.of(9, 45));
+        long[] sunday = OccupancyIndex.mask(DayOfWeek.SUNDAY, LocalTime.of(23, 0), LocalTime.of(23, 59));
+
+        assertThat(OccupancyIndex.WORDS).isEqualTo(32);
+        assertThat(Arrays.stream(mask).map(Long::bitCount).sum()).isEqualTo(9);
+        assertThat(Arrays.stream(sunday).map(Long::bitCount).sum()).isEqualTo(12);
+    }
+
+    @Nested
+    @DisplayName("conflict checks")
+    class ConflictTests {
+
+        @BeforeEach
+        void load() {
+            when(scheduleRepository.findBookings()).thenReturn(List.of(
+                    row("a", "group-1", 9, "Иванова", "101"),
+                    row("b", "group-2", 10, "Петров", "202")));
+        }
+
+        @Test
+        @DisplayName("should find the same teacher booked in another group")
+        void shouldFindTeacherConflict() {
+            List<OccupancyIndex.Conflict> conflicts = index.findConflicts(" иванова ", "303", "Monday",
+                    LocalTime.of(9, 30), LocalTime.of(10, 15), null);
+
+            assertThat(conflicts).singleElement().satisfies(c -> {
+                assertThat(c.type()).isEqualTo(OccupancyIndex.ResourceType.TEACHER);
+                assertThat(c.booking().scheduleId()).isEqualTo("a");
+                assertThat(c.describe()).contains("Иванова", "group-1");
+            });
+        }
+
+        @Test
+        @DisplayName("should allow back-to-back lessons and ignore the edited lesson")
+        void shouldAllowAdjacentAndSelf() {
+            assertThat(index.findConflicts("Иванова", "101", "MONDAY",
+                    LocalTime.of(9, 45), LocalTime.of(10, 30), null)).isEmpty();
+            assertThat(index.findConflicts("Иванова", "101", "MONDAY",
+                    LocalTime.of(9, 15), LocalTime.of(9, 50), "a")).isEmpty();
+            assertThat(index.findConflicts(null, "202", "TUESDAY",
+                    LocalTime.of(10, 0), LocalTime.of(10, 45), null)).isEmpty();
+        }
+
+        @Test
+        @DisplayName("should follow saved and deleted lessons")
+        void shouldStayInSync() {
+            index.findConflicts("Иванова", null, "MONDAY", LocalTime.of(8, 0), LocalTime.of(8, 30), null);
+
+            Schedule moved = new Schedule();
+            moved.setScheduleId("a");
+            moved.setGroupId("group-1");
+            moved.setDayOfWeek("MONDAY");
+            moved.setStartTime(LocalTime.of(12, 0));
+            moved.setEndTime(LocalTime.of(12, 45));
+            moved.setTeacher("Иванова");
+            index.onSaved(moved);
+            index.onDeleted("b");
+
+            assertThat(index.findConflicts("Иванова", null, "MONDAY",
+                    LocalTime.of(9, 0), LocalTime.of(9, 45), null)).isEmpty();
+            assertThat(index.findConflicts("Иванова", null, "MONDAY",
+                    LocalTime.of(12, 30), LocalTime.of(13, 0), null)).hasSize(1);
+            assertThat(index.findConflicts(null, "202", "MONDAY",
+                    LocalTime.of(10, 0), LocalTime.of(10, 45), null)).isEmpty();
+        }
+    }
+
+    @Test
+    @DisplayName("should not treat adjacent lessons off the 5-minute grid as a double booking")
+    void shouldCompareExactTimes() {
+        when(scheduleRepository.findBookings()).thenReturn(List.of(
+                new Row("a", "group-1", "MONDAY", LocalTime.of(9, 0), LocalTime.of(9, 47), "Иванова", "101"),
+                new Row("b", "group-2", "MONDAY", LocalTime.of(9, 48), LocalTime.of(10, 30), "Иванова", "101")));
+
+        assertThat(index.doubleBookings().get("conflictCount")).isEqualTo(0);
+        assertThat(index.findConflicts("Иванова", "101", "MONDAY",
+                LocalTime.of(10, 31), LocalTime.of(11, 15), null)).isEmpty();
+        assertThat(index.findConflicts("Иванова", null, "MONDAY",
+                LocalTime.of(9, 46), LocalTime.of(9, 48), null))
+                .singleElement().satisfies(c -> assertThat(c.booking().scheduleId()).isEqualTo("a"));
+    }
+
+    @Test
+    @DisplayName("should keep answering from the old snapshot while a rebuild runs in the background")
+    void shouldNotBlockOnRebuild() throws InterruptedException {
+        CountDownLatch rebuilding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(scheduleRepository.findBookings())
+                .thenReturn(List.of(row("a", "group-1", 9, "Иванова", "101")))
+                .thenAnswer(invocation -> {
+                    rebuilding.countDown();
+                    release.await(5, TimeUnit.SECONDS);
+                    return List.of(row("b", "group-2", 9, "Петров", "101"));
+                });
+        assertThat(index.findConflicts("Иванова", null, "MONDAY", LocalTime.of(9, 0), LocalTime.of(9, 45), null))
+                .hasSize(1);
+
+        CompletableFuture<Map<String, Object>> report = CompletableFuture.supplyAsync(index::doubleBookings);
+        assertThat(rebuilding.await(5, TimeUnit.SECONDS)).isTrue();
+        Schedule added = new Schedule();
+        added.setScheduleId("c");
+        added.setGroupId("group-3");
+        added.setDayOfWeek("MONDAY");
+        added.setStartTime(LocalTime.of(12, 0));
+        added.setEndTime(LocalTime.of(12, 45));
+        added.setTeacher("Сидоров");
+        index.onSaved(added);
+
+        assertThat(index.findConflicts("Иванова", null, "MONDAY", LocalTime.of(9, 0), LocalTime.of(9, 45), null))
+                .hasSize(1);
+        release.countDown();
+        assertThat(report.join()).containsEntry("lessons", 2);
+        assertThat(index.findConflicts("Иванова", null, "MONDAY", LocalTime.of(9, 0), LocalTime.of(9, 45), null))
+                .isEmpty();
+        assertThat(index.findConflicts("Сидоров", null, "MONDAY", LocalTime.of(12, 0), LocalTime.of(12, 45), null))
+                .hasSize(1);
+    }
+
+    @Test
+    @DisplayName("should offer only starts where group, teacher and room are all free")
+    void shouldFindFreeSlots() {
+        when(scheduleRepository.findBookings()).thenReturn(List.of(
+                new Row("a", "group-1", "MONDAY", LocalTime.of(8, 0), LocalTime.of(12, 0), "Иванова", "101"),
+                new Row("b", "group-2", "MONDAY", LocalTime.of(13, 0), LocalTime.of(17, 0), "Петров", "101"),
+                new Row("c", "group-3", "MONDAY", LocalTime.of(12, 45), LocalTime.of(18, 0), "Иванова", "202")));
+
+        Map<String, List<String>> slots = index.freeSlots("group-1", "Иванова", "101", 45, 15);
+
+        assertThat(slots).containsOnlyKeys("MONDAY", "TUESDAY", "WEDNESDAY", "THURSDAY", "FRIDAY");
+        assertThat(slots.get("MONDAY")).containsExactly("12:00");
+        assertThat(slots.get("TUESDAY")).startsWith("08:00", "08:15").endsWith("17:15");
+        assertThat(index.freeSlots("group-9", null, null, 45, 15).get("MONDAY")).hasSize(38);
+    }
+
+    @Test
+    @DisplayName("should report every double booking in one pass")
+    @SuppressWarnings("unchecked")
+    void shouldReportDoubleBookings() {
+        when(scheduleRepository.findBookings()).thenReturn(List.of(
+                row("a", "group-1", 9, "Иванова", "101"),
+                row("b", "group-2", 9, "Иванова", "102"),
+                row("c", "group-3", 9, "Петров", "101"),
+                row("d", "group-4", 11, "Иванова", "101")));
+
+        Map<String, Object> report = index.doubleBookings();
+
+        assertThat(report.get("conflictCount")).isEqualTo(2);
+        List<Map<String, Object>> conflicts = (List<Map<String, Object>>) report.get("conflicts");
+        assertThat(conflicts).extracting(c -> c.get("type")).containsExactlyInAnyOrder("TEACHER", "ROOM");
+        assertThat(report.get("teachers")).isEqualTo(2L);
+        assertThat(report.get("rooms")).isEqualTo(2L);
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.RefreshSession;
+import com.example.demo.entity.User;
+import com.example.demo.exception.InvalidRefreshTokenException;
+import com.example.demo.repository.RefreshSessionRepository;
+import com.example.demo.security.jwt.JwtUtils;
+import com.example.demo.security.services.TokenRevocationService;
+import com.example.demo.security.services.UserDetailsImpl;
+import com.example.demo.security.services.UserDetailsServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RefreshTokenService Tests")
+class RefreshTokenServiceTest {
+
+    @Mock
+    private RefreshSessionRepository refreshSessionRepository;
+
+    @Mock
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Mock
+    private TokenRevocationService tokenRevocationService;
+
+    private JwtUtils jwtUtils;
+    private RefreshTokenService refreshTokenService;
+    private UserDetailsImpl principal;
+
+    @BeforeEach
+    void setUp() {
+        jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", "test-secret-key-that-is-long-enough-for-hs256");
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 60_000);
+        ReflectionTestUtils.setField(jwtUtils, "jwtRefreshExpirationMs", 600_000L);
+        jwtUtils.init();
+        refreshTokenService = new RefreshTokenService(refreshSessionRepository, jwtUtils, userDetailsService, tokenRevocationService);
+        principal = UserDetailsImpl.build(
+                new User("user-1", "John Doe", "encoded", "john@example.com", "group-1", "USER"));
+    }
+
+    @Test
+    @DisplayName("should store new family on issue")
+    void shouldStoreNewFamilyOnIssue() {
+        String token = refreshTokenService.issue(principal);
+
+        ArgumentCaptor<RefreshSession> captor = ArgumentCaptor.forClass(RefreshSession.class);
+        verify(refreshSessionRepository).save(captor.capture());
+        RefreshSession session = captor.getValue();
+        assertThat(session.getUserId()).isEqualTo("user-1");
+        assertThat(jwtUtils.parseRefreshToken(token).getId()).isEqualTo(session.getCurrentJti());
+    }
+
+    @Nested
+    @DisplayName("rotate")
+    class RotateTests {
+
+        @Test
+        @DisplayName("should rotate current token without password check")
+        void shouldRotateCurrentToken() {
+            String token = jwtUtils.generateRefreshToken(principal, "family-1", "jti-1");
+            when(refreshSessionRepository.rotate(eq("family-1"), eq("jti-1"), anyString(), any(), any())).thenReturn(1);
+            when(userDetailsService.loadUserByUsername("john@example.com")).thenReturn(principal);
+
+            RefreshTokenService.Rotation rotation = refreshTokenService.rotate(token);
+
+            assertThat(rotation.principal()).isSameAs(principal);
+            assertThat(jwtUtils.parseRefreshToken(rotation.refreshToken()).getId()).isNotEqualTo("jti-1");
+        }
+
+        @Test
+        @DisplayName("should revoke family when used token is presented again")
+        void shouldRevokeFamilyOnReuse() {
+            String token = jwtUtils.generateRefreshToken(principal, "family-1", "jti-1");
+            when(refreshSessionRepository.rotate(eq("family-1"), eq("jti-1"), anyString(), any(), any())).thenReturn(0);
+
+            assertThatThrownBy(() -> refreshTokenService.rotate(token))
+                    .isInstanceOf(InvalidRefreshTokenException.class);
+            verify(refreshSessionRepository).revokeFamily("family-1");
+            assertThat(refreshTokenService.getRevokedStoreSize()).isEqualTo(1);
+
+            // Повторная попытка отклоняется из памяти, без UPDATE
+            assertThatThrownBy(() -> refreshTokenService.rotate(token))
+                    .isInstanceOf(InvalidRefreshTokenException.class);
+            verify(refreshSessionRepository).rotate(eq("family-1"), eq("jti-1"), anyString(), any(), any());
+        }
+
+        @Test
+        @DisplayName("should reject access token presented as refresh token")
+        void shouldRejectAccessToken() {
+            String access = jwtUtils.generateJwtToken(principal);
+
+            assertThatThrownBy(() -> refreshTokenService.rotate(access))
+                    .isInstanceOf(InvalidRefreshTokenException.class);
+            verify(refreshSessionRepository, never()).rotate(anyString(), anyString(), anyString(), any(), any());
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.Schedule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ScheduleImporter Tests")
+class ScheduleImporterTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ScheduleIntervalIndex scheduleIntervalIndex;
+
+    @Mock
+    private OccupancyIndex occupancyIndex;
+
+    @InjectMocks
+    private ScheduleImporter importer;
+
+    @BeforeEach
+    void setUp() {
+        when(jdbcTemplate.queryForList("SELECT group_id FROM grup", String.class)).thenReturn(List.of("g1", "g2"));
+    }
+
+    private static InputStream body(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<Object[]>> writtenChunks(int expected) {
+        ArgumentCaptor<List<Object[]>> chunks = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(expected)).batchUpdate(eq(SchoolDataGenerator.INSERT_SCHEDULE), chunks.capture());
+        return chunks.getAllValues();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Object> errorRows(Map<String, Object> report) {
+        return ((List<Map<String, Object>>) report.get("errors")).stream().map(e -> e.get("row")).toList();
+    }
+
+    @Nested
+    @DisplayName("CSV")
+    class CsvTests {
+
+        @Test
+        @DisplayName("should write valid rows in chunks and report every rejected row")
+        @SuppressWarnings("unchecked")
+        void shouldImportAndReportErrors() throws IOException {
+            ReflectionTestUtils.setField(importer, "chunkSize", 2);
+            String csv = """
+                    groupId,dayOfWeek,startTime,endTime,subject,teacher,room
+                    g1,MONDAY,9:00,9:45,Математика,Иванов,101
+                    g1,monday,10:00,10:45,Физика,Петров,102
+                    g2,TUESDAY,09:00,09:45,История,,
+                    g3,MONDAY,09:00,09:45,Физика,,
+                    g1,MONDAY,09:30,10:15,История,,
+                    g2,MONDAY,09:00,09:45,Химия,Иванов,
+                    g2,FRIDAY,11:00,10:00,Химия,,
+                    g2,FUNDAY,09:00,09:45,Химия,,
+                    """;
+
+            Map<String, Object> report = importer.importSchedule(body(csv), ScheduleImporter.Format.CSV, false);
+
+            assertThat(report).containsEntry("rows", 8).containsEntry("imported", 3)
+                    .containsEntry("rejected", 5).containsEntry("chunks", 2).containsEntry("aborted", false);
+            assertThat(errorRows(report)).containsExactly(4, 5, 6, 7, 8);
+            assertThat(report.get("errors").toString())
+                    .contains("Group not found: g3", "Overlaps row 1 of group g1 on MONDAY",
+                            "Teacher Иванов is booked twice", "End time must be after start time",
+                            "Invalid dayOfWeek 'FUNDAY'");
+            List<List<Object[]>> chunks = writtenChunks(2);
+            assertThat(chunks.get(0)).hasSize(2);
+            assertThat(chunks.get(1)).hasSize(1);
+            Object[] first = chunks.get(0).get(0);
+            assertThat(first).containsSequence("Математика", "g1", "MONDAY", LocalTime.of(9, 0), LocalTime.of(9, 45),
+                    "Математика", "Иванов", "101");
+            ArgumentCaptor<Collection<Schedule>> indexed = ArgumentCaptor.forClass(Collection.class);
+            verify(occupancyIndex, times(2)).onSavedAll(indexed.capture());
+            assertThat(indexed.getAllValues().get(0)).extracting(Schedule::getTeacher).containsExactly("Иванов", "Петров");
+            assertThat(indexed.getAllValues().get(1)).extracting(Schedule::getGroupId).containsExactly("g2");
+            verify(scheduleIntervalIndex, times(2)).onSavedAll(anyCollection());
+            verify(occupancyIndex, never()).invalidateAll();
+        }
+
+        @Test
+        @DisplayName("should accept back-to-back lessons of one teacher and room at unaligned times")
+        void shouldCompareExactTimesInFile() throws IOException {
+            String csv = """
+                    groupId,dayOfWeek,startTime,endTime,subject,teacher,room
+                    g1,MONDAY,09:00,09:47,Математика,Иванов,101
+                    g2,MONDAY,09:48,10:30,Математика,Иванов,101
+                    g2,MONDAY,10:29,11:00,Физика,Петров,101
+                    """;
+
+            Map<String, Object> report = importer.importSchedule(body(csv), ScheduleImporter.Format.CSV, false);
+
+            assertThat(report).containsEntry("imported", 2).containsEntry("rejected", 1);
+            assertThat(errorRows(report)).containsExactly(3);
+            assertThat(report.get("errors").toString()).contains("Overlaps row 2 of group g2 on MONDAY");
+        }
+
+        @Test
+        @DisplayName("should reject rows that clash with lessons already in the database")
+        void shouldCheckExistingLessons() throws IOException {
+            when(scheduleIntervalIndex.hasConflict(any(), any(), any(), any(), isNull()))
+                    .thenAnswer(invocation -> "g1".equals(invocation.getArgument(0)));
+            when(occupancyIndex.findConflicts(eq("Петров"), isNull(), eq("TUESDAY"), any(), any(), isNull()))
+                    .thenReturn(List.of(new OccupancyIndex.Conflict(OccupancyIndex.ResourceType.TEACHER, "Петров",
+                            new OccupancyIndex.Booking("s1", "g1", DayOfWeek.TUESDAY,
+                                    LocalTime.of(9, 0), LocalTime.of(9, 45)))));
+            String csv = """
+                    groupId,dayOfWeek,startTime,endTime,subject,teacher
+                    g1,MONDAY,09:00,09:45,Математика,
+                    g2,TUESDAY,09:00,09:45,Физика,Петров
+                    """;
+
+            Map<String, Object> report = importer.importSchedule(body(csv), ScheduleImporter.Format.CSV, false);
+
+            assertThat(report).containsEntry("imported", 0).containsEntry("rejected", 2);
+            assertThat(report.get("errors").toString())
+                    .contains("Overlaps an existing lesson of group g1", "Teacher Петров is already booked");
+            verify(jdbcTemplate, never()).batchUpdate(eq(SchoolDataGenerator.INSERT_SCHEDULE), anyList());
+            verify(scheduleIntervalIndex, never()).invalidateAll();
+        }
+
+        @Test
+        @DisplayName("should only validate on a dry run")
+        void shouldNotWriteOnDryRun() throws IOException {
+            String csv = "groupId,dayOfWeek,startTime,endTime,subject\ng1,MONDAY,09:00,09:45,Математика\n";
+
+            Map<String, Object> report = importer.importSchedule(body(csv), ScheduleImporter.Format.CSV, true);
+
+            assertThat(report).containsEntry("valid", 1).containsEntry("chunks", 0);
+            verify(jdbcTemplate, never()).batchUpdate(eq(SchoolDataGenerator.INSERT_SCHEDULE), anyList());
+        }
+
+        @Test
+        @DisplayName("should stream 50k rows in chunks of 1000")
+        void shouldImportLargeFile() throws IOException {
+            List<String> groups = new ArrayList<>();
+            StringBuilder csv = new StringBuilder("groupId,dayOfWeek,startTime,endTime,subject,room\n");
+            for (int g = 0; g < 2000; g++) {
+                groups.add("x" + g);
+                for (int d = 1; d <= 5; d++) {
+                    for (int lesson = 0; lesson < 5; lesson++) {
+                        csv.append("x").append(g).append(',').append(DayOfWeek.of(d)).append(',')
+                                .append(8 + lesson).append(":00,").append(8 + lesson).append(":45,Предмет ")
+                                .append(lesson).append(",R").append(g).append('\n');
+                    }
+                }
+            }
+            when(jdbcTemplate.queryForList("SELECT group_id FROM grup", String.class)).thenReturn(groups);
+
+            Map<String, Object> report = importer.importSchedule(body(csv.toString()), ScheduleImporter.Format.CSV, false);
+
+            assertThat(report).containsEntry("rows", 50_000).containsEntry("imported", 50_000)
+                    .containsEntry("rejected", 0).containsEntry("chunks", 50);
+            assertThat((Long) report.get("elapsedMs")).isLessThan(60_000);
+        }
+    }
+
+    @Nested
+    @DisplayName("JSON")
+    class JsonTests {
+
+        @Test
+        @DisplayName("should accept snake_case aliases and take the subject from the title")
+        void shouldImportJsonArray() throws IOException {
+            String json = """
+                    [{"group_id": "g1", "day": "wednesday", "start": "08:00", "end": "08:45", "title": "Алгебра"},
+                     {"groupId": "g2", "dayOfWeek": "THURSDAY", "startTime": "12:00", "endTime": "12:45",
+                      "subject": "Физика", "room": "201", "extra": 1}]
+                    """;
+
+            Map<String, Object> report = importer.importSchedule(body(json), ScheduleImporter.Format.JSON, false);
+
+            assertThat(report).containsEntry("rows", 2).containsEntry("imported", 2);
+            Object[] first = writtenChunks(1).get(0).get(0);
+            assertThat(first[3]).isEqualTo("WEDNESDAY");
+            assertThat(first[6]).isEqualTo("Алгебра");
+        }
+
+        @Test
+        @DisplayName("should stop at malformed input and keep the rows read before it")
+        void shouldAbortOnMalformedJson() throws IOException {
+            String json = """
+                    [{"groupId": "g1", "dayOfWeek": "MONDAY", "startTime": "09:00", "endTime": "09:45", "subject": "A"},
+                     {"groupId": ]
+                    """;
+
+            Map<String, Object> report = importer.importSchedule(body(json), ScheduleImporter.Format.JSON, false);
+
+            assertThat(report).containsEntry("aborted", true).containsEntry("imported", 1);
+            assertThat(errorRows(report)).containsExactly(2);
+            writtenChunks(1);
+        }
+
+        @Test
+        @DisplayName("should stop writing after a chunk fails")
+        void shouldAbortOnWriteFailure() throws IOException {
+            ReflectionTestUtils.setField(importer, "chunkSize", 1);
+            when(jdbcTemplate.batchUpdate(eq(SchoolDataGenerator.INSERT_SCHEDULE), anyList()))
+                    .thenThrow(new DataIntegrityViolationException("value too long"));
+            String json = """
+                    [{"groupId": "g1", "dayOfWeek": "MONDAY", "startTime": "09:00", "endTime": "09:45", "subject": "A"},
+                     {"groupId": "g1", "dayOfWeek": "MONDAY", "startTime": "10:00", "endTime": "10:45", "subject": "B"}]
+                    """;
+
+            Map<String, Object> report = importer.importSchedule(body(json), ScheduleImporter.Format.JSON, false);
+
+            assertThat(report).containsEntry("aborted", true).containsEntry("imported", 0).containsEntry("rows", 1);
+            assertThat(report.get("errors").toString()).contains("value too long");
+            writtenChunks(1);
+        }
+    }
+}
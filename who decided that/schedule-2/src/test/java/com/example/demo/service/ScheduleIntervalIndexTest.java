@@ -0,0 +1,132 @@
+package com.example.demo.service;
+
+import com.example.demo.entity.Schedule;
+import com.example.demo.repository.ScheduleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ScheduleIntervalIndex Tests")
+class ScheduleIntervalIndexTest {
+
+    @Mock
+    private ScheduleRepository scheduleRepository;
+
+    private ScheduleIntervalIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new ScheduleIntervalIndex(scheduleRepository);
+    }
+
+    private static Schedule lesson(String id, String day, int startHour, int startMinute, int endHour, int endMinute) {
+        Schedule s = new Schedule();
+        s.setScheduleId(id);
+        s.setGroupId("group-1");
+        s.setDayOfWeek(day);
+        s.setStartTime(LocalTime.of(startHour, startMinute));
+        s.setEndTime(LocalTime.of(endHour, endMinute));
+        return s;
+    }
+
+    private void loadMonday(Schedule... lessons) {
+        when(scheduleRepository.findByGroupIdAndDayOfWeek("group-1", "MONDAY")).thenReturn(List.of(lessons));
+        index.hasConflict("group-1", "MONDAY", LocalTime.of(7, 0), LocalTime.of(7, 30), null);
+    }
+
+    @Nested
+    @DisplayName("cache miss")
+    class CacheMissTests {
+
+        @Test
+        @DisplayName("should load the day with one query and answer from it")
+        void shouldLoadDayOnce() {
+            Schedule existing = lesson("a", "MONDAY", 9, 0, 9, 45);
+            when(scheduleRepository.findByGroupIdAndDayOfWeek("group-1", "MONDAY")).thenReturn(List.of(existing));
+
+            boolean conflict = index.hasConflict("group-1", "monday", LocalTime.of(9, 30), LocalTime.of(10, 0), "b");
+            boolean again = index.hasConflict("group-1", "MONDAY", LocalTime.of(9, 30), LocalTime.of(10, 0), "b");
+
+            assertThat(conflict).isTrue();
+            assertThat(again).isTrue();
+            verify(scheduleRepository, times(1)).findByGroupIdAndDayOfWeek("group-1", "MONDAY");
+            verify(scheduleRepository, never()).findConflictingSchedulesExcludingId(anyString(), anyString(),
+                    any(), any(), anyString());
+        }
+
+        @Test
+        @DisplayName("should not cache a day that changed while it was loading")
+        void shouldNotLoseConcurrentSave() {
+            when(scheduleRepository.findByGroupIdAndDayOfWeek("group-1", "MONDAY")).thenAnswer(invocation -> {
+                // Урок коммитится после чтения дня, но до его публикации
+                index.onSaved(lesson("late", "MONDAY", 11, 0, 11, 45));
+                return List.of(lesson("a", "MONDAY", 9, 0, 9, 45));
+            }).thenReturn(List.of(lesson("a", "MONDAY", 9, 0, 9, 45), lesson("late", "MONDAY", 11, 0, 11, 45)));
+
+            index.hasConflict("group-1", "MONDAY", LocalTime.of(7, 0), LocalTime.of(7, 30), null);
+
+            assertThat(index.hasConflict("group-1", "MONDAY", LocalTime.of(11, 0), LocalTime.of(11, 30), null)).isTrue();
+            verify(scheduleRepository, times(2)).findByGroupIdAndDayOfWeek("group-1", "MONDAY");
+        }
+    }
+
+    @Nested
+    @DisplayName("overlap queries")
+    class OverlapTests {
+
+        @BeforeEach
+        void load() {
+            loadMonday(lesson("a", "MONDAY", 9, 0, 9, 45),
+                    lesson("b", "MONDAY", 10, 0, 10, 45),
+                    lesson("long", "MONDAY", 12, 0, 15, 0));
+        }
+
+        @Test
+        @DisplayName("should detect overlaps and allow back-to-back lessons")
+        void shouldDetectOverlaps() {
+            assertThat(index.hasConflict("group-1", "MONDAY", LocalTime.of(9, 30), LocalTime.of(10, 15), null)).isTrue();
+            assertThat(index.hasConflict("group-1", "MONDAY", LocalTime.of(9, 45), LocalTime.of(10, 0), null)).isFalse();
+            assertThat(index.hasConflict("group-1", "MONDAY", LocalTime.of(14, 0), LocalTime.of(14, 30), null)).isTrue();
+            assertThat(index.hasConflict("group-1", "MONDAY", LocalTime.of(15, 0), LocalTime.of(16, 0), null)).isFalse();
+        }
+
+        @Test
+        @DisplayName("should not count the edited lesson as its own conflict")
+        void shouldExcludeEditedLesson() {
+            assertThat(index.hasConflict("group-1", "MONDAY", LocalTime.of(9, 10), LocalTime.of(9, 55), "a")).isFalse();
+            assertThat(index.hasConflict("group-1", "MONDAY", LocalTime.of(9, 10), LocalTime.of(10, 5), "a")).isTrue();
+        }
+
+        @Test
+        @DisplayName("should follow created, moved and deleted lessons")
+        void shouldStayInSync() {
+            index.onSaved(lesson("c", "MONDAY", 11, 0, 11, 45));
+            assertThat(index.hasConflict("group-1", "MONDAY", LocalTime.of(11, 30), LocalTime.of(11, 50), null)).isTrue();
+
+            index.onSaved(lesson("a", "TUESDAY", 9, 0, 9, 45));
+            assertThat(index.hasConflict("group-1", "MONDAY", LocalTime.of(9, 0), LocalTime.of(9, 45), null)).isFalse();
+
+            index.onDeleted("b");
+            assertThat(index.hasConflict("group-1", "MONDAY", LocalTime.of(10, 0), LocalTime.of(10, 45), null)).isFalse();
+            verify(scheduleRepository, never()).findConflictingSchedules(eq("group-1"), eq("MONDAY"),
+                    eq(LocalTime.of(10, 0)), any());
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.ScheduleDTO;
+import com.example.demo.entity.Group;
+import com.example.demo.entity.Schedule;
+import com.example.demo.repository.GroupRepository;
+import com.example.demo.repository.ScheduleRepository;
+import com.example.demo.security.services.UserDetailsServiceImpl;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ScheduleService Tests")
+class ScheduleServiceTest {
+
+    @Mock
+    private ScheduleRepository scheduleRepository;
+
+    @Mock
+    private UserDetailsServiceImpl userDetailsService;
+
+    @Mock
+    private GroupRepository groupRepository;
+
+    @Mock
+    private ScheduleIntervalIndex scheduleIntervalIndex;
+
+    @Mock
+    private OccupancyIndex occupancyIndex;
+
+    @InjectMocks
+    private ScheduleService scheduleService;
+
+    private static Group group(String groupId) {
+        return new Group(groupId, "schedule-1", groupId, null, Map.of());
+    }
+
+    @Nested
+    @DisplayName("seedScheduleForAllGroups")
+    class SeedTests {
+
+        @Test
+        @DisplayName("should check existing schedules with one query and save new lessons in one call")
+        @SuppressWarnings("unchecked")
+        void shouldSeedOnlyGroupsWithoutSchedule() {
+            when(groupRepository.findAll()).thenReturn(List.of(group("g1"), group("g2"), group("g3")));
+            when(scheduleRepository.findScheduledGroupIds()).thenReturn(List.of("g2"));
+
+            int created = scheduleService.seedScheduleForAllGroups();
+
+            ArgumentCaptor<List<Schedule>> saved = ArgumentCaptor.forClass(List.class);
+            verify(scheduleRepository).saveAll(saved.capture());
+            assertThat(created).isEqualTo(50);
+            assertThat(saved.getValue()).hasSize(50)
+                    .allMatch(Schedule::isNew)
+                    .extracting(Schedule::getGroupId).containsOnly("g1", "g3");
+            verify(scheduleRepository, never()).findByGroupId(anyString());
+            verify(scheduleRepository, never()).save(any());
+            verify(scheduleIntervalIndex, times(1)).invalidateAll();
+            verify(occupancyIndex, times(1)).invalidateAll();
+        }
+
+        @Test
+        @DisplayName("should not touch indexes when every group already has a schedule")
+        void shouldSkipWhenAllScheduled() {
+            when(groupRepository.findAll()).thenReturn(List.of(group("g1")));
+            when(scheduleRepository.findScheduledGroupIds()).thenReturn(List.of("g1"));
+
+            assertThat(scheduleService.seedScheduleForAllGroups()).isZero();
+            verify(scheduleIntervalIndex, never()).invalidateAll();
+        }
+    }
+
+    @Nested
+    @DisplayName("Schedule as Persistable")
+    class PersistableTests {
+
+        @Test
+        @DisplayName("should be new before the first save and expose scheduleId as id")
+        void shouldStartAsNew() {
+            Schedule schedule = new Schedule();
+            schedule.setScheduleId("lesson-1");
+
+            assertThat(schedule.isNew()).isTrue();
+            assertThat(schedule.getId()).isEqualTo("lesson-1");
+        }
+
+        @Test
+        @DisplayName("should still map scheduleId and title to the DTO")
+        void shouldConvertToDto() {
+            Schedule schedule = new Schedule();
+            schedule.setScheduleId("lesson-1");
+            schedule.setScheduleName("Math");
+            schedule.setGroupId("g1");
+            schedule.setDayOfWeek("MONDAY");
+            schedule.setStartTime(LocalTime.of(9, 0));
+            schedule.setEndTime(LocalTime.of(9, 45));
+
+            ScheduleDTO dto = scheduleService.convertToDTO(schedule);
+
+            assertThat(dto.getScheduleId()).isEqualTo("lesson-1");
+            assertThat(dto.getGroupId()).isEqualTo("g1");
+            assertThat(dto.getData()).containsEntry("title", "Math");
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.SchoolGenerationRequest;
+import com.example.demo.repository.ScheduleRepository;
+import com.example.demo.security.services.PrincipalCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("SchoolDataGenerator Tests")
+class SchoolDataGeneratorTest {
+
+    // Понедельник: история за 14 дней — ровно две учебные недели (10 дней)
+    private static final LocalDate TODAY = LocalDate.of(2025, 9, 15);
+
+    private record Batch(String table, String sql, List<Object[]> rows) {}
+
+    private record BookingRow(String getScheduleId, String getGroupId, String getDayOfWeek, LocalTime getStartTime,
+                              LocalTime getEndTime, String getTeacher, String getRoom) implements ScheduleRepository.BookingRow {}
+
+    private final List<Batch> batches = new ArrayList<>();
+    private SchoolGenerationRequest request;
+
+    @BeforeEach
+    void setUp() {
+        request = new SchoolGenerationRequest();
+        request.setGroups(3);
+        request.setStudentsPerGroup(4);
+        request.setTeachersPerSubject(2);
+        request.setSubjects(3);
+        request.setLessonsPerDay(2);
+        request.setDays(14);
+        request.setNews(5);
+        request.setBatchSize(100);
+    }
+
+    private Map<String, Long> emit() {
+        return SchoolDataGenerator.emit(request, (table, sql, rows) -> batches.add(new Batch(table, sql, rows)),
+                "hash", TODAY);
+    }
+
+    @Test
+    @DisplayName("should produce the configured volume per table")
+    void shouldProduceConfiguredVolume() {
+        Map<String, Long> rows = emit();
+
+        assertThat(rows.get("schedule")).isEqualTo(3L * 5 * 2);
+        assertThat(rows.get("grup")).isEqualTo(3L + 1);
+        assertThat(rows.get("users")).isEqualTo(3L * 2 + 3L * 4);
+        assertThat(rows.get("attendance")).isEqualTo(3L * 4 * 2 * 10);
+        assertThat(rows.get("homework")).isEqualTo(3L * 3 * 2);
+        assertThat(rows.get("news")).isEqualTo(5L);
+        assertThat(rows.get("grades")).isPositive().isLessThan(rows.get("attendance"));
+        assertThat(batches).allMatch(b -> b.rows().size() <= 100);
+        assertThat(batches.stream().mapToLong(b -> b.rows().size()).sum())
+                .isEqualTo(rows.values().stream().mapToLong(Long::longValue).sum());
+    }
+
+    @Test
+    @DisplayName("should write parent tables completely before dependent ones")
+    void shouldWriteParentsFirst() {
+        request.setStudentsPerGroup(60);
+        emit();
+
+        List<String> order = batches.stream().map(Batch::table).distinct().toList();
+        assertThat(order).containsSubsequence("schedule", "grup", "users", "grades", "news");
+        int lastUsers = 0;
+        int firstDependent = Integer.MAX_VALUE;
+        for (int i = 0; i < batches.size(); i++) {
+            String table = batches.get(i).table();
+            if (table.equals("users")) {
+                lastUsers = i;
+            } else if (!table.equals("schedule") && !table.equals("grup")) {
+                firstDependent = Math.min(firstDependent, i);
+            }
+        }
+        assertThat(lastUsers).isLessThan(firstDependent);
+    }
+
+    @Test
+    @DisplayName("should keep ids within column limits and under the prefix")
+    void shouldKeepIdsShortAndPrefixed() {
+        request.setGroups(10000);
+        request.setStudentsPerGroup(1);
+        request.setDays(0);
+        request.setNews(0);
+        emit();
+
+        batches.stream().filter(b -> b.table().equals("grup")).flatMap(b -> b.rows().stream()).forEach(row -> {
+            assertThat((String) row[0]).startsWith("gen-").hasSizeLessThanOrEqualTo(20);
+            assertThat((String) row[1]).startsWith("gen-").hasSizeLessThanOrEqualTo(20);
+        });
+        batches.stream().filter(b -> b.table().equals("users")).flatMap(b -> b.rows().stream())
+                .forEach(row -> assertThat((String) row[0]).startsWith("gen-"));
+    }
+
+    @Test
+    @DisplayName("should not double-book teachers or rooms")
+    void shouldGenerateTimetableWithoutDoubleBookings() {
+        request.setGroups(100);
+        request.setSubjects(8);
+        request.setLessonsPerDay(6);
+        request.setStudentsPerGroup(1);
+        request.setDays(0);
+        request.setNews(0);
+        emit();
+
+        List<ScheduleRepository.BookingRow> bookings = batches.stream()
+                .filter(b -> b.table().equals("schedule"))
+                .flatMap(b -> b.rows().stream())
+                .<ScheduleRepository.BookingRow>map(row -> new BookingRow((String) row[0], (String) row[2],
+                        (String) row[3], (LocalTime) row[4], (LocalTime) row[5], (String) row[7], (String) row[8]))
+                .toList();
+        ScheduleRepository scheduleRepository = mock(ScheduleRepository.class);
+        when(scheduleRepository.findBookings()).thenReturn(bookings);
+
+        Map<String, Object> report = new OccupancyIndex(scheduleRepository).doubleBookings();
+
+        assertThat(report).containsEntry("lessons", 100 * 5 * 6).containsEntry("rooms", 100L)
+                .containsEntry("conflictCount", 0);
+    }
+
+    @Test
+    @DisplayName("should be deterministic for the same seed")
+    void shouldBeDeterministic() {
+        Map<String, Long> first = emit();
+        batches.clear();
+        Map<String, Long> second = emit();
+
+        assertThat(second).isEqualTo(first);
+    }
+
+    @Test
+    @DisplayName("should refuse to purge a prefix the generator did not create")
+    void shouldPurgeOnlyGeneratedPrefixes() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        ScheduleIntervalIndex scheduleIntervalIndex = mock(ScheduleIntervalIndex.class);
+        OccupancyIndex occupancyIndex = mock(OccupancyIndex.class);
+        SchoolDataGenerator generator = new SchoolDataGenerator(jdbcTemplate, mock(PlatformTransactionManager.class),
+                mock(PasswordEncoder.class), mock(PrincipalCache.class), scheduleIntervalIndex, occupancyIndex);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), eq("admin-staff"), eq("Generated teachers"),
+                eq("admin-g00001-11"))).thenReturn(false);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Boolean.class), eq("load-staff"), eq("Generated teachers"),
+                eq("load-g00001-11"))).thenReturn(true);
+
+        assertThatThrownBy(() -> generator.purge("admin")).isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("was not created by the generator");
+        verify(jdbcTemplate, never()).update(anyString(), any(Object[].class));
+
+        generator.purge("load");
+
+        verify(jdbcTemplate).update("DELETE FROM grup WHERE group_id LIKE ?", "load-%");
+        verify(scheduleIntervalIndex).invalidateAll();
+        verify(occupancyIndex).invalidateAll();
+    }
+}
@@ -0,0 +1,110 @@
+package com.example.demo.service;
+
+import com.example.demo.dto.schedule.TimetableRequest;
+import com.example.demo.entity.Group;
+import com.example.demo.entity.User;
+import com.example.demo.repository.GroupRepository;
+import com.example.demo.repository.ScheduleRepository;
+import com.example.demo.repository.UserRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.sql.ResultSet;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TimetableGenerator Tests")
+class TimetableGeneratorTest {
+
+    @Mock
+    private GroupRepository groupRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private ScheduleRepository scheduleRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private ScheduleIntervalIndex scheduleIntervalIndex;
+
+    @Mock
+    private OccupancyIndex occupancyIndex;
+
+    @InjectMocks
+    private TimetableGenerator generator;
+
+    private record Row(String getScheduleId, String getGroupId, String getDayOfWeek, LocalTime getStartTime,
+                       LocalTime getEndTime, String getTeacher, String getRoom) implements ScheduleRepository.BookingRow {}
+
+    @Test
+    @DisplayName("should keep lessons of groups without hours as blocking and report unlinked grades")
+    @SuppressWarnings("unchecked")
+    void shouldBlockKeptLessonsAndReportUnlinkedGrades() throws Exception {
+        when(userRepository.countStudentsByGroup())
+                .thenReturn(List.of(new Object[]{"g1", 20L}, new Object[]{"g2", 20L}));
+        when(groupRepository.findAll()).thenReturn(List.of(
+                new Group("g1", "old-g1", "g1", null, Map.of()), new Group("g2", "old-g2", "g2", null, Map.of())));
+        // Урок g2 остаётся и занимает учителя на первом уроке (имя в другом регистре — тот же учитель);
+        // старый урок g1 заменяется и не мешает второму
+        when(scheduleRepository.findBookings()).thenReturn(List.of(
+                new Row("old-g2", "g2", "MONDAY", LocalTime.of(8, 30), LocalTime.of(9, 15), " иванова ", null),
+                new Row("old-g1", "g1", "MONDAY", LocalTime.of(9, 25), LocalTime.of(10, 10), "Иванова", null)));
+        User teacher = new User("t1", "Иванова", "hash", "t1@example.com", null, "TEACHER");
+        teacher.setSubject("Математика");
+        when(userRepository.findTeachers()).thenReturn(List.of(teacher));
+
+        ResultSet oldLesson = mock(ResultSet.class);
+        when(oldLesson.getString(1)).thenReturn("old-g1");
+        when(oldLesson.getString(2)).thenReturn("g1");
+        when(oldLesson.getString(3)).thenReturn("История");
+        doAnswer(invocation -> {
+            invocation.<RowCallbackHandler>getArgument(1).processRow(oldLesson);
+            return null;
+        }).when(jdbcTemplate).query(startsWith("SELECT schedule_id"), any(RowCallbackHandler.class), eq("g1"));
+        when(jdbcTemplate.batchUpdate(eq("UPDATE grades SET schedule_id = NULL WHERE schedule_id = ?"), anyList()))
+                .thenReturn(new int[]{3});
+
+        TimetableRequest request = new TimetableRequest();
+        request.setSubjectHours(Map.of("Математика", 1));
+        request.setGroupSubjectHours(Map.of("g2", Map.of()));
+        request.setDays(1);
+        request.setLessonsPerDay(2);
+        request.setTimeBudgetMs(500);
+
+        Map<String, Object> body = generator.generate(request);
+
+        assertThat(body).containsEntry("complete", true).containsEntry("persisted", true)
+                .containsEntry("replaced", 1).containsEntry("gradesUnlinked", 3);
+        ArgumentCaptor<List<Object[]>> inserted = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(eq(SchoolDataGenerator.INSERT_SCHEDULE), inserted.capture());
+        assertThat(inserted.getValue()).singleElement()
+                .satisfies(row -> assertThat(row).contains("g1", LocalTime.of(9, 25), "Иванова"));
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.demo.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("TimetableSolver Tests")
+class TimetableSolverTest {
+
+    private static final Map<String, Integer> HOURS = new LinkedHashMap<>();
+
+    static {
+        HOURS.put("Математика", 5);
+        HOURS.put("Русский язык", 5);
+        HOURS.put("Физика", 4);
+        HOURS.put("История", 4);
+        HOURS.put("Английский язык", 4);
+        HOURS.put("Биология", 4);
+    }
+
+    private static List<TimetableSolver.GroupSpec> groups(int count) {
+        List<TimetableSolver.GroupSpec> groups = new ArrayList<>();
+        for (int g = 0; g < count; g++) {
+            groups.add(new TimetableSolver.GroupSpec("g" + g, 20 + g % 10, HOURS));
+        }
+        return groups;
+    }
+
+    /** Учителей столько, чтобы у каждого было не больше 27 из 30 уроков недели. */
+    private static List<TimetableSolver.TeacherSpec> teachers(int groups) {
+        List<TimetableSolver.TeacherSpec> teachers = new ArrayList<>();
+        HOURS.forEach((subject, hours) -> {
+            int count = (int) Math.ceil(groups / Math.floor(27.0 / hours));
+            for (int i = 0; i < count; i++) {
+                teachers.add(new TimetableSolver.TeacherSpec(subject + i, subject + " " + i, subject, 0));
+            }
+        });
+        return teachers;
+    }
+
+    private static List<TimetableSolver.RoomSpec> rooms(int count) {
+        List<TimetableSolver.RoomSpec> rooms = new ArrayList<>();
+        for (int r = 0; r < count; r++) {
+            rooms.add(new TimetableSolver.RoomSpec(String.valueOf(100 + r), 25 + (r % 3) * 5, 0));
+        }
+        return rooms;
+    }
+
+    @Test
+    @DisplayName("should build a conflict-free week for a few hundred groups in parallel")
+    void shouldBuildConflictFreeTimetable() {
+        TimetableSolver solver = new TimetableSolver(groups(300), teachers(300), rooms(300), 5, 6, 2);
+
+        TimetableSolver.Result result = solver.solve(10_000, 7, 4);
+
+        assertThat(result.complete()).isTrue();
+        assertThat(result.problems()).isEmpty();
+        assertThat(result.placements()).hasSize(300 * 26);
+        Set<String> busy = new HashSet<>();
+        Map<String, Integer> perDay = new HashMap<>();
+        Map<String, Integer> perSubject = new HashMap<>();
+        for (TimetableSolver.Placement p : result.placements()) {
+            String slot = p.day() + "/" + p.period();
+            assertThat(busy.add("group " + p.groupId() + " " + slot)).isTrue();
+            assertThat(busy.add("teacher " + p.teacherId() + " " + slot)).isTrue();
+            assertThat(busy.add("room " + p.room() + " " + slot)).isTrue();
+            assertThat(p.teacherId()).startsWith(p.subject());
+            perDay.merge(p.groupId() + p.subject() + p.day(), 1, Integer::sum);
+            perSubject.merge(p.groupId() + p.subject(), 1, Integer::sum);
+        }
+        assertThat(perDay.values()).allMatch(n -> n <= 2);
+        assertThat(perSubject).containsEntry("g0Математика", 5).containsEntry("g299Биология", 4);
+        assertThat(result.elapsedMs()).isLessThan(10_000);
+    }
+
+    @Test
+    @DisplayName("should repeat the same timetable for the same seed on one worker")
+    void shouldBeDeterministicWithOneWorker() {
+        TimetableSolver first = new TimetableSolver(groups(20), teachers(20), rooms(20), 5, 6, 2);
+        TimetableSolver second = new TimetableSolver(groups(20), teachers(20), rooms(20), 5, 6, 2);
+
+        assertThat(first.solve(5_000, 3, 1).placements()).isEqualTo(second.solve(5_000, 3, 1).placements());
+    }
+
+    @Test
+    @DisplayName("should put a group only into rooms that fit it")
+    void shouldRespectRoomCapacity() {
+        List<TimetableSolver.GroupSpec> groups = List.of(
+                new TimetableSolver.GroupSpec("big", 40, Map.of("Физика", 3)),
+                new TimetableSolver.GroupSpec("small", 10, Map.of("Физика", 3)));
+        List<TimetableSolver.RoomSpec> rooms = List.of(
+                new TimetableSolver.RoomSpec("hall", 60, 0), new TimetableSolver.RoomSpec("lab", 12, 0));
+
+        TimetableSolver.Result result = new TimetableSolver(groups, teachers(2), rooms, 5, 6, 2).solve(1_000, 1, 1);
+
+        assertThat(result.complete()).isTrue();
+        assertThat(result.placements()).filteredOn(p -> p.groupId().equals("big"))
+                .allMatch(p -> p.room().equals("hall"));
+        assertThat(result.placements()).filteredOn(p -> p.groupId().equals("small"))
+                .allMatch(p -> p.room().equals("lab"));
+    }
+
+    @Nested
+    @DisplayName("constraints from outside the generated groups")
+    class BlockedTests {
+
+        @Test
+        @DisplayName("should keep lessons away from slots where the teacher is already busy")
+        void shouldSkipBlockedTeacherSlots() {
+            long mondayAndTuesday = (1L << 12) - 1;
+            List<TimetableSolver.TeacherSpec> teachers = List.of(
+                    new TimetableSolver.TeacherSpec("t1", "Teacher", "История", mondayAndTuesday));
+
+            TimetableSolver.Result result = new TimetableSolver(
+                    List.of(new TimetableSolver.GroupSpec("g", 20, Map.of("История", 4))),
+                    teachers, List.of(), 5, 6, 2).solve(1_000, 1, 1);
+
+            assertThat(result.complete()).isTrue();
+            assertThat(result.placements()).allMatch(p -> p.day() >= 2 && p.room() == null);
+        }
+
+        @Test
+        @DisplayName("should report subjects without a teacher and groups without a room")
+        void shouldReportUnplaceableLessons() {
+            List<TimetableSolver.GroupSpec> groups = List.of(
+                    new TimetableSolver.GroupSpec("g", 20, Map.of("Математика", 2, "Химия", 3)),
+                    new TimetableSolver.GroupSpec("huge", 90, Map.of("Математика", 2)));
+
+            TimetableSolver solver = new TimetableSolver(groups, teachers(2), rooms(3), 5, 6, 2);
+            TimetableSolver.Result result = solver.solve(1_000, 1, 1);
+
+            assertThat(solver.lessons()).isEqualTo(7);
+            assertThat(result.placements()).hasSize(2);
+            assertThat(result.unplaced()).isEqualTo(5);
+            assertThat(result.problems()).contains("No teacher for subject 'Химия'",
+                    "No room fits group huge (90 students)");
+        }
+
+        @Test
+        @DisplayName("should report teachers who cannot take all their hours")
+        void shouldReportOverbookedTeachers() {
+            List<TimetableSolver.TeacherSpec> teachers = List.of(
+                    new TimetableSolver.TeacherSpec("t1", "Teacher", "Математика", 0));
+
+            TimetableSolver.Result result = new TimetableSolver(groups(7), teachers, List.of(), 5, 6, 2)
+                    .solve(500, 1, 2);
+
+            assertThat(result.complete()).isFalse();
+            assertThat(result.unplaced()).isGreaterThanOrEqualTo(5);
+            assertThat(result.problems()).contains("Teachers of 'Математика' are overbooked by 5 lessons");
+        }
+    }
+
+    @Test
+    @DisplayName("should reject a week longer than 64 lessons")
+    void shouldRejectLongWeek() {
+        assertThatThrownBy(() -> new TimetableSolver(List.of(), List.of(), List.of(), 6, 11, 2))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -4,6 +4,8 @@ import com.example.demo.dto.UserDTO;
 import com.example.demo.entity.User;
 import com.example.demo.repository.GroupRepository;
 import com.example.demo.repository.UserRepository;
+import com.example.demo.security.services.PrincipalCache;
+import com.example.demo.security.services.TokenRevocationService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -39,6 +41,15 @@ class UserServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private PrincipalCache principalCache;
+
+    @Mock
+    private TokenRevocationService tokenRevocationService;
+
+    @Mock
+    private RefreshTokenService refreshTokenService;
+
     @InjectMocks
     private UserService userService;
 
@@ -239,6 +250,9 @@ class UserServiceTest {
             assertThat(result.get().getRole()).isEqualTo("TEACHER");
             assertThat(result.get().getSubject()).isEqualTo("Physics");
             verify(userRepository).save(testUser);
+            verify(principalCache).evictUser("user-1", "john@example.com");
+            verify(tokenRevocationService).revokeAll("user-1");
+            verify(refreshTokenService).revokeAllForUser("user-1");
         }
 
         @Test
@@ -277,6 +291,9 @@ class UserServiceTest {
 
             assertThat(result).isTrue();
             verify(userRepository).deleteById("user-1");
+            verify(principalCache).evictUser("user-1", null);
+            verify(tokenRevocationService).revokeAll("user-1");
+            verify(refreshTokenService).revokeAllForUser("user-1");
         }
 
         @Test
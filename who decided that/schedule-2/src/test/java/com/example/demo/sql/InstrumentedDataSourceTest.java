@@ -0,0 +1,107 @@
+package com.example.demo.sql;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("InstrumentedDataSource Tests")
+class InstrumentedDataSourceTest {
+
+    @Mock
+    private DataSource target;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private PreparedStatement statement;
+
+    @Mock
+    private ObjectProvider<SlowQueryLog> provider;
+
+    private SlowQueryLog slowQueryLog;
+    private InstrumentedDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        slowQueryLog = new SlowQueryLog();
+        ReflectionTestUtils.setField(slowQueryLog, "explainEnabled", false);
+        when(provider.getIfAvailable()).thenReturn(slowQueryLog);
+        when(target.getConnection()).thenReturn(connection);
+        dataSource = new InstrumentedDataSource(target, provider);
+    }
+
+    @Test
+    @DisplayName("should record statements slower than threshold with bind count")
+    @SuppressWarnings("unchecked")
+    void shouldRecordSlowStatement() throws Exception {
+        ReflectionTestUtils.setField(slowQueryLog, "thresholdMs", 0L);
+        when(connection.prepareStatement("select * from users where email_key = ? and role = ?")).thenReturn(statement);
+
+        try (Connection c = dataSource.getConnection();
+             PreparedStatement ps = c.prepareStatement("select * from users where email_key = ? and role = ?")) {
+            ps.setString(1, "user@example.com");
+            ps.setString(2, "ADMIN");
+            ps.executeQuery();
+        }
+
+        verify(statement).setString(1, "user@example.com");
+        verify(statement).executeQuery();
+        Map<String, Object> stats = slowQueryLog.stats(10);
+        assertThat(stats).containsEntry("slow", 1L);
+        List<Map<String, Object>> recent = (List<Map<String, Object>>) stats.get("recent");
+        assertThat(recent).singleElement().satisfies(entry -> {
+            assertThat(entry).containsEntry("bindCount", 2);
+            assertThat(entry).containsEntry("sql", "select * from users where email_key = ? and role = ?");
+        });
+    }
+
+    @Test
+    @DisplayName("should ignore statements faster than threshold")
+    void shouldIgnoreFastStatement() throws Exception {
+        when(connection.prepareStatement("select 1")).thenReturn(statement);
+
+        try (Connection c = dataSource.getConnection();
+             PreparedStatement ps = c.prepareStatement("select 1")) {
+            ps.executeQuery();
+        }
+
+        assertThat(slowQueryLog.stats(10)).containsEntry("slow", 0L);
+    }
+
+    @Test
+    @DisplayName("should add connection hold time to current request stats")
+    void shouldTrackConnectionHoldTime() throws Exception {
+        SqlRequestStats stats = SqlRequestStats.begin();
+        try {
+            Connection c = dataSource.getConnection();
+            Thread.sleep(5);
+            c.close();
+            c.close();
+        } finally {
+            SqlRequestStats.end();
+        }
+
+        verify(connection, times(2)).close();
+        assertThat(stats.getConnections()).isEqualTo(1);
+        assertThat(stats.getConnectionHoldNanos()).isGreaterThanOrEqualTo(5_000_000L);
+        assertThat(stats.getMaxConnectionHoldNanos()).isEqualTo(stats.getConnectionHoldNanos());
+    }
+}
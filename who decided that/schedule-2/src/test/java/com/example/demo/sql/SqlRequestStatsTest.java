@@ -0,0 +1,88 @@
+package com.example.demo.sql;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("SqlRequestStats Tests")
+class SqlRequestStatsTest {
+
+    private final SqlStatsInspector inspector = new SqlStatsInspector();
+
+    @AfterEach
+    void tearDown() {
+        SqlRequestStats.end();
+    }
+
+    @Nested
+    @DisplayName("statement counting")
+    class CountingTests {
+
+        @Test
+        @DisplayName("should count statements only inside a request")
+        void shouldCountOnlyInsideRequest() {
+            inspector.inspect("select 1");
+            SqlRequestStats stats = SqlRequestStats.begin();
+            inspector.inspect("select 1");
+            inspector.inspect("select 2");
+
+            assertThat(stats.getStatements()).isEqualTo(2);
+        }
+
+        @Test
+        @DisplayName("should group statements differing only in IN list size and whitespace")
+        void shouldGroupByShape() {
+            SqlRequestStats stats = SqlRequestStats.begin();
+            inspector.inspect("select u.* from users u where u.id in (?, ?)");
+            inspector.inspect("select u.*  from users u\n where u.id in (?,?,?)");
+            inspector.inspect("select g.* from groups g where g.id=?");
+
+            Map.Entry<String, Integer> top = stats.mostRepeated();
+
+            assertThat(top.getKey()).isEqualTo("select u.* from users u where u.id in (?…)");
+            assertThat(top.getValue()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    @DisplayName("should flag request with repeated statement shape")
+    @SuppressWarnings("unchecked")
+    void shouldFlagRepeatedShape() {
+        SqlStatsFilter filter = new SqlStatsFilter();
+        SqlRequestStats stats = SqlRequestStats.begin();
+        inspector.inspect("select n.* from news n");
+        for (int i = 0; i < 11; i++) {
+            inspector.inspect("select u.* from users u where u.user_id=?");
+        }
+        SqlRequestStats.end();
+
+        filter.complete("GET /api/news", stats);
+
+        Map<String, Object> result = filter.stats();
+        assertThat(result).containsEntry("flagged", 1L).containsEntry("statements", 12L);
+        List<Map<String, Object>> recent = (List<Map<String, Object>>) result.get("recentFlagged");
+        assertThat(recent).singleElement().satisfies(entry -> {
+            assertThat(entry).containsEntry("request", "GET /api/news");
+            assertThat(entry).containsEntry("repeatedCount", 11);
+        });
+    }
+
+    @Test
+    @DisplayName("should not flag request within budget")
+    void shouldNotFlagWithinBudget() {
+        SqlStatsFilter filter = new SqlStatsFilter();
+        SqlRequestStats stats = SqlRequestStats.begin();
+        inspector.inspect("select 1");
+        SqlRequestStats.end();
+
+        filter.complete("GET /api/groups", stats);
+
+        assertThat(filter.stats()).containsEntry("flagged", 0L).containsEntry("requests", 1L);
+    }
+}